@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -46,7 +46,6 @@ import org.springframework.util.StringUtils;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Map;
@@ -121,6 +120,15 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 
 	private transient Map<Method, ShadowMatch> shadowMatchCache = new ConcurrentHashMap<>(32);
 
+	@Nullable
+	private transient DeclaringTypePrefilter typePrefilter;
+
+	@Nullable
+	private transient String matchIndexKey;
+
+	@Nullable
+	private transient PointcutMatchIndex matchIndex;
+
 
 	/**
 	 * Create a new default AspectJExpressionPointcut.
@@ -222,6 +230,10 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 		if (this.pointcutExpression == null) {
 			// 选择类加载器
 			this.pointcutClassLoader = determinePointcutClassLoader();
+			this.typePrefilter = DeclaringTypePrefilter.forExpression(
+					replaceBooleanOperators(resolveExpression()), this.pointcutDeclarationScope, this.pointcutClassLoader);
+			this.matchIndexKey = buildMatchIndexKey(this.pointcutClassLoader);
+			this.matchIndex = loadMatchIndex(this.matchIndexKey, this.pointcutClassLoader);
 
 			// ⚠️构建底层AspectJ框架的切入点表达式对象（提示：不是Spring中的切入点表达式对象）
 			// 最终是返回一个PointcutExpression = PointcutExpressionImpl对象，里面保存了切入点表达式
@@ -230,6 +242,18 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 		return this.pointcutExpression/* PointcutExpressionImpl */;
 	}
 
+	/**
+	 * Load the pointcut match index for the given pointcut key, if any.
+	 */
+	@Nullable
+	private static PointcutMatchIndex loadMatchIndex(@Nullable String matchIndexKey, @Nullable ClassLoader classLoader) {
+		if (matchIndexKey == null) {
+			return null;
+		}
+		PointcutMatchIndex index = PointcutMatchIndexLoader.loadIndex(classLoader);
+		return (index != null && index.containsPointcut(matchIndexKey) ? index : null);
+	}
+
 	/**
 	 * Determine the ClassLoader to use for pointcut evaluation.
 	 */
@@ -331,6 +355,25 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 	 */
 	@Override
 	public boolean matches(Class<?> targetClass) {
+		obtainPointcutExpression();
+		if (this.typePrefilter != null && !this.typePrefilter.couldMatch(targetClass)) {
+			return false;
+		}
+		if (this.matchIndex != null && this.matchIndexKey != null) {
+			Boolean match = this.matchIndex.getClassMatch(this.matchIndexKey, targetClass);
+			if (match != null) {
+				return match;
+			}
+		}
+		return doMatches(targetClass);
+	}
+
+	/**
+	 * Match the given class through the AspectJ weaver,
+	 * bypassing the type pre-filter and the pointcut match index.
+	 * @see PointcutMatchIndexWriter
+	 */
+	boolean doMatches(Class<?> targetClass) {
 		// 获取当前的表达式对象
 		PointcutExpression pointcutExpression = obtainPointcutExpression();
 		try {
@@ -365,6 +408,22 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 		// 题外：因为这里不获取，所以是构建！
 		obtainPointcutExpression/* 获取切入点表达式 */();
 
+		if (this.matchIndex != null && this.matchIndexKey != null) {
+			Boolean match = this.matchIndex.getMethodMatch(this.matchIndexKey, method, targetClass, hasIntroductions);
+			if (match != null) {
+				return match;
+			}
+		}
+		return doMatches(method, targetClass, hasIntroductions);
+	}
+
+	/**
+	 * Match the given method through the AspectJ weaver,
+	 * bypassing the pointcut match index.
+	 * @see PointcutMatchIndexWriter
+	 */
+	boolean doMatches(Method method, Class<?> targetClass, boolean hasIntroductions) {
+		obtainPointcutExpression();
 		ShadowMatch shadowMatch = getTargetShadowMatch(method, targetClass);
 
 		// Special handling for this, target, @this, @target, @annotation
@@ -554,7 +613,7 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 							}
 						}
 						if (targetMethod != originalMethod && (shadowMatch == null ||
-								(shadowMatch.neverMatches() && Proxy.isProxyClass(targetMethod.getDeclaringClass())))) {
+								(shadowMatch.neverMatches() && ClassUtils.isInterfaceProxyClass(targetMethod.getDeclaringClass())))) {
 							// Fall back to the plain original method in case of no resolvable match or a
 							// negative match on a proxy class (which doesn't carry any annotations on its
 							// redeclared methods).
@@ -597,6 +656,47 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 	}
 
 
+	/**
+	 * Return the key of this pointcut in a {@link PointcutMatchIndex},
+	 * derived from the expression, the declaration scope and the parameters,
+	 * plus the bytecode of the declaration scope and the referenced types.
+	 * @return the key, or {@code null} if the match results of this pointcut
+	 * cannot be indexed per class (since it uses the {@code bean()} designator
+	 * or the bytecode of a referenced type is not accessible)
+	 */
+	@Nullable
+	String getMatchIndexKey() {
+		if (this.matchIndexKey != null) {
+			return this.matchIndexKey;
+		}
+		ClassLoader classLoader = (this.pointcutClassLoader != null ?
+				this.pointcutClassLoader : determinePointcutClassLoader());
+		return buildMatchIndexKey(classLoader);
+	}
+
+	@Nullable
+	private String buildMatchIndexKey(@Nullable ClassLoader classLoader) {
+		String expression = getExpression();
+		if (expression == null || expression.contains(BeanPointcutDesignatorHandler.BEAN_DESIGNATOR_NAME + "(")) {
+			return null;
+		}
+		long typesHash = PointcutMatchIndex.referencedTypesHash(
+				expression, this.pointcutDeclarationScope, classLoader);
+		if (typesHash == PointcutMatchIndex.NO_TYPE_HASH) {
+			return null;
+		}
+		StringBuilder sb = new StringBuilder(expression).append('|');
+		if (this.pointcutDeclarationScope != null) {
+			sb.append(this.pointcutDeclarationScope.getName());
+		}
+		for (int i = 0; i < this.pointcutParameterTypes.length; i++) {
+			sb.append('|').append(this.pointcutParameterTypes[i].getName());
+			sb.append(' ').append(this.pointcutParameterNames[i]);
+		}
+		return sb.append('|').append(Long.toHexString(typesHash)).toString();
+	}
+
+
 	@Override
 	public boolean equals(@Nullable Object other) {
 		if (this == other) {
@@ -0,0 +1,276 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.aspectj;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Cheap pre-filter for {@link AspectJExpressionPointcut}, rejecting target
+ * classes by name before the AspectJ weaver gets involved.
+ *
+ * <p>Derived from the literal package prefixes of the type patterns in
+ * top-level {@code execution} and {@code within} designators of a purely
+ * conjunctive expression, e.g. "com.example." for
+ * {@code execution(* com.example..*Service.*(..))}. A class can only match
+ * if its own name or the name of one of its superclasses or interfaces
+ * starts with each such prefix. Any other kind of expression leads to no
+ * pre-filter at all, leaving the decision to the weaver.
+ *
+ * <p>A dotted literal only counts as a prefix if it refers to a fully-qualified
+ * type or a known package in the pointcut's class loader. AspectJ resolves
+ * relative names such as {@code Outer.Inner} or
+ * {@code Thread.UncaughtExceptionHandler} against the package of the
+ * declaration scope and {@code java.lang}, so any such name disables the
+ * pre-filter for the entire expression.
+ *
+ * @since 5.2.9
+ */
+final class DeclaringTypePrefilter {
+
+	private static final String EXECUTION_DESIGNATOR = "execution(";
+
+	private static final String WITHIN_DESIGNATOR = "within(";
+
+
+	private final String[] prefixes;
+
+
+	private DeclaringTypePrefilter(String[] prefixes) {
+		this.prefixes = prefixes;
+	}
+
+
+	/**
+	 * Determine whether the given class could possibly match the pointcut.
+	 * @param targetClass the candidate class
+	 * @return {@code false} if the class cannot match, {@code true} if it might
+	 */
+	public boolean couldMatch(Class<?> targetClass) {
+		for (String prefix : this.prefixes) {
+			if (!hierarchyMatches(targetClass, prefix)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean hierarchyMatches(Class<?> targetClass, String prefix) {
+		Class<?> current = targetClass;
+		while (current != null) {
+			if (nameMatches(current, prefix)) {
+				return true;
+			}
+			current = current.getSuperclass();
+		}
+		for (Class<?> ifc : ClassUtils.getAllInterfacesForClassAsSet(targetClass)) {
+			if (nameMatches(ifc, prefix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean nameMatches(Class<?> clazz, String prefix) {
+		// AspectJ type patterns refer to nested classes in dot syntax
+		return clazz.getName().replace('$', '.').startsWith(prefix);
+	}
+
+
+	/**
+	 * Build a pre-filter for the given pointcut expression, if possible.
+	 * @param expression the pointcut expression, with boolean operators in symbolic form
+	 * @param declarationScope the declaration scope of the pointcut, if any
+	 * @param classLoader the class loader to resolve type names against
+	 * @return the pre-filter, or {@code null} if the expression does not
+	 * restrict the matching types by fully-qualified package or type names
+	 */
+	@Nullable
+	public static DeclaringTypePrefilter forExpression(
+			String expression, @Nullable Class<?> declarationScope, @Nullable ClassLoader classLoader) {
+
+		ClassLoader classLoaderToUse = (classLoader != null ? classLoader : ClassUtils.getDefaultClassLoader());
+		if (classLoaderToUse == null) {
+			return null;
+		}
+		List<String> conjuncts = splitConjuncts(expression);
+		if (conjuncts == null) {
+			return null;
+		}
+		List<String> prefixes = new ArrayList<>(conjuncts.size());
+		for (String conjunct : conjuncts) {
+			String typePattern = null;
+			if (conjunct.startsWith(EXECUTION_DESIGNATOR)) {
+				typePattern = extractDeclaringTypePattern(
+						conjunct.substring(EXECUTION_DESIGNATOR.length(), conjunct.length() - 1));
+			}
+			else if (conjunct.startsWith(WITHIN_DESIGNATOR)) {
+				typePattern = conjunct.substring(WITHIN_DESIGNATOR.length(), conjunct.length() - 1).trim();
+			}
+			if (typePattern != null) {
+				String prefix = extractPrefix(typePattern);
+				if (prefix != null) {
+					if (!isFullyQualified(prefix, declarationScope, classLoaderToUse)) {
+						// Possibly a relative type name: no reliable prefix for this expression
+						return null;
+					}
+					prefixes.add(prefix);
+				}
+			}
+		}
+		return (!prefixes.isEmpty() ? new DeclaringTypePrefilter(prefixes.toArray(new String[0])) : null);
+	}
+
+	/**
+	 * Split the expression into its top-level {@code &&} operands, each of them
+	 * a single designator enclosed in parentheses.
+	 * @return the trimmed operands, or {@code null} if the expression contains
+	 * top-level {@code ||} or {@code !} operators or any other kind of construct
+	 */
+	@Nullable
+	private static List<String> splitConjuncts(String expression) {
+		List<String> conjuncts = new ArrayList<>();
+		int depth = 0;
+		int start = 0;
+		for (int i = 0; i < expression.length(); i++) {
+			char c = expression.charAt(i);
+			if (c == '(') {
+				depth++;
+			}
+			else if (c == ')') {
+				depth--;
+				if (depth < 0) {
+					return null;
+				}
+			}
+			else if (depth == 0) {
+				if (c == '|' || c == '!') {
+					return null;
+				}
+				if (c == '&' && i + 1 < expression.length() && expression.charAt(i + 1) == '&') {
+					conjuncts.add(expression.substring(start, i).trim());
+					start = i + 2;
+					i++;
+				}
+			}
+		}
+		if (depth != 0) {
+			return null;
+		}
+		conjuncts.add(expression.substring(start).trim());
+		for (String conjunct : conjuncts) {
+			int openIndex = conjunct.indexOf('(');
+			if (openIndex == -1 || !conjunct.endsWith(")") || findClosingParenthesis(conjunct, openIndex) !=
+					conjunct.length() - 1) {
+				return null;
+			}
+		}
+		return conjuncts;
+	}
+
+	private static int findClosingParenthesis(String conjunct, int openIndex) {
+		int depth = 0;
+		for (int i = openIndex; i < conjunct.length(); i++) {
+			char c = conjunct.charAt(i);
+			if (c == '(') {
+				depth++;
+			}
+			else if (c == ')') {
+				depth--;
+				if (depth == 0) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Extract the declaring type pattern from a method signature pattern,
+	 * e.g. "com.example..*Service" from "* com.example..*Service.find*(..)".
+	 */
+	@Nullable
+	private static String extractDeclaringTypePattern(String signaturePattern) {
+		int paramsIndex = signaturePattern.indexOf('(');
+		if (paramsIndex == -1) {
+			return null;
+		}
+		String beforeParams = signaturePattern.substring(0, paramsIndex).trim();
+		int lastSpaceIndex = Math.max(beforeParams.lastIndexOf(' '), beforeParams.lastIndexOf('\t'));
+		String qualifiedName = beforeParams.substring(lastSpaceIndex + 1);
+		int lastDotIndex = qualifiedName.lastIndexOf('.');
+		return (lastDotIndex > 0 ? qualifiedName.substring(0, lastDotIndex) : null);
+	}
+
+	/**
+	 * Extract the literal package prefix of the given type pattern:
+	 * the full pattern for a plain type name, or the literal part up to
+	 * the last dot before the first wildcard or other operator.
+	 */
+	@Nullable
+	private static String extractPrefix(String typePattern) {
+		int literalEnd = 0;
+		while (literalEnd < typePattern.length()) {
+			char c = typePattern.charAt(literalEnd);
+			if (c == '.' && literalEnd + 1 < typePattern.length() && typePattern.charAt(literalEnd + 1) == '.') {
+				// "com.example..*" -> keep the first dot
+				literalEnd++;
+				break;
+			}
+			if (c != '.' && !Character.isJavaIdentifierPart(c)) {
+				break;
+			}
+			literalEnd++;
+		}
+		String literal = typePattern.substring(0, literalEnd);
+		if (literalEnd < typePattern.length()) {
+			literal = literal.substring(0, literal.lastIndexOf('.') + 1);
+		}
+		// Simple names might get resolved against imports: not a reliable prefix
+		return (literal.indexOf('.') > 0 ? literal : null);
+	}
+
+	/**
+	 * Determine whether the given prefix is fully qualified: its leading segment
+	 * must not resolve as a type relative to the declaration scope or
+	 * {@code java.lang}, and the prefix must denote a fully-qualified type
+	 * or a known package in the given class loader.
+	 */
+	private static boolean isFullyQualified(
+			String prefix, @Nullable Class<?> declarationScope, ClassLoader classLoader) {
+
+		String leadingSegment = prefix.substring(0, prefix.indexOf('.'));
+		if (ClassUtils.isPresent(leadingSegment, classLoader) ||
+				ClassUtils.isPresent("java.lang." + leadingSegment, classLoader)) {
+			return false;
+		}
+		if (declarationScope != null) {
+			String packageName = ClassUtils.getPackageName(declarationScope);
+			if (ClassUtils.isPresent(declarationScope.getName() + "$" + leadingSegment, classLoader) ||
+					(!packageName.isEmpty() && ClassUtils.isPresent(packageName + "." + leadingSegment, classLoader))) {
+				return false;
+			}
+		}
+		String name = (prefix.endsWith(".") ? prefix.substring(0, prefix.length() - 1) : prefix);
+		return (ClassUtils.isPresent(name, classLoader) ||
+				classLoader.getResource(ClassUtils.convertClassNameToResourcePath(name)) != null);
+	}
+
+}
@@ -0,0 +1,334 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.aspectj;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Pre-computed {@link AspectJExpressionPointcut} match results for the
+ * pointcuts and target classes of one or more index files, avoiding the
+ * AspectJ weaver for every indexed class and method.
+ *
+ * <p>Entries are keyed by pointcut (expression, declaration scope and
+ * parameters) and target class. The pointcut key includes a hash of the
+ * bytecode of the declaration scope and the types referenced by the expression,
+ * e.g. annotation types and classes declaring named pointcuts, and each class
+ * entry carries a hash of the bytecode of the class and its superclasses and
+ * interfaces. A result is therefore only used if none of these types has
+ * changed since the index was written. Methods or classes without a valid
+ * entry are matched through the weaver.
+ *
+ * @since 5.2.9
+ * @see PointcutMatchIndexLoader
+ * @see PointcutMatchIndexWriter
+ */
+public final class PointcutMatchIndex {
+
+	static final byte MATCH = 1;
+
+	static final byte MATCH_WITH_INTRODUCTIONS = 2;
+
+	static final long NO_TYPE_HASH = 0;
+
+	private static final Pattern TYPE_NAME_PATTERN = Pattern.compile("@?[A-Za-z_$][\\w$]*(?:\\.[A-Za-z_$][\\w$]*)*");
+
+	private static final Map<Class<?>, Long> typeHashCache = new ConcurrentReferenceHashMap<>(256);
+
+
+	private final Map<String, Map<String, IndexedType>> pointcuts = new HashMap<>(32);
+
+
+	PointcutMatchIndex() {
+	}
+
+
+	/**
+	 * Read the index entries from the given stream, in addition to the
+	 * entries read before. For a pointcut and class that are present in
+	 * several index files, the first entry wins.
+	 * @param inputStream the stream to read from (not closed)
+	 * @throws IOException in case of I/O errors or an unsupported format
+	 */
+	void read(InputStream inputStream) throws IOException {
+		DataInputStream data = new DataInputStream(new BufferedInputStream(inputStream));
+		if (data.readInt() != PointcutMatchIndexWriter.MAGIC) {
+			throw new IOException("Not a pointcut match index");
+		}
+		int version = data.readInt();
+		if (version != PointcutMatchIndexWriter.VERSION) {
+			throw new IOException("Unsupported pointcut match index version " + version);
+		}
+		int pointcutCount = data.readInt();
+		for (int i = 0; i < pointcutCount; i++) {
+			Map<String, IndexedType> types = this.pointcuts.computeIfAbsent(data.readUTF(), key -> new HashMap<>());
+			int typeCount = data.readInt();
+			for (int j = 0; j < typeCount; j++) {
+				String className = data.readUTF();
+				IndexedType indexedType = new IndexedType(data.readLong(), data.readBoolean());
+				int methodCount = data.readInt();
+				for (int k = 0; k < methodCount; k++) {
+					indexedType.methods.put(data.readUTF(), data.readByte());
+				}
+				types.putIfAbsent(className, indexedType);
+			}
+		}
+	}
+
+
+	/**
+	 * Return the number of pointcuts in this index.
+	 */
+	public int size() {
+		return this.pointcuts.size();
+	}
+
+	/**
+	 * Determine whether this index contains entries for the given pointcut.
+	 * @param pointcutKey the key of the pointcut, as derived from its
+	 * expression, declaration scope, parameters and referenced types
+	 */
+	public boolean containsPointcut(String pointcutKey) {
+		return this.pointcuts.containsKey(pointcutKey);
+	}
+
+	/**
+	 * Return the indexed class filter result for the given pointcut and class.
+	 * @param pointcutKey the key of the pointcut
+	 * @param targetClass the target class
+	 * @return the match result, or {@code null} if not indexed or outdated
+	 */
+	@Nullable
+	public Boolean getClassMatch(String pointcutKey, Class<?> targetClass) {
+		IndexedType indexedType = getIndexedType(pointcutKey, targetClass);
+		return (indexedType != null ? indexedType.classMatch : null);
+	}
+
+	/**
+	 * Return the indexed method matcher result for the given pointcut and method.
+	 * @param pointcutKey the key of the pointcut
+	 * @param method the candidate method
+	 * @param targetClass the target class
+	 * @param hasIntroductions whether the advisor chain contains introductions
+	 * @return the match result, or {@code null} if not indexed or outdated
+	 */
+	@Nullable
+	public Boolean getMethodMatch(String pointcutKey, Method method, Class<?> targetClass, boolean hasIntroductions) {
+		IndexedType indexedType = getIndexedType(pointcutKey, targetClass);
+		if (indexedType == null) {
+			return null;
+		}
+		Byte match = indexedType.methods.get(methodKey(method));
+		if (match == null) {
+			return null;
+		}
+		return ((match & (hasIntroductions ? MATCH_WITH_INTRODUCTIONS : MATCH)) != 0);
+	}
+
+	@Nullable
+	private IndexedType getIndexedType(String pointcutKey, Class<?> targetClass) {
+		Map<String, IndexedType> types = this.pointcuts.get(pointcutKey);
+		if (types == null) {
+			return null;
+		}
+		IndexedType indexedType = types.get(targetClass.getName());
+		if (indexedType == null || indexedType.typeHash != typeHash(targetClass)) {
+			return null;
+		}
+		return indexedType;
+	}
+
+
+	/**
+	 * Build the key for the given method, unique within its class hierarchy.
+	 */
+	static String methodKey(Method method) {
+		StringBuilder sb = new StringBuilder(method.getDeclaringClass().getName());
+		sb.append('#').append(method.getName()).append('(');
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		for (int i = 0; i < parameterTypes.length; i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append(parameterTypes[i].getTypeName());
+		}
+		return sb.append(')').toString();
+	}
+
+	/**
+	 * Compute the bytecode hash of the given declaration scope and of all types
+	 * that the given pointcut expression refers to, as far as they can be
+	 * resolved: qualified type names, classes declaring referenced named
+	 * pointcuts, and simple type names within the package of the declaration scope.
+	 * @return the hash, or {@link #NO_TYPE_HASH} if the bytecode of any of
+	 * these types is not accessible
+	 */
+	static long referencedTypesHash(String expression, @Nullable Class<?> declarationScope,
+			@Nullable ClassLoader classLoader) {
+
+		Set<String> typeNames = new TreeSet<>();
+		if (declarationScope != null) {
+			typeNames.add(declarationScope.getName());
+		}
+		Matcher matcher = TYPE_NAME_PATTERN.matcher(expression);
+		while (matcher.find()) {
+			String name = matcher.group();
+			boolean annotation = (name.charAt(0) == '@');
+			if (annotation) {
+				name = name.substring(1);
+			}
+			Class<?> type = resolveReferencedType(name, annotation, declarationScope, classLoader);
+			if (type != null) {
+				typeNames.add(type.getName());
+			}
+		}
+
+		CRC32 crc = new CRC32();
+		for (String typeName : typeNames) {
+			long typeHash;
+			try {
+				typeHash = typeHash(ClassUtils.forName(typeName, classLoader));
+			}
+			catch (ClassNotFoundException | LinkageError ex) {
+				return NO_TYPE_HASH;
+			}
+			if (typeHash == NO_TYPE_HASH) {
+				return NO_TYPE_HASH;
+			}
+			for (int i = 0; i < 8; i++) {
+				crc.update((int) (typeHash >>> (i * 8)));
+			}
+		}
+		// Never collide with NO_TYPE_HASH
+		return (crc.getValue() << 1) | 1;
+	}
+
+	@Nullable
+	private static Class<?> resolveReferencedType(String name, boolean annotation,
+			@Nullable Class<?> declarationScope, @Nullable ClassLoader classLoader) {
+
+		if (name.indexOf('.') == -1) {
+			// Simple names: annotation types and named pointcuts within the declaration scope
+			if (declarationScope == null || (!annotation && !Character.isUpperCase(name.charAt(0)))) {
+				return null;
+			}
+			String packageName = ClassUtils.getPackageName(declarationScope);
+			return resolveType((packageName.isEmpty() ? name : packageName + '.' + name), classLoader);
+		}
+		Class<?> type = resolveType(name, classLoader);
+		if (type == null) {
+			// Named pointcut reference: resolve the declaring class
+			type = resolveType(name.substring(0, name.lastIndexOf('.')), classLoader);
+		}
+		return type;
+	}
+
+	@Nullable
+	private static Class<?> resolveType(String name, @Nullable ClassLoader classLoader) {
+		try {
+			return ClassUtils.forName(name, classLoader);
+		}
+		catch (ClassNotFoundException | LinkageError ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Compute the bytecode hash of the given class and its superclasses and
+	 * interfaces, ignoring JDK types loaded by the bootstrap class loader.
+	 * @return the hash, or {@link #NO_TYPE_HASH} if the bytecode of any type in the
+	 * hierarchy is not accessible (e.g. for a generated class)
+	 */
+	static long typeHash(Class<?> targetClass) {
+		Long hash = typeHashCache.get(targetClass);
+		if (hash == null) {
+			hash = computeTypeHash(targetClass);
+			typeHashCache.put(targetClass, hash);
+		}
+		return hash;
+	}
+
+	private static long computeTypeHash(Class<?> targetClass) {
+		CRC32 crc = new CRC32();
+		try {
+			Class<?> current = targetClass;
+			while (current != null) {
+				if (!updateTypeHash(crc, current)) {
+					return NO_TYPE_HASH;
+				}
+				current = current.getSuperclass();
+			}
+			for (Class<?> ifc : ClassUtils.getAllInterfacesForClassAsSet(targetClass)) {
+				if (!updateTypeHash(crc, ifc)) {
+					return NO_TYPE_HASH;
+				}
+			}
+		}
+		catch (IOException ex) {
+			return NO_TYPE_HASH;
+		}
+		// Never collide with NO_TYPE_HASH
+		return (crc.getValue() << 1) | 1;
+	}
+
+	private static boolean updateTypeHash(CRC32 crc, Class<?> clazz) throws IOException {
+		if (clazz.getClassLoader() == null) {
+			return true;
+		}
+		try (InputStream is = clazz.getResourceAsStream(ClassUtils.getClassFileName(clazz))) {
+			if (is == null) {
+				return false;
+			}
+			crc.update(StreamUtils.copyToByteArray(is));
+			return true;
+		}
+	}
+
+
+	/**
+	 * Indexed match results for one pointcut and target class.
+	 */
+	private static class IndexedType {
+
+		final long typeHash;
+
+		final boolean classMatch;
+
+		final Map<String, Byte> methods = new HashMap<>();
+
+		IndexedType(long typeHash, boolean classMatch) {
+			this.typeHash = typeHash;
+			this.classMatch = classMatch;
+		}
+	}
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.aspectj;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.SpringProperties;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * Pointcut match index loading mechanism for internal use within the framework.
+ *
+ * @since 5.2.9
+ * @see PointcutMatchIndex
+ */
+public final class PointcutMatchIndexLoader {
+
+	/**
+	 * The location to look for pointcut match indexes.
+	 * <p>Can be present in multiple JAR files.
+	 */
+	public static final String MATCH_INDEX_RESOURCE_LOCATION = "META-INF/spring.pointcut-matches";
+
+	/**
+	 * System property that instructs Spring to ignore the pointcut match index,
+	 * i.e. to always return {@code null} from {@link #loadIndex(ClassLoader)}
+	 * and to evaluate every pointcut through the AspectJ weaver instead.
+	 * <p>The default is "false", allowing for regular use of the index.
+	 */
+	public static final String IGNORE_INDEX = "spring.aop.pointcut-match-index.ignore";
+
+
+	private static final boolean shouldIgnoreIndex = SpringProperties.getFlag(IGNORE_INDEX);
+
+	private static final Log logger = LogFactory.getLog(PointcutMatchIndexLoader.class);
+
+	private static final PointcutMatchIndex NO_INDEX = new PointcutMatchIndex();
+
+	private static final ConcurrentMap<ClassLoader, PointcutMatchIndex> cache =
+			new ConcurrentReferenceHashMap<>();
+
+
+	private PointcutMatchIndexLoader() {
+	}
+
+
+	/**
+	 * Load the {@link PointcutMatchIndex} from {@value #MATCH_INDEX_RESOURCE_LOCATION},
+	 * using the given class loader. If no index is available, return {@code null}.
+	 * <p>The index is cached per class loader, including its absence.
+	 * @param classLoader the ClassLoader to use for loading (can be {@code null} to use the default)
+	 * @return the index to use or {@code null} if no index was found
+	 * @throws IllegalStateException if any index cannot be read
+	 */
+	@Nullable
+	public static PointcutMatchIndex loadIndex(@Nullable ClassLoader classLoader) {
+		if (shouldIgnoreIndex) {
+			return null;
+		}
+		ClassLoader classLoaderToUse = classLoader;
+		if (classLoaderToUse == null) {
+			classLoaderToUse = PointcutMatchIndexLoader.class.getClassLoader();
+		}
+		PointcutMatchIndex index = cache.computeIfAbsent(classLoaderToUse, PointcutMatchIndexLoader::doLoadIndex);
+		return (index != NO_INDEX ? index : null);
+	}
+
+	private static PointcutMatchIndex doLoadIndex(ClassLoader classLoader) {
+		try {
+			Enumeration<URL> urls = classLoader.getResources(MATCH_INDEX_RESOURCE_LOCATION);
+			if (!urls.hasMoreElements()) {
+				return NO_INDEX;
+			}
+			PointcutMatchIndex index = new PointcutMatchIndex();
+			int count = 0;
+			while (urls.hasMoreElements()) {
+				URL url = urls.nextElement();
+				try (InputStream inputStream = url.openStream()) {
+					index.read(inputStream);
+				}
+				count++;
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Loaded " + count + " pointcut match index(es) with " + index.size() + " pointcuts");
+			}
+			return (index.size() > 0 ? index : NO_INDEX);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Unable to load indexes from location [" +
+					MATCH_INDEX_RESOURCE_LOCATION + "]", ex);
+		}
+	}
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.aspectj;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Writes the binary pointcut match index read by {@link PointcutMatchIndex}.
+ *
+ * <p>Pointcuts and target classes are added in the combinations that the
+ * application is going to evaluate, typically at build time right after
+ * compilation, e.g. for the pointcuts of all aspects and the classes of all
+ * bean definitions. Each combination is evaluated through the AspectJ weaver
+ * here: the class filter result, plus the method matcher result for every
+ * method that auto-proxying considers for the class, with and without
+ * introductions.
+ *
+ * @since 5.2.9
+ * @see PointcutMatchIndex
+ * @see PointcutMatchIndexLoader#MATCH_INDEX_RESOURCE_LOCATION
+ */
+public class PointcutMatchIndexWriter {
+
+	static final int MAGIC = 0x53504D49;
+
+	static final int VERSION = 1;
+
+
+	private final Map<String, Map<String, IndexedType>> pointcuts = new TreeMap<>();
+
+
+	/**
+	 * Evaluate the given pointcut against the given target class and add
+	 * the results to the index.
+	 * @param pointcut the pointcut to evaluate
+	 * @param targetClass the target class
+	 * @throws IllegalArgumentException if the pointcut cannot be indexed (since
+	 * it uses the {@code bean()} designator) or the bytecode of the target class
+	 * is not accessible
+	 */
+	public void add(AspectJExpressionPointcut pointcut, Class<?> targetClass) {
+		String pointcutKey = pointcut.getMatchIndexKey();
+		Assert.isTrue(pointcutKey != null, () -> "Pointcut cannot be indexed: " + pointcut);
+		long typeHash = PointcutMatchIndex.typeHash(targetClass);
+		Assert.isTrue(typeHash != PointcutMatchIndex.NO_TYPE_HASH,
+				() -> "Bytecode not accessible for class hierarchy of " + targetClass.getName());
+
+		boolean classMatch = pointcut.doMatches(targetClass);
+		IndexedType indexedType = new IndexedType(typeHash, classMatch);
+		if (classMatch) {
+			// Same candidate methods as AopUtils.canApply
+			Set<Class<?>> classes = new LinkedHashSet<>();
+			if (!ClassUtils.isInterfaceProxyClass(targetClass)) {
+				classes.add(ClassUtils.getUserClass(targetClass));
+			}
+			classes.addAll(ClassUtils.getAllInterfacesForClassAsSet(targetClass));
+			for (Class<?> clazz : classes) {
+				for (Method method : ReflectionUtils.getAllDeclaredMethods(clazz)) {
+					byte match = 0;
+					if (pointcut.doMatches(method, targetClass, false)) {
+						match |= PointcutMatchIndex.MATCH;
+					}
+					if (pointcut.doMatches(method, targetClass, true)) {
+						match |= PointcutMatchIndex.MATCH_WITH_INTRODUCTIONS;
+					}
+					indexedType.methods.put(PointcutMatchIndex.methodKey(method), match);
+				}
+			}
+		}
+		this.pointcuts.computeIfAbsent(pointcutKey, key -> new TreeMap<>()).put(targetClass.getName(), indexedType);
+	}
+
+	/**
+	 * Return the number of pointcuts added so far.
+	 */
+	public int size() {
+		return this.pointcuts.size();
+	}
+
+	/**
+	 * Write the index to the given stream, sorted by pointcut and class name.
+	 * <p>The stream is flushed but not closed.
+	 * @param out the stream to write to
+	 * @throws IOException in case of I/O errors
+	 */
+	public void write(OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+		data.writeInt(MAGIC);
+		data.writeInt(VERSION);
+		data.writeInt(this.pointcuts.size());
+		for (Map.Entry<String, Map<String, IndexedType>> pointcutEntry : this.pointcuts.entrySet()) {
+			data.writeUTF(pointcutEntry.getKey());
+			data.writeInt(pointcutEntry.getValue().size());
+			for (Map.Entry<String, IndexedType> typeEntry : pointcutEntry.getValue().entrySet()) {
+				IndexedType indexedType = typeEntry.getValue();
+				data.writeUTF(typeEntry.getKey());
+				data.writeLong(indexedType.typeHash);
+				data.writeBoolean(indexedType.classMatch);
+				data.writeInt(indexedType.methods.size());
+				for (Map.Entry<String, Byte> methodEntry : indexedType.methods.entrySet()) {
+					data.writeUTF(methodEntry.getKey());
+					data.writeByte(methodEntry.getValue());
+				}
+			}
+		}
+		data.flush();
+	}
+
+
+	private static class IndexedType {
+
+		final long typeHash;
+
+		final boolean classMatch;
+
+		final Map<String, Byte> methods = new TreeMap<>();
+
+		IndexedType(long typeHash, boolean classMatch) {
+			this.typeHash = typeHash;
+			this.classMatch = classMatch;
+		}
+	}
+
+}
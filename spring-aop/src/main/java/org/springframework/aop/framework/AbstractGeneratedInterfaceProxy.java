@@ -0,0 +1,259 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import java.io.Serializable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.List;
+
+import org.springframework.aop.AopInvocationException;
+import org.springframework.aop.RawTargetAccess;
+import org.springframework.aop.TargetSource;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.DecoratingProxy;
+import org.springframework.lang.Nullable;
+import org.springframework.util.GeneratedInterfaceProxy;
+
+/**
+ * Base class for the interface-based proxy classes generated by
+ * {@link GeneratedInterfaceAopProxy}, as an alternative to JDK dynamic proxies.
+ *
+ * <p>For a frozen configuration with a static target, the interceptor chain
+ * of each method is determined once, on proxy creation, and held in an array
+ * indexed like the generated methods: a method without advice calls the
+ * target directly, and an advised method proceeds through its fixed chain
+ * without any chain lookup. All other calls are passed to the invocation
+ * handler, which is the same as for a JDK dynamic proxy. This includes all
+ * calls once the advice of the configuration has changed.
+ *
+ * <p>Not intended to be used directly; public only for access from
+ * generated subclasses in other packages.
+ *
+ * @since 5.2.9
+ * @see DefaultAopProxyFactory#GENERATED_INTERFACE_PROXIES_PROPERTY_NAME
+ */
+@SuppressWarnings("serial")
+public abstract class AbstractGeneratedInterfaceProxy implements GeneratedInterfaceProxy, Serializable {
+
+	private final InvocationHandler handler;
+
+	private final AdvisedSupport advised;
+
+	private final Method[] methods;
+
+	/** The static target to call directly, if any. */
+	@Nullable
+	private final Object directTarget;
+
+	/** The fixed interceptor chain of the method at each index, if any. */
+	private final List<Object>[] fixedChains;
+
+	/** The advice change count that the fixed chains have been determined for. */
+	private final int adviceChangeCount;
+
+
+	/**
+	 * Create a new proxy instance for the given configuration.
+	 * @param handler the invocation handler for advised method calls
+	 * @param advised the AOP configuration
+	 * @param methods the proxied methods, indexed as in the generated subclass
+	 * @throws AopConfigException if the static target cannot be obtained
+	 */
+	@SuppressWarnings("unchecked")
+	protected AbstractGeneratedInterfaceProxy(InvocationHandler handler, AdvisedSupport advised, Method[] methods) {
+		this.handler = handler;
+		this.advised = advised;
+		this.methods = methods;
+		this.adviceChangeCount = advised.getAdviceChangeCount();
+		this.directTarget = getStaticTarget(advised);
+		this.fixedChains = new List[methods.length];
+		if (this.directTarget != null) {
+			Class<?> targetClass = this.directTarget.getClass();
+			for (int i = 0; i < methods.length; i++) {
+				if (!isDispatchedByHandler(methods[i])) {
+					this.fixedChains[i] = advised.getInterceptorsAndDynamicInterceptionAdvice(methods[i], targetClass);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Obtain the target to call directly: only available for a frozen
+	 * configuration with a static target and no proxy exposure.
+	 */
+	@Nullable
+	private static Object getStaticTarget(AdvisedSupport advised) {
+		TargetSource targetSource = advised.getTargetSource();
+		if (!advised.isFrozen() || advised.isExposeProxy() || !targetSource.isStatic()) {
+			return null;
+		}
+		try {
+			return targetSource.getTarget();
+		}
+		catch (Exception ex) {
+			throw new AopConfigException("Failed to obtain static target from " + targetSource, ex);
+		}
+	}
+
+	/**
+	 * Determine whether the given method is dispatched by the invocation handler
+	 * itself, not through an interceptor chain: {@code Object} methods and proxy
+	 * configuration methods.
+	 */
+	private static boolean isDispatchedByHandler(Method method) {
+		Class<?> declaringClass = method.getDeclaringClass();
+		return (declaringClass == Object.class || declaringClass == DecoratingProxy.class ||
+				declaringClass.isAssignableFrom(Advised.class));
+	}
+
+
+	/**
+	 * Return the invocation handler that this proxy delegates advised method calls to.
+	 */
+	final InvocationHandler getInvocationHandler() {
+		return this.handler;
+	}
+
+	/**
+	 * Return the fixed interceptor chain for the specified method, as determined
+	 * on proxy creation: only available for a frozen configuration with a static
+	 * target and no proxy exposure, as long as the advice has not changed.
+	 * @param methodIndex the index of the invoked method
+	 * @return the interceptor chain, or {@code null} to go through the invocation handler
+	 */
+	@Nullable
+	private List<Object> getFixedChain(int methodIndex) {
+		return (this.advised.getAdviceChangeCount() == this.adviceChangeCount ? this.fixedChains[methodIndex] : null);
+	}
+
+	/**
+	 * Return the target to call the specified method on directly, bypassing
+	 * the invocation handler: only available if the fixed interceptor chain
+	 * for the given method is empty.
+	 * @param methodIndex the index of the invoked method
+	 * @return the target object, or {@code null} to go through the invocation handler
+	 * @see #getFixedChain(int)
+	 */
+	@Nullable
+	protected final Object getDirectTarget(int methodIndex) {
+		List<Object> chain = getFixedChain(methodIndex);
+		return (chain != null && chain.isEmpty() ? this.directTarget : null);
+	}
+
+	/**
+	 * Invoke the specified method through its fixed interceptor chain, if any,
+	 * or through the invocation handler otherwise, with the same exception
+	 * semantics as a JDK dynamic proxy: checked exceptions not declared by
+	 * the method are wrapped in an {@link UndeclaredThrowableException}.
+	 * @param methodIndex the index of the invoked method
+	 * @param args the invocation arguments, or {@code null} for none
+	 * @return the invocation result
+	 */
+	@Nullable
+	protected final Object invokeHandler(int methodIndex, @Nullable Object[] args) {
+		Method method = this.methods[methodIndex];
+		try {
+			List<Object> chain = getFixedChain(methodIndex);
+			if (chain != null) {
+				return invokeFixedChain(method, args, chain);
+			}
+			return this.handler.invoke(this, method, args);
+		}
+		catch (RuntimeException | Error ex) {
+			throw ex;
+		}
+		catch (Throwable ex) {
+			for (Class<?> exceptionType : method.getExceptionTypes()) {
+				if (exceptionType.isInstance(ex)) {
+					throw AbstractGeneratedInterfaceProxy.<RuntimeException>sneakyThrow(ex);
+				}
+			}
+			throw new UndeclaredThrowableException(ex);
+		}
+	}
+
+	/**
+	 * Proceed through the given fixed interceptor chain to the static target,
+	 * handling the return value like {@link JdkDynamicAopProxy} does.
+	 */
+	@Nullable
+	private Object invokeFixedChain(Method method, @Nullable Object[] args, List<Object> chain) throws Throwable {
+		Object target = this.directTarget;
+		Class<?> targetClass = (target != null ? target.getClass() : null);
+		Object retVal;
+		if (chain.isEmpty()) {
+			Object[] argsToUse = AopProxyUtils.adaptArgumentsIfNecessary(method, args);
+			retVal = AopUtils.invokeJoinpointUsingReflection(target, method, argsToUse);
+		}
+		else {
+			retVal = new ReflectiveMethodInvocation(
+					this, target, method, args, targetClass, chain).proceed();
+		}
+		Class<?> returnType = method.getReturnType();
+		if (retVal != null && retVal == target &&
+				returnType != Object.class && returnType.isInstance(this) &&
+				!RawTargetAccess.class.isAssignableFrom(method.getDeclaringClass())) {
+			retVal = this;
+		}
+		else if (retVal == null && returnType != Void.TYPE && returnType.isPrimitive()) {
+			throw new AopInvocationException(
+					"Null return value from advice does not match primitive return type for: " + method);
+		}
+		return retVal;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T extends Throwable> T sneakyThrow(Throwable ex) throws T {
+		throw (T) ex;
+	}
+
+
+	//---------------------------------------------------------------------
+	// Serialization support
+	//---------------------------------------------------------------------
+
+	/**
+	 * Serialize the configuration instead of the generated class,
+	 * which might not be available in the deserializing process.
+	 */
+	protected Object writeReplace() {
+		return new SerializedProxy(this.advised);
+	}
+
+
+	/**
+	 * Serialized form of a generated proxy, recreating the proxy
+	 * for the same configuration on deserialization.
+	 */
+	private static class SerializedProxy implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final AdvisedSupport advised;
+
+		SerializedProxy(AdvisedSupport advised) {
+			this.advised = advised;
+		}
+
+		private Object readResolve() {
+			return new GeneratedInterfaceAopProxy(this.advised).getProxy();
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -76,6 +76,9 @@ public class AdvisedSupport extends ProxyConfig implements Advised {
 	/** Cache with Method as key and advisor chain List as value. */
 	private transient Map<MethodCacheKey, List<Object>> methodCache;
 
+	/** Number of advice changes so far, for proxies that precompute advice decisions. */
+	private transient volatile int adviceChangeCount;
+
 	/**
 	 * Interfaces to be implemented by the proxy. Held in List to keep the order
 	 * of registration, to create JDK proxy with specified order of interfaces.
@@ -523,6 +526,15 @@ public class AdvisedSupport extends ProxyConfig implements Advised {
 	 */
 	protected void adviceChanged() {
 		this.methodCache.clear();
+		this.adviceChangeCount++;
+	}
+
+	/**
+	 * Return the number of advice changes so far, allowing proxies to detect
+	 * changes to an unfrozen configuration after precomputing their advice.
+	 */
+	int getAdviceChangeCount() {
+		return this.adviceChangeCount;
 	}
 
 	/**
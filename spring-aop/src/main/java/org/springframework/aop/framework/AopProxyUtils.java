@@ -24,11 +24,11 @@ import org.springframework.aop.target.SingletonTargetSource;
 import org.springframework.core.DecoratingProxy;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.ObjectUtils;
 
 import java.lang.reflect.Array;
 import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
 import java.util.Arrays;
 
 /**
@@ -137,7 +137,7 @@ public abstract class AopProxyUtils {
 					advised.setInterfaces(targetClass);
 				}
 				//（3）如果目标类是Proxy类，则添加Proxy类的所有接口
-				else if (Proxy.isProxyClass(targetClass)) {
+				else if (ClassUtils.isInterfaceProxyClass(targetClass)) {
 					advised.setInterfaces(targetClass.getInterfaces());
 				}
 				// 引用新获取的接口
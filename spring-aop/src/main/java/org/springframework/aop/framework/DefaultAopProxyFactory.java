@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2015 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,9 +17,10 @@
 package org.springframework.aop.framework;
 
 import org.springframework.aop.SpringProxy;
+import org.springframework.core.SpringProperties;
+import org.springframework.util.ClassUtils;
 
 import java.io.Serializable;
-import java.lang.reflect.Proxy;
 
 /**
  * Default {@link AopProxyFactory} implementation, creating either a CGLIB proxy
@@ -36,6 +37,10 @@ import java.lang.reflect.Proxy;
  * <p>In general, specify {@code proxyTargetClass} to enforce a CGLIB proxy,
  * or specify one or more interfaces to use a JDK dynamic proxy.
  *
+ * <p>As of 5.2.9, interface-based proxies may be generated as classes instead of
+ * JDK dynamic proxies, through the {@link #GENERATED_INTERFACE_PROXIES_PROPERTY_NAME}
+ * system property.
+ *
  * @author Rod Johnson
  * @author Juergen Hoeller
  * @since 12.03.2004
@@ -46,6 +51,20 @@ import java.lang.reflect.Proxy;
 @SuppressWarnings("serial")
 public class DefaultAopProxyFactory implements AopProxyFactory, Serializable {
 
+	/**
+	 * System property that instructs Spring to generate interface-based proxy
+	 * classes instead of using JDK dynamic proxies, calling the target directly
+	 * for unadvised methods on frozen configurations.
+	 * <p>The default is "false". Configurations that a proxy class cannot be
+	 * generated for still use a JDK dynamic proxy.
+	 * @since 5.2.9
+	 */
+	public static final String GENERATED_INTERFACE_PROXIES_PROPERTY_NAME = "spring.aop.generated-interface-proxies";
+
+	private static final boolean shouldGenerateInterfaceProxies =
+			SpringProperties.getFlag(GENERATED_INTERFACE_PROXIES_PROPERTY_NAME);
+
+
 	/**
 	 * 确定使用哪种动态代理方式，jdk还是cglib
 	 * ⚠️spring是如何选择代理方式：配置项中指定使用cglib，或者目标类没有接口，那么就使用cglib；否则默认使用jdk
@@ -89,8 +108,8 @@ public class DefaultAopProxyFactory implements AopProxyFactory, Serializable {
 			/* jdk */
 			// 决定使用cglib之前，接着判断一下，目标类是不是接口，目标类是不是jdk的Proxy类型
 			// 如果【目标类是接口 || 目标类是jdk的Proxy类型】则还是使用JDK的方式生成代理对象
-			if (targetClass.isInterface() || Proxy.isProxyClass(targetClass)) {
-				return new JdkDynamicAopProxy(config);
+			if (targetClass.isInterface() || ClassUtils.isInterfaceProxyClass(targetClass)) {
+				return createInterfaceProxy(config);
 			}
 
 			/* cglib */
@@ -100,10 +119,19 @@ public class DefaultAopProxyFactory implements AopProxyFactory, Serializable {
 		}
 		/* jdk */
 		else {
-			return new JdkDynamicAopProxy(config);
+			return createInterfaceProxy(config);
 		}
 	}
 
+	/**
+	 * Create an interface-based proxy for the given configuration:
+	 * a generated proxy class if enabled, or a JDK dynamic proxy otherwise.
+	 */
+	private AopProxy createInterfaceProxy(AdvisedSupport config) {
+		return (shouldGenerateInterfaceProxies ?
+				new GeneratedInterfaceAopProxy(config) : new JdkDynamicAopProxy(config));
+	}
+
 	/**
 	 * 目标类是否有实现除SpringProxy之外的接口，false：有接口；true：没有接口
 	 *
@@ -0,0 +1,487 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.aop.RawTargetAccess;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.cglib.core.ReflectUtils;
+import org.springframework.core.DecoratingProxy;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Interface-based {@link AopProxy} implementation for the Spring AOP framework,
+ * generating a proxy class via ASM instead of using a JDK dynamic proxy.
+ *
+ * <p>Every generated method first checks whether the target can be called
+ * directly: for a {@linkplain ProxyConfig#isFrozen() frozen} configuration
+ * with a static target and no advice applying to the method, the target
+ * method is called through a plain {@code invokeinterface} instruction,
+ * without any reflection or argument array. Advised methods of such a
+ * configuration proceed through an interceptor chain determined on proxy
+ * creation. All other calls go straight to a {@link JdkDynamicAopProxy}
+ * as invocation handler, with the same semantics as for a JDK dynamic proxy. This includes {@code equals}/{@code hashCode}
+ * handling, {@link Advised} and {@link DecoratingProxy} calls, and proxy exposure.
+ *
+ * <p>Falls back to a regular JDK dynamic proxy for interfaces that a class
+ * cannot be generated for, e.g. non-public interfaces from different packages,
+ * interfaces that are not visible from the given class loader, or methods with
+ * the same signature but different return types across interfaces.
+ *
+ * @since 5.2.9
+ * @see AbstractGeneratedInterfaceProxy
+ * @see DefaultAopProxyFactory#GENERATED_INTERFACE_PROXIES_PROPERTY_NAME
+ */
+final class GeneratedInterfaceAopProxy implements AopProxy, Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final String CLASS_NAME_SEPARATOR = "$SpringInterfaceProxy$";
+
+	private static final String SUPERCLASS_NAME = Type.getInternalName(AbstractGeneratedInterfaceProxy.class);
+
+	private static final String CONSTRUCTOR_DESCRIPTOR = Type.getMethodDescriptor(Type.VOID_TYPE,
+			Type.getType(InvocationHandler.class), Type.getType(AdvisedSupport.class), Type.getType(Method[].class));
+
+	private static final String GET_DIRECT_TARGET_DESCRIPTOR =
+			Type.getMethodDescriptor(Type.getType(Object.class), Type.INT_TYPE);
+
+	private static final String INVOKE_HANDLER_DESCRIPTOR =
+			Type.getMethodDescriptor(Type.getType(Object.class), Type.INT_TYPE, Type.getType(Object[].class));
+
+	private static final Object NOT_GENERATABLE = new Object();
+
+	private static final Log logger = LogFactory.getLog(GeneratedInterfaceAopProxy.class);
+
+	private static final Map<ProxyClassKey, Object> proxyClassCache = new ConcurrentReferenceHashMap<>(64);
+
+	private static final AtomicInteger classCounter = new AtomicInteger();
+
+
+	/** Config used to configure this proxy. */
+	private final AdvisedSupport advised;
+
+	/** The invocation handler for advised method calls, also used as fallback. */
+	private final JdkDynamicAopProxy handler;
+
+
+	/**
+	 * Construct a new GeneratedInterfaceAopProxy for the given AOP configuration.
+	 * @param config the AOP configuration as AdvisedSupport object
+	 * @throws AopConfigException if the config is invalid
+	 */
+	public GeneratedInterfaceAopProxy(AdvisedSupport config) throws AopConfigException {
+		this.handler = new JdkDynamicAopProxy(config);
+		this.advised = config;
+	}
+
+
+	@Override
+	public Object getProxy() {
+		return getProxy(ClassUtils.getDefaultClassLoader());
+	}
+
+	@Override
+	public Object getProxy(@Nullable ClassLoader classLoader) {
+		if (logger.isTraceEnabled()) {
+			logger.trace("Creating generated interface proxy: " + this.advised.getTargetSource());
+		}
+		Class<?>[] proxiedInterfaces = AopProxyUtils.completeProxiedInterfaces(this.advised, true);
+		ProxyClass proxyClass = (classLoader != null ? getProxyClass(proxiedInterfaces, classLoader) : null);
+		if (proxyClass == null) {
+			return this.handler.getProxy(classLoader);
+		}
+		this.handler.findDefinedEqualsAndHashCodeMethods(proxiedInterfaces);
+		try {
+			return proxyClass.constructor.newInstance(this.handler, this.advised, proxyClass.methods);
+		}
+		catch (InvocationTargetException ex) {
+			if (ex.getTargetException() instanceof AopConfigException) {
+				throw (AopConfigException) ex.getTargetException();
+			}
+			throw new AopConfigException("Failed to instantiate generated proxy class " +
+					proxyClass.constructor.getDeclaringClass().getName(), ex.getTargetException());
+		}
+		catch (Exception ex) {
+			throw new AopConfigException("Failed to instantiate generated proxy class " +
+					proxyClass.constructor.getDeclaringClass().getName(), ex);
+		}
+	}
+
+	/**
+	 * Equality means interfaces, advisors and TargetSource are equal,
+	 * as for {@link JdkDynamicAopProxy}.
+	 */
+	@Override
+	public boolean equals(@Nullable Object other) {
+		return (this == other || (other instanceof GeneratedInterfaceAopProxy &&
+				this.handler.equals(((GeneratedInterfaceAopProxy) other).handler)));
+	}
+
+	@Override
+	public int hashCode() {
+		return this.handler.hashCode();
+	}
+
+
+	@Nullable
+	private static ProxyClass getProxyClass(Class<?>[] proxiedInterfaces, ClassLoader classLoader) {
+		ProxyClassKey key = new ProxyClassKey(classLoader, proxiedInterfaces);
+		Object proxyClass = proxyClassCache.get(key);
+		if (proxyClass == null) {
+			proxyClass = generateProxyClass(proxiedInterfaces, classLoader);
+			proxyClassCache.put(key, proxyClass);
+		}
+		return (proxyClass != NOT_GENERATABLE ? (ProxyClass) proxyClass : null);
+	}
+
+	private static Object generateProxyClass(Class<?>[] proxiedInterfaces, ClassLoader classLoader) {
+		if (!ClassUtils.isVisible(AbstractGeneratedInterfaceProxy.class, classLoader)) {
+			return NOT_GENERATABLE;
+		}
+		Class<?> contextClass = null;
+		for (Class<?> ifc : proxiedInterfaces) {
+			if (!ClassUtils.isVisible(ifc, classLoader)) {
+				return NOT_GENERATABLE;
+			}
+			if (!Modifier.isPublic(ifc.getModifiers())) {
+				if (ifc.getClassLoader() != classLoader || (contextClass != null &&
+						!ClassUtils.getPackageName(ifc).equals(ClassUtils.getPackageName(contextClass)))) {
+					return NOT_GENERATABLE;
+				}
+				contextClass = ifc;
+			}
+		}
+		if (contextClass == null) {
+			contextClass = (proxiedInterfaces[0].getName().startsWith("java.") ?
+					GeneratedInterfaceAopProxy.class : proxiedInterfaces[0]);
+		}
+
+		Method[] methods = collectProxiedMethods(proxiedInterfaces);
+		if (methods == null) {
+			return NOT_GENERATABLE;
+		}
+
+		String className = contextClass.getName() + CLASS_NAME_SEPARATOR + classCounter.incrementAndGet();
+		try {
+			byte[] bytes = generateBytecode(className, proxiedInterfaces, methods);
+			Class<?> generatedClass = ReflectUtils.defineClass(
+					className, bytes, classLoader, contextClass.getProtectionDomain(), contextClass);
+			return new ProxyClass(generatedClass.getConstructor(InvocationHandler.class, AdvisedSupport.class,
+					Method[].class), methods);
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to generate proxy class for interfaces " +
+						Arrays.toString(proxiedInterfaces) + " - falling back to JDK dynamic proxy: " + ex);
+			}
+			return NOT_GENERATABLE;
+		}
+	}
+
+	/**
+	 * Collect all methods to implement, in the same way as a JDK dynamic proxy:
+	 * {@code equals}, {@code hashCode} and {@code toString} from {@code Object},
+	 * followed by the first declaration of each interface method signature.
+	 * @return the methods, or {@code null} if a signature is declared with
+	 * different return types
+	 */
+	@Nullable
+	private static Method[] collectProxiedMethods(Class<?>[] proxiedInterfaces) {
+		Map<String, Method> methods = new LinkedHashMap<>();
+		for (Method method : Object.class.getMethods()) {
+			if (AopUtils.isEqualsMethod(method) || AopUtils.isHashCodeMethod(method) ||
+					AopUtils.isToStringMethod(method)) {
+				methods.put(getSignature(method), method);
+			}
+		}
+		for (Class<?> ifc : proxiedInterfaces) {
+			for (Method method : ifc.getMethods()) {
+				if (Modifier.isStatic(method.getModifiers())) {
+					continue;
+				}
+				Method existing = methods.putIfAbsent(getSignature(method), method);
+				if (existing != null && existing.getReturnType() != method.getReturnType()) {
+					return null;
+				}
+			}
+		}
+		for (Method method : AbstractGeneratedInterfaceProxy.class.getDeclaredMethods()) {
+			if (!Modifier.isPrivate(method.getModifiers()) && methods.values().stream().anyMatch(
+					candidate -> candidate.getName().equals(method.getName()))) {
+				// Would clash with a method of the proxy base class
+				return null;
+			}
+		}
+		return methods.values().toArray(new Method[0]);
+	}
+
+	private static String getSignature(Method method) {
+		return method.getName() + Type.getMethodDescriptor(method).substring(
+				0, Type.getMethodDescriptor(method).indexOf(')') + 1);
+	}
+
+	private static byte[] generateBytecode(String className, Class<?>[] proxiedInterfaces, Method[] methods) {
+		String internalName = className.replace('.', '/');
+		String packageName = ClassUtils.getPackageName(className);
+		String[] interfaceNames = new String[proxiedInterfaces.length];
+		for (int i = 0; i < proxiedInterfaces.length; i++) {
+			interfaceNames[i] = Type.getInternalName(proxiedInterfaces[i]);
+		}
+
+		// Frames only merge the proxy instance with a returned value: no class loading required
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+			@Override
+			protected String getCommonSuperClass(String type1, String type2) {
+				return "java/lang/Object";
+			}
+		};
+		cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER | Opcodes.ACC_SYNTHETIC,
+				internalName, null, SUPERCLASS_NAME, interfaceNames);
+
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR, null, null);
+		mv.visitCode();
+		mv.visitVarInsn(Opcodes.ALOAD, 0);
+		mv.visitVarInsn(Opcodes.ALOAD, 1);
+		mv.visitVarInsn(Opcodes.ALOAD, 2);
+		mv.visitVarInsn(Opcodes.ALOAD, 3);
+		mv.visitMethodInsn(Opcodes.INVOKESPECIAL, SUPERCLASS_NAME, "<init>", CONSTRUCTOR_DESCRIPTOR, false);
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		for (int i = 0; i < methods.length; i++) {
+			generateMethod(cw, methods[i], i, packageName, proxiedInterfaces);
+		}
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private static void generateMethod(
+			ClassWriter cw, Method method, int index, String packageName, Class<?>[] proxiedInterfaces) {
+
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		Class<?> returnType = method.getReturnType();
+		Type returnAsmType = Type.getType(returnType);
+		String[] exceptionNames = null;
+		if (method.getExceptionTypes().length > 0) {
+			exceptionNames = new String[method.getExceptionTypes().length];
+			for (int i = 0; i < exceptionNames.length; i++) {
+				exceptionNames[i] = Type.getInternalName(method.getExceptionTypes()[i]);
+			}
+		}
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL, method.getName(),
+				Type.getMethodDescriptor(method), null, exceptionNames);
+		mv.visitCode();
+
+		// Direct call to the target, if applicable at runtime
+		if (isDirectlyInvocable(method, packageName)) {
+			String declaringName = Type.getInternalName(method.getDeclaringClass());
+			int targetSlot = 1;
+			for (Class<?> parameterType : parameterTypes) {
+				targetSlot += Type.getType(parameterType).getSize();
+			}
+			Label handlerCall = new Label();
+			mv.visitVarInsn(Opcodes.ALOAD, 0);
+			mv.visitLdcInsn(index);
+			mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, SUPERCLASS_NAME, "getDirectTarget",
+					GET_DIRECT_TARGET_DESCRIPTOR, false);
+			mv.visitVarInsn(Opcodes.ASTORE, targetSlot);
+			mv.visitVarInsn(Opcodes.ALOAD, targetSlot);
+			mv.visitTypeInsn(Opcodes.INSTANCEOF, declaringName);
+			mv.visitJumpInsn(Opcodes.IFEQ, handlerCall);
+			mv.visitVarInsn(Opcodes.ALOAD, targetSlot);
+			mv.visitTypeInsn(Opcodes.CHECKCAST, declaringName);
+			int slot = 1;
+			for (Class<?> parameterType : parameterTypes) {
+				Type type = Type.getType(parameterType);
+				mv.visitVarInsn(type.getOpcode(Opcodes.ILOAD), slot);
+				slot += type.getSize();
+			}
+			mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, declaringName, method.getName(),
+					Type.getMethodDescriptor(method), true);
+			if (mayReturnProxy(method, proxiedInterfaces)) {
+				// Special case: the target returned "this" -> return the proxy instead
+				Label returnValue = new Label();
+				mv.visitInsn(Opcodes.DUP);
+				mv.visitVarInsn(Opcodes.ALOAD, targetSlot);
+				mv.visitJumpInsn(Opcodes.IF_ACMPNE, returnValue);
+				mv.visitInsn(Opcodes.POP);
+				mv.visitVarInsn(Opcodes.ALOAD, 0);
+				mv.visitLabel(returnValue);
+				mv.visitTypeInsn(Opcodes.CHECKCAST, returnAsmType.getInternalName());
+			}
+			mv.visitInsn(returnAsmType.getOpcode(Opcodes.IRETURN));
+			mv.visitLabel(handlerCall);
+		}
+
+		// Regular call through the invocation handler
+		mv.visitVarInsn(Opcodes.ALOAD, 0);
+		mv.visitLdcInsn(index);
+		if (parameterTypes.length == 0) {
+			mv.visitInsn(Opcodes.ACONST_NULL);
+		}
+		else {
+			mv.visitLdcInsn(parameterTypes.length);
+			mv.visitTypeInsn(Opcodes.ANEWARRAY, "java/lang/Object");
+			int slot = 1;
+			for (int i = 0; i < parameterTypes.length; i++) {
+				Type type = Type.getType(parameterTypes[i]);
+				mv.visitInsn(Opcodes.DUP);
+				mv.visitLdcInsn(i);
+				mv.visitVarInsn(type.getOpcode(Opcodes.ILOAD), slot);
+				if (parameterTypes[i].isPrimitive()) {
+					Type wrapperType = Type.getType(ClassUtils.resolvePrimitiveIfNecessary(parameterTypes[i]));
+					mv.visitMethodInsn(Opcodes.INVOKESTATIC, wrapperType.getInternalName(), "valueOf",
+							Type.getMethodDescriptor(wrapperType, type), false);
+				}
+				mv.visitInsn(Opcodes.AASTORE);
+				slot += type.getSize();
+			}
+		}
+		mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, SUPERCLASS_NAME, "invokeHandler", INVOKE_HANDLER_DESCRIPTOR, false);
+		if (returnType == void.class) {
+			mv.visitInsn(Opcodes.POP);
+			mv.visitInsn(Opcodes.RETURN);
+		}
+		else if (returnType.isPrimitive()) {
+			Type wrapperType = Type.getType(ClassUtils.resolvePrimitiveIfNecessary(returnType));
+			mv.visitTypeInsn(Opcodes.CHECKCAST, wrapperType.getInternalName());
+			mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, wrapperType.getInternalName(), returnType.getName() + "Value",
+					Type.getMethodDescriptor(returnAsmType), false);
+			mv.visitInsn(returnAsmType.getOpcode(Opcodes.IRETURN));
+		}
+		else {
+			if (returnType != Object.class) {
+				mv.visitTypeInsn(Opcodes.CHECKCAST, returnAsmType.getInternalName());
+			}
+			mv.visitInsn(Opcodes.ARETURN);
+		}
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+	}
+
+	/**
+	 * Determine whether the given method may be invoked on the target directly,
+	 * provided that no advice applies: not for {@code Object} methods and
+	 * proxy configuration methods which the invocation handler dispatches itself.
+	 */
+	private static boolean isDirectlyInvocable(Method method, String packageName) {
+		Class<?> declaringClass = method.getDeclaringClass();
+		if (declaringClass == Object.class || declaringClass == DecoratingProxy.class ||
+				declaringClass.isAssignableFrom(Advised.class)) {
+			return false;
+		}
+		return (Modifier.isPublic(declaringClass.getModifiers()) ||
+				ClassUtils.getPackageName(declaringClass).equals(packageName));
+	}
+
+	/**
+	 * Determine whether a target returning itself from the given method is
+	 * to be replaced with the proxy, as done by {@link JdkDynamicAopProxy}.
+	 */
+	private static boolean mayReturnProxy(Method method, Class<?>[] proxiedInterfaces) {
+		Class<?> returnType = method.getReturnType();
+		if (returnType.isPrimitive() || returnType == Object.class ||
+				RawTargetAccess.class.isAssignableFrom(method.getDeclaringClass())) {
+			return false;
+		}
+		if (returnType.isAssignableFrom(AbstractGeneratedInterfaceProxy.class)) {
+			return true;
+		}
+		for (Class<?> ifc : proxiedInterfaces) {
+			if (returnType.isAssignableFrom(ifc)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	/**
+	 * Cache key for a generated proxy class: class loader and interfaces.
+	 */
+	private static final class ProxyClassKey {
+
+		private final ClassLoader classLoader;
+
+		private final List<Class<?>> interfaces;
+
+		ProxyClassKey(ClassLoader classLoader, Class<?>[] interfaces) {
+			this.classLoader = classLoader;
+			this.interfaces = new ArrayList<>(Arrays.asList(interfaces));
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ProxyClassKey)) {
+				return false;
+			}
+			ProxyClassKey otherKey = (ProxyClassKey) other;
+			return (this.classLoader == otherKey.classLoader && this.interfaces.equals(otherKey.interfaces));
+		}
+
+		@Override
+		public int hashCode() {
+			return ObjectUtils.nullSafeHashCode(this.classLoader) * 31 + this.interfaces.hashCode();
+		}
+	}
+
+
+	/**
+	 * Holder for a generated proxy class: its constructor and proxied methods.
+	 */
+	private static final class ProxyClass {
+
+		final Constructor<?> constructor;
+
+		final Method[] methods;
+
+		ProxyClass(Constructor<?> constructor, Method[] methods) {
+			this.constructor = constructor;
+			this.methods = methods;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -151,7 +151,7 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 	 *
 	 * @param proxiedInterfaces the interfaces to introspect
 	 */
-	private void findDefinedEqualsAndHashCodeMethods(Class<?>[] proxiedInterfaces/* 代理接口 */) {
+	void findDefinedEqualsAndHashCodeMethods(Class<?>[] proxiedInterfaces/* 代理接口 */) {
 		for (Class<?> proxiedInterface : proxiedInterfaces) {
 			Method[] methods = proxiedInterface.getDeclaredMethods();
 			for (Method method : methods) {
@@ -308,7 +308,8 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 	/**
 	 * Equality means interfaces, advisors and TargetSource are equal.
 	 * <p>The compared object may be a JdkDynamicAopProxy instance itself
-	 * or a dynamic proxy wrapping a JdkDynamicAopProxy instance.
+	 * or a dynamic proxy wrapping a JdkDynamicAopProxy instance, including
+	 * a proxy generated by {@link GeneratedInterfaceAopProxy}.
 	 */
 	@Override
 	public boolean equals(@Nullable Object other) {
@@ -330,6 +331,13 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 			}
 			otherProxy = (JdkDynamicAopProxy) ih;
 		}
+		else if (other instanceof AbstractGeneratedInterfaceProxy) {
+			InvocationHandler ih = ((AbstractGeneratedInterfaceProxy) other).getInvocationHandler();
+			if (!(ih instanceof JdkDynamicAopProxy)) {
+				return false;
+			}
+			otherProxy = (JdkDynamicAopProxy) ih;
+		}
 		else {
 			// Not a valid comparison...
 			return false;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -58,7 +58,7 @@ public abstract class AopUtils {
 	 * @see #isCglibProxy
 	 */
 	public static boolean isAopProxy(@Nullable Object object) {
-		return (object instanceof SpringProxy && (Proxy.isProxyClass(object.getClass()) ||
+		return (object instanceof SpringProxy && (ClassUtils.isInterfaceProxyClass(object.getClass()) ||
 				object.getClass().getName().contains(ClassUtils.CGLIB_CLASS_SEPARATOR)));
 	}
 
@@ -67,11 +67,14 @@ public abstract class AopUtils {
 	 * <p>This method goes beyond the implementation of
 	 * {@link Proxy#isProxyClass(Class)} by additionally checking if the
 	 * given object is an instance of {@link SpringProxy}.
+	 * <p>As of 5.2.9, this also covers interface-based proxies generated as an
+	 * alternative to JDK dynamic proxies, behaving the same for all purposes.
 	 * @param object the object to check
 	 * @see java.lang.reflect.Proxy#isProxyClass
+	 * @see org.springframework.aop.framework.DefaultAopProxyFactory#GENERATED_INTERFACE_PROXIES_PROPERTY_NAME
 	 */
 	public static boolean isJdkDynamicProxy(@Nullable Object object) {
-		return (object instanceof SpringProxy && Proxy.isProxyClass(object.getClass()));
+		return (object instanceof SpringProxy && ClassUtils.isInterfaceProxyClass(object.getClass()));
 	}
 
 	/**
@@ -267,7 +270,7 @@ public abstract class AopUtils {
 		// 创建一个集合用于保存targetClass的class对象
 		Set<Class<?>> classes = new LinkedHashSet<>();
 		// 判断当前class是不是代理的class对象
-		if (!Proxy.isProxyClass(targetClass)) {
+		if (!ClassUtils.isInterfaceProxyClass(targetClass)) {
 			// 不是的话，就加入到集合中去
 			classes.add(ClassUtils.getUserClass(targetClass));
 		}
@@ -18,13 +18,13 @@ package org.springframework.aop.support.annotation;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
 
 import org.springframework.aop.support.AopUtils;
 import org.springframework.aop.support.StaticMethodMatcher;
 import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 
 /**
  * Simple MethodMatcher that looks for a specific Java 5 annotation
@@ -74,7 +74,7 @@ public class AnnotationMethodMatcher extends StaticMethodMatcher {
 			return true;
 		}
 		// Proxy classes never have annotations on their redeclared methods.
-		if (Proxy.isProxyClass(targetClass)) {
+		if (ClassUtils.isInterfaceProxyClass(targetClass)) {
 			return false;
 		}
 		// The method may be on an interface, so let's check on the target class as well.
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.aspectj;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.testfixture.beans.ITestBean;
+import org.springframework.beans.testfixture.beans.TestBean;
+import org.springframework.beans.testfixture.beans.subpkg.DeepBean;
+import org.springframework.lang.Nullable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link DeclaringTypePrefilter}.
+ *
+ * @since 5.2.9
+ */
+class DeclaringTypePrefilterTests {
+
+	@Nullable
+	private static DeclaringTypePrefilter forExpression(String expression) {
+		return DeclaringTypePrefilter.forExpression(expression,
+				DeclaringTypePrefilterTests.class, DeclaringTypePrefilterTests.class.getClassLoader());
+	}
+
+
+	@Test
+	void executionWithPackagePattern() {
+		DeclaringTypePrefilter prefilter = forExpression(
+				"execution(* org.springframework.beans.testfixture..*.get*(..))");
+		assertThat(prefilter).isNotNull();
+		assertThat(prefilter.couldMatch(TestBean.class)).isTrue();
+		assertThat(prefilter.couldMatch(DeepBean.class)).isTrue();
+		assertThat(prefilter.couldMatch(String.class)).isFalse();
+	}
+
+	@Test
+	void executionMatchesSupertypes() {
+		DeclaringTypePrefilter prefilter = forExpression(
+				"execution(int org.springframework.beans.testfixture.beans.ITestBean.getAge())");
+		assertThat(prefilter).isNotNull();
+		assertThat(prefilter.couldMatch(ITestBean.class)).isTrue();
+		assertThat(prefilter.couldMatch(TestBean.class)).isTrue();
+		assertThat(prefilter.couldMatch(SubBean.class)).isTrue();
+		assertThat(prefilter.couldMatch(Object.class)).isFalse();
+	}
+
+	@Test
+	void withinMatchesNestedClasses() {
+		DeclaringTypePrefilter prefilter = forExpression(
+				"within(org.springframework.aop.aspectj.DeclaringTypePrefilterTests)");
+		assertThat(prefilter).isNotNull();
+		assertThat(prefilter.couldMatch(SubBean.class)).isTrue();
+		assertThat(prefilter.couldMatch(TestBean.class)).isFalse();
+	}
+
+	@Test
+	void conjunctionAppliesAllPrefixes() {
+		DeclaringTypePrefilter prefilter = forExpression(
+				"execution(* *(..)) && within(org.springframework.beans..*) && args(x)");
+		assertThat(prefilter).isNotNull();
+		assertThat(prefilter.couldMatch(TestBean.class)).isTrue();
+		assertThat(prefilter.couldMatch(String.class)).isFalse();
+
+		prefilter = forExpression(
+				"within(org.springframework.beans..*) && within(org.springframework.aop..*)");
+		assertThat(prefilter).isNotNull();
+		assertThat(prefilter.couldMatch(TestBean.class)).isFalse();
+		assertThat(prefilter.couldMatch(SubBean.class)).isTrue();
+	}
+
+	@Test
+	void noPrefilterForNonRestrictingExpressions() {
+		assertThat(forExpression("execution(* *(..))")).isNull();
+		assertThat(forExpression("execution(* get*(..))")).isNull();
+		assertThat(forExpression("execution(* *..TestBean.*(..))")).isNull();
+		assertThat(forExpression("within(TestBean)")).isNull();
+		assertThat(forExpression("within(@org.example.Marker *)")).isNull();
+		assertThat(forExpression("within(!org.example..*)")).isNull();
+		assertThat(forExpression("this(org.example.Service)")).isNull();
+	}
+
+	@Test
+	void noPrefilterForRelativeTypeNames() {
+		assertThat(forExpression("execution(* DeclaringTypePrefilterTests.SubBean.*(..))")).isNull();
+		assertThat(forExpression("within(DeclaringTypePrefilterTests.SubBean)")).isNull();
+		assertThat(forExpression("within(Thread.UncaughtExceptionHandler+)")).isNull();
+		assertThat(forExpression("within(org.springframework.beans..*) && within(Map.Entry+)")).isNull();
+	}
+
+	@Test
+	void noPrefilterForUnknownPackages() {
+		assertThat(forExpression("within(org.example.nonexistent..*)")).isNull();
+	}
+
+	@Test
+	void pointcutWithRelativeTypeNamesMatches() {
+		AspectJExpressionPointcut pc = new AspectJExpressionPointcut();
+		pc.setPointcutDeclarationScope(DeclaringTypePrefilterTests.class);
+		pc.setExpression("execution(* DeclaringTypePrefilterTests.SubBean.*(..))");
+		assertThat(pc.matches(SubBean.class)).isTrue();
+		assertThat(pc.matches(TestBean.class)).isFalse();
+
+		pc = new AspectJExpressionPointcut();
+		pc.setPointcutDeclarationScope(DeclaringTypePrefilterTests.class);
+		pc.setExpression("within(Thread.UncaughtExceptionHandler+)");
+		assertThat(pc.matches(UncaughtExceptionHandlerBean.class)).isTrue();
+		assertThat(pc.matches(TestBean.class)).isFalse();
+	}
+
+	@Test
+	void noPrefilterForDisjunctionOrNegation() {
+		assertThat(forExpression(
+				"within(org.example..*) || within(org.other..*)")).isNull();
+		assertThat(forExpression(
+				"within(org.example..*) && !within(org.example.internal..*)")).isNull();
+	}
+
+
+	static class SubBean extends TestBean {
+	}
+
+
+	static class UncaughtExceptionHandlerBean implements Thread.UncaughtExceptionHandler {
+
+		@Override
+		public void uncaughtException(Thread thread, Throwable ex) {
+		}
+	}
+
+}
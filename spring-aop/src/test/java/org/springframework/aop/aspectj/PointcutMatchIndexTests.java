@@ -0,0 +1,239 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.aspectj;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.asm.AnnotationVisitor;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Opcodes;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.testfixture.beans.ITestBean;
+import org.springframework.beans.testfixture.beans.TestBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit tests for {@link PointcutMatchIndex} and {@link PointcutMatchIndexWriter}.
+ *
+ * @since 5.2.9
+ */
+class PointcutMatchIndexTests {
+
+	private static final String GET_AGE_EXPRESSION =
+			"execution(int org.springframework.beans.testfixture.beans.ITestBean.getAge())";
+
+
+	@Test
+	void writeAndRead() throws Exception {
+		AspectJExpressionPointcut pointcut = createPointcut(GET_AGE_EXPRESSION);
+		PointcutMatchIndexWriter writer = new PointcutMatchIndexWriter();
+		writer.add(pointcut, TestBean.class);
+		writer.add(pointcut, String.class);
+		PointcutMatchIndex index = readIndex(writer);
+
+		String key = pointcut.getMatchIndexKey();
+		assertThat(index.size()).isEqualTo(1);
+		assertThat(index.containsPointcut(key)).isTrue();
+		assertThat(index.getClassMatch(key, TestBean.class)).isTrue();
+		assertThat(index.getMethodMatch(key, TestBean.class.getMethod("getAge"), TestBean.class, false)).isTrue();
+		assertThat(index.getMethodMatch(key, ITestBean.class.getMethod("getAge"), TestBean.class, false)).isTrue();
+		assertThat(index.getMethodMatch(key, TestBean.class.getMethod("getName"), TestBean.class, false)).isFalse();
+		assertThat(index.getMethodMatch(key, TestBean.class.getMethod("getName"), TestBean.class, true)).isFalse();
+		assertThat(index.getClassMatch(key, String.class)).isFalse();
+	}
+
+	@Test
+	void noEntryForUnknownPointcutOrClass() throws Exception {
+		AspectJExpressionPointcut pointcut = createPointcut(GET_AGE_EXPRESSION);
+		PointcutMatchIndexWriter writer = new PointcutMatchIndexWriter();
+		writer.add(pointcut, TestBean.class);
+		PointcutMatchIndex index = readIndex(writer);
+
+		String otherKey = createPointcut("execution(* *(..))").getMatchIndexKey();
+		assertThat(index.containsPointcut(otherKey)).isFalse();
+		assertThat(index.getClassMatch(otherKey, TestBean.class)).isNull();
+		assertThat(index.getClassMatch(pointcut.getMatchIndexKey(), SubBean.class)).isNull();
+		assertThat(index.getMethodMatch(pointcut.getMatchIndexKey(),
+				SubBean.class.getMethod("getAge"), SubBean.class, false)).isNull();
+	}
+
+	@Test
+	void outdatedEntryIsIgnored() throws Exception {
+		AspectJExpressionPointcut pointcut = createPointcut(GET_AGE_EXPRESSION);
+		PointcutMatchIndex index = readIndex(out -> writeClassMatch(out, pointcut.getMatchIndexKey(),
+				TestBean.class.getName(), PointcutMatchIndex.typeHash(TestBean.class) + 2, false));
+		assertThat(index.getClassMatch(pointcut.getMatchIndexKey(), TestBean.class)).isNull();
+	}
+
+	@Test
+	void invalidIndex() {
+		assertThatIOException().isThrownBy(() -> new PointcutMatchIndex().read(
+				new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5, 6, 7, 8})));
+	}
+
+	@Test
+	void beanDesignatorIsNotIndexable() {
+		AspectJExpressionPointcut pointcut = createPointcut("bean(myBean) && execution(* *(..))");
+		assertThat(pointcut.getMatchIndexKey()).isNull();
+		assertThatIllegalArgumentException().isThrownBy(() ->
+				new PointcutMatchIndexWriter().add(pointcut, TestBean.class));
+	}
+
+	@Test
+	void matchIndexKeyIncludesParameters() {
+		AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut(
+				TestBean.class, new String[] {"age"}, new Class<?>[] {int.class});
+		pointcut.setExpression("execution(* setAge(..)) && args(age)");
+		assertThat(pointcut.getMatchIndexKey()).isNotEqualTo(
+				createPointcut("execution(* setAge(..)) && args(age)").getMatchIndexKey());
+	}
+
+	@Test
+	void matchIndexKeyIncludesReferencedTypes(@TempDir Path tempDir) throws Exception {
+		String expression = "@annotation(example.Marker) && execution(* *(..))";
+		String runtimeKey = matchIndexKey(expression, tempDir.resolve("runtime"), "RUNTIME");
+		assertThat(runtimeKey).startsWith(expression);
+		assertThat(matchIndexKey(expression, tempDir.resolve("runtime2"), "RUNTIME")).isEqualTo(runtimeKey);
+		assertThat(matchIndexKey(expression, tempDir.resolve("class"), "CLASS")).isNotEqualTo(runtimeKey);
+		// Unresolvable names and patterns do not prevent indexing
+		assertThat(createPointcut("execution(* com.example..*Service.*(..))").getMatchIndexKey()).isNotNull();
+	}
+
+	@Test
+	void pointcutUsesIndexFromClassLoader(@TempDir Path tempDir) throws Exception {
+		AspectJExpressionPointcut indexedPointcut = createPointcut(GET_AGE_EXPRESSION);
+		// Deliberately contradicting the weaver, in order to detect the use of the index
+		Path indexFile = tempDir.resolve(PointcutMatchIndexLoader.MATCH_INDEX_RESOURCE_LOCATION);
+		Files.createDirectories(indexFile.getParent());
+		try (OutputStream out = Files.newOutputStream(indexFile)) {
+			writeClassMatch(out, indexedPointcut.getMatchIndexKey(),
+					TestBean.class.getName(), PointcutMatchIndex.typeHash(TestBean.class), false);
+		}
+
+		try (URLClassLoader classLoader = new URLClassLoader(
+				new URL[] {tempDir.toUri().toURL()}, getClass().getClassLoader())) {
+			DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+			beanFactory.setBeanClassLoader(classLoader);
+			indexedPointcut.setBeanFactory(beanFactory);
+			assertThat(indexedPointcut.matches(TestBean.class)).isFalse();
+			assertThat(indexedPointcut.matches(SubBean.class)).isTrue();
+
+			AspectJExpressionPointcut otherPointcut = createPointcut("execution(int *.getAge())");
+			otherPointcut.setBeanFactory(beanFactory);
+			assertThat(otherPointcut.matches(TestBean.class)).isTrue();
+		}
+	}
+
+	@Test
+	void pointcutMatchesSameAsWeaver() throws Exception {
+		AspectJExpressionPointcut pointcut = createPointcut(
+				"execution(* org.springframework.beans.testfixture.beans.TestBean.set*(..))");
+		PointcutMatchIndexWriter writer = new PointcutMatchIndexWriter();
+		writer.add(pointcut, TestBean.class);
+		PointcutMatchIndex index = readIndex(writer);
+
+		String key = pointcut.getMatchIndexKey();
+		for (Method method : TestBean.class.getMethods()) {
+			assertThat(index.getMethodMatch(key, method, TestBean.class, false))
+					.as(method.toString()).isEqualTo(pointcut.matches(method, TestBean.class, false));
+		}
+	}
+
+
+	private static AspectJExpressionPointcut createPointcut(String expression) {
+		AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+		pointcut.setExpression(expression);
+		return pointcut;
+	}
+
+	private static String matchIndexKey(String expression, Path classesDir, String retention) throws Exception {
+		ClassWriter cw = new ClassWriter(0);
+		cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_INTERFACE | Opcodes.ACC_ABSTRACT | Opcodes.ACC_ANNOTATION,
+				"example/Marker", null, "java/lang/Object", new String[] {"java/lang/annotation/Annotation"});
+		AnnotationVisitor av = cw.visitAnnotation("Ljava/lang/annotation/Retention;", true);
+		av.visitEnum("value", "Ljava/lang/annotation/RetentionPolicy;", retention);
+		av.visitEnd();
+		cw.visitEnd();
+		Path classFile = classesDir.resolve("example/Marker.class");
+		Files.createDirectories(classFile.getParent());
+		Files.write(classFile, cw.toByteArray());
+
+		try (URLClassLoader classLoader = new URLClassLoader(
+				new URL[] {classesDir.toUri().toURL()}, PointcutMatchIndexTests.class.getClassLoader())) {
+			DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+			beanFactory.setBeanClassLoader(classLoader);
+			AspectJExpressionPointcut pointcut = createPointcut(expression);
+			pointcut.setBeanFactory(beanFactory);
+			return pointcut.getMatchIndexKey();
+		}
+	}
+
+	private static PointcutMatchIndex readIndex(PointcutMatchIndexWriter writer) throws IOException {
+		return readIndex(writer::write);
+	}
+
+	private static PointcutMatchIndex readIndex(IndexContent content) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		content.writeTo(out);
+		PointcutMatchIndex index = new PointcutMatchIndex();
+		index.read(new ByteArrayInputStream(out.toByteArray()));
+		return index;
+	}
+
+	private static void writeClassMatch(OutputStream out, String pointcutKey, String className,
+			long typeHash, boolean classMatch) throws IOException {
+
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(PointcutMatchIndexWriter.MAGIC);
+		data.writeInt(PointcutMatchIndexWriter.VERSION);
+		data.writeInt(1);
+		data.writeUTF(pointcutKey);
+		data.writeInt(1);
+		data.writeUTF(className);
+		data.writeLong(typeHash);
+		data.writeBoolean(classMatch);
+		data.writeInt(0);
+		data.flush();
+	}
+
+
+	@FunctionalInterface
+	private interface IndexContent {
+
+		void writeTo(OutputStream out) throws IOException;
+	}
+
+
+	static class SubBean extends TestBean {
+	}
+
+}
@@ -0,0 +1,330 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.aop.AopInvocationException;
+import org.springframework.aop.TargetSource;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.NameMatchMethodPointcutAdvisor;
+import org.springframework.aop.testfixture.interceptor.NopInterceptor;
+import org.springframework.aop.testfixture.interceptor.SerializableNopInterceptor;
+import org.springframework.beans.testfixture.beans.ITestBean;
+import org.springframework.beans.testfixture.beans.Person;
+import org.springframework.beans.testfixture.beans.SerializablePerson;
+import org.springframework.beans.testfixture.beans.TestBean;
+import org.springframework.core.DecoratingProxy;
+import org.springframework.core.testfixture.io.SerializationTestUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+/**
+ * Tests for {@link GeneratedInterfaceAopProxy}, verifying the same
+ * behavior as for {@link JdkDynamicAopProxy}.
+ *
+ * @since 5.2.9
+ */
+class GeneratedInterfaceAopProxyTests {
+
+	private static Object createProxy(ProxyFactory pf) {
+		return new GeneratedInterfaceAopProxy(pf).getProxy(GeneratedInterfaceAopProxyTests.class.getClassLoader());
+	}
+
+
+	@Test
+	void proxyWithAdvice() {
+		TestBean target = new TestBean("tb", 42);
+		ProxyFactory pf = new ProxyFactory(target);
+		NopInterceptor nop = new NopInterceptor();
+		pf.addAdvice(nop);
+		ITestBean proxy = (ITestBean) createProxy(pf);
+
+		assertThat(Proxy.isProxyClass(proxy.getClass())).isFalse();
+		assertThat(AopUtils.isAopProxy(proxy)).isTrue();
+		assertThat(AopUtils.isJdkDynamicProxy(proxy)).isTrue();
+		assertThat(proxy.getName()).isEqualTo("tb");
+		assertThat(proxy.getAge()).isEqualTo(42);
+		proxy.setAge(43);
+		assertThat(target.getAge()).isEqualTo(43);
+		assertThat(nop.getCount()).isEqualTo(3);
+		assertThat(proxy.returnsThis()).isSameAs(target);
+		target.setSpouse(target);
+		assertThat(proxy.getSpouse()).isSameAs(proxy);
+	}
+
+	@Test
+	void frozenProxyCallsTargetDirectly() {
+		TestBean target = new TestBean("tb", 42);
+		ProxyFactory pf = new ProxyFactory(target);
+		pf.setFrozen(true);
+		ITestBean proxy = (ITestBean) createProxy(pf);
+
+		assertThat(proxy.getName()).isEqualTo("tb");
+		assertThat(proxy.haveBirthday()).isEqualTo(42);
+		assertThat(target.getAge()).isEqualTo(43);
+		proxy.setSpouse(proxy);
+		assertThat(target.getSpouse()).isSameAs(proxy);
+		target.setSpouse(target);
+		assertThat(proxy.getSpouse()).isSameAs(proxy);
+		assertThat(proxy.returnsThis()).isSameAs(target);
+		assertThat(proxy.getSomeIntArray()).isNull();
+	}
+
+	@Test
+	void frozenProxyWithAdviceOnSomeMethods() {
+		TestBean target = new TestBean("tb", 42);
+		ProxyFactory pf = new ProxyFactory(target);
+		NopInterceptor nop = new NopInterceptor();
+		NameMatchMethodPointcutAdvisor advisor = new NameMatchMethodPointcutAdvisor(nop);
+		advisor.setMappedName("getAge");
+		pf.addAdvisor(advisor);
+		pf.setFrozen(true);
+		ITestBean proxy = (ITestBean) createProxy(pf);
+
+		assertThat(proxy.getName()).isEqualTo("tb");
+		assertThat(nop.getCount()).isEqualTo(0);
+		assertThat(proxy.getAge()).isEqualTo(42);
+		assertThat(nop.getCount()).isEqualTo(1);
+	}
+
+	@Test
+	void frozenProxyUsesChainsDeterminedOnProxyCreation() {
+		TestBean target = new TestBean("tb", 42);
+		AtomicInteger chainLookups = new AtomicInteger();
+		ProxyFactory pf = new ProxyFactory(target) {
+			@Override
+			public List<Object> getInterceptorsAndDynamicInterceptionAdvice(Method method, @Nullable Class<?> targetClass) {
+				chainLookups.incrementAndGet();
+				return super.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+			}
+		};
+		NopInterceptor nop = new NopInterceptor();
+		NameMatchMethodPointcutAdvisor advisor = new NameMatchMethodPointcutAdvisor(nop);
+		advisor.setMappedNames("getAge", "setAge", "getSpouse");
+		pf.addAdvisor(advisor);
+		pf.setFrozen(true);
+		ITestBean proxy = (ITestBean) createProxy(pf);
+		int lookupsOnCreation = chainLookups.get();
+
+		assertThat(proxy.getAge()).isEqualTo(42);
+		proxy.setAge(43);
+		assertThat(proxy.getAge()).isEqualTo(43);
+		target.setSpouse(target);
+		assertThat(proxy.getSpouse()).isSameAs(proxy);
+		assertThat(proxy.getName()).isEqualTo("tb");
+		assertThat(nop.getCount()).isEqualTo(4);
+		assertThat(chainLookups.get()).isEqualTo(lookupsOnCreation);
+	}
+
+	@Test
+	void frozenProxyWithNullReturnValueForPrimitive() {
+		ProxyFactory pf = new ProxyFactory(new TestBean("tb", 42));
+		pf.addAdvice((MethodInterceptor) invocation -> null);
+		pf.setFrozen(true);
+		ITestBean proxy = (ITestBean) createProxy(pf);
+		assertThatExceptionOfType(AopInvocationException.class).isThrownBy(proxy::getAge);
+	}
+
+	@Test
+	void adviceAddedAfterUnfreezing() {
+		TestBean target = new TestBean("tb", 42);
+		ProxyFactory pf = new ProxyFactory(target);
+		pf.setFrozen(true);
+		ITestBean proxy = (ITestBean) createProxy(pf);
+		assertThat(proxy.getAge()).isEqualTo(42);
+
+		pf.setFrozen(false);
+		pf.addAdvice((MethodInterceptor) invocation -> 0);
+		pf.setFrozen(true);
+		assertThat(proxy.getAge()).isEqualTo(0);
+	}
+
+	@Test
+	void staticTargetFailureOnProxyCreation() {
+		ProxyFactory pf = new ProxyFactory();
+		pf.addInterface(ITestBean.class);
+		pf.setTargetSource(new TargetSource() {
+			@Override
+			public Class<?> getTargetClass() {
+				return TestBean.class;
+			}
+			@Override
+			public boolean isStatic() {
+				return true;
+			}
+			@Override
+			public Object getTarget() throws Exception {
+				throw new IOException("no target");
+			}
+			@Override
+			public void releaseTarget(Object target) {
+			}
+		});
+		pf.setFrozen(true);
+		assertThatExceptionOfType(AopConfigException.class).isThrownBy(() -> createProxy(pf))
+				.withCauseInstanceOf(IOException.class);
+	}
+
+	@Test
+	void reproxyWithProxyTargetClass() {
+		ProxyFactory pf = new ProxyFactory(new TestBean("tb", 42));
+		ITestBean proxy = (ITestBean) createProxy(pf);
+		assertThat(ClassUtils.isInterfaceProxyClass(proxy.getClass())).isTrue();
+		assertThat(AopUtils.isCglibProxy(proxy)).isFalse();
+		assertThat(ClassUtils.getUserClass(proxy)).isSameAs(proxy.getClass());
+
+		ProxyFactory outer = new ProxyFactory(proxy);
+		outer.setProxyTargetClass(true);
+		NopInterceptor nop = new NopInterceptor();
+		outer.addAdvice(nop);
+		ITestBean outerProxy = (ITestBean) outer.getProxy(getClass().getClassLoader());
+		assertThat(AopUtils.isJdkDynamicProxy(outerProxy)).isTrue();
+		assertThat(outerProxy.getName()).isEqualTo("tb");
+		assertThat(nop.getCount()).isEqualTo(1);
+	}
+
+	@Test
+	void exceptions() {
+		TestBean target = new TestBean();
+		ProxyFactory pf = new ProxyFactory(target);
+		pf.addAdvice(new NopInterceptor());
+		ITestBean proxy = (ITestBean) createProxy(pf);
+
+		IOException ioException = new IOException();
+		assertThatIOException().isThrownBy(() -> proxy.exceptional(ioException)).isSameAs(ioException);
+		assertThatIOException().isThrownBy(proxy::unreliableFileOperation);
+		IllegalStateException runtimeException = new IllegalStateException();
+		assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() ->
+				proxy.exceptional(runtimeException)).isSameAs(runtimeException);
+	}
+
+	@Test
+	void undeclaredCheckedException() {
+		ProxyFactory pf = new ProxyFactory(new TestBean());
+		pf.addAdvice((MethodInterceptor) invocation -> {
+			throw new Exception("undeclared");
+		});
+		ITestBean proxy = (ITestBean) createProxy(pf);
+		assertThatExceptionOfType(UndeclaredThrowableException.class).isThrownBy(proxy::getAge)
+			.satisfies(ex -> assertThat(ex.getUndeclaredThrowable()).hasMessage("undeclared"));
+	}
+
+	@Test
+	void nullPrimitiveReturnValue() {
+		ProxyFactory pf = new ProxyFactory(new TestBean());
+		pf.addAdvice((MethodInterceptor) invocation -> null);
+		ITestBean proxy = (ITestBean) createProxy(pf);
+		assertThatExceptionOfType(AopInvocationException.class).isThrownBy(proxy::getAge)
+			.withMessageContaining("getAge");
+	}
+
+	@Test
+	void equalsAndHashCode() {
+		TestBean target = new TestBean("tb");
+		ProxyFactory pf1 = new ProxyFactory(target);
+		ProxyFactory pf2 = new ProxyFactory(target);
+		Object proxy1 = createProxy(pf1);
+		Object proxy2 = createProxy(pf2);
+		Object jdkProxy = new JdkDynamicAopProxy(pf1).getProxy();
+
+		assertThat(proxy1).isEqualTo(proxy2);
+		assertThat(proxy1).isEqualTo(jdkProxy);
+		assertThat(jdkProxy).isEqualTo(proxy1);
+		assertThat(proxy1.hashCode()).isEqualTo(proxy2.hashCode());
+		assertThat(proxy1).isNotEqualTo(target);
+		assertThat(proxy1.toString()).isEqualTo(target.toString());
+	}
+
+	@Test
+	void advisedAndDecoratingProxy() throws Exception {
+		TestBean target = new TestBean();
+		ProxyFactory pf = new ProxyFactory(target);
+		pf.setFrozen(true);
+		Object proxy = createProxy(pf);
+
+		assertThat(((Advised) proxy).getTargetSource().getTarget()).isSameAs(target);
+		assertThat(((Advised) proxy).isFrozen()).isTrue();
+		assertThat(((DecoratingProxy) proxy).getDecoratedClass()).isEqualTo(TestBean.class);
+	}
+
+	@Test
+	void exposeProxy() {
+		TestBean target = new TestBean();
+		ProxyFactory pf = new ProxyFactory(target);
+		pf.setExposeProxy(true);
+		ITestBean[] exposed = new ITestBean[1];
+		pf.addAdvice((MethodInterceptor) invocation -> {
+			exposed[0] = (ITestBean) AopContext.currentProxy();
+			return invocation.proceed();
+		});
+		pf.setFrozen(true);
+		ITestBean proxy = (ITestBean) createProxy(pf);
+		proxy.getAge();
+		assertThat(exposed[0]).isSameAs(proxy);
+	}
+
+	@Test
+	void nonPublicInterface() {
+		ProxyFactory pf = new ProxyFactory(new PackageVisibleImpl());
+		pf.setFrozen(true);
+		PackageVisible proxy = (PackageVisible) createProxy(pf);
+		assertThat(Proxy.isProxyClass(proxy.getClass())).isFalse();
+		assertThat(proxy.getValue(2L, 3)).isEqualTo(6L);
+	}
+
+	@Test
+	void serialization() throws Exception {
+		SerializablePerson target = new SerializablePerson();
+		target.setName("p");
+		ProxyFactory pf = new ProxyFactory(target);
+		pf.addAdvice(new SerializableNopInterceptor());
+		Person proxy = (Person) createProxy(pf);
+
+		Person serialized = (Person) SerializationTestUtils.serializeAndDeserialize(proxy);
+		assertThat(serialized).isNotSameAs(proxy);
+		assertThat(serialized.getName()).isEqualTo("p");
+		assertThat(AopUtils.isAopProxy(serialized)).isTrue();
+	}
+
+
+	interface PackageVisible {
+
+		long getValue(long base, int factor);
+	}
+
+
+	static class PackageVisibleImpl implements PackageVisible {
+
+		@Override
+		public long getValue(long base, int factor) {
+			return base * factor;
+		}
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+/**
+ * Benchmark for retrieving singleton and prototype beans from a
+ * {@link DefaultListableBeanFactory}, by name and by type.
+ * <p>Typically run with {@code "./gradlew :spring-beans:jmh -PbenchmarkInclude=DefaultListableBeanFactoryBenchmark -PbenchmarkProfilers=gc"}.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class DefaultListableBeanFactoryBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"10", "1000"})
+		public int beanCount;
+
+		public DefaultListableBeanFactory beanFactory;
+
+		public String lastBeanName;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.beanFactory = new DefaultListableBeanFactory();
+			for (int i = 0; i < this.beanCount; i++) {
+				RootBeanDefinition bd = new RootBeanDefinition(SimpleBean.class);
+				bd.getPropertyValues().add("name", "bean" + i);
+				this.beanFactory.registerBeanDefinition("bean" + i, bd);
+			}
+			RootBeanDefinition prototype = new RootBeanDefinition(DependentBean.class);
+			prototype.setScope(RootBeanDefinition.SCOPE_PROTOTYPE);
+			prototype.getPropertyValues().add("dependency", new RuntimeBeanReference("bean0"));
+			this.beanFactory.registerBeanDefinition("prototype", prototype);
+			this.beanFactory.registerBeanDefinition("unique", new RootBeanDefinition(UniqueBean.class));
+			this.beanFactory.freezeConfiguration();
+			this.beanFactory.preInstantiateSingletons();
+			this.lastBeanName = "bean" + (this.beanCount - 1);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			this.beanFactory.destroySingletons();
+		}
+	}
+
+
+	@Benchmark
+	public Object singletonByName(BenchmarkState state) {
+		return state.beanFactory.getBean(state.lastBeanName);
+	}
+
+	@Benchmark
+	public Object singletonByType(BenchmarkState state) {
+		return state.beanFactory.getBean(UniqueBean.class);
+	}
+
+	@Benchmark
+	public Object prototypeByName(BenchmarkState state) {
+		return state.beanFactory.getBean("prototype");
+	}
+
+	@Benchmark
+	public void beanNamesForType(BenchmarkState state, Blackhole bh) {
+		bh.consume(state.beanFactory.getBeanNamesForType(SimpleBean.class));
+	}
+
+	@Benchmark
+	public Object beanProvider(BenchmarkState state) {
+		return state.beanFactory.getBeanProvider(UniqueBean.class).getIfAvailable();
+	}
+
+
+	public static class SimpleBean {
+
+		private String name;
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+
+
+	public static class DependentBean {
+
+		private SimpleBean dependency;
+
+		public SimpleBean getDependency() {
+			return this.dependency;
+		}
+
+		public void setDependency(SimpleBean dependency) {
+			this.dependency = dependency;
+		}
+	}
+
+
+	public static class UniqueBean {
+	}
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+/**
+ * Contention benchmark for the singleton registry of a {@link DefaultListableBeanFactory},
+ * creating prototypes with singleton dependencies and looking up singletons through an
+ * {@link ObjectProvider} from 64 threads, with and without the concurrent singleton registry.
+ * <p>Typically run with {@code "./gradlew :spring-beans:jmh -PbenchmarkInclude=SingletonRegistryContentionBenchmark"},
+ * comparing against a single-threaded run via {@code -t 1} for the scaling factor.
+ *
+ * @see DefaultListableBeanFactory#setConcurrentSingletonRegistry
+ */
+@BenchmarkMode(Mode.Throughput)
+@Threads(64)
+public class SingletonRegistryContentionBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"false", "true"})
+		public boolean concurrentRegistry;
+
+		public DefaultListableBeanFactory beanFactory;
+
+		public ObjectProvider<SharedService> serviceProvider;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.beanFactory = new DefaultListableBeanFactory();
+			this.beanFactory.setConcurrentSingletonRegistry(this.concurrentRegistry);
+			this.beanFactory.registerBeanDefinition("sharedService", new RootBeanDefinition(SharedService.class));
+			RootBeanDefinition prototype = new RootBeanDefinition(RequestHandler.class);
+			prototype.setScope(RootBeanDefinition.SCOPE_PROTOTYPE);
+			prototype.getPropertyValues().add("service", new RuntimeBeanReference("sharedService"));
+			this.beanFactory.registerBeanDefinition("requestHandler", prototype);
+			RootBeanDefinition dependsOnPrototype = new RootBeanDefinition(RequestHandler.class);
+			dependsOnPrototype.setScope(RootBeanDefinition.SCOPE_PROTOTYPE);
+			dependsOnPrototype.setDependsOn("sharedService");
+			this.beanFactory.registerBeanDefinition("dependsOnHandler", dependsOnPrototype);
+			this.beanFactory.freezeConfiguration();
+			this.beanFactory.preInstantiateSingletons();
+			this.serviceProvider = this.beanFactory.getBeanProvider(SharedService.class);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			this.beanFactory.destroySingletons();
+		}
+	}
+
+
+	@Benchmark
+	public Object prototypeWithSingletonReference(BenchmarkState state) {
+		return state.beanFactory.getBean("requestHandler");
+	}
+
+	@Benchmark
+	public Object prototypeWithDependsOn(BenchmarkState state) {
+		return state.beanFactory.getBean("dependsOnHandler");
+	}
+
+	@Benchmark
+	public Object singletonFromObjectProvider(BenchmarkState state) {
+		return state.serviceProvider.getObject();
+	}
+
+	@Benchmark
+	public Object singletonNames(BenchmarkState state) {
+		return state.beanFactory.getSingletonNames();
+	}
+
+
+	public static class SharedService {
+	}
+
+
+	public static class RequestHandler {
+
+		private SharedService service;
+
+		public SharedService getService() {
+			return this.service;
+		}
+
+		public void setService(SharedService service) {
+			this.service = service;
+		}
+	}
+
+}
@@ -71,6 +71,11 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 	@Nullable
 	private AccessControlContext acc;
 
+	/**
+	 * Whether to access properties through generated accessor classes.
+	 */
+	private boolean useGeneratedAccessors = CachedIntrospectionResults.shouldGenerateAccessors;
+
 
 	/**
 	 * Create a new empty BeanWrapperImpl. Wrapped instance needs to be set afterwards.
@@ -128,6 +133,7 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 	private BeanWrapperImpl(Object object, String nestedPath, BeanWrapperImpl parent) {
 		super(object, nestedPath, parent);
 		setSecurityContext(parent.acc);
+		setUseGeneratedAccessors(parent.useGeneratedAccessors);
 	}
 
 
@@ -189,6 +195,28 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 		return this.acc;
 	}
 
+	/**
+	 * Set whether to read and write properties through generated accessor classes
+	 * (cached along with the introspection results for each bean class) instead of
+	 * reflection, applying to nested property paths as well.
+	 * <p>Default is "false", unless the "spring.beaninfo.generate-accessors" system
+	 * property is set to "true". Reflection remains in use for property methods
+	 * that an accessor cannot be generated for, and with a security manager.
+	 * @since 5.2.9
+	 * @see CachedIntrospectionResults#GENERATE_ACCESSORS_PROPERTY_NAME
+	 */
+	public void setUseGeneratedAccessors(boolean useGeneratedAccessors) {
+		this.useGeneratedAccessors = useGeneratedAccessors;
+	}
+
+	/**
+	 * Return whether properties are accessed through generated accessor classes.
+	 * @since 5.2.9
+	 */
+	public boolean isUseGeneratedAccessors() {
+		return this.useGeneratedAccessors;
+	}
+
 
 	/**
 	 * Convert the given value for the specified property to the latter's type.
@@ -224,8 +252,14 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 	@Override
 	@Nullable
 	protected BeanPropertyHandler getLocalPropertyHandler(String propertyName) {
-		PropertyDescriptor pd = getCachedIntrospectionResults().getPropertyDescriptor(propertyName);
-		return (pd != null ? new BeanPropertyHandler(pd) : null);
+		CachedIntrospectionResults cachedIntrospectionResults = getCachedIntrospectionResults();
+		PropertyDescriptor pd = cachedIntrospectionResults.getPropertyDescriptor(propertyName);
+		if (pd == null) {
+			return null;
+		}
+		PropertyMethodAccessor accessor = (this.useGeneratedAccessors && System.getSecurityManager() == null ?
+				cachedIntrospectionResults.getPropertyMethodAccessor(pd) : null);
+		return new BeanPropertyHandler(pd, accessor);
 	}
 
 	@Override
@@ -265,9 +299,13 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 
 		private final PropertyDescriptor pd;
 
-		public BeanPropertyHandler(PropertyDescriptor pd) {
+		@Nullable
+		private final PropertyMethodAccessor accessor;
+
+		public BeanPropertyHandler(PropertyDescriptor pd, @Nullable PropertyMethodAccessor accessor) {
 			super(pd.getPropertyType(), pd.getReadMethod() != null, pd.getWriteMethod() != null);
 			this.pd = pd;
+			this.accessor = accessor;
 		}
 
 		@Override
@@ -289,6 +327,9 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 		@Override
 		@Nullable
 		public Object getValue() throws Exception {
+			if (this.accessor != null && this.accessor.isReadable()) {
+				return this.accessor.getValue(getWrappedInstance());
+			}
 			Method readMethod = this.pd.getReadMethod();
 			if (System.getSecurityManager() != null) {
 				AccessController.doPrivileged((PrivilegedAction<Object>) () -> {
@@ -311,6 +352,10 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 
 		@Override
 		public void setValue(@Nullable Object value) throws Exception {
+			if (this.accessor != null && this.accessor.isWritable()) {
+				this.accessor.setValue(getWrappedInstance(), value);
+				return;
+			}
 			// ⚠️set方法
 			Method writeMethod = (this.pd instanceof GenericTypeAwarePropertyDescriptor ?
 					((GenericTypeAwarePropertyDescriptor) this.pd).getWriteMethodForActualAccess() :
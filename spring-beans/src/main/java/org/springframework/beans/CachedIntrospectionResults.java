@@ -92,10 +92,28 @@ public final class CachedIntrospectionResults {
 	 */
 	public static final String IGNORE_BEANINFO_PROPERTY_NAME = "spring.beaninfo.ignore";
 
+	/**
+	 * System property that instructs Spring to access bean properties through generated
+	 * accessor classes instead of reflection: "spring.beaninfo.generate-accessors",
+	 * with a value of "true" making {@link BeanWrapperImpl} read and write properties
+	 * through classes spun via {@link java.lang.invoke.LambdaMetafactory} for each
+	 * property method, cached along with the introspection results for the bean class.
+	 * <p>The default is "false", invoking property methods reflectively. Consider switching
+	 * this flag to "true" for data binding or row mapping scenarios with many property
+	 * accesses per bean class, accepting one generated class per accessed property method.
+	 * Accessors are only generated for public methods on public classes visible from the
+	 * ClassLoader of the Spring jars, with reflection as fallback for any other methods.
+	 * @since 5.2.9
+	 * @see BeanWrapperImpl#setUseGeneratedAccessors
+	 */
+	public static final String GENERATE_ACCESSORS_PROPERTY_NAME = "spring.beaninfo.generate-accessors";
+
 
 	private static final boolean shouldIntrospectorIgnoreBeaninfoClasses =
 			SpringProperties.getFlag(IGNORE_BEANINFO_PROPERTY_NAME);
 
+	static final boolean shouldGenerateAccessors = SpringProperties.getFlag(GENERATE_ACCESSORS_PROPERTY_NAME);
+
 	/** Stores the BeanInfoFactory instances. */
 	private static final List<BeanInfoFactory> beanInfoFactories = SpringFactoriesLoader.loadFactories(
 			BeanInfoFactory.class, CachedIntrospectionResults.class.getClassLoader());
@@ -258,6 +276,9 @@ public final class CachedIntrospectionResults {
 	/** TypeDescriptor objects keyed by PropertyDescriptor. */
 	private final ConcurrentMap<PropertyDescriptor, TypeDescriptor> typeDescriptorCache;
 
+	/** Generated property accessors keyed by PropertyDescriptor. */
+	private final ConcurrentMap<PropertyDescriptor, PropertyMethodAccessor> propertyMethodAccessorCache;
+
 
 	/**
 	 * Create a new CachedIntrospectionResults instance for the given class.
@@ -303,6 +324,7 @@ public final class CachedIntrospectionResults {
 			}
 
 			this.typeDescriptorCache = new ConcurrentReferenceHashMap<>();
+			this.propertyMethodAccessorCache = new ConcurrentReferenceHashMap<>();
 		}
 		catch (IntrospectionException ex) {
 			throw new FatalBeanException("Failed to obtain BeanInfo for class [" + beanClass.getName() + "]", ex);
@@ -381,4 +403,24 @@ public final class CachedIntrospectionResults {
 		return this.typeDescriptorCache.get(pd);
 	}
 
+	/**
+	 * Obtain the generated accessors for the given property, generating them
+	 * on first access.
+	 * @param pd the property descriptor as obtained from this introspection result
+	 * @return the generated accessors (possibly without read or write accessor)
+	 * @since 5.2.9
+	 * @see #GENERATE_ACCESSORS_PROPERTY_NAME
+	 */
+	PropertyMethodAccessor getPropertyMethodAccessor(PropertyDescriptor pd) {
+		PropertyMethodAccessor accessor = this.propertyMethodAccessorCache.get(pd);
+		if (accessor == null) {
+			accessor = PropertyMethodAccessor.forProperty(pd);
+			PropertyMethodAccessor existing = this.propertyMethodAccessorCache.putIfAbsent(pd, accessor);
+			if (existing != null) {
+				accessor = existing;
+			}
+		}
+		return accessor;
+	}
+
 }
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Internal holder for the generated accessor classes of a bean property,
+ * spun through {@link LambdaMetafactory} for the property's read and write
+ * methods. Cached within {@link CachedIntrospectionResults} and used by
+ * {@link BeanWrapperImpl} instead of reflective {@link Method#invoke} calls.
+ *
+ * <p>An accessor is only generated for public methods on public classes that
+ * are visible from the ClassLoader of this class, since the generated class is
+ * defined alongside it. In any other case, the corresponding accessor is
+ * {@code null}, and callers are expected to fall back to reflection.
+ *
+ * <p>Exceptions thrown by the property methods are wrapped in an
+ * {@link InvocationTargetException}, and argument mismatches lead to an
+ * {@link IllegalArgumentException}, just like with reflective invocation.
+ *
+ * @since 5.2.9
+ * @see CachedIntrospectionResults#getPropertyMethodAccessor
+ */
+final class PropertyMethodAccessor {
+
+	private static final Log logger = LogFactory.getLog(PropertyMethodAccessor.class);
+
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+
+	@Nullable
+	private final Function<Object, Object> getter;
+
+	@Nullable
+	private final BiConsumer<Object, Object> setter;
+
+	@Nullable
+	private final Class<?> writeType;
+
+
+	private PropertyMethodAccessor(@Nullable Function<Object, Object> getter,
+			@Nullable BiConsumer<Object, Object> setter, @Nullable Class<?> writeType) {
+
+		this.getter = getter;
+		this.setter = setter;
+		this.writeType = writeType;
+	}
+
+
+	/**
+	 * Return whether a generated accessor for reading the property is available.
+	 */
+	public boolean isReadable() {
+		return (this.getter != null);
+	}
+
+	/**
+	 * Return whether a generated accessor for writing the property is available.
+	 */
+	public boolean isWritable() {
+		return (this.setter != null);
+	}
+
+	/**
+	 * Read the property value from the given target.
+	 * @param target the target instance
+	 * @return the property value
+	 * @throws InvocationTargetException if the read method threw an exception
+	 * @throws IllegalStateException if no generated read accessor is available
+	 */
+	@Nullable
+	public Object getValue(Object target) throws InvocationTargetException {
+		if (this.getter == null) {
+			throw new IllegalStateException("No generated read accessor available");
+		}
+		try {
+			return this.getter.apply(target);
+		}
+		catch (Throwable ex) {
+			throw new InvocationTargetException(ex);
+		}
+	}
+
+	/**
+	 * Write the given property value to the given target.
+	 * @param target the target instance
+	 * @param value the value to write
+	 * @throws InvocationTargetException if the write method threw an exception
+	 * @throws IllegalArgumentException if the value does not match the property type
+	 * @throws IllegalStateException if no generated write accessor is available
+	 */
+	public void setValue(Object target, @Nullable Object value) throws InvocationTargetException {
+		if (this.setter == null || this.writeType == null) {
+			throw new IllegalStateException("No generated write accessor available");
+		}
+		if (value == null ? this.writeType.isPrimitive() : !ClassUtils.isAssignableValue(this.writeType, value)) {
+			throw new IllegalArgumentException("argument type mismatch");
+		}
+		try {
+			this.setter.accept(target, value);
+		}
+		catch (Throwable ex) {
+			throw new InvocationTargetException(ex);
+		}
+	}
+
+
+	/**
+	 * Generate the accessors for the given property.
+	 * @param pd the property descriptor, typically a {@link GenericTypeAwarePropertyDescriptor}
+	 * @return the corresponding accessor holder (never {@code null}, but potentially
+	 * without any generated accessors)
+	 */
+	static PropertyMethodAccessor forProperty(PropertyDescriptor pd) {
+		Method readMethod = pd.getReadMethod();
+		Method writeMethod = pd.getWriteMethod();
+		if (writeMethod != null && pd instanceof GenericTypeAwarePropertyDescriptor) {
+			writeMethod = ((GenericTypeAwarePropertyDescriptor) pd).getWriteMethodForActualAccess();
+		}
+		Function<Object, Object> getter = null;
+		BiConsumer<Object, Object> setter = null;
+		Class<?> writeType = null;
+		if (readMethod != null && readMethod.getParameterCount() == 0 && isAccessible(readMethod)) {
+			getter = generateGetter(readMethod);
+		}
+		if (writeMethod != null && writeMethod.getParameterCount() == 1 && isAccessible(writeMethod)) {
+			setter = generateSetter(writeMethod);
+			writeType = writeMethod.getParameterTypes()[0];
+		}
+		return new PropertyMethodAccessor(getter, setter, (setter != null ? writeType : null));
+	}
+
+	private static boolean isAccessible(Method method) {
+		if (!Modifier.isPublic(method.getModifiers()) || Modifier.isStatic(method.getModifiers())) {
+			return false;
+		}
+		Class<?> declaringClass = method.getDeclaringClass();
+		if (!Modifier.isPublic(declaringClass.getModifiers())) {
+			return false;
+		}
+		ClassLoader classLoader = PropertyMethodAccessor.class.getClassLoader();
+		if (!ClassUtils.isVisible(declaringClass, classLoader)) {
+			return false;
+		}
+		for (Class<?> paramType : method.getParameterTypes()) {
+			if (!paramType.isPrimitive() && !ClassUtils.isVisible(paramType, classLoader)) {
+				return false;
+			}
+		}
+		Class<?> returnType = method.getReturnType();
+		return (returnType.isPrimitive() || ClassUtils.isVisible(returnType, classLoader));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Nullable
+	private static Function<Object, Object> generateGetter(Method readMethod) {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			MethodHandle handle = lookup.unreflect(readMethod);
+			CallSite callSite = LambdaMetafactory.metafactory(lookup, "apply",
+					MethodType.methodType(Function.class), GETTER_TYPE, handle,
+					MethodType.methodType(ClassUtils.resolvePrimitiveIfNecessary(readMethod.getReturnType()),
+							readMethod.getDeclaringClass()));
+			return (Function<Object, Object>) callSite.getTarget().invokeExact();
+		}
+		catch (Throwable ex) {
+			logAccessorFailure(readMethod, ex);
+			return null;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Nullable
+	private static BiConsumer<Object, Object> generateSetter(Method writeMethod) {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			MethodHandle handle = lookup.unreflect(writeMethod);
+			CallSite callSite = LambdaMetafactory.metafactory(lookup, "accept",
+					MethodType.methodType(BiConsumer.class), SETTER_TYPE, handle,
+					MethodType.methodType(void.class, writeMethod.getDeclaringClass(),
+							ClassUtils.resolvePrimitiveIfNecessary(writeMethod.getParameterTypes()[0])));
+			return (BiConsumer<Object, Object>) callSite.getTarget().invokeExact();
+		}
+		catch (Throwable ex) {
+			logAccessorFailure(writeMethod, ex);
+			return null;
+		}
+	}
+
+	private static void logAccessorFailure(Method method, Throwable ex) {
+		if (logger.isDebugEnabled()) {
+			logger.debug("Falling back to reflection for property method [" + method + "]: " + ex);
+		}
+	}
+
+}
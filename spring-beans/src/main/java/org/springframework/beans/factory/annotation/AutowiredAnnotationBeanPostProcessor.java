@@ -473,6 +473,58 @@ public class AutowiredAnnotationBeanPostProcessor extends InstantiationAwareBean
 		}
 	}
 
+	/**
+	 * Determine the autowired fields and methods of the given bean class along with
+	 * their "required" status, e.g. for generating injection code ahead of time.
+	 * @param beanName the name of the bean
+	 * @param beanClass the bean class to introspect
+	 * @return the autowired {@link Field} and {@link Method} members in injection order,
+	 * each mapped to whether its injection is required
+	 * @since 5.2.9
+	 */
+	public Map<Member, Boolean> findAutowiredMembers(String beanName, Class<?> beanClass) {
+		InjectionMetadata metadata = findAutowiringMetadata(beanName, beanClass, null);
+		Map<Member, Boolean> autowiredMembers = new LinkedHashMap<>();
+		for (InjectionMetadata.InjectedElement element : metadata.getInjectedElements()) {
+			boolean required = (element instanceof AutowiredFieldElement ?
+					((AutowiredFieldElement) element).required : ((AutowiredMethodElement) element).required);
+			autowiredMembers.put(element.getMember(), required);
+		}
+		return autowiredMembers;
+	}
+
+	/**
+	 * Register the given autowired fields and methods as the injection metadata
+	 * for the given bean, e.g. as previously determined through
+	 * {@link #findAutowiredMembers}, avoiding the introspection of the bean class.
+	 * <p>The registered metadata only applies to instances of exactly the given
+	 * class: for any other class, it gets determined through introspection as usual.
+	 * @param beanName the name of the bean
+	 * @param beanClass the bean class that the members have been determined for
+	 * @param autowiredMembers the autowired {@link Field} and {@link Method} members
+	 * in injection order, each mapped to whether its injection is required
+	 * @since 5.2.9
+	 */
+	public void registerAutowiredMembers(String beanName, Class<?> beanClass, Map<Member, Boolean> autowiredMembers) {
+		List<InjectionMetadata.InjectedElement> elements = new ArrayList<>(autowiredMembers.size());
+		autowiredMembers.forEach((member, required) -> {
+			if (member instanceof Field) {
+				elements.add(new AutowiredFieldElement((Field) member, required));
+			}
+			else if (member instanceof Method) {
+				Method method = (Method) member;
+				PropertyDescriptor pd = BeanUtils.findPropertyForMethod(
+						BridgeMethodResolver.findBridgedMethod(method), beanClass);
+				elements.add(new AutowiredMethodElement(method, required, pd));
+			}
+			else {
+				throw new IllegalArgumentException("Unsupported autowired member: " + member);
+			}
+		});
+		String cacheKey = (StringUtils.hasLength(beanName) ? beanName : beanClass.getName());
+		this.injectionMetadataCache.put(cacheKey, InjectionMetadata.forElements(elements, beanClass));
+	}
+
 	/**
 	 * 方法名为查找到该bean的依赖注入元信息，内部只要查找到了就会加入到缓存内，下次没必要再重复查找了
 	 * 它是一个模版方法，真正做事的方法是: buildAutowiringMetadata(). 它负责把标注有@Autowired注解的属性转换为元数据信息(Metadata)，从而消除注解的定义
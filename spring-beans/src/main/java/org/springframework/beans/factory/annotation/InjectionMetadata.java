@@ -93,6 +93,15 @@ public class InjectionMetadata {
 	}
 
 
+	/**
+	 * Return the {@link InjectedElement elements} to inject.
+	 * @return the elements to inject
+	 * @since 5.2.9
+	 */
+	public Collection<InjectedElement> getInjectedElements() {
+		return Collections.unmodifiableCollection(this.injectedElements);
+	}
+
 	/**
 	 * Determine whether this metadata instance needs to be refreshed.
 	 * @param clazz the current target class
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.aot;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Resolved arguments to be autowired into a constructor, factory method
+ * or regular method.
+ *
+ * @since 5.2.9
+ * @see BeanInstanceSupplier
+ * @see AutowiredMethodArgumentsResolver
+ */
+public interface AutowiredArguments {
+
+	/**
+	 * Return the resolved argument at the specified index.
+	 * @param index the argument index
+	 * @return the resolved argument, possibly {@code null}
+	 */
+	@Nullable
+	Object getObject(int index);
+
+	/**
+	 * Return the resolved argument at the specified index,
+	 * cast to the type expected by the caller.
+	 * @param index the argument index
+	 * @return the resolved argument, possibly {@code null}
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	default <T> T get(int index) {
+		return (T) getObject(index);
+	}
+
+	/**
+	 * Return the resolved argument at the specified index.
+	 * @param index the argument index
+	 * @param requiredType the required argument type
+	 * @return the resolved argument, possibly {@code null}
+	 * @throws IllegalArgumentException if the argument is not of the required type
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	default <T> T get(int index, Class<T> requiredType) {
+		Object value = getObject(index);
+		Assert.isTrue(value == null || ClassUtils.isAssignableValue(requiredType, value),
+				() -> "Argument " + index + " is not of required type [" + requiredType.getName() + "]");
+		return (T) value;
+	}
+
+	/**
+	 * Return the resolved arguments as a new object array.
+	 */
+	Object[] toArray();
+
+
+	/**
+	 * Factory method to create a new {@link AutowiredArguments} instance
+	 * from the given object array.
+	 * @param arguments the arguments (copied)
+	 * @return a new {@link AutowiredArguments} instance
+	 */
+	static AutowiredArguments of(Object[] arguments) {
+		Assert.notNull(arguments, "Arguments must not be null");
+		Object[] argumentsToUse = arguments.clone();
+		return new AutowiredArguments() {
+			@Override
+			@Nullable
+			public Object getObject(int index) {
+				return argumentsToUse[index];
+			}
+			@Override
+			public Object[] toArray() {
+				return argumentsToUse.clone();
+			}
+		};
+	}
+
+}
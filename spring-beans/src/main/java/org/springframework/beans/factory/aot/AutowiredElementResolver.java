@@ -0,0 +1,45 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.aot;
+
+import java.util.Set;
+
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+
+/**
+ * Base class for resolvers that support autowiring related to an
+ * {@link java.lang.reflect.Executable} or {@link java.lang.reflect.Field}.
+ *
+ * @since 5.2.9
+ */
+abstract class AutowiredElementResolver {
+
+	/**
+	 * Register the given autowired beans as dependencies of the specified bean,
+	 * as {@code AutowiredAnnotationBeanPostProcessor} does for injection points.
+	 */
+	protected final void registerDependentBeans(
+			ConfigurableBeanFactory beanFactory, String beanName, Set<String> autowiredBeanNames) {
+
+		for (String autowiredBeanName : autowiredBeanNames) {
+			if (beanFactory.containsBean(autowiredBeanName)) {
+				beanFactory.registerDependentBean(autowiredBeanName, beanName);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.aot;
+
+import java.lang.reflect.Field;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.InjectionPoint;
+import org.springframework.beans.factory.UnsatisfiedDependencyException;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.DependencyDescriptor;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Resolver used to support the autowiring of fields from generated code,
+ * as an alternative to the reflective introspection performed by
+ * {@link org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessor}.
+ *
+ * <p>Typically used in generated code as:
+ *
+ * <pre class="code">
+ * AutowiredFieldValueResolver.forRequiredField(MyService.class, "repository")
+ *         .resolveAndSet(beanFactory, "myService", instance);
+ * </pre>
+ *
+ * @since 5.2.9
+ */
+public final class AutowiredFieldValueResolver extends AutowiredElementResolver {
+
+	private final Class<?> declaringClass;
+
+	private final String fieldName;
+
+	private final boolean required;
+
+	@Nullable
+	private volatile Field field;
+
+
+	private AutowiredFieldValueResolver(Class<?> declaringClass, String fieldName, boolean required) {
+		Assert.notNull(declaringClass, "Declaring class must not be null");
+		Assert.hasText(fieldName, "Field name must not be empty");
+		this.declaringClass = declaringClass;
+		this.fieldName = fieldName;
+		this.required = required;
+	}
+
+
+	/**
+	 * Create a new {@link AutowiredFieldValueResolver} for the specified field
+	 * where injection is optional.
+	 * @param declaringClass the class declaring the field
+	 * @param fieldName the field name
+	 * @return a new {@link AutowiredFieldValueResolver} instance
+	 */
+	public static AutowiredFieldValueResolver forField(Class<?> declaringClass, String fieldName) {
+		return new AutowiredFieldValueResolver(declaringClass, fieldName, false);
+	}
+
+	/**
+	 * Create a new {@link AutowiredFieldValueResolver} for the specified field
+	 * where injection is required.
+	 * @param declaringClass the class declaring the field
+	 * @param fieldName the field name
+	 * @return a new {@link AutowiredFieldValueResolver} instance
+	 */
+	public static AutowiredFieldValueResolver forRequiredField(Class<?> declaringClass, String fieldName) {
+		return new AutowiredFieldValueResolver(declaringClass, fieldName, true);
+	}
+
+
+	/**
+	 * Resolve the field value for the specified bean.
+	 * @param beanFactory the bean factory to resolve against
+	 * @param beanName the name of the bean being injected
+	 * @param instance the bean instance being injected
+	 * @return the resolved field value, or {@code null} if optional and not resolvable
+	 * @throws UnsatisfiedDependencyException if the value could not be resolved
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public <T> T resolve(ConfigurableListableBeanFactory beanFactory, String beanName, Object instance) {
+		Field field = getField();
+		DependencyDescriptor descriptor = new DependencyDescriptor(field, this.required);
+		descriptor.setContainingClass(instance.getClass());
+		Set<String> autowiredBeanNames = new LinkedHashSet<>(1);
+		try {
+			Object value = beanFactory.resolveDependency(
+					descriptor, beanName, autowiredBeanNames, beanFactory.getTypeConverter());
+			registerDependentBeans(beanFactory, beanName, autowiredBeanNames);
+			return (T) value;
+		}
+		catch (BeansException ex) {
+			throw new UnsatisfiedDependencyException(null, beanName, new InjectionPoint(field), ex);
+		}
+	}
+
+	/**
+	 * Resolve the field value for the specified bean and set it on the given instance.
+	 * Leaves the field untouched if injection is optional and no value is resolvable.
+	 * @param beanFactory the bean factory to resolve against
+	 * @param beanName the name of the bean being injected
+	 * @param instance the bean instance to set the field value on
+	 * @throws UnsatisfiedDependencyException if the value could not be resolved
+	 */
+	public void resolveAndSet(ConfigurableListableBeanFactory beanFactory, String beanName, Object instance) {
+		Object value = resolve(beanFactory, beanName, instance);
+		if (value != null) {
+			Field field = getField();
+			ReflectionUtils.makeAccessible(field);
+			ReflectionUtils.setField(field, instance, value);
+		}
+	}
+
+	private Field getField() {
+		Field field = this.field;
+		if (field == null) {
+			field = ReflectionUtils.findField(this.declaringClass, this.fieldName);
+			Assert.state(field != null, () -> "No field '" + this.fieldName + "' found on " +
+					this.declaringClass.getName());
+			this.field = field;
+		}
+		return field;
+	}
+
+}
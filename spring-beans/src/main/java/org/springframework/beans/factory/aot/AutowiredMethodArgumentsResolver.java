@@ -0,0 +1,172 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.aot;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.TypeConverter;
+import org.springframework.beans.factory.InjectionPoint;
+import org.springframework.beans.factory.UnsatisfiedDependencyException;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.DependencyDescriptor;
+import org.springframework.core.MethodParameter;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Resolver used to support the autowiring of methods from generated code,
+ * as an alternative to the reflective introspection performed by
+ * {@link org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessor}.
+ *
+ * <p>Typically used in generated code as:
+ *
+ * <pre class="code">
+ * AutowiredArguments args = AutowiredMethodArgumentsResolver
+ *         .forRequiredMethod(MyService.class, "setRepository", MyRepository.class)
+ *         .resolve(beanFactory, "myService", instance);
+ * if (args != null) {
+ *     instance.setRepository(args.get(0));
+ * }
+ * </pre>
+ *
+ * @since 5.2.9
+ */
+public final class AutowiredMethodArgumentsResolver extends AutowiredElementResolver {
+
+	private final Class<?> declaringClass;
+
+	private final String methodName;
+
+	private final Class<?>[] parameterTypes;
+
+	private final boolean required;
+
+	@Nullable
+	private volatile Method method;
+
+
+	private AutowiredMethodArgumentsResolver(Class<?> declaringClass, String methodName,
+			Class<?>[] parameterTypes, boolean required) {
+
+		Assert.notNull(declaringClass, "Declaring class must not be null");
+		Assert.hasText(methodName, "Method name must not be empty");
+		this.declaringClass = declaringClass;
+		this.methodName = methodName;
+		this.parameterTypes = parameterTypes;
+		this.required = required;
+	}
+
+
+	/**
+	 * Create a new {@link AutowiredMethodArgumentsResolver} for the specified
+	 * method where injection is optional.
+	 * @param declaringClass the class declaring the method
+	 * @param methodName the method name
+	 * @param parameterTypes the method parameter types
+	 * @return a new {@link AutowiredMethodArgumentsResolver} instance
+	 */
+	public static AutowiredMethodArgumentsResolver forMethod(
+			Class<?> declaringClass, String methodName, Class<?>... parameterTypes) {
+
+		return new AutowiredMethodArgumentsResolver(declaringClass, methodName, parameterTypes, false);
+	}
+
+	/**
+	 * Create a new {@link AutowiredMethodArgumentsResolver} for the specified
+	 * method where injection is required.
+	 * @param declaringClass the class declaring the method
+	 * @param methodName the method name
+	 * @param parameterTypes the method parameter types
+	 * @return a new {@link AutowiredMethodArgumentsResolver} instance
+	 */
+	public static AutowiredMethodArgumentsResolver forRequiredMethod(
+			Class<?> declaringClass, String methodName, Class<?>... parameterTypes) {
+
+		return new AutowiredMethodArgumentsResolver(declaringClass, methodName, parameterTypes, true);
+	}
+
+
+	/**
+	 * Resolve the method arguments for the specified bean.
+	 * @param beanFactory the bean factory to resolve against
+	 * @param beanName the name of the bean being injected
+	 * @param instance the bean instance being injected
+	 * @return the resolved method arguments, or {@code null} if injection is
+	 * optional and any of the arguments is not resolvable
+	 * @throws UnsatisfiedDependencyException if an argument could not be resolved
+	 */
+	@Nullable
+	public AutowiredArguments resolve(ConfigurableListableBeanFactory beanFactory, String beanName, Object instance) {
+		Method method = getMethod();
+		int parameterCount = method.getParameterCount();
+		Object[] arguments = new Object[parameterCount];
+		Set<String> autowiredBeanNames = new LinkedHashSet<>(parameterCount);
+		TypeConverter typeConverter = beanFactory.getTypeConverter();
+		for (int i = 0; i < parameterCount; i++) {
+			MethodParameter parameter = new MethodParameter(method, i);
+			DependencyDescriptor descriptor = new DependencyDescriptor(parameter, this.required);
+			descriptor.setContainingClass(instance.getClass());
+			try {
+				Object argument = beanFactory.resolveDependency(descriptor, beanName, autowiredBeanNames, typeConverter);
+				if (argument == null && !this.required) {
+					return null;
+				}
+				arguments[i] = argument;
+			}
+			catch (BeansException ex) {
+				throw new UnsatisfiedDependencyException(null, beanName, new InjectionPoint(parameter), ex);
+			}
+		}
+		registerDependentBeans(beanFactory, beanName, autowiredBeanNames);
+		return AutowiredArguments.of(arguments);
+	}
+
+	/**
+	 * Resolve the method arguments for the specified bean and invoke the method
+	 * on the given instance. Does not invoke the method if injection is optional
+	 * and any of the arguments is not resolvable.
+	 * @param beanFactory the bean factory to resolve against
+	 * @param beanName the name of the bean being injected
+	 * @param instance the bean instance to invoke the method on
+	 * @throws UnsatisfiedDependencyException if an argument could not be resolved
+	 */
+	public void resolveAndInvoke(ConfigurableListableBeanFactory beanFactory, String beanName, Object instance) {
+		AutowiredArguments arguments = resolve(beanFactory, beanName, instance);
+		if (arguments != null) {
+			Method method = getMethod();
+			ReflectionUtils.makeAccessible(method);
+			ReflectionUtils.invokeMethod(method, instance, arguments.toArray());
+		}
+	}
+
+	private Method getMethod() {
+		Method method = this.method;
+		if (method == null) {
+			method = ReflectionUtils.findMethod(this.declaringClass, this.methodName, this.parameterTypes);
+			Assert.state(method != null, () -> "No method '" + this.methodName + "' with parameter types " +
+					Arrays.toString(this.parameterTypes) + " found on " + this.declaringClass.getName());
+			this.method = method;
+		}
+		return method;
+	}
+
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.aot;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.springframework.beans.BeanInstantiationException;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.TypeConverter;
+import org.springframework.beans.factory.InjectionPoint;
+import org.springframework.beans.factory.UnsatisfiedDependencyException;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.DependencyDescriptor;
+import org.springframework.beans.factory.support.SimpleInstantiationStrategy;
+import org.springframework.core.MethodParameter;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Instance supplier for a bean definition generated ahead of time, resolving
+ * the autowired arguments of a specific constructor or factory method and
+ * creating the bean instance with them.
+ *
+ * <p>By default, the constructor or factory method gets invoked reflectively.
+ * Generated code typically registers an {@link InstanceGenerator} which calls
+ * it directly instead:
+ *
+ * <pre class="code">
+ * beanDefinition.setInstanceSupplier(BeanInstanceSupplier
+ *         .&lt;MyService&gt;forConstructor(beanFactory, "myService", MyService.class, MyRepository.class)
+ *         .withGenerator(args -&gt; new MyService(args.get(0))));
+ * </pre>
+ *
+ * @since 5.2.9
+ * @param <T> the type of instance supplied
+ * @see org.springframework.beans.factory.support.AbstractBeanDefinition#setInstanceSupplier
+ */
+public final class BeanInstanceSupplier<T> extends AutowiredElementResolver implements Supplier<T> {
+
+	private final ConfigurableListableBeanFactory beanFactory;
+
+	private final String beanName;
+
+	private final Class<?> declaringClass;
+
+	@Nullable
+	private final String factoryBeanName;
+
+	@Nullable
+	private final String methodName;
+
+	private final Class<?>[] parameterTypes;
+
+	@Nullable
+	private final InstanceGenerator<T> generator;
+
+	@Nullable
+	private volatile Executable executable;
+
+
+	private BeanInstanceSupplier(ConfigurableListableBeanFactory beanFactory, String beanName,
+			Class<?> declaringClass, @Nullable String factoryBeanName, @Nullable String methodName,
+			Class<?>[] parameterTypes, @Nullable InstanceGenerator<T> generator) {
+
+		this.beanFactory = beanFactory;
+		this.beanName = beanName;
+		this.declaringClass = declaringClass;
+		this.factoryBeanName = factoryBeanName;
+		this.methodName = methodName;
+		this.parameterTypes = parameterTypes;
+		this.generator = generator;
+	}
+
+
+	/**
+	 * Create a new {@link BeanInstanceSupplier} for the constructor of the given class
+	 * with the given parameter types.
+	 * @param beanFactory the bean factory to resolve arguments against
+	 * @param beanName the name of the bean to create
+	 * @param declaringClass the class declaring the constructor
+	 * @param parameterTypes the constructor parameter types
+	 * @return a new {@link BeanInstanceSupplier} instance
+	 */
+	public static <T> BeanInstanceSupplier<T> forConstructor(ConfigurableListableBeanFactory beanFactory,
+			String beanName, Class<?> declaringClass, Class<?>... parameterTypes) {
+
+		Assert.notNull(beanFactory, "BeanFactory must not be null");
+		Assert.hasText(beanName, "Bean name must not be empty");
+		Assert.notNull(declaringClass, "Declaring class must not be null");
+		return new BeanInstanceSupplier<>(beanFactory, beanName, declaringClass,
+				null, null, parameterTypes, null);
+	}
+
+	/**
+	 * Create a new {@link BeanInstanceSupplier} for the factory method with the
+	 * given name and parameter types.
+	 * @param beanFactory the bean factory to resolve arguments against
+	 * @param beanName the name of the bean to create
+	 * @param declaringClass the class declaring the factory method
+	 * @param factoryBeanName the name of the factory bean to invoke the method on,
+	 * or {@code null} for a static factory method
+	 * @param methodName the name of the factory method
+	 * @param parameterTypes the factory method parameter types
+	 * @return a new {@link BeanInstanceSupplier} instance
+	 */
+	public static <T> BeanInstanceSupplier<T> forFactoryMethod(ConfigurableListableBeanFactory beanFactory,
+			String beanName, Class<?> declaringClass, @Nullable String factoryBeanName,
+			String methodName, Class<?>... parameterTypes) {
+
+		Assert.notNull(beanFactory, "BeanFactory must not be null");
+		Assert.hasText(beanName, "Bean name must not be empty");
+		Assert.notNull(declaringClass, "Declaring class must not be null");
+		Assert.hasText(methodName, "Method name must not be empty");
+		return new BeanInstanceSupplier<>(beanFactory, beanName, declaringClass,
+				factoryBeanName, methodName, parameterTypes, null);
+	}
+
+
+	/**
+	 * Return a new {@link BeanInstanceSupplier} instance which uses the given
+	 * generator for creating the instance from the resolved arguments,
+	 * rather than invoking the constructor or factory method reflectively.
+	 * @param generator the generator to use
+	 * @return a new {@link BeanInstanceSupplier} instance
+	 */
+	public BeanInstanceSupplier<T> withGenerator(InstanceGenerator<T> generator) {
+		Assert.notNull(generator, "Generator must not be null");
+		return new BeanInstanceSupplier<>(this.beanFactory, this.beanName, this.declaringClass,
+				this.factoryBeanName, this.methodName, this.parameterTypes, generator);
+	}
+
+	/**
+	 * Return the constructor or factory method that this supplier creates instances with.
+	 * @throws IllegalStateException if no such constructor or method exists
+	 */
+	public Executable getExecutable() {
+		Executable executable = this.executable;
+		if (executable == null) {
+			if (this.methodName != null) {
+				executable = ReflectionUtils.findMethod(this.declaringClass, this.methodName, this.parameterTypes);
+			}
+			else {
+				try {
+					executable = this.declaringClass.getDeclaredConstructor(this.parameterTypes);
+				}
+				catch (NoSuchMethodException ex) {
+					executable = null;
+				}
+			}
+			if (executable == null) {
+				throw new IllegalStateException("No " + (this.methodName != null ?
+						"factory method '" + this.methodName + "'" : "constructor") + " with parameter types " +
+						Arrays.toString(this.parameterTypes) + " found on " + this.declaringClass.getName());
+			}
+			this.executable = executable;
+		}
+		return executable;
+	}
+
+	@Override
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public T get() throws BeansException {
+		Executable executable = getExecutable();
+		AutowiredArguments arguments = resolveArguments(executable);
+		if (executable instanceof Method) {
+			Method method = (Method) executable;
+			if (this.factoryBeanName != null) {
+				this.beanFactory.registerDependentBean(this.factoryBeanName, this.beanName);
+			}
+			return SimpleInstantiationStrategy.instantiateWithFactoryMethod(method,
+					() -> invokeFactoryMethod(method, arguments));
+		}
+		Constructor<T> constructor = (Constructor<T>) executable;
+		if (this.generator != null) {
+			try {
+				return this.generator.generate(arguments);
+			}
+			catch (BeansException | IllegalStateException ex) {
+				throw ex;
+			}
+			catch (Exception ex) {
+				throw new BeanInstantiationException(constructor, "Constructor threw exception", ex);
+			}
+		}
+		return BeanUtils.instantiateClass(constructor, arguments.toArray());
+	}
+
+	@Nullable
+	@SuppressWarnings("unchecked")
+	private T invokeFactoryMethod(Method method, AutowiredArguments arguments) {
+		try {
+			if (this.generator != null) {
+				return this.generator.generate(arguments);
+			}
+			Object target = null;
+			if (!Modifier.isStatic(method.getModifiers())) {
+				Assert.state(this.factoryBeanName != null, "No factory bean name specified for instance method");
+				target = this.beanFactory.getBean(this.factoryBeanName);
+			}
+			ReflectionUtils.makeAccessible(method);
+			return (T) method.invoke(target, arguments.toArray());
+		}
+		catch (BeansException | IllegalStateException ex) {
+			throw ex;
+		}
+		catch (InvocationTargetException ex) {
+			throw new BeanInstantiationException(method,
+					"Factory method '" + method.getName() + "' threw exception", ex.getTargetException());
+		}
+		catch (Exception ex) {
+			throw new BeanInstantiationException(method,
+					"Factory method '" + method.getName() + "' threw exception", ex);
+		}
+	}
+
+	private AutowiredArguments resolveArguments(Executable executable) {
+		int parameterCount = executable.getParameterCount();
+		Object[] resolved = new Object[parameterCount];
+		Set<String> autowiredBeanNames = new LinkedHashSet<>(parameterCount);
+		TypeConverter typeConverter = this.beanFactory.getTypeConverter();
+		for (int i = 0; i < parameterCount; i++) {
+			MethodParameter parameter = MethodParameter.forExecutable(executable, i);
+			DependencyDescriptor descriptor = new DependencyDescriptor(parameter, true);
+			try {
+				resolved[i] = this.beanFactory.resolveDependency(
+						descriptor, this.beanName, autowiredBeanNames, typeConverter);
+			}
+			catch (BeansException ex) {
+				throw new UnsatisfiedDependencyException(null, this.beanName, new InjectionPoint(parameter), ex);
+			}
+		}
+		registerDependentBeans(this.beanFactory, this.beanName, autowiredBeanNames);
+		return AutowiredArguments.of(resolved);
+	}
+
+
+	/**
+	 * Generator creating a bean instance from resolved arguments, typically through
+	 * a direct constructor or factory method invocation in generated code.
+	 * @param <T> the type of instance generated
+	 */
+	@FunctionalInterface
+	public interface InstanceGenerator<T> {
+
+		/**
+		 * Create the bean instance.
+		 * @param arguments the resolved constructor or factory method arguments
+		 * @return the bean instance (possibly {@code null} for a factory method)
+		 * @throws Exception on instantiation failure
+		 */
+		@Nullable
+		T generate(AutowiredArguments arguments) throws Exception;
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.aot;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+import org.springframework.beans.PropertyValues;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link InstantiationAwareBeanPostProcessor} that applies autowiring callbacks
+ * generated ahead of time, replacing the annotation introspection performed by
+ * {@link org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessor}.
+ *
+ * <p>Callbacks are invoked at the same point as annotation-driven injection,
+ * i.e. after the bean has been instantiated and exposed as an early singleton
+ * reference, so that circular references between injected fields and methods
+ * keep being resolvable.
+ *
+ * @since 5.2.9
+ * @see AutowiredFieldValueResolver
+ * @see AutowiredMethodArgumentsResolver
+ */
+public class GeneratedAutowiringBeanPostProcessor implements InstantiationAwareBeanPostProcessor {
+
+	private final ConfigurableListableBeanFactory beanFactory;
+
+	private final Map<String, BiConsumer<ConfigurableListableBeanFactory, Object>> autowiringCallbacks =
+			new ConcurrentHashMap<>(64);
+
+
+	/**
+	 * Create a new {@code GeneratedAutowiringBeanPostProcessor} for the given bean factory.
+	 * @param beanFactory the bean factory to resolve dependencies against
+	 */
+	public GeneratedAutowiringBeanPostProcessor(ConfigurableListableBeanFactory beanFactory) {
+		Assert.notNull(beanFactory, "BeanFactory must not be null");
+		this.beanFactory = beanFactory;
+	}
+
+
+	/**
+	 * Register the autowiring callback for the bean with the given name.
+	 * @param beanName the name of the bean
+	 * @param callback the callback to apply to the bean instance
+	 */
+	public void registerAutowiring(String beanName, BiConsumer<ConfigurableListableBeanFactory, Object> callback) {
+		Assert.hasText(beanName, "Bean name must not be empty");
+		Assert.notNull(callback, "Autowiring callback must not be null");
+		this.autowiringCallbacks.put(beanName, callback);
+	}
+
+	/**
+	 * Return whether an autowiring callback has been registered for the given bean.
+	 * @param beanName the name of the bean
+	 */
+	public boolean hasAutowiring(String beanName) {
+		return (getAutowiringCallback(beanName) != null);
+	}
+
+	@Override
+	public PropertyValues postProcessProperties(PropertyValues pvs, Object bean, String beanName) {
+		BiConsumer<ConfigurableListableBeanFactory, Object> callback = getAutowiringCallback(beanName);
+		if (callback != null) {
+			callback.accept(this.beanFactory, bean);
+		}
+		return pvs;
+	}
+
+	@Nullable
+	private BiConsumer<ConfigurableListableBeanFactory, Object> getAutowiringCallback(String beanName) {
+		BiConsumer<ConfigurableListableBeanFactory, Object> callback = this.autowiringCallbacks.get(beanName);
+		if (callback == null) {
+			// Inner bean name adapted for uniqueness: "name#counter"
+			int separatorIndex = beanName.lastIndexOf('#');
+			if (separatorIndex > 0) {
+				callback = this.autowiringCallbacks.get(beanName.substring(0, separatorIndex));
+			}
+		}
+		return callback;
+	}
+
+}
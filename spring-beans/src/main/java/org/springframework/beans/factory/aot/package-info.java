@@ -0,0 +1,10 @@
+/**
+ * Runtime support for bean definitions generated ahead of time, resolving
+ * autowired arguments, fields and methods for generated instance suppliers.
+ */
+@NonNullApi
+@NonNullFields
+package org.springframework.beans.factory.aot;
+
+import org.springframework.lang.NonNullApi;
+import org.springframework.lang.NonNullFields;
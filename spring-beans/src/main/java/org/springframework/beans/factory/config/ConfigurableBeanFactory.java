@@ -18,6 +18,7 @@ package org.springframework.beans.factory.config;
 
 import java.beans.PropertyEditor;
 import java.security.AccessControlContext;
+import java.util.concurrent.Executor;
 
 import org.springframework.beans.PropertyEditorRegistrar;
 import org.springframework.beans.PropertyEditorRegistry;
@@ -27,6 +28,7 @@ import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.HierarchicalBeanFactory;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.core.metrics.ApplicationStartup;
 import org.springframework.lang.Nullable;
 import org.springframework.util.StringValueResolver;
 
@@ -283,6 +285,54 @@ public interface ConfigurableBeanFactory extends HierarchicalBeanFactory, Single
 	 */
 	AccessControlContext getAccessControlContext();
 
+	/**
+	 * Set the {@code ApplicationStartup} for this bean factory.
+	 * <p>This allows the application context to record metrics during application startup.
+	 * <p>The default implementation is empty, ignoring the given startup.
+	 * @param applicationStartup the new application startup
+	 * @since 5.2.9
+	 */
+	default void setApplicationStartup(ApplicationStartup applicationStartup) {
+	}
+
+	/**
+	 * Return the {@code ApplicationStartup} for this bean factory.
+	 * <p>The default implementation returns {@link ApplicationStartup#DEFAULT}.
+	 * @since 5.2.9
+	 */
+	default ApplicationStartup getApplicationStartup() {
+		return ApplicationStartup.DEFAULT;
+	}
+
+	/**
+	 * Set the {@link Executor} (possibly a {@link org.springframework.core.task.TaskExecutor})
+	 * for pre-instantiating independent singletons in parallel.
+	 * <p>By default, singletons get pre-instantiated one after the other in the calling
+	 * thread, under the factory's singleton mutex. Setting an executor switches the
+	 * factory to per-bean creation locks, with the executor's threads instantiating
+	 * non-lazy singletons as soon as their declared dependencies are available.
+	 * {@code dependsOn} and bean reference declarations are honored, and
+	 * {@link org.springframework.beans.factory.SmartInitializingSingleton} callbacks
+	 * still get invoked sequentially in registration order once all singletons
+	 * have been instantiated.
+	 * <p>The default implementation is empty, ignoring the given executor.
+	 * @param bootstrapExecutor the executor to use, or {@code null} for none
+	 * @since 5.2.9
+	 * @see ConfigurableListableBeanFactory#preInstantiateSingletons()
+	 */
+	default void setBootstrapExecutor(@Nullable Executor bootstrapExecutor) {
+	}
+
+	/**
+	 * Return the {@link Executor} for parallel pre-instantiation of singletons, if any.
+	 * <p>The default implementation returns {@code null}.
+	 * @since 5.2.9
+	 */
+	@Nullable
+	default Executor getBootstrapExecutor() {
+		return null;
+	}
+
 	/**
 	 * Copy all relevant configuration from the given other factory.
 	 * <p>Should include all standard configuration settings as well as
@@ -1303,6 +1303,23 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 	 */
 	@Nullable
 	private FactoryBean<?> getSingletonFactoryBeanForTypeCheck(String beanName, RootBeanDefinition mbd) {
+		if (isParallelSingletonCreation()) {
+			// Skip the shortcut while another thread is creating the FactoryBean.
+			if (!tryAcquireSingletonCreationLock(beanName)) {
+				return null;
+			}
+			try {
+				return doGetSingletonFactoryBeanForTypeCheck(beanName, mbd);
+			}
+			finally {
+				releaseSingletonCreationLock(beanName);
+			}
+		}
+		return doGetSingletonFactoryBeanForTypeCheck(beanName, mbd);
+	}
+
+	@Nullable
+	private FactoryBean<?> doGetSingletonFactoryBeanForTypeCheck(String beanName, RootBeanDefinition mbd) {
 		synchronized (getSingletonMutex()) {
 			BeanWrapper bw = this.factoryBeanInstanceCache.get(beanName);
 			if (bw != null) {
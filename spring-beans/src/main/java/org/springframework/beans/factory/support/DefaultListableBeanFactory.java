@@ -26,6 +26,7 @@ import org.springframework.core.annotation.MergedAnnotation;
 import org.springframework.core.annotation.MergedAnnotations;
 import org.springframework.core.annotation.MergedAnnotations.SearchStrategy;
 import org.springframework.core.log.LogMessage;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.lang.Nullable;
 import org.springframework.util.*;
 
@@ -35,10 +36,14 @@ import java.lang.annotation.Annotation;
 import java.lang.ref.Reference;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -62,6 +67,11 @@ import java.util.stream.Stream;
  * have a look at {@link StaticListableBeanFactory}, which manages existing
  * bean instances rather than creating new ones based on bean definitions.
  *
+ * <p>For highly concurrent access to singletons, e.g. with many threads creating
+ * prototypes that depend on singletons, consider switching this factory to a
+ * {@link #setConcurrentSingletonRegistry concurrent singleton registry} right
+ * after instantiation, avoiding the global singleton mutex on regular access.
+ *
  * @author Rod Johnson
  * @author Juergen Hoeller
  * @author Sam Brannen
@@ -115,6 +125,11 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	 */
 	private boolean allowEagerClassLoading = true;
 
+	/**
+	 * Whether to treat singletons without explicit lazy-init flag as lazy-init.
+	 */
+	private boolean lazyInitByDefault = false;
+
 	/**
 	 * Optional OrderComparator for dependency Lists and arrays.
 	 */
@@ -151,6 +166,26 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	 */
 	private final Map<Class<?>, String[]> singletonBeanNamesByType = new ConcurrentHashMap<>(64);
 
+	/**
+	 * Map of singleton and non-singleton bean names, keyed by generic dependency type.
+	 */
+	private final Map<GenericTypeKey, String[]> allBeanNamesByGenericType = new ConcurrentHashMap<>(64);
+
+	/**
+	 * Map of singleton-only bean names, keyed by generic dependency type.
+	 */
+	private final Map<GenericTypeKey, String[]> singletonBeanNamesByGenericType = new ConcurrentHashMap<>(64);
+
+	/**
+	 * Number of by-type lookups served from the type index.
+	 */
+	private final LongAdder typeIndexHits = new LongAdder();
+
+	/**
+	 * Number of by-type lookups that had to be resolved against all bean definitions.
+	 */
+	private final LongAdder typeIndexMisses = new LongAdder();
+
 	/**
 	 * List of bean definition names, in registration order. - Bean定义名称列表，按顺序注册。
 	 */
@@ -262,6 +297,34 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		return this.allowEagerClassLoading;
 	}
 
+	/**
+	 * Set whether singletons without an explicit lazy-init flag should be
+	 * treated as lazy-init, i.e. not get pre-instantiated on startup.
+	 * <p>Default is "false". Turn this flag on for faster startup, with the
+	 * cost of singleton creation being deferred to the first access (or to
+	 * a background warm-up step after startup). Bean definitions explicitly
+	 * marked as {@code lazy-init="false"} still get pre-instantiated, as do
+	 * {@link SmartInitializingSingleton} beans since they rely on their
+	 * callback after the pre-instantiation phase.
+	 *
+	 * @since 5.2.9
+	 * @see AbstractBeanDefinition#getLazyInit()
+	 * @see #preInstantiateSingletons()
+	 */
+	public void setLazyInitByDefault(boolean lazyInitByDefault) {
+		this.lazyInitByDefault = lazyInitByDefault;
+	}
+
+	/**
+	 * Return whether singletons without an explicit lazy-init flag are
+	 * treated as lazy-init.
+	 *
+	 * @since 5.2.9
+	 */
+	public boolean isLazyInitByDefault() {
+		return this.lazyInitByDefault;
+	}
+
 	/**
 	 * Set a {@link java.util.Comparator} for dependency Lists and arrays.
 	 *
@@ -318,6 +381,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			DefaultListableBeanFactory otherListableFactory = (DefaultListableBeanFactory) otherFactory;
 			this.allowBeanDefinitionOverriding = otherListableFactory.allowBeanDefinitionOverriding;
 			this.allowEagerClassLoading = otherListableFactory.allowEagerClassLoading;
+			this.lazyInitByDefault = otherListableFactory.lazyInitByDefault;
 			this.dependencyComparator = otherListableFactory.dependencyComparator;
 			// A clone of the AutowireCandidateResolver since it is potentially BeanFactoryAware
 			setAutowireCandidateResolver(otherListableFactory.getAutowireCandidateResolver().cloneIfNecessary());
@@ -474,9 +538,23 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		Class<?> resolved = type.resolve();
 		if (resolved != null && !type.hasGenerics()) {
 			return getBeanNamesForType(resolved, includeNonSingletons, allowEagerInit);
-		} else {
+		}
+		GenericTypeKey typeKey = (isConfigurationFrozen() && allowEagerInit ?
+				GenericTypeKey.forType(type, getBeanClassLoader()) : null);
+		if (typeKey == null) {
 			return doGetBeanNamesForType(type, includeNonSingletons, allowEagerInit);
 		}
+		Map<GenericTypeKey, String[]> cache =
+				(includeNonSingletons ? this.allBeanNamesByGenericType : this.singletonBeanNamesByGenericType);
+		String[] resolvedBeanNames = cache.get(typeKey);
+		if (resolvedBeanNames != null) {
+			this.typeIndexHits.increment();
+			return resolvedBeanNames;
+		}
+		this.typeIndexMisses.increment();
+		resolvedBeanNames = doGetBeanNamesForType(type, includeNonSingletons, true);
+		cache.put(typeKey, resolvedBeanNames);
+		return resolvedBeanNames;
 	}
 
 	@Override
@@ -500,8 +578,10 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 				(includeNonSingletons ? this.allBeanNamesByType : this.singletonBeanNamesByType);
 		String[] resolvedBeanNames = cache.get(type);
 		if (resolvedBeanNames != null) {
+			this.typeIndexHits.increment();
 			return resolvedBeanNames;
 		}
+		this.typeIndexMisses.increment();
 		// 如果缓存中没有获取到，那么只能重新获取，获取到之后就存入缓存
 		// ⚠️
 		resolvedBeanNames = doGetBeanNamesForType(ResolvableType.forRawClass(type), includeNonSingletons, true);
@@ -868,6 +948,8 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		// 设置配置冻结标识为true
 		this.configurationFrozen/* 配置冻结 */ = true;
 		this.frozenBeanDefinitionNames = StringUtils.toStringArray(this.beanDefinitionNames);
+		// Start the type index from scratch against the frozen bean definitions
+		clearByTypeCache();
 	}
 
 	@Override
@@ -875,6 +957,29 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		return this.configurationFrozen;
 	}
 
+	/**
+	 * Return the number of by-type lookups (for raw as well as generic types)
+	 * that have been served from this factory's type index so far.
+	 * <p>The type index is only in use once the configuration has been frozen,
+	 * for lookups that allow for eager initialization.
+	 * @since 5.2.9
+	 * @see #freezeConfiguration()
+	 * @see #getTypeIndexMissCount()
+	 */
+	public long getTypeIndexHitCount() {
+		return this.typeIndexHits.sum();
+	}
+
+	/**
+	 * Return the number of by-type lookups that could not be served from
+	 * this factory's type index so far, having to match all bean definitions.
+	 * @since 5.2.9
+	 * @see #getTypeIndexHitCount()
+	 */
+	public long getTypeIndexMissCount() {
+		return this.typeIndexMisses.sum();
+	}
+
 	/**
 	 * Considers all beans as eligible for metadata caching
 	 * if the factory's configuration has been marked as frozen.
@@ -911,55 +1016,25 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		// Trigger initialization of all non-lazy singleton beans...
 		// ⚠️触发所有单例bean的初始化（⚠️注意：已经实例化的bean，不会再进行实例化）
 		// 循环我们当前存在的所有的bd，挨个进行创建
-		for (String beanName : beanNames) {
-			// 获取bean的描述信息
-			// ⚠️合并父BeanDefinition：也就是xml<bean parent="">标签的
-			RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+		Executor bootstrapExecutor = getBootstrapExecutor();
+		if (bootstrapExecutor != null) {
+			new ParallelSingletonPreInstantiator(this, bootstrapExecutor).preInstantiateSingletons(beanNames);
+		}
+		else {
+			for (String beanName : beanNames) {
+				// 获取bean的描述信息
+				// ⚠️合并父BeanDefinition：也就是xml<bean parent="">标签的
+				RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
 
-			/* 只有"不是抽象的，是单例，非懒加载"，才进行初始化bean */
-			if (!bd.isAbstract()/* 是否是抽象 */ && bd.isSingleton()/* 是否是单例 */ && !bd.isLazyInit()/* 是否是懒加载 */) {
-				// 只有【不是抽象的、是单例、不是懒加载】的才成立
+				/* 只有"不是抽象的，是单例，非懒加载"，才进行初始化bean */
+				if (isPreInstantiationCandidate(beanName, bd)/* 不是抽象的，是单例，非懒加载 */) {
+					// 只有【不是抽象的、是单例、不是懒加载】的才成立
 
-				// 以下是对加载到的bd进行bean的初始化。
-				// 调用的getBean()：先从容器中获取，没有再创建！
+					// 以下是对加载到的bd进行bean的初始化。
+					// 调用的getBean()：先从容器中获取，没有再创建！
 
-				/* 如果实现FactoryBean */
-				if (isFactoryBean(beanName)) {
-					/**
-					 * ⚠️如果实现了FactoryBean接口，就加上【&】，也就是以getBean(&+beanName)这样的形式去获取bean，代表我获取的是FactoryBean实例，而不是FactoryBean#getObject()！
-					 *
-					 * >>> 也只有加了【&】后，返回的才是FactoryBean实例，而不是FactoryBean#getObject()！—— 由于不是获取FactoryBean#getObject()，所以不会触发调用FactoryBean#getObject()！
-					 *
-					 * >>> 如果不加【&】，那么就会先去创建FactoryBean实例，然后最终调用FactoryBean#getObject()创建对象和返回，那么这里得到的就是FactoryBean#getObject()
-					 *
-					 * 题外：里面会去掉【&】，FactoryBean实例存储在一级缓存中，beanName是不带&！
-					 */
-					// 如果是FactoryBean，就加上【&】符号，也就是getBean(&+beanName)这样的形式去容器获取factoryBean实例，而不是FactoryBean#getObject()，没有就创建！
-					Object bean = getBean(FACTORY_BEAN_PREFIX/* & */ + beanName);
-					/* 如果是FactoryBean的实例 */
-					if (bean instanceof FactoryBean) {
-						FactoryBean<?> factory = (FactoryBean<?>) bean;
-						// 判断这个FactoryBean是否希望急切的初始化
-						boolean isEagerInit/* 是渴望初始化 */;
-						if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
-							isEagerInit = AccessController.doPrivileged(
-									(PrivilegedAction<Boolean>) ((SmartFactoryBean<?>) factory)::isEagerInit,
-									getAccessControlContext());
-						} else {
-							isEagerInit = (factory instanceof SmartFactoryBean &&
-									((SmartFactoryBean<?>) factory).isEagerInit());
-						}
-						// 如果希望急切的初始化，则通过beanName获取bean实例
-						if (isEagerInit) {
-							// ⚠️进入这里
-							getBean(beanName);
-						}
-					}
-				}
-				/* 如果没有实现FactoryBean，只是普通的bean，通过beanName获取bean实例 */
-				else {
-					// ⚠️进入这里
-					getBean(beanName);
+					/* 如果实现FactoryBean */
+					preInstantiateSingleton(beanName);
 				}
 			}
 		}
@@ -980,6 +1055,8 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			Object singletonInstance = getSingleton(beanName);
 			// 判断单例bean是否实现了SmartInitializingSingleton接口
 			if (singletonInstance instanceof SmartInitializingSingleton) {
+				StartupStep smartInitialize = getApplicationStartup().start("spring.beans.smart-initialize")
+						.tag("beanName", beanName);
 				SmartInitializingSingleton smartSingleton = (SmartInitializingSingleton) singletonInstance;
 				if (System.getSecurityManager() != null) {
 					AccessController.doPrivileged((PrivilegedAction<Object>) () -> {
@@ -991,8 +1068,73 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 					// ⚠️如果单例bean实现了SmartInitializingSingleton接口，就调用该单例bean的afterSingletonsInstantiated()
 					smartSingleton.afterSingletonsInstantiated();
 				}
+				smartInitialize.end();
+			}
+		}
+	}
+
+	/**
+	 * Determine whether the given bean is a non-lazy singleton to pre-instantiate,
+	 * taking the {@link #setLazyInitByDefault "lazyInitByDefault"} flag into account.
+	 * @param beanName the name of the bean
+	 * @param mbd the merged bean definition for the bean
+	 * @since 5.2.9
+	 */
+	boolean isPreInstantiationCandidate(String beanName, RootBeanDefinition mbd) {
+		if (mbd.isAbstract() || !mbd.isSingleton() || mbd.isLazyInit()) {
+			return false;
+		}
+		if (!this.lazyInitByDefault || mbd.getLazyInit() != null) {
+			return true;
+		}
+		Class<?> beanType = predictBeanType(beanName, mbd);
+		return (beanType != null && SmartInitializingSingleton.class.isAssignableFrom(beanType));
+	}
+
+	/**
+	 * Pre-instantiate the given non-lazy singleton, taking a FactoryBean's
+	 * {@link SmartFactoryBean#isEagerInit() eager init} flag into account.
+	 * @param beanName the name of the bean
+	 * @since 5.2.9
+	 */
+	void preInstantiateSingleton(String beanName) {
+		if (isFactoryBean(beanName)) {
+			/**
+			 * ⚠️如果实现了FactoryBean接口，就加上【&】，也就是以getBean(&+beanName)这样的形式去获取bean，代表我获取的是FactoryBean实例，而不是FactoryBean#getObject()！
+			 *
+			 * >>> 也只有加了【&】后，返回的才是FactoryBean实例，而不是FactoryBean#getObject()！—— 由于不是获取FactoryBean#getObject()，所以不会触发调用FactoryBean#getObject()！
+			 *
+			 * >>> 如果不加【&】，那么就会先去创建FactoryBean实例，然后最终调用FactoryBean#getObject()创建对象和返回，那么这里得到的就是FactoryBean#getObject()
+			 *
+			 * 题外：里面会去掉【&】，FactoryBean实例存储在一级缓存中，beanName是不带&！
+			 */
+			// 如果是FactoryBean，就加上【&】符号，也就是getBean(&+beanName)这样的形式去容器获取factoryBean实例，而不是FactoryBean#getObject()，没有就创建！
+			Object bean = getBean(FACTORY_BEAN_PREFIX/* & */ + beanName);
+			/* 如果是FactoryBean的实例 */
+			if (bean instanceof FactoryBean) {
+				FactoryBean<?> factory = (FactoryBean<?>) bean;
+				// 判断这个FactoryBean是否希望急切的初始化
+				boolean isEagerInit/* 是渴望初始化 */;
+				if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
+					isEagerInit = AccessController.doPrivileged(
+							(PrivilegedAction<Boolean>) ((SmartFactoryBean<?>) factory)::isEagerInit,
+							getAccessControlContext());
+				} else {
+					isEagerInit = (factory instanceof SmartFactoryBean &&
+							((SmartFactoryBean<?>) factory).isEagerInit());
+				}
+				// 如果希望急切的初始化，则通过beanName获取bean实例
+				if (isEagerInit) {
+					// ⚠️进入这里
+					getBean(beanName);
+				}
 			}
 		}
+		/* 如果没有实现FactoryBean，只是普通的bean，通过beanName获取bean实例 */
+		else {
+			// ⚠️进入这里
+			getBean(beanName);
+		}
 	}
 
 
@@ -1166,7 +1308,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		// 注册单例到一级缓存中
 		super.registerSingleton(beanName, singletonObject);
 		updateManualSingletonNames/* 更新手动单例名称 */(set -> set.add(beanName), set -> !this.beanDefinitionMap.containsKey(beanName));
-		clearByTypeCache();
+		clearByTypeCache(beanName, singletonObject);
 	}
 
 	@Override
@@ -1219,6 +1361,32 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	private void clearByTypeCache() {
 		this.allBeanNamesByType.clear();
 		this.singletonBeanNamesByType.clear();
+		this.allBeanNamesByGenericType.clear();
+		this.singletonBeanNamesByGenericType.clear();
+	}
+
+	/**
+	 * Remove the by-type mappings affected by the given newly registered singleton:
+	 * mappings for types that the singleton is an instance of, and mappings that
+	 * contain the given bean name already. A {@link FactoryBean} singleton or a
+	 * singleton registered for an existing bean definition removes all mappings,
+	 * since its type cannot be determined from the instance alone.
+	 * @param beanName the name of the singleton
+	 * @param singletonObject the singleton instance
+	 */
+	private void clearByTypeCache(String beanName, Object singletonObject) {
+		if (singletonObject instanceof FactoryBean || containsBeanDefinition(beanName)) {
+			clearByTypeCache();
+			return;
+		}
+		Predicate<Map.Entry<Class<?>, String[]>> rawTypeFilter = entry ->
+				(entry.getKey().isInstance(singletonObject) || ObjectUtils.containsElement(entry.getValue(), beanName));
+		this.allBeanNamesByType.entrySet().removeIf(rawTypeFilter);
+		this.singletonBeanNamesByType.entrySet().removeIf(rawTypeFilter);
+		Predicate<Map.Entry<GenericTypeKey, String[]>> genericTypeFilter = entry ->
+				(entry.getKey().type.isInstance(singletonObject) || ObjectUtils.containsElement(entry.getValue(), beanName));
+		this.allBeanNamesByGenericType.entrySet().removeIf(genericTypeFilter);
+		this.singletonBeanNamesByGenericType.entrySet().removeIf(genericTypeFilter);
 	}
 
 
@@ -2276,6 +2444,71 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	}
 
 
+	/**
+	 * Key for the type index of generic types: the structure of raw classes that
+	 * a fully declared parameterized type consists of, independent from the
+	 * {@link ResolvableType} instance (and its source) that it was derived from.
+	 */
+	private static final class GenericTypeKey {
+
+		/** The type that this key has been built for, not taking part in equality. */
+		private final ResolvableType type;
+
+		private final Class<?> rawClass;
+
+		private final GenericTypeKey[] generics;
+
+		private GenericTypeKey(ResolvableType type, Class<?> rawClass, GenericTypeKey[] generics) {
+			this.type = type;
+			this.rawClass = rawClass;
+			this.generics = generics;
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			return (this == other || (other instanceof GenericTypeKey &&
+					this.rawClass == ((GenericTypeKey) other).rawClass &&
+					Arrays.equals(this.generics, ((GenericTypeKey) other).generics)));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.rawClass.hashCode() * 29 + Arrays.hashCode(this.generics);
+		}
+
+		/**
+		 * Build a key for the given type, provided that it only consists of
+		 * cache-safe classes and parameterized types declared with those:
+		 * type variables, wildcards and arrays need their context for matching.
+		 * @return the key, or {@code null} if the type cannot be indexed
+		 */
+		@Nullable
+		static GenericTypeKey forType(ResolvableType type, @Nullable ClassLoader classLoader) {
+			Type javaType = type.getType();
+			Class<?> rawClass = type.resolve();
+			if (rawClass == null || type.isArray() || !ClassUtils.isCacheSafe(rawClass, classLoader)) {
+				return null;
+			}
+			if (javaType instanceof Class) {
+				return new GenericTypeKey(type, rawClass, new GenericTypeKey[0]);
+			}
+			if (!(javaType instanceof ParameterizedType) ||
+					((ParameterizedType) javaType).getOwnerType() instanceof ParameterizedType) {
+				return null;
+			}
+			ResolvableType[] generics = type.getGenerics();
+			GenericTypeKey[] genericKeys = new GenericTypeKey[generics.length];
+			for (int i = 0; i < generics.length; i++) {
+				genericKeys[i] = forType(generics[i], classLoader);
+				if (genericKeys[i] == null) {
+					return null;
+				}
+			}
+			return new GenericTypeKey(type, rawClass, genericKeys);
+		}
+	}
+
+
 	/**
 	 * An {@link org.springframework.core.OrderComparator.OrderSourceProvider} implementation
 	 * that is aware of the bean metadata of the instances to sort.
@@ -18,6 +18,7 @@ package org.springframework.beans.factory.support;
 
 import org.springframework.beans.factory.*;
 import org.springframework.beans.factory.config.SingletonBeanRegistry;
+import org.springframework.core.NamedThreadLocal;
 import org.springframework.core.SimpleAliasRegistry;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -25,6 +26,9 @@ import org.springframework.util.StringUtils;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Generic registry for shared bean instances, implementing the
@@ -62,6 +66,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	/** Maximum number of suppressed exceptions to preserve. */
 	private static final int SUPPRESSED_EXCEPTIONS_LIMIT = 100;
 
+	/** Interval for re-checking a per-bean creation lock held by another thread. */
+	private static final long CREATION_LOCK_POLL_MILLIS = 10;
+
 
 	/*
 
@@ -84,7 +91,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 
 	*/
 	/** Cache of singleton factories: bean name to ObjectFactory. - 单例工厂的缓存：Bean名称为ObjectFactory。*/
-	private final Map<String, ObjectFactory<?>> singletonFactories = new HashMap<>(16);
+	private Map<String, ObjectFactory<?>> singletonFactories = new HashMap<>(16);
 
 	/** Cache of early singleton objects: bean name to bean instance. - 早期单例对象的高速缓存：Bean名称到Bean实例。 */
 	/*
@@ -96,13 +103,13 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	⚠️存放的是半成品对象
 
 	 */
-	private final Map<String, Object> earlySingletonObjects = new HashMap<>(16);
+	private Map<String, Object> earlySingletonObjects = new HashMap<>(16);
 
 	/**
 	 * 已注册的单例集合：用来保存当前所有已经注册的bean
 	 * Set of registered singletons, containing the bean names in registration order. - 已注册的单例集合，按注册顺序包含Bean名称。 */
 	// 已注册的单例集合：标记当前beanName的bean已经创建好了，并且放入了一级缓存
-	private final Set<String> registeredSingletons = new LinkedHashSet<>(256);
+	private Set<String> registeredSingletons = new LinkedHashSet<>(256);
 
 	/**
 	 * 正在创建过程中的beanName集合
@@ -124,6 +131,22 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	/** Flag that indicates whether we're currently within destroySingletons. */
 	private boolean singletonsCurrentlyInDestruction = false;
 
+	/** Whether singletons are created under per-bean locks instead of the singleton mutex. */
+	private volatile boolean parallelSingletonCreation = false;
+
+	/** Whether singleton access avoids the singleton mutex, relying on per-bean locks only. */
+	private volatile boolean concurrentSingletonRegistry = false;
+
+	/** Per-bean creation locks, used in parallel singleton creation mode: bean name to lock. */
+	private final Map<String, SingletonCreationLock> singletonCreationLocks = new ConcurrentHashMap<>(16);
+
+	/** Threads currently waiting for a per-bean creation lock: thread to bean name. */
+	private final Map<Thread, String> singletonCreationWaiters = new ConcurrentHashMap<>(16);
+
+	/** Suppressed Exceptions per creating thread, used in parallel singleton creation mode. */
+	private final ThreadLocal<Set<Exception>> threadSuppressedExceptions =
+			new NamedThreadLocal<>("Suppressed exceptions of singleton creation");
+
 	/**
 	 * Disposable bean instances: bean name to disposable instance.
 	 *
@@ -156,7 +179,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	public void registerSingleton(String beanName, Object singletonObject) throws IllegalStateException {
 		Assert.notNull(beanName, "Bean name must not be null");
 		Assert.notNull(singletonObject, "Singleton object must not be null");
-		synchronized (this.singletonObjects) {
+		synchronized (getSingletonMonitor(beanName)) {
 			Object oldObject = this.singletonObjects.get(beanName);
 			if (oldObject != null) {
 				// 如果beanName对应的对象已经存在了，那么就抛出异常！
@@ -177,6 +200,21 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 * @param singletonObject the singleton object
 	 */
 	protected void addSingleton(String beanName, Object singletonObject) {
+		if (this.concurrentSingletonRegistry) {
+			synchronized (getSingletonMonitor(beanName)) {
+				this.singletonObjects.put(beanName, singletonObject);
+				this.singletonFactories.remove(beanName);
+				this.earlySingletonObjects.remove(beanName);
+				this.registeredSingletons.add(beanName);
+			}
+			if (!this.singletonCreationWaiters.isEmpty()) {
+				// Wake up threads that released the singleton mutex while waiting for this bean.
+				synchronized (this.singletonObjects) {
+					this.singletonObjects.notifyAll();
+				}
+			}
+			return;
+		}
 		synchronized (this.singletonObjects) {
 			/* 添加到一级缓存 */
 			// 将映射关系添加到单例对象的高速缓存中（IOC容器，一级缓存）
@@ -194,6 +232,11 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 			/* 告诉你当前对象已经创建完成了(已经注册了)，之后用的时候，就可以直接从容器中获取，而不需要每次都创建新的 */
 			// 将beanName添加到添加到"已注册的单例集合"中，标记当前beanName的bean已经创建好了，并且放入了一级缓存
 			this.registeredSingletons.add(beanName);
+
+			if (isParallelSingletonCreation()) {
+				// Wake up threads that released the singleton mutex while waiting for this bean.
+				this.singletonObjects.notifyAll();
+			}
 		}
 	}
 
@@ -221,7 +264,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		*/
 
 		Assert.notNull(singletonFactory, "Singleton factory must not be null");
-		synchronized (this.singletonObjects) {
+		synchronized (getSingletonMonitor(beanName)) {
 			/**
 			 * 1、earlySingletonObjects：早期单例对象的高速缓存：Bean名称到Bean实例。
 			 * 3、singletonFactories：单例对象的工厂：将bean放到bean工厂当中
@@ -290,7 +333,16 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		// 从单例对象缓存中获取beanName对应的单例对象
 		Object singletonObject = this.singletonObjects.get(beanName);
 		// 如果单例对象缓存中没有 && 该beanName对应的单例bean正在创建过程中
-		if (singletonObject == null /* Ioc容器当中没有获取到 */ && isSingletonCurrentlyInCreation(beanName) /* 判断当前beanName对应的bean对象是否正在创建过程中 */) {
+		if (singletonObject == null /* Ioc容器当中没有获取到 */ && isSingletonCurrentlyInCreation(beanName) /* 判断当前beanName对应的bean对象是否正在创建过程中 */ &&
+				isEarlySingletonReferenceAccessible(beanName)) {
+			if (this.concurrentSingletonRegistry) {
+				// Lock-free read of the second level, promotion under the per-bean monitor
+				singletonObject = this.earlySingletonObjects.get(beanName);
+				if (singletonObject == null && allowEarlyReference) {
+					singletonObject = getEarlySingletonReference(beanName);
+				}
+				return singletonObject;
+			}
 
 			/*
 
@@ -421,6 +473,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 */
 	public Object getSingleton(String beanName, ObjectFactory<?> singletonFactory) {
 		Assert.notNull(beanName, "Bean name must not be null");
+		if (isParallelSingletonCreation()) {
+			return getSingletonWithCreationLock(beanName, singletonFactory);
+		}
 		// 全局变量需要同步
 		// 题外：由于synchronized是可重入锁，所以，如果当前bean正在创建过程中，然后进来创建依赖的bean时，是可以获取到锁的！
 		synchronized (this.singletonObjects) {
@@ -522,6 +577,303 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		}
 	}
 
+	/**
+	 * Specify whether singletons are to be created under per-bean locks rather than
+	 * under the global singleton mutex, allowing independent singletons to be created
+	 * concurrently by different threads.
+	 * <p>In this mode, the early reference to a singleton in creation is only exposed
+	 * to the thread creating it, while other threads wait for the fully initialized
+	 * instance. A circular reference between singletons created by different threads
+	 * is resolved against the early reference of the awaited singleton, if exposed
+	 * already, and rejected with a {@link BeanCurrentlyInCreationException} otherwise.
+	 * <p>Default is "false", creating all singletons under the singleton mutex.
+	 * @since 5.2.9
+	 * @see #getSingletonMutex()
+	 */
+	public void setParallelSingletonCreation(boolean parallelSingletonCreation) {
+		this.parallelSingletonCreation = parallelSingletonCreation;
+	}
+
+	/**
+	 * Return whether singletons are created under per-bean locks,
+	 * either explicitly or as part of a concurrent singleton registry.
+	 * @since 5.2.9
+	 * @see #setParallelSingletonCreation
+	 * @see #setConcurrentSingletonRegistry
+	 */
+	public boolean isParallelSingletonCreation() {
+		return (this.parallelSingletonCreation || this.concurrentSingletonRegistry);
+	}
+
+	/**
+	 * Specify whether this registry should serve regular singleton access without
+	 * synchronizing on the global {@link #getSingletonMutex() singleton mutex}.
+	 * <p>In this mode, singletons are created under per-bean locks (implying
+	 * {@link #setParallelSingletonCreation parallel singleton creation}), all three
+	 * levels of the singleton cache are read without locking, and early singleton
+	 * references are promoted under the monitor of the affected bean only.
+	 * Dependencies between beans are registered in copy-on-write sets, so that
+	 * prototype creation and singleton lookups in many threads do not contend
+	 * on shared monitors once the singletons have been created.
+	 * <p>Default is "false", guarding the singleton cache with the singleton mutex.
+	 * Needs to be switched before any dependent beans get registered, i.e. right
+	 * after creating the bean factory.
+	 * @since 5.2.9
+	 * @see #setParallelSingletonCreation
+	 */
+	public void setConcurrentSingletonRegistry(boolean concurrentSingletonRegistry) {
+		Assert.state(this.dependentBeanMap.isEmpty() && this.containedBeanMap.isEmpty(),
+				"Cannot switch singleton registry mode after dependent beans have been registered");
+		synchronized (this.singletonObjects) {
+			// Thread-safe early singleton caches for lock-free reads in concurrent mode only,
+			// keeping the plain collections guarded by the singleton mutex by default
+			if (concurrentSingletonRegistry) {
+				this.singletonFactories = new ConcurrentHashMap<>(this.singletonFactories);
+				this.earlySingletonObjects = new ConcurrentHashMap<>(this.earlySingletonObjects);
+				this.registeredSingletons = Collections.synchronizedSet(new LinkedHashSet<>(this.registeredSingletons));
+			}
+			else {
+				this.singletonFactories = new HashMap<>(this.singletonFactories);
+				this.earlySingletonObjects = new HashMap<>(this.earlySingletonObjects);
+				this.registeredSingletons = new LinkedHashSet<>(this.registeredSingletons);
+			}
+			this.concurrentSingletonRegistry = concurrentSingletonRegistry;
+		}
+	}
+
+	/**
+	 * Return whether this registry serves singleton access without the singleton mutex.
+	 * @since 5.2.9
+	 * @see #setConcurrentSingletonRegistry
+	 */
+	public boolean isConcurrentSingletonRegistry() {
+		return this.concurrentSingletonRegistry;
+	}
+
+	/**
+	 * Variant of {@link #getSingleton(String, ObjectFactory)} for parallel singleton
+	 * creation mode, guarding the creation of the given bean with its per-bean lock.
+	 */
+	private Object getSingletonWithCreationLock(String beanName, ObjectFactory<?> singletonFactory) {
+		Object singletonObject = this.singletonObjects.get(beanName);
+		if (singletonObject != null) {
+			return singletonObject;
+		}
+		SingletonCreationLock creationLock = obtainSingletonCreationLock(beanName);
+		if (!lockForCreation(beanName, creationLock)) {
+			// The thread creating the bean is waiting for a bean created by this thread.
+			singletonObject = getEarlySingletonReference(beanName);
+			if (singletonObject != null) {
+				return singletonObject;
+			}
+			throw new BeanCurrentlyInCreationException(beanName,
+					"Requested bean is currently in creation in another thread which in turn " +
+					"waits for a bean created by the current thread: Is there an unresolvable circular reference?");
+		}
+		try {
+			singletonObject = this.singletonObjects.get(beanName);
+			if (singletonObject == null) {
+				if (this.singletonsCurrentlyInDestruction) {
+					throw new BeanCreationNotAllowedException(beanName,
+							"Singleton bean creation not allowed while singletons of this factory are in destruction " +
+							"(Do not request a bean from a BeanFactory in a destroy method implementation!)");
+				}
+				if (logger.isDebugEnabled()) {
+					logger.debug("Creating shared instance of singleton bean '" + beanName + "' in thread '" +
+							Thread.currentThread().getName() + "'");
+				}
+				beforeSingletonCreation(beanName);
+				boolean newSingleton = false;
+				Set<Exception> suppressedExceptions = this.threadSuppressedExceptions.get();
+				boolean recordSuppressedExceptions = (suppressedExceptions == null);
+				if (recordSuppressedExceptions) {
+					suppressedExceptions = new LinkedHashSet<>();
+					this.threadSuppressedExceptions.set(suppressedExceptions);
+				}
+				try {
+					singletonObject = singletonFactory.getObject();
+					newSingleton = true;
+				}
+				catch (IllegalStateException ex) {
+					// Has the singleton object implicitly appeared in the meantime ->
+					// if yes, proceed with it since the exception indicates that state.
+					singletonObject = this.singletonObjects.get(beanName);
+					if (singletonObject == null) {
+						throw ex;
+					}
+				}
+				catch (BeanCreationException ex) {
+					if (recordSuppressedExceptions) {
+						for (Exception suppressedException : suppressedExceptions) {
+							ex.addRelatedCause(suppressedException);
+						}
+					}
+					throw ex;
+				}
+				finally {
+					if (recordSuppressedExceptions) {
+						this.threadSuppressedExceptions.remove();
+					}
+					afterSingletonCreation(beanName);
+				}
+				if (newSingleton) {
+					addSingleton(beanName, singletonObject);
+				}
+			}
+			return singletonObject;
+		}
+		finally {
+			creationLock.unlock();
+		}
+	}
+
+	/**
+	 * Acquire the per-bean creation lock for the given singleton, waiting for
+	 * any creation of that bean in another thread to complete first.
+	 * <p>To be used in parallel singleton creation mode, for any extended phase
+	 * that would otherwise synchronize on the {@link #getSingletonMutex() singleton mutex}.
+	 * @param beanName the name of the bean
+	 * @throws BeanCurrentlyInCreationException if the thread holding the lock
+	 * in turn waits for a bean created by the current thread
+	 * @since 5.2.9
+	 * @see #releaseSingletonCreationLock
+	 */
+	protected void acquireSingletonCreationLock(String beanName) {
+		if (!lockForCreation(beanName, obtainSingletonCreationLock(beanName))) {
+			throw new BeanCurrentlyInCreationException(beanName,
+					"Requested bean is currently locked by another thread which in turn " +
+					"waits for a bean created by the current thread: Is there an unresolvable circular reference?");
+		}
+	}
+
+	/**
+	 * Acquire the per-bean creation lock for the given singleton if it is not
+	 * held by another thread at the time of invocation.
+	 * @param beanName the name of the bean
+	 * @return {@code true} if the lock has been acquired, {@code false} otherwise
+	 * @since 5.2.9
+	 * @see #releaseSingletonCreationLock
+	 */
+	protected boolean tryAcquireSingletonCreationLock(String beanName) {
+		return obtainSingletonCreationLock(beanName).tryLock();
+	}
+
+	/**
+	 * Release the per-bean creation lock for the given singleton,
+	 * as previously acquired by the current thread.
+	 * @param beanName the name of the bean
+	 * @since 5.2.9
+	 */
+	protected void releaseSingletonCreationLock(String beanName) {
+		SingletonCreationLock creationLock = this.singletonCreationLocks.get(beanName);
+		if (creationLock != null && creationLock.isHeldByCurrentThread()) {
+			creationLock.unlock();
+		}
+	}
+
+	private SingletonCreationLock obtainSingletonCreationLock(String beanName) {
+		return this.singletonCreationLocks.computeIfAbsent(beanName, name -> new SingletonCreationLock());
+	}
+
+	/**
+	 * Lock the given per-bean creation lock, waiting for another thread to release it.
+	 * <p>If the current thread holds the singleton mutex, it gets released while waiting,
+	 * since the thread creating the bean needs it for registering the singleton.
+	 * @return {@code true} if the lock has been acquired, {@code false} if waiting
+	 * for it would deadlock since its owner (transitively) waits for the current thread
+	 */
+	private boolean lockForCreation(String beanName, SingletonCreationLock creationLock) {
+		if (creationLock.tryLock()) {
+			return true;
+		}
+		Thread currentThread = Thread.currentThread();
+		this.singletonCreationWaiters.put(currentThread, beanName);
+		try {
+			boolean circularWaitSuspected = false;
+			while (true) {
+				if (Thread.holdsLock(this.singletonObjects)) {
+					this.singletonObjects.wait(CREATION_LOCK_POLL_MILLIS);
+					if (creationLock.tryLock()) {
+						return true;
+					}
+				}
+				else if (creationLock.tryLock(CREATION_LOCK_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+					return true;
+				}
+				// Require two consecutive observations, guarding against a stale snapshot of waiters.
+				boolean circularWait = isCircularCreationWait(creationLock);
+				if (circularWait && circularWaitSuspected) {
+					return false;
+				}
+				circularWaitSuspected = circularWait;
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new BeanCreationException(beanName,
+					"Interrupted while waiting for creation of singleton bean in another thread", ex);
+		}
+		finally {
+			this.singletonCreationWaiters.remove(currentThread);
+		}
+	}
+
+	/**
+	 * Determine whether the owner of the given lock (transitively) waits for
+	 * a per-bean creation lock held by the current thread.
+	 */
+	private boolean isCircularCreationWait(SingletonCreationLock creationLock) {
+		Thread currentThread = Thread.currentThread();
+		Set<Thread> visitedThreads = new HashSet<>();
+		Thread owner = creationLock.getOwner();
+		while (owner != null && visitedThreads.add(owner)) {
+			if (owner == currentThread) {
+				return true;
+			}
+			String awaitedBeanName = this.singletonCreationWaiters.get(owner);
+			SingletonCreationLock awaitedLock =
+					(awaitedBeanName != null ? this.singletonCreationLocks.get(awaitedBeanName) : null);
+			owner = (awaitedLock != null ? awaitedLock.getOwner() : null);
+		}
+		return false;
+	}
+
+	/**
+	 * Determine whether an early reference to the given singleton in creation may be
+	 * exposed to the current thread: in parallel singleton creation mode, only the
+	 * thread creating a singleton gets to see its early reference.
+	 */
+	private boolean isEarlySingletonReferenceAccessible(String beanName) {
+		if (!isParallelSingletonCreation()) {
+			return true;
+		}
+		SingletonCreationLock creationLock = this.singletonCreationLocks.get(beanName);
+		return (creationLock == null || creationLock.isHeldByCurrentThread());
+	}
+
+	/**
+	 * Obtain the early reference to the given singleton in creation,
+	 * regardless of the thread creating it.
+	 */
+	@Nullable
+	private Object getEarlySingletonReference(String beanName) {
+		synchronized (getSingletonMonitor(beanName)) {
+			Object singletonObject = this.singletonObjects.get(beanName);
+			if (singletonObject == null) {
+				singletonObject = this.earlySingletonObjects.get(beanName);
+				if (singletonObject == null) {
+					ObjectFactory<?> singletonFactory = this.singletonFactories.get(beanName);
+					if (singletonFactory != null) {
+						singletonObject = singletonFactory.getObject();
+						this.earlySingletonObjects.put(beanName, singletonObject);
+						this.singletonFactories.remove(beanName);
+					}
+				}
+			}
+			return singletonObject;
+		}
+	}
+
 	/**
 	 * Register an exception that happened to get suppressed during the creation of a
 	 * singleton bean instance, e.g. a temporary circular reference resolution problem.
@@ -532,6 +884,13 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 * @see BeanCreationException#getRelatedCauses()
 	 */
 	protected void onSuppressedException(Exception ex) {
+		if (isParallelSingletonCreation()) {
+			Set<Exception> suppressedExceptions = this.threadSuppressedExceptions.get();
+			if (suppressedExceptions != null && suppressedExceptions.size() < SUPPRESSED_EXCEPTIONS_LIMIT) {
+				suppressedExceptions.add(ex);
+			}
+			return;
+		}
 		synchronized (this.singletonObjects) {
 			if (this.suppressedExceptions != null && this.suppressedExceptions.size() < SUPPRESSED_EXCEPTIONS_LIMIT) {
 				this.suppressedExceptions.add(ex);
@@ -548,7 +907,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 */
 	protected void removeSingleton(String beanName) {
 		/* bean初始化完成之后 */
-		synchronized (this.singletonObjects) {
+		synchronized (getSingletonMonitor(beanName)) {
 			this.singletonObjects.remove(beanName);
 			this.singletonFactories.remove(beanName);
 			this.earlySingletonObjects.remove(beanName);
@@ -563,13 +922,16 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 
 	@Override
 	public String[] getSingletonNames() {
-		synchronized (this.singletonObjects) {
+		synchronized (this.concurrentSingletonRegistry ? this.registeredSingletons : this.singletonObjects) {
 			return StringUtils.toStringArray(this.registeredSingletons);
 		}
 	}
 
 	@Override
 	public int getSingletonCount() {
+		if (this.concurrentSingletonRegistry) {
+			return this.registeredSingletons.size();
+		}
 		synchronized (this.singletonObjects) {
 			return this.registeredSingletons.size();
 		}
@@ -670,6 +1032,12 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 * @see #registerDependentBean
 	 */
 	public void registerContainedBean(String containedBeanName, String containingBeanName) {
+		if (this.concurrentSingletonRegistry) {
+			if (obtainBeanNameSet(this.containedBeanMap, containingBeanName).add(containedBeanName)) {
+				registerDependentBean(containedBeanName, containingBeanName);
+			}
+			return;
+		}
 		synchronized (this.containedBeanMap) {
 			Set<String> containedBeans =
 					this.containedBeanMap.computeIfAbsent(containingBeanName, k -> new LinkedHashSet<>(8));
@@ -695,6 +1063,13 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		// 获取name的最终别名或者是全类名
 		String canonicalName = canonicalName(beanName);
 
+		if (this.concurrentSingletonRegistry) {
+			if (obtainBeanNameSet(this.dependentBeanMap, canonicalName).add(dependentBeanName)) {
+				obtainBeanNameSet(this.dependenciesForBeanMap, dependentBeanName).add(canonicalName);
+			}
+			return;
+		}
+
 		// 使用存储bean名到该bean名所要依赖的bean名的Map作为锁，保证线程安全
 		synchronized (this.dependentBeanMap) {
 			// 获取canonicalName对应的用于存储依赖bean名的set集合，如果没有就创建一个LinkedHashSet，并与canonicalName绑定到dependentBeanMap中
@@ -723,6 +1098,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 * @since 4.0
 	 */
 	protected boolean isDependent(String beanName, String dependentBeanName) {
+		if (this.concurrentSingletonRegistry) {
+			return isDependent(beanName, dependentBeanName, null);
+		}
 		synchronized (this.dependentBeanMap) {
 			return isDependent(beanName, dependentBeanName, null);
 		}
@@ -771,6 +1149,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		if (dependentBeans == null) {
 			return new String[0];
 		}
+		if (this.concurrentSingletonRegistry) {
+			return StringUtils.toStringArray(dependentBeans);
+		}
 		synchronized (this.dependentBeanMap) {
 			return StringUtils.toStringArray(dependentBeans);
 		}
@@ -787,6 +1168,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		if (dependenciesForBean == null) {
 			return new String[0];
 		}
+		if (this.concurrentSingletonRegistry) {
+			return StringUtils.toStringArray(dependenciesForBean);
+		}
 		synchronized (this.dependenciesForBeanMap) {
 			return StringUtils.toStringArray(dependenciesForBean);
 		}
@@ -837,6 +1221,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 			this.singletonFactories.clear();
 			this.earlySingletonObjects.clear();
 			this.registeredSingletons.clear();
+			this.singletonCreationLocks.clear();
 			this.singletonsCurrentlyInDestruction = false;
 		}
 	}
@@ -935,4 +1320,40 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		return this.singletonObjects;
 	}
 
+	/**
+	 * Return the monitor guarding the cache entries of the given singleton:
+	 * the monitor of its per-bean creation lock in concurrent registry mode,
+	 * and the singleton mutex otherwise.
+	 */
+	private Object getSingletonMonitor(String beanName) {
+		return (this.concurrentSingletonRegistry ? obtainSingletonCreationLock(beanName) : this.singletonObjects);
+	}
+
+	/**
+	 * Obtain the copy-on-write set of bean names for the given key in concurrent
+	 * registry mode, avoiding a locking {@code computeIfAbsent} call if present.
+	 */
+	private static Set<String> obtainBeanNameSet(Map<String, Set<String>> beanNameMap, String beanName) {
+		Set<String> beanNames = beanNameMap.get(beanName);
+		if (beanNames == null) {
+			beanNames = beanNameMap.computeIfAbsent(beanName, k -> new CopyOnWriteArraySet<>());
+		}
+		return beanNames;
+	}
+
+
+	/**
+	 * Reentrant lock guarding the creation of a specific singleton,
+	 * exposing its owner thread for circular wait detection.
+	 */
+	@SuppressWarnings("serial")
+	private static class SingletonCreationLock extends ReentrantLock {
+
+		@Override
+		@Nullable
+		public Thread getOwner() {
+			return super.getOwner();
+		}
+	}
+
 }
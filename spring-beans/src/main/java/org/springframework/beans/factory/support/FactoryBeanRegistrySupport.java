@@ -97,50 +97,17 @@ public abstract class FactoryBeanRegistrySupport extends DefaultSingletonBeanReg
 		// FactoryBean#isSingleton()返回的是单例标识(标识getObject()返回的对象是单例)，
 		// 并且一级缓存中包含单例的FactoryBean实现类(注意，这里说的是FactoryBean实现类，不是FactoryBean#getObject()返回的对象)
 		if (factory.isSingleton() && containsSingleton(beanName)) {
-			synchronized (getSingletonMutex()) {
-				Object object = this.factoryBeanObjectCache.get(beanName);
-				if (object == null) {
-					// ⚠️调用具体的FactoryBean#getObject()
-					object = doGetObjectFromFactoryBean(factory, beanName);
-					// Only post-process and store if not put there already during getObject() call above
-					// (e.g. because of circular reference processing triggered by custom getBean calls)
-					Object alreadyThere = this.factoryBeanObjectCache.get(beanName);
-					if (alreadyThere != null) {
-						object = alreadyThere;
-					}
-					else {
-						if (shouldPostProcess) {
-							if (isSingletonCurrentlyInCreation(beanName)) {
-								// Temporarily return non-post-processed object, not storing it yet..
-								return object;
-							}
-							// ⚠️
-							beforeSingletonCreation(beanName);
-							try {
-								// 调用objectFactory的后置处理器
-								object = postProcessObjectFromFactoryBean(object, beanName);
-							}
-							catch (Throwable ex) {
-								throw new BeanCreationException(beanName,
-										"Post-processing of FactoryBean's singleton object failed", ex);
-							}
-							finally {
-								// ⚠️
-								afterSingletonCreation(beanName);
-							}
-						}
-						if (containsSingleton(beanName)) {
-							// ⚠️将Factory#getObject()对应的对象，放入factoryBeanObjectCache缓存中
-							/**
-							 * 1、beanName	= FactoryBean接口实现类的bd名称()，例如：FactoryBean接口实现类是MyFactoryBean，它的getObject()返回的是 new Hello();
-							 * 那么beanName默认就是myFactoryBean，而不是&myFactoryBean，也不是hello
-							 * 2、object	= getObject()返回的对象
-							 */
-							this.factoryBeanObjectCache.put(beanName, object);
-						}
-					}
+			if (isParallelSingletonCreation()) {
+				acquireSingletonCreationLock(beanName);
+				try {
+					return getSingletonObjectFromFactoryBean(factory, beanName, shouldPostProcess);
+				}
+				finally {
+					releaseSingletonCreationLock(beanName);
 				}
-				return object;
+			}
+			synchronized (getSingletonMutex()) {
+				return getSingletonObjectFromFactoryBean(factory, beanName, shouldPostProcess);
 			}
 		}
 		// 如果FactoryBean#isSingleton()返回的不是单例标识，就代表每次都是要重新创建
@@ -160,6 +127,58 @@ public abstract class FactoryBeanRegistrySupport extends DefaultSingletonBeanReg
 		}
 	}
 
+	/**
+	 * Obtain a singleton object to expose from the given FactoryBean, caching it for
+	 * subsequent calls. To be invoked under the singleton mutex or, in parallel singleton
+	 * creation mode, under the per-bean creation lock of the FactoryBean.
+	 * @see #getObjectFromFactoryBean
+	 */
+	private Object getSingletonObjectFromFactoryBean(FactoryBean<?> factory, String beanName, boolean shouldPostProcess) {
+		Object object = this.factoryBeanObjectCache.get(beanName);
+		if (object == null) {
+			// ⚠️调用具体的FactoryBean#getObject()
+			object = doGetObjectFromFactoryBean(factory, beanName);
+			// Only post-process and store if not put there already during getObject() call above
+			// (e.g. because of circular reference processing triggered by custom getBean calls)
+			Object alreadyThere = this.factoryBeanObjectCache.get(beanName);
+			if (alreadyThere != null) {
+				object = alreadyThere;
+			}
+			else {
+				if (shouldPostProcess) {
+					if (isSingletonCurrentlyInCreation(beanName)) {
+						// Temporarily return non-post-processed object, not storing it yet..
+						return object;
+					}
+					// ⚠️
+					beforeSingletonCreation(beanName);
+					try {
+						// 调用objectFactory的后置处理器
+						object = postProcessObjectFromFactoryBean(object, beanName);
+					}
+					catch (Throwable ex) {
+						throw new BeanCreationException(beanName,
+								"Post-processing of FactoryBean's singleton object failed", ex);
+					}
+					finally {
+						// ⚠️
+						afterSingletonCreation(beanName);
+					}
+				}
+				if (containsSingleton(beanName)) {
+					// ⚠️将Factory#getObject()对应的对象，放入factoryBeanObjectCache缓存中
+					/**
+					 * 1、beanName	= FactoryBean接口实现类的bd名称()，例如：FactoryBean接口实现类是MyFactoryBean，它的getObject()返回的是 new Hello();
+					 * 那么beanName默认就是myFactoryBean，而不是&myFactoryBean，也不是hello
+					 * 2、object	= getObject()返回的对象
+					 */
+					this.factoryBeanObjectCache.put(beanName, object);
+				}
+			}
+		}
+		return object;
+	}
+
 	/**
 	 * Obtain an object to expose from the given FactoryBean.
 	 * @param factory the FactoryBean instance
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.beans.factory.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.FatalBeanException;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConstructorArgumentValues.ValueHolder;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.lang.Nullable;
+
+/**
+ * Helper class for {@link DefaultListableBeanFactory#preInstantiateSingletons()},
+ * pre-instantiating non-lazy singletons in parallel on a bootstrap {@link Executor}.
+ *
+ * <p>Builds a dependency graph from the registered bean definitions, taking
+ * {@code dependsOn} declarations, factory bean references as well as bean references
+ * in constructor arguments and property values into account, and instantiates every
+ * singleton as soon as all of its declared dependencies have been instantiated.
+ * Dependencies which are only discovered at creation time (e.g. through autowiring)
+ * are simply created on demand by the requesting thread, with the factory's per-bean
+ * creation locks preventing duplicate creation of the same singleton.
+ *
+ * <p>Singletons with circular declared dependencies get instantiated one after the
+ * other in the calling thread once all other singletons have been instantiated,
+ * resolving their circular references just like in the sequential case.
+ *
+ * @since 5.2.9
+ * @see AbstractBeanFactory#setBootstrapExecutor
+ * @see DefaultSingletonBeanRegistry#setParallelSingletonCreation
+ */
+class ParallelSingletonPreInstantiator {
+
+	private final DefaultListableBeanFactory beanFactory;
+
+	private final Executor executor;
+
+	/** Pre-instantiation candidates in registration order: bean name to graph node. */
+	private final Map<String, Node> nodes = new LinkedHashMap<>();
+
+	/** Monitor guarding the scheduling state below as well as the nodes' dependency counts. */
+	private final Object monitor = new Object();
+
+	private int runningTasks;
+
+	@Nullable
+	private Throwable failure;
+
+
+	ParallelSingletonPreInstantiator(DefaultListableBeanFactory beanFactory, Executor executor) {
+		this.beanFactory = beanFactory;
+		this.executor = executor;
+	}
+
+
+	/**
+	 * Pre-instantiate all non-lazy singletons among the given bean names,
+	 * returning once all of them have been instantiated.
+	 * @param beanNames the names of the registered bean definitions
+	 * @throws BeansException if any of the singletons could not be created
+	 */
+	public void preInstantiateSingletons(List<String> beanNames) throws BeansException {
+		for (String beanName : beanNames) {
+			RootBeanDefinition bd = this.beanFactory.getMergedLocalBeanDefinition(beanName);
+			if (this.beanFactory.isPreInstantiationCandidate(beanName, bd)) {
+				this.nodes.put(beanName, new Node(beanName));
+			}
+		}
+		List<Node> readyNodes = new ArrayList<>();
+		for (Node node : this.nodes.values()) {
+			RootBeanDefinition bd = this.beanFactory.getMergedLocalBeanDefinition(node.beanName);
+			for (String dependency : determineDependencies(bd)) {
+				Node dependencyNode = this.nodes.get(dependency);
+				if (dependencyNode != null && dependencyNode != node) {
+					dependencyNode.dependents.add(node);
+					node.pendingDependencies++;
+				}
+			}
+		}
+		for (Node node : this.nodes.values()) {
+			if (node.pendingDependencies == 0) {
+				node.scheduled = true;
+				readyNodes.add(node);
+			}
+		}
+		if (this.beanFactory.getLogger().isDebugEnabled()) {
+			this.beanFactory.getLogger().debug("Pre-instantiating " + this.nodes.size() + " singletons in parallel, " +
+					readyNodes.size() + " of them without declared dependencies");
+		}
+
+		synchronized (this.monitor) {
+			this.runningTasks += readyNodes.size();
+		}
+		submit(readyNodes);
+		awaitTasks();
+
+		// Instantiate singletons with circular declared dependencies in the calling thread.
+		for (Node node : this.nodes.values()) {
+			if (!node.scheduled) {
+				this.beanFactory.preInstantiateSingleton(node.beanName);
+			}
+		}
+	}
+
+	private void submit(List<Node> readyNodes) {
+		for (Node node : readyNodes) {
+			try {
+				this.executor.execute(() -> instantiate(node));
+			}
+			catch (RejectedExecutionException ex) {
+				instantiate(node);
+			}
+		}
+	}
+
+	private void instantiate(Node node) {
+		Throwable taskFailure = null;
+		try {
+			this.beanFactory.preInstantiateSingleton(node.beanName);
+		}
+		catch (Throwable ex) {
+			taskFailure = ex;
+		}
+		List<Node> readyNodes = new ArrayList<>();
+		synchronized (this.monitor) {
+			if (taskFailure != null && this.failure == null) {
+				this.failure = taskFailure;
+			}
+			if (this.failure == null) {
+				for (Node dependent : node.dependents) {
+					if (--dependent.pendingDependencies == 0) {
+						dependent.scheduled = true;
+						readyNodes.add(dependent);
+					}
+				}
+				this.runningTasks += readyNodes.size();
+			}
+			this.runningTasks--;
+			this.monitor.notifyAll();
+		}
+		submit(readyNodes);
+	}
+
+	private void awaitTasks() {
+		synchronized (this.monitor) {
+			while (this.runningTasks > 0) {
+				try {
+					this.monitor.wait();
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					throw new FatalBeanException("Interrupted while waiting for parallel singleton pre-instantiation", ex);
+				}
+			}
+			if (this.failure instanceof RuntimeException) {
+				throw (RuntimeException) this.failure;
+			}
+			if (this.failure instanceof Error) {
+				throw (Error) this.failure;
+			}
+			if (this.failure != null) {
+				throw new FatalBeanException("Parallel singleton pre-instantiation failed", this.failure);
+			}
+		}
+	}
+
+	/**
+	 * Determine the names of the beans that the given bean definition declares
+	 * dependencies on: {@code dependsOn} beans, its factory bean as well as beans
+	 * referenced from its constructor arguments and property values.
+	 */
+	private Set<String> determineDependencies(BeanDefinition bd) {
+		Set<String> dependencies = new LinkedHashSet<>();
+		collectDependencies(bd, dependencies);
+		return dependencies;
+	}
+
+	private void collectDependencies(BeanDefinition bd, Set<String> dependencies) {
+		String[] dependsOn = bd.getDependsOn();
+		if (dependsOn != null) {
+			for (String dependency : dependsOn) {
+				dependencies.add(this.beanFactory.transformedBeanName(dependency));
+			}
+		}
+		if (bd.getFactoryBeanName() != null) {
+			dependencies.add(this.beanFactory.transformedBeanName(bd.getFactoryBeanName()));
+		}
+		if (bd.hasConstructorArgumentValues()) {
+			for (ValueHolder valueHolder : bd.getConstructorArgumentValues().getIndexedArgumentValues().values()) {
+				collectDependencies(valueHolder.getValue(), dependencies);
+			}
+			for (ValueHolder valueHolder : bd.getConstructorArgumentValues().getGenericArgumentValues()) {
+				collectDependencies(valueHolder.getValue(), dependencies);
+			}
+		}
+		if (bd.hasPropertyValues()) {
+			for (PropertyValue pv : bd.getPropertyValues().getPropertyValues()) {
+				collectDependencies(pv.getValue(), dependencies);
+			}
+		}
+	}
+
+	private void collectDependencies(@Nullable Object value, Set<String> dependencies) {
+		if (value instanceof RuntimeBeanReference) {
+			RuntimeBeanReference ref = (RuntimeBeanReference) value;
+			if (!ref.isToParent()) {
+				dependencies.add(this.beanFactory.transformedBeanName(ref.getBeanName()));
+			}
+		}
+		else if (value instanceof BeanDefinitionHolder) {
+			collectDependencies(((BeanDefinitionHolder) value).getBeanDefinition(), dependencies);
+		}
+		else if (value instanceof BeanDefinition) {
+			collectDependencies((BeanDefinition) value, dependencies);
+		}
+		else if (value instanceof Collection) {
+			for (Object element : (Collection<?>) value) {
+				collectDependencies(element, dependencies);
+			}
+		}
+		else if (value instanceof Map) {
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				collectDependencies(entry.getKey(), dependencies);
+				collectDependencies(entry.getValue(), dependencies);
+			}
+		}
+	}
+
+
+	/**
+	 * Node in the dependency graph of the singletons to pre-instantiate.
+	 */
+	private static class Node {
+
+		final String beanName;
+
+		final List<Node> dependents = new ArrayList<>();
+
+		int pendingDependencies;
+
+		boolean scheduled;
+
+		Node(String beanName) {
+			this.beanName = beanName;
+		}
+	}
+
+}
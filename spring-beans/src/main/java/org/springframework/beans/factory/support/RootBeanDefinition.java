@@ -405,6 +405,15 @@ public class RootBeanDefinition extends AbstractBeanDefinition {
 		this.isFactoryMethodUnique = false;
 	}
 
+	/**
+	 * Return whether the factory method name refers to a non-overloaded method.
+	 * @since 5.2.9
+	 * @see #setUniqueFactoryMethodName
+	 */
+	public boolean isFactoryMethodUnique() {
+		return this.isFactoryMethodUnique;
+	}
+
 	/**
 	 * Check whether the given candidate qualifies as a factory method.
 	 */
@@ -22,6 +22,7 @@ import java.lang.reflect.Method;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.security.PrivilegedExceptionAction;
+import java.util.function.Supplier;
 
 import org.springframework.beans.BeanInstantiationException;
 import org.springframework.beans.BeanUtils;
@@ -61,6 +62,31 @@ public class SimpleInstantiationStrategy implements InstantiationStrategy {
 		return currentlyInvokedFactoryMethod.get();
 	}
 
+	/**
+	 * Invoke the given instance supplier, exposing the given factory method as
+	 * {@link #getCurrentlyInvokedFactoryMethod() currently invoked factory method}
+	 * while doing so, e.g. for generated code calling a factory method directly.
+	 * @param method the factory method invoked by the supplier
+	 * @param instanceSupplier the supplier to invoke
+	 * @return the result of the instance supplier
+	 * @since 5.2.9
+	 */
+	public static <T> T instantiateWithFactoryMethod(Method method, Supplier<T> instanceSupplier) {
+		Method priorInvokedFactoryMethod = currentlyInvokedFactoryMethod.get();
+		try {
+			currentlyInvokedFactoryMethod.set(method);
+			return instanceSupplier.get();
+		}
+		finally {
+			if (priorInvokedFactoryMethod != null) {
+				currentlyInvokedFactoryMethod.set(priorInvokedFactoryMethod);
+			}
+			else {
+				currentlyInvokedFactoryMethod.remove();
+			}
+		}
+	}
+
 	/**
 	 *
 	 * 如果发现是有方法重载的，就需要用cglib来动态代理；如果没有，就直接获取默认构造方法实例化
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import java.beans.PropertyDescriptor;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.testfixture.beans.TestBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Runs the {@link BeanWrapperImpl} test suite against generated property accessors.
+ *
+ * @since 5.2.9
+ */
+public class BeanWrapperGeneratedAccessorsTests extends BeanWrapperTests {
+
+	@Override
+	protected BeanWrapperImpl createAccessor(Object target) {
+		BeanWrapperImpl accessor = new BeanWrapperImpl(target);
+		accessor.setUseGeneratedAccessors(true);
+		return accessor;
+	}
+
+
+	@Test
+	public void accessorsGeneratedForPublicProperty() throws Exception {
+		CachedIntrospectionResults results = CachedIntrospectionResults.forClass(TestBean.class);
+		PropertyMethodAccessor accessor = results.getPropertyMethodAccessor(results.getPropertyDescriptor("age"));
+		assertThat(accessor.isReadable()).isTrue();
+		assertThat(accessor.isWritable()).isTrue();
+		assertThat(results.getPropertyMethodAccessor(results.getPropertyDescriptor("age"))).isSameAs(accessor);
+
+		TestBean target = new TestBean();
+		accessor.setValue(target, 42);
+		assertThat(target.getAge()).isEqualTo(42);
+		assertThat(accessor.getValue(target)).isEqualTo(42);
+	}
+
+	@Test
+	public void noAccessorsGeneratedForNonPublicClass() {
+		CachedIntrospectionResults results = CachedIntrospectionResults.forClass(NonPublicBean.class);
+		PropertyDescriptor pd = results.getPropertyDescriptor("name");
+		PropertyMethodAccessor accessor = results.getPropertyMethodAccessor(pd);
+		assertThat(accessor.isReadable()).isFalse();
+		assertThat(accessor.isWritable()).isFalse();
+
+		NonPublicBean target = new NonPublicBean();
+		BeanWrapperImpl bw = createAccessor(target);
+		bw.setPropertyValue("name", "tom");
+		assertThat(bw.getPropertyValue("name")).isEqualTo("tom");
+	}
+
+	@Test
+	public void nestedPathThroughGeneratedAccessors() {
+		TestBean target = new TestBean();
+		target.setSpouse(new TestBean());
+		BeanWrapperImpl bw = createAccessor(target);
+		bw.setPropertyValue("spouse.name", "kerry");
+		assertThat(((TestBean) target.getSpouse()).getName()).isEqualTo("kerry");
+		assertThat(bw.getPropertyValue("spouse.name")).isEqualTo("kerry");
+		assertThat(((BeanWrapperImpl) bw.getPropertyAccessorForPropertyPath("spouse.name")).isUseGeneratedAccessors()).isTrue();
+	}
+
+	@Test
+	public void argumentMismatchWithGeneratedAccessor() {
+		CachedIntrospectionResults results = CachedIntrospectionResults.forClass(TestBean.class);
+		PropertyMethodAccessor accessor = results.getPropertyMethodAccessor(results.getPropertyDescriptor("age"));
+		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() ->
+				accessor.setValue(new TestBean(), null));
+		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() ->
+				accessor.setValue(new TestBean(), "42"));
+	}
+
+
+	static class NonPublicBean {
+
+		private String name;
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+
+}
@@ -2280,6 +2280,27 @@ class DefaultListableBeanFactoryTests {
 		assertThat(factory.containsSingleton("tb3")).isTrue();
 	}
 
+	@Test
+	void lazyInitByDefault() {
+		DefaultListableBeanFactory factory = new DefaultListableBeanFactory();
+		factory.setLazyInitByDefault(true);
+		RootBeanDefinition bd1 = new RootBeanDefinition(TestBean.class);
+		bd1.setLazyInit(true);
+		factory.registerBeanDefinition("tb1", bd1);
+		RootBeanDefinition bd2 = new RootBeanDefinition(TestBean.class);
+		bd2.setLazyInit(false);
+		factory.registerBeanDefinition("tb2", bd2);
+		factory.registerBeanDefinition("tb3", new RootBeanDefinition(TestBean.class));
+		factory.registerBeanDefinition("smartInit", new RootBeanDefinition(SmartInitBean.class));
+
+		factory.preInstantiateSingletons();
+		assertThat(factory.containsSingleton("tb1")).isFalse();
+		assertThat(factory.containsSingleton("tb2")).isTrue();
+		assertThat(factory.containsSingleton("tb3")).isFalse();
+		assertThat(factory.getBean("smartInit", SmartInitBean.class).initialized).isTrue();
+		assertThat(factory.getBean("tb3")).isNotNull();
+	}
+
 	@Test
 	void lazyInitFactory() {
 		lbf.registerBeanDefinition("test", new RootBeanDefinition(LazyInitFactory.class));
@@ -3167,6 +3188,17 @@ class DefaultListableBeanFactoryTests {
 	}
 
 
+	public static class SmartInitBean implements SmartInitializingSingleton {
+
+		public boolean initialized = false;
+
+		@Override
+		public void afterSingletonsInstantiated() {
+			this.initialized = true;
+		}
+	}
+
+
 	public static class TestBeanFactory {
 
 		public static boolean initialized = false;
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.aot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.UnsatisfiedDependencyException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.beans.factory.support.SimpleInstantiationStrategy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link BeanInstanceSupplier} and the autowiring resolvers used by
+ * bean definitions generated ahead of time.
+ *
+ * @since 5.2.9
+ */
+class BeanInstanceSupplierTests {
+
+	private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+
+	private final Repository repository = new Repository();
+
+
+	@BeforeEach
+	void registerRepository() {
+		this.beanFactory.registerSingleton("repository", this.repository);
+	}
+
+
+	@Test
+	void constructorInvokedReflectively() {
+		Service service = BeanInstanceSupplier.<Service>forConstructor(
+				this.beanFactory, "service", Service.class, Repository.class).get();
+		assertThat(service.repository).isSameAs(this.repository);
+	}
+
+	@Test
+	void constructorInvokedThroughGenerator() {
+		BeanInstanceSupplier<Service> supplier = BeanInstanceSupplier.<Service>forConstructor(
+				this.beanFactory, "service", Service.class, Repository.class)
+				.withGenerator(args -> new Service(args.get(0)));
+		assertThat(supplier.get().repository).isSameAs(this.repository);
+		assertThat(supplier.getExecutable().getDeclaringClass()).isEqualTo(Service.class);
+	}
+
+	@Test
+	void staticFactoryMethodInvokedAsCurrentFactoryMethod() {
+		BeanInstanceSupplier<Service> supplier = BeanInstanceSupplier.<Service>forFactoryMethod(
+				this.beanFactory, "service", Factory.class, null, "createService", Repository.class)
+				.withGenerator(args -> Factory.createService(args.get(0, Repository.class)));
+		Service service = supplier.get();
+		assertThat(service.repository).isSameAs(this.repository);
+		assertThat(service.factoryMethod).isEqualTo("createService");
+		assertThat(SimpleInstantiationStrategy.getCurrentlyInvokedFactoryMethod()).isNull();
+	}
+
+	@Test
+	void instanceFactoryMethodRegistersDependentBean() {
+		this.beanFactory.registerSingleton("factory", new Factory());
+		Service service = BeanInstanceSupplier.<Service>forFactoryMethod(
+				this.beanFactory, "service", Factory.class, "factory", "service", Repository.class).get();
+		assertThat(service.repository).isSameAs(this.repository);
+		assertThat(this.beanFactory.getDependentBeans("factory")).containsExactly("service");
+		assertThat(this.beanFactory.getDependentBeans("repository")).contains("service");
+	}
+
+	@Test
+	void unresolvableArgumentRaisesUnsatisfiedDependency() {
+		BeanInstanceSupplier<Client> supplier = BeanInstanceSupplier.forConstructor(
+				this.beanFactory, "client", Client.class, Service.class);
+		assertThatExceptionOfType(UnsatisfiedDependencyException.class).isThrownBy(supplier::get)
+				.satisfies(ex -> assertThat(ex.getBeanName()).isEqualTo("client"));
+	}
+
+	@Test
+	void fieldResolvedAndSet() {
+		Client client = new Client(null);
+		AutowiredFieldValueResolver.forRequiredField(Client.class, "repository")
+				.resolveAndSet(this.beanFactory, "client", client);
+		assertThat(client.repository).isSameAs(this.repository);
+		assertThat(this.beanFactory.getDependentBeans("repository")).containsExactly("client");
+	}
+
+	@Test
+	void optionalFieldLeftUntouchedWhenUnresolvable() {
+		Client client = new Client(null);
+		AutowiredFieldValueResolver.forField(Client.class, "optionalService")
+				.resolveAndSet(this.beanFactory, "client", client);
+		assertThat(client.optionalService).isNull();
+	}
+
+	@Test
+	void requiredFieldRaisesUnsatisfiedDependency() {
+		Client client = new Client(null);
+		assertThatExceptionOfType(UnsatisfiedDependencyException.class).isThrownBy(() ->
+				AutowiredFieldValueResolver.forRequiredField(Client.class, "optionalService")
+						.resolveAndSet(this.beanFactory, "client", client));
+	}
+
+	@Test
+	void methodArgumentsResolvedAndInvoked() {
+		Client client = new Client(null);
+		AutowiredMethodArgumentsResolver.forRequiredMethod(Client.class, "setRepository", Repository.class)
+				.resolveAndInvoke(this.beanFactory, "client", client);
+		assertThat(client.methodRepository).isSameAs(this.repository);
+	}
+
+	@Test
+	void optionalMethodArgumentsNotResolvable() {
+		AutowiredArguments args = AutowiredMethodArgumentsResolver.forMethod(Client.class, "setService", Service.class)
+				.resolve(this.beanFactory, "client", new Client(null));
+		assertThat(args).isNull();
+	}
+
+	@Test
+	void autowiredArgumentsAreDefensivelyCopied() {
+		Object[] source = new Object[] {this.repository};
+		AutowiredArguments args = AutowiredArguments.of(source);
+		source[0] = null;
+		assertThat(args.getObject(0)).isSameAs(this.repository);
+		args.toArray()[0] = null;
+		assertThat(args.toArray()).containsExactly(this.repository);
+	}
+
+	@Test
+	void generatedAutowiringAppliedAfterInstantiation() {
+		GeneratedAutowiringBeanPostProcessor autowiring = new GeneratedAutowiringBeanPostProcessor(this.beanFactory);
+		autowiring.registerAutowiring("client", (beanFactory, instance) ->
+				AutowiredFieldValueResolver.forRequiredField(Client.class, "repository")
+						.resolveAndSet(beanFactory, "client", instance));
+		this.beanFactory.addBeanPostProcessor(autowiring);
+		RootBeanDefinition beanDefinition = new RootBeanDefinition(Client.class);
+		beanDefinition.setInstanceSupplier(() -> new Client(null));
+		this.beanFactory.registerBeanDefinition("client", beanDefinition);
+
+		Client client = this.beanFactory.getBean("client", Client.class);
+		assertThat(client.repository).isSameAs(this.repository);
+		assertThat(autowiring.hasAutowiring("client")).isTrue();
+		assertThat(autowiring.hasAutowiring("client#1")).isTrue();
+		assertThat(autowiring.hasAutowiring("other")).isFalse();
+	}
+
+
+	static class Repository {
+	}
+
+
+	static class Service {
+
+		final Repository repository;
+
+		String factoryMethod;
+
+		Service(Repository repository) {
+			this.repository = repository;
+		}
+	}
+
+
+	static class Factory {
+
+		static Service createService(Repository repository) {
+			Service service = new Service(repository);
+			service.factoryMethod = SimpleInstantiationStrategy.getCurrentlyInvokedFactoryMethod().getName();
+			return service;
+		}
+
+		Service service(Repository repository) {
+			return new Service(repository);
+		}
+	}
+
+
+	static class Client {
+
+		@Autowired
+		private Repository repository;
+
+		@Autowired(required = false)
+		private Service optionalService;
+
+		private Repository methodRepository;
+
+		Client(Service service) {
+		}
+
+		@Autowired
+		void setRepository(Repository repository) {
+			this.methodRepository = repository;
+		}
+
+		@Autowired(required = false)
+		void setService(Service service) {
+		}
+	}
+
+}
@@ -959,6 +959,35 @@ public class BeanFactoryGenericsTests {
 	}
 
 
+	@Test
+	public void genericMatchingWithTypeIndex() {
+		DefaultListableBeanFactory bf = new DefaultListableBeanFactory();
+		bf.registerBeanDefinition("store1", new RootBeanDefinition(DoubleStore.class));
+		bf.registerBeanDefinition("store2", new RootBeanDefinition(FloatStore.class));
+		bf.freezeConfiguration();
+		ResolvableType doubleStoreType = ResolvableType.forClassWithGenerics(NumberStore.class, Double.class);
+		ResolvableType floatStoreType = ResolvableType.forClassWithGenerics(NumberStore.class, Float.class);
+
+		assertThat(bf.getBeanNamesForType(doubleStoreType)).containsExactly("store1");
+		assertThat(bf.getTypeIndexMissCount()).isEqualTo(1);
+		assertThat(bf.getTypeIndexHitCount()).isEqualTo(0);
+		assertThat(bf.getBeanNamesForType(ResolvableType.forClassWithGenerics(NumberStore.class, Double.class)))
+				.containsExactly("store1");
+		assertThat(bf.getBeanNamesForType(floatStoreType)).containsExactly("store2");
+		assertThat(bf.getTypeIndexHitCount()).isEqualTo(1);
+		assertThat(bf.getTypeIndexMissCount()).isEqualTo(2);
+		assertThat(bf.getBeanProvider(floatStoreType).getObject()).isSameAs(bf.getBean("store2"));
+		assertThat(bf.getTypeIndexHitCount()).isGreaterThan(1);
+
+		// Only the index entries for types of the new singleton get invalidated
+		long misses = bf.getTypeIndexMissCount();
+		bf.registerSingleton("store3", new DoubleStore());
+		assertThat(bf.getBeanNamesForType(floatStoreType)).containsExactly("store2");
+		assertThat(bf.getTypeIndexMissCount()).isEqualTo(misses);
+		assertThat(bf.getBeanNamesForType(doubleStoreType)).containsExactly("store1", "store3");
+		assertThat(bf.getTypeIndexMissCount()).isEqualTo(misses + 1);
+	}
+
 	@SuppressWarnings("serial")
 	public static class NamedUrlList extends LinkedList<URL> {
 	}
@@ -16,14 +16,22 @@
 
 package org.springframework.beans.factory.support;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.junit.jupiter.api.Test;
 
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
 import org.springframework.beans.testfixture.beans.DerivedTestBean;
 import org.springframework.beans.testfixture.beans.TestBean;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
 
 /**
  * @author Juergen Hoeller
@@ -101,4 +109,108 @@ public class DefaultSingletonBeanRegistryTests {
 		assertThat(beanRegistry.isDependent("c", "c")).isTrue();
 	}
 
+	@Test
+	public void testConcurrentSingletonRegistry() {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		beanRegistry.setConcurrentSingletonRegistry(true);
+		assertThat(beanRegistry.isParallelSingletonCreation()).isTrue();
+
+		DerivedTestBean tb = new DerivedTestBean();
+		beanRegistry.registerSingleton("tb", tb);
+		beanRegistry.registerDisposableBean("tb", tb);
+		TestBean tb2 = (TestBean) beanRegistry.getSingleton("tb2", TestBean::new);
+		assertThat(beanRegistry.getSingleton("tb")).isSameAs(tb);
+		assertThat(beanRegistry.getSingleton("tb2")).isSameAs(tb2);
+		assertThat(beanRegistry.getSingletonCount()).isEqualTo(2);
+		assertThat(beanRegistry.getSingletonNames()).containsExactly("tb", "tb2");
+
+		beanRegistry.registerDependentBean("tb2", "tb");
+		beanRegistry.registerDependentBean("tb2", "other");
+		assertThat(beanRegistry.getDependentBeans("tb2")).containsExactly("tb", "other");
+		assertThat(beanRegistry.getDependenciesForBean("tb")).containsExactly("tb2");
+		assertThat(beanRegistry.isDependent("tb2", "tb")).isTrue();
+
+		beanRegistry.destroySingletons();
+		assertThat(beanRegistry.getSingletonCount()).isEqualTo(0);
+		assertThat(beanRegistry.getSingletonNames()).isEmpty();
+		assertThat(beanRegistry.getDependentBeans("tb2")).isEmpty();
+		assertThat(tb.wasDestroyed()).isTrue();
+	}
+
+	@Test
+	public void testConcurrentSingletonRegistrySwitchedAfterRegistration() {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		TestBean tb = new TestBean();
+		beanRegistry.registerSingleton("tb", tb);
+		beanRegistry.setConcurrentSingletonRegistry(true);
+
+		TestBean tb2 = (TestBean) beanRegistry.getSingleton("tb2", TestBean::new);
+		assertThat(beanRegistry.getSingleton("tb")).isSameAs(tb);
+		assertThat(beanRegistry.getSingletonNames()).containsExactly("tb", "tb2");
+
+		beanRegistry.setConcurrentSingletonRegistry(false);
+		assertThat(beanRegistry.getSingleton("tb2")).isSameAs(tb2);
+		assertThat(beanRegistry.getSingletonNames()).containsExactly("tb", "tb2");
+	}
+
+	@Test
+	public void testConcurrentDependentRegistration() {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		beanRegistry.setConcurrentSingletonRegistry(true);
+
+		beanRegistry.registerDependentBean("a", "b");
+		beanRegistry.registerDependentBean("b", "c");
+		beanRegistry.registerDependentBean("c", "b");
+		assertThat(beanRegistry.isDependent("a", "c")).isTrue();
+		assertThat(beanRegistry.isDependent("c", "a")).isFalse();
+		assertThat(beanRegistry.isDependent("b", "b")).isTrue();
+		assertThatIllegalStateException().isThrownBy(() -> beanRegistry.setConcurrentSingletonRegistry(false));
+	}
+
+	@Test
+	public void testConcurrentRegistryWithCircularReference() {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.setConcurrentSingletonRegistry(true);
+		RootBeanDefinition bd1 = new RootBeanDefinition(TestBean.class);
+		bd1.getPropertyValues().add("spouse", new RuntimeBeanReference("tb2"));
+		beanFactory.registerBeanDefinition("tb1", bd1);
+		RootBeanDefinition bd2 = new RootBeanDefinition(TestBean.class);
+		bd2.getPropertyValues().add("spouse", new RuntimeBeanReference("tb1"));
+		beanFactory.registerBeanDefinition("tb2", bd2);
+
+		TestBean tb1 = beanFactory.getBean("tb1", TestBean.class);
+		TestBean tb2 = beanFactory.getBean("tb2", TestBean.class);
+		assertThat(tb1.getSpouse()).isSameAs(tb2);
+		assertThat(tb2.getSpouse()).isSameAs(tb1);
+		assertThat(beanFactory.getDependentBeans("tb2")).containsExactly("tb1");
+	}
+
+	@Test
+	public void testConcurrentRegistryWithPrototypesInManyThreads() throws Exception {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.setConcurrentSingletonRegistry(true);
+		beanFactory.registerBeanDefinition("singleton", new RootBeanDefinition(TestBean.class));
+		RootBeanDefinition prototype = new RootBeanDefinition(TestBean.class);
+		prototype.setScope(RootBeanDefinition.SCOPE_PROTOTYPE);
+		prototype.getPropertyValues().add("spouse", new RuntimeBeanReference("singleton"));
+		beanFactory.registerBeanDefinition("prototype", prototype);
+
+		ExecutorService executor = Executors.newFixedThreadPool(16);
+		try {
+			List<Future<TestBean>> futures = new ArrayList<>();
+			for (int i = 0; i < 1000; i++) {
+				futures.add(executor.submit(() -> beanFactory.getBean("prototype", TestBean.class)));
+			}
+			Object singleton = beanFactory.getBean("singleton");
+			for (Future<TestBean> future : futures) {
+				assertThat(future.get().getSpouse()).isSameAs(singleton);
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		assertThat(beanFactory.getSingletonNames()).containsExactly("singleton");
+		assertThat(beanFactory.getDependentBeans("singleton")).containsExactly("prototype");
+	}
+
 }
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.beans.factory.support;
+
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.BeanCurrentlyInCreationException;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.testfixture.beans.TestBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for parallel pre-instantiation of singletons through a bootstrap executor.
+ *
+ * @since 5.2.9
+ */
+@Timeout(30)
+class ParallelSingletonPreInstantiationTests {
+
+	private ExecutorService executor;
+
+	private DefaultListableBeanFactory beanFactory;
+
+
+	@BeforeEach
+	void setup() {
+		this.executor = Executors.newFixedThreadPool(4);
+		this.beanFactory = new DefaultListableBeanFactory();
+		this.beanFactory.setBootstrapExecutor(this.executor);
+	}
+
+	@AfterEach
+	void shutdown() {
+		this.beanFactory.destroySingletons();
+		this.executor.shutdownNow();
+	}
+
+
+	@Test
+	void independentSingletonsCreatedConcurrently() {
+		CyclicBarrier barrier = new CyclicBarrier(3);
+		for (int i = 0; i < 3; i++) {
+			this.beanFactory.registerBeanDefinition("bean" + i,
+					new RootBeanDefinition(Object.class, () -> awaitAndCreate(barrier)));
+		}
+		this.beanFactory.preInstantiateSingletons();
+
+		assertThat(this.beanFactory.getSingletonCount()).isEqualTo(3);
+	}
+
+	@Test
+	void dependsOnHonored() {
+		AtomicBoolean dependencyCreated = new AtomicBoolean();
+		RootBeanDefinition dependent = new RootBeanDefinition(Boolean.class, dependencyCreated::get);
+		dependent.setDependsOn("dependency");
+		this.beanFactory.registerBeanDefinition("dependent", dependent);
+		this.beanFactory.registerBeanDefinition("dependency", new RootBeanDefinition(Object.class, () -> {
+			sleep(50);
+			dependencyCreated.set(true);
+			return new Object();
+		}));
+		this.beanFactory.preInstantiateSingletons();
+
+		assertThat(this.beanFactory.getBean("dependent", Boolean.class)).isTrue();
+	}
+
+	@Test
+	void undeclaredDependencyCreatedOnce() {
+		AtomicInteger creationCount = new AtomicInteger();
+		this.beanFactory.registerBeanDefinition("shared", new RootBeanDefinition(Object.class, () -> {
+			creationCount.incrementAndGet();
+			sleep(50);
+			return new Object();
+		}));
+		for (int i = 0; i < 4; i++) {
+			this.beanFactory.registerBeanDefinition("consumer" + i, new RootBeanDefinition(Object.class,
+					() -> this.beanFactory.getBean("shared")));
+		}
+		this.beanFactory.preInstantiateSingletons();
+
+		assertThat(creationCount.get()).isEqualTo(1);
+		for (int i = 0; i < 4; i++) {
+			assertThat(this.beanFactory.getBean("consumer" + i)).isSameAs(this.beanFactory.getBean("shared"));
+		}
+	}
+
+	@Test
+	void declaredCircularReferenceResolved() {
+		RootBeanDefinition tb1 = new RootBeanDefinition(TestBean.class);
+		tb1.getPropertyValues().add("spouse", new RuntimeBeanReference("tb2"));
+		RootBeanDefinition tb2 = new RootBeanDefinition(TestBean.class);
+		tb2.getPropertyValues().add("spouse", new RuntimeBeanReference("tb1"));
+		this.beanFactory.registerBeanDefinition("tb1", tb1);
+		this.beanFactory.registerBeanDefinition("tb2", tb2);
+		this.beanFactory.preInstantiateSingletons();
+
+		TestBean bean1 = this.beanFactory.getBean("tb1", TestBean.class);
+		TestBean bean2 = this.beanFactory.getBean("tb2", TestBean.class);
+		assertThat(bean1.getSpouse()).isSameAs(bean2);
+		assertThat(bean2.getSpouse()).isSameAs(bean1);
+	}
+
+	@Test
+	void circularConstructorReferenceAcrossThreadsRejected() {
+		CyclicBarrier barrier = new CyclicBarrier(2);
+		this.beanFactory.registerBeanDefinition("a", new RootBeanDefinition(Object.class, () -> {
+			awaitAndCreate(barrier);
+			return this.beanFactory.getBean("b");
+		}));
+		this.beanFactory.registerBeanDefinition("b", new RootBeanDefinition(Object.class, () -> {
+			awaitAndCreate(barrier);
+			return this.beanFactory.getBean("a");
+		}));
+
+		assertThatExceptionOfType(BeanCreationException.class).isThrownBy(() ->
+				this.beanFactory.preInstantiateSingletons())
+				.satisfies(ex -> assertThat(ex.contains(BeanCurrentlyInCreationException.class)).isTrue());
+	}
+
+	@Test
+	void creationFailurePropagated() {
+		this.beanFactory.registerBeanDefinition("ok", new RootBeanDefinition(Object.class));
+		this.beanFactory.registerBeanDefinition("failing", new RootBeanDefinition(Object.class, () -> {
+			throw new IllegalArgumentException("boom");
+		}));
+
+		assertThatExceptionOfType(BeanCreationException.class).isThrownBy(() ->
+				this.beanFactory.preInstantiateSingletons())
+				.satisfies(ex -> assertThat(ex.getBeanName()).isEqualTo("failing"));
+	}
+
+	@Test
+	void smartInitializingSingletonsInvokedInRegistrationOrder() {
+		List<String> invocations = new CopyOnWriteArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			String name = "smart" + i;
+			this.beanFactory.registerBeanDefinition(name, new RootBeanDefinition(SmartInitializingSingleton.class,
+					() -> () -> invocations.add(name + ":" + this.beanFactory.getSingletonCount())));
+		}
+		this.beanFactory.preInstantiateSingletons();
+
+		assertThat(invocations).containsExactly("smart0:5", "smart1:5", "smart2:5", "smart3:5", "smart4:5");
+	}
+
+	@Test
+	void sequentialWithoutBootstrapExecutor() {
+		this.beanFactory.setBootstrapExecutor(null);
+		List<String> threads = new CopyOnWriteArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			this.beanFactory.registerBeanDefinition("bean" + i, new RootBeanDefinition(Object.class, () -> {
+				threads.add(Thread.currentThread().getName());
+				return new Object();
+			}));
+		}
+		this.beanFactory.preInstantiateSingletons();
+
+		assertThat(this.beanFactory.isParallelSingletonCreation()).isFalse();
+		assertThat(threads).containsOnly(Thread.currentThread().getName());
+	}
+
+
+	private static Object awaitAndCreate(CyclicBarrier barrier) {
+		try {
+			barrier.await(10, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException | BrokenBarrierException | TimeoutException ex) {
+			throw new IllegalStateException("Singletons not created concurrently", ex);
+		}
+		return new Object();
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
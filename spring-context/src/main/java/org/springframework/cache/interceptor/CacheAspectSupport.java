@@ -17,7 +17,6 @@
 package org.springframework.cache.interceptor;
 
 import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -45,6 +44,7 @@ import org.springframework.cache.CacheManager;
 import org.springframework.context.expression.AnnotatedElementKey;
 import org.springframework.core.BridgeMethodResolver;
 import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.spel.standard.SpelExpressionCache;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
@@ -88,7 +88,7 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 	private final Map<CacheOperationCacheKey, CacheOperationMetadata> metadataCache = new ConcurrentHashMap<>(1024);
 
-	private final CacheOperationExpressionEvaluator evaluator = new CacheOperationExpressionEvaluator();
+	private CacheOperationExpressionEvaluator evaluator = new CacheOperationExpressionEvaluator();
 
 	@Nullable
 	private CacheOperationSource cacheOperationSource;
@@ -229,6 +229,14 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 						"Register a CacheManager bean or remove the @EnableCaching annotation from your configuration.");
 			}
 		}
+		if (this.beanFactory != null) {
+			// Share parsed and compiled expressions through a context-scoped cache, if any...
+			SpelExpressionCache expressionCache =
+					this.beanFactory.getBeanProvider(SpelExpressionCache.class).getIfUnique();
+			if (expressionCache != null) {
+				this.evaluator = new CacheOperationExpressionEvaluator(expressionCache);
+			}
+		}
 		this.initialized = true;
 	}
 
@@ -674,7 +682,7 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			this.operation = operation;
 			this.method = BridgeMethodResolver.findBridgedMethod(method);
 			this.targetClass = targetClass;
-			this.targetMethod = (!Proxy.isProxyClass(targetClass) ?
+			this.targetMethod = (!ClassUtils.isInterfaceProxyClass(targetClass) ?
 					AopUtils.getMostSpecificMethod(method, targetClass) : this.method);
 			this.methodKey = new AnnotatedElementKey(this.targetMethod, targetClass);
 			this.keyGenerator = keyGenerator;
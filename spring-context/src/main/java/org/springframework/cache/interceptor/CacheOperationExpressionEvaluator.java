@@ -28,6 +28,7 @@ import org.springframework.context.expression.BeanFactoryResolver;
 import org.springframework.context.expression.CachedExpressionEvaluator;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionCache;
 import org.springframework.lang.Nullable;
 
 /**
@@ -68,6 +69,21 @@ class CacheOperationExpressionEvaluator extends CachedExpressionEvaluator {
 	private final Map<ExpressionKey, Expression> unlessCache = new ConcurrentHashMap<>(64);
 
 
+	/**
+	 * Create a new instance with a default {@code SpelExpressionParser}.
+	 */
+	public CacheOperationExpressionEvaluator() {
+	}
+
+	/**
+	 * Create a new instance with the specified {@link SpelExpressionCache}.
+	 * @since 5.2.9
+	 */
+	public CacheOperationExpressionEvaluator(SpelExpressionCache expressionCache) {
+		super(expressionCache);
+	}
+
+
 	/**
 	 * Create an {@link EvaluationContext}.
 	 * @param caches the current caches
@@ -22,9 +22,11 @@ import org.springframework.beans.factory.support.BeanNameGenerator;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.context.support.GenericApplicationContext;
 import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 
+import java.util.Arrays;
 import java.util.function.Supplier;
 
 /**
@@ -198,7 +200,10 @@ public class AnnotationConfigApplicationContext extends GenericApplicationContex
 	public void register(Class<?>... componentClasses) {
 		Assert.notEmpty(componentClasses, "At least one component class must be specified");
 		// AnnotatedBeanDefinitionReader
+		StartupStep registerComponentClass = getApplicationStartup().start("spring.context.component-classes.register")
+				.tag("classes", () -> Arrays.toString(componentClasses));
 		this.reader.register(componentClasses);
+		registerComponentClass.end();
 	}
 
 	/**
@@ -212,7 +217,10 @@ public class AnnotationConfigApplicationContext extends GenericApplicationContex
 	@Override
 	public void scan(String... basePackages) {
 		Assert.notEmpty(basePackages, "At least one base package must be specified");
+		StartupStep scanPackages = getApplicationStartup().start("spring.context.base-packages.scan")
+				.tag("packages", () -> Arrays.toString(basePackages));
 		this.scanner.scan(basePackages);
+		scanPackages.end();
 	}
 
 
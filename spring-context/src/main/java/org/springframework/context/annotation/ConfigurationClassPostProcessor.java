@@ -33,6 +33,7 @@ import org.springframework.beans.factory.support.AbstractBeanDefinition;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
 import org.springframework.beans.factory.support.BeanNameGenerator;
+import org.springframework.context.ApplicationStartupAware;
 import org.springframework.context.EnvironmentAware;
 import org.springframework.context.ResourceLoaderAware;
 import org.springframework.context.annotation.ConfigurationClassEnhancer.EnhancedConfiguration;
@@ -40,6 +41,8 @@ import org.springframework.core.Ordered;
 import org.springframework.core.PriorityOrdered;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.type.AnnotationMetadata;
@@ -51,6 +54,7 @@ import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  *
@@ -82,7 +86,7 @@ import java.util.*;
  * @since 3.0
  */
 public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPostProcessor,
-		PriorityOrdered, ResourceLoaderAware, BeanClassLoaderAware, EnvironmentAware {
+		PriorityOrdered, ResourceLoaderAware, ApplicationStartupAware, BeanClassLoaderAware, EnvironmentAware {
 
 	/**
 	 *
@@ -138,6 +142,8 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 	/* Using short class names as default bean names by default. */
 	private BeanNameGenerator componentScanBeanNameGenerator = AnnotationBeanNameGenerator.INSTANCE;
 
+	private ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
+
 	/* Using fully qualified class names as default bean names by default. */
 	private BeanNameGenerator importBeanNameGenerator = IMPORT_BEAN_NAME_GENERATOR;
 
@@ -206,6 +212,11 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		this.environment = environment;
 	}
 
+	@Override
+	public void setApplicationStartup(ApplicationStartup applicationStartup) {
+		this.applicationStartup = applicationStartup;
+	}
+
 	@Override
 	public void setResourceLoader(ResourceLoader resourceLoader) {
 		Assert.notNull(resourceLoader, "ResourceLoader must not be null");
@@ -295,6 +306,47 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		beanFactory.addBeanPostProcessor(new ImportAwareBeanPostProcessor(beanFactory));
 	}
 
+	/**
+	 * Apply the runtime part of configuration class processing to a bean factory
+	 * whose bean definitions have been generated ahead of time: enhances full
+	 * configuration classes and registers the post-processor for {@link ImportAware}
+	 * callbacks, without parsing any configuration class again.
+	 * @param beanFactory the bean factory holding the generated bean definitions
+	 * @param importingClassNames the names of imported configuration classes,
+	 * mapped to the names of the classes that imported them
+	 * @since 5.2.9
+	 * @see #getImportingClassName
+	 */
+	public void postProcessGeneratedBeanFactory(
+			ConfigurableListableBeanFactory beanFactory, Map<String, String> importingClassNames) {
+
+		if (!beanFactory.containsSingleton(IMPORT_REGISTRY_BEAN_NAME)) {
+			ClassLoader classLoader = beanFactory.getBeanClassLoader();
+			beanFactory.registerSingleton(IMPORT_REGISTRY_BEAN_NAME, new StaticImportRegistry(
+					importingClassNames, (classLoader != null ? classLoader : this.beanClassLoader)));
+		}
+		enhanceConfigurationClasses(beanFactory);
+		beanFactory.addBeanPostProcessor(new ImportAwareBeanPostProcessor(beanFactory));
+	}
+
+	/**
+	 * Return the name of the class that imported the given configuration class,
+	 * as recorded by the last configuration class parsing against the given factory.
+	 * @param beanFactory the bean factory that configuration classes were parsed for
+	 * @param importedClassName the name of the imported configuration class
+	 * @return the name of the importing class, or {@code null} if none
+	 * @since 5.2.9
+	 */
+	@Nullable
+	public static String getImportingClassName(BeanFactory beanFactory, String importedClassName) {
+		if (!beanFactory.containsBean(IMPORT_REGISTRY_BEAN_NAME)) {
+			return null;
+		}
+		ImportRegistry importRegistry = beanFactory.getBean(IMPORT_REGISTRY_BEAN_NAME, ImportRegistry.class);
+		AnnotationMetadata importingClass = importRegistry.getImportingClassFor(importedClassName);
+		return (importingClass != null ? importingClass.getClassName() : null);
+	}
+
 	/**
 	 * 1、把包含如下某个注解的类当作配置类进行处理，做相关的解析工作：
 	 * @Configuaration
@@ -448,6 +500,7 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 			 * 2、candidates是一个配置类集合：包含所有的配置类
 			 */
 			// ⚠️开始解析，解析带有【@Configuration、@Component、@ComponentScan、@Import、@ImportSource、@Bean】的BeanDefinition
+			StartupStep processConfig = this.applicationStartup.start("spring.context.config-classes.parse");
 			parser.parse(candidates);
 			// 将解析完成的Configuration配置类进行校验：1、配置类不能是final，2、@Bean修饰的方法必须可以重写以支持CGLIB
 			parser.validate();
@@ -484,6 +537,7 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 
 			// 添加已经解析的配置类
 			alreadyParsed.addAll(configClasses);
+			processConfig.tag("classCount", () -> String.valueOf(configClasses.size())).end();
 
 			candidates.clear();
 			// 这里判断registry.getBeanDefinitionCount() > candidateNames.length的目的是为了知道reader.loadBeanDefinitions(configClasses)这一步有没有
@@ -570,6 +624,7 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 	 * @see ConfigurationClassEnhancer
 	 */
 	public void enhanceConfigurationClasses(ConfigurableListableBeanFactory beanFactory) {
+		StartupStep enhanceConfigClasses = this.applicationStartup.start("spring.context.config-classes.enhance");
 		// 存放加了@Configuration的类
 		Map<String, AbstractBeanDefinition> configBeanDefs = new LinkedHashMap<>();
 		for (String beanName : beanFactory.getBeanDefinitionNames()) {
@@ -611,6 +666,7 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 			 * 没加@Configuration，就会走这里
 			 */
 			// nothing to enhance -> return immediately - 没有什么可增强的->立即返回
+			enhanceConfigClasses.end();
 			return;
 		}
 
@@ -642,6 +698,7 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 				beanDef.setBeanClass(enhancedClass/* 动态代理的类 */);
 			}
 		}
+		enhanceConfigClasses.tag("classCount", () -> String.valueOf(configBeanDefs.keySet().size())).end();
 	}
 
 
@@ -691,4 +748,40 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		}
 	}
 
+
+
+	/**
+	 * {@link ImportRegistry} backed by importing class names recorded ahead of time,
+	 * introspecting the importing classes on demand.
+	 */
+	private static class StaticImportRegistry implements ImportRegistry {
+
+		private final Map<String, String> importingClassNames;
+
+		private final ClassLoader classLoader;
+
+		private final Map<String, AnnotationMetadata> metadataCache = new ConcurrentHashMap<>();
+
+		public StaticImportRegistry(Map<String, String> importingClassNames, ClassLoader classLoader) {
+			this.importingClassNames = new ConcurrentHashMap<>(importingClassNames);
+			this.classLoader = classLoader;
+		}
+
+		@Override
+		@Nullable
+		public AnnotationMetadata getImportingClassFor(String importedClass) {
+			String importingClassName = this.importingClassNames.get(importedClass);
+			if (importingClassName == null) {
+				return null;
+			}
+			return this.metadataCache.computeIfAbsent(importingClassName, className ->
+					AnnotationMetadata.introspect(ClassUtils.resolveClassName(className, this.classLoader)));
+		}
+
+		@Override
+		public void removeImportingClass(String importingClass) {
+			this.importingClassNames.values().removeIf(importingClass::equals);
+		}
+	}
+
 }
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.aot;
+
+import java.nio.file.Paths;
+
+import org.springframework.util.ClassUtils;
+
+/**
+ * Command-line entry point for {@link ApplicationContextAotGenerator}, generating
+ * the initializer of an annotation-based application at build time.
+ *
+ * <p>Expects two arguments: the fully qualified name of the application's
+ * {@code @Configuration} class and the root directory for generated sources.
+ * The initializer gets named after the configuration class, with the
+ * {@link ApplicationContextAotGenerator#DEFAULT_INITIALIZER_SUFFIX}. Typically
+ * invoked from the build after compiling the application, e.g. with Gradle:
+ *
+ * <pre class="code">
+ * task generateAotSources(type: JavaExec) {
+ *     classpath = sourceSets.main.runtimeClasspath
+ *     main = "org.springframework.context.aot.AotProcessor"
+ *     args = ["com.example.AppConfig", "$buildDir/generated-sources/aot"]
+ * }
+ * </pre>
+ *
+ * @since 5.2.9
+ * @see ApplicationContextAotGenerator#generateApplicationContextInitializer(Class, java.nio.file.Path)
+ */
+public abstract class AotProcessor {
+
+	/**
+	 * Generate the initializer for the given configuration class.
+	 * @param args the configuration class name and the output directory
+	 * @throws IllegalArgumentException if the arguments are incomplete
+	 * @throws Exception if the configuration class could not be loaded or processed
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length != 2) {
+			throw new IllegalArgumentException(
+					"Usage: AotProcessor <configuration class> <output directory>");
+		}
+		Class<?> configClass = ClassUtils.forName(args[0], ClassUtils.getDefaultClassLoader());
+		new ApplicationContextAotGenerator().generateApplicationContextInitializer(configClass, Paths.get(args[1]));
+	}
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.aot;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Processes an application context ahead of time, generating the source of an
+ * {@link org.springframework.context.ApplicationContextInitializer} that
+ * registers its bean definitions programmatically.
+ *
+ * <p>The context gets refreshed for AOT processing only: configuration classes
+ * are parsed, component scanning and condition evaluation happen at build time,
+ * and no bean gets instantiated. At runtime, the generated initializer is applied
+ * to a plain {@link GenericApplicationContext} which can be refreshed without
+ * any classpath scanning, configuration class parsing or reflective lookup of
+ * constructors and autowired members:
+ *
+ * <pre class="code">
+ * GenericApplicationContext context = new GenericApplicationContext();
+ * new MyApplication__ApplicationContextInitializer().initialize(context);
+ * context.refresh();
+ * </pre>
+ *
+ * <p>Bean definitions are captured in their post-processed state, so property
+ * placeholders resolved by a {@code BeanFactoryPostProcessor} and conditions
+ * evaluated during parsing reflect the build environment. Registry post-processors
+ * are not part of the generated code since their effect already is.
+ *
+ * <p>Meant to be driven by build tooling after compiling the application,
+ * with the application classes and their dependencies on the class path,
+ * e.g. through the {@link AotProcessor} command-line entry point.
+ *
+ * @since 5.2.9
+ * @see AotProcessor
+ * @see GenericApplicationContext#refreshForAotProcessing()
+ */
+public class ApplicationContextAotGenerator {
+
+	/**
+	 * Suffix appended to the configuration class name for the generated initializer by default.
+	 */
+	public static final String DEFAULT_INITIALIZER_SUFFIX = "__ApplicationContextInitializer";
+
+
+	private static final Log logger = LogFactory.getLog(ApplicationContextAotGenerator.class);
+
+
+	/**
+	 * Refresh the given application context for AOT processing and generate
+	 * the source of an initializer class with the given name.
+	 * @param applicationContext the non-refreshed application context to process
+	 * @param className the fully qualified name of the class to generate
+	 * @return the Java source of the generated class
+	 * @throws org.springframework.beans.BeansException if the context could not be prepared
+	 * @throws IllegalStateException if a bean definition cannot be represented in generated code
+	 */
+	public String generateApplicationContextInitializer(GenericApplicationContext applicationContext, String className) {
+		Assert.notNull(applicationContext, "ApplicationContext must not be null");
+		Assert.hasText(className, "Class name must not be empty");
+		applicationContext.refreshForAotProcessing();
+		return new ApplicationContextInitializerCodeGenerator(
+				applicationContext.getDefaultListableBeanFactory(), className).generate();
+	}
+
+	/**
+	 * Refresh the given application context for AOT processing and write the
+	 * source of an initializer class with the given name to the given directory,
+	 * following the usual package directory layout.
+	 * @param applicationContext the non-refreshed application context to process
+	 * @param className the fully qualified name of the class to generate
+	 * @param outputDirectory the root directory for generated sources
+	 * @return the path of the generated source file
+	 * @throws IOException if the source file could not be written
+	 * @see #generateApplicationContextInitializer(GenericApplicationContext, String)
+	 */
+	public Path generateApplicationContextInitializer(GenericApplicationContext applicationContext,
+			String className, Path outputDirectory) throws IOException {
+
+		String source = generateApplicationContextInitializer(applicationContext, className);
+		Path sourceFile = outputDirectory.resolve(
+				ClassUtils.convertClassNameToResourcePath(className) + ".java");
+		Files.createDirectories(sourceFile.getParent());
+		Files.write(sourceFile, source.getBytes(StandardCharsets.UTF_8));
+		return sourceFile;
+	}
+
+	/**
+	 * Process the annotation-based application defined by the given configuration
+	 * class and write the source of its initializer to the given directory, named
+	 * after the configuration class with the {@link #DEFAULT_INITIALIZER_SUFFIX}.
+	 * @param configClass the application's {@code @Configuration} class
+	 * @param outputDirectory the root directory for generated sources
+	 * @return the path of the generated source file
+	 * @throws IOException if the source file could not be written
+	 * @see #generateApplicationContextInitializer(GenericApplicationContext, String, Path)
+	 */
+	public Path generateApplicationContextInitializer(Class<?> configClass, Path outputDirectory) throws IOException {
+		Assert.notNull(configClass, "Configuration class must not be null");
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.register(configClass);
+		try {
+			Path sourceFile = generateApplicationContextInitializer(
+					context, configClass.getName() + DEFAULT_INITIALIZER_SUFFIX, outputDirectory);
+			if (logger.isInfoEnabled()) {
+				logger.info("Generated ApplicationContextInitializer for " + configClass.getName() + ": " + sourceFile);
+			}
+			return sourceFile;
+		}
+		finally {
+			context.getDefaultListableBeanFactory().destroySingletons();
+		}
+	}
+
+}
@@ -0,0 +1,1005 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.aot;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.BeanDefinitionStoreException;
+import org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessor;
+import org.springframework.beans.factory.aot.AutowiredArguments;
+import org.springframework.beans.factory.aot.AutowiredFieldValueResolver;
+import org.springframework.beans.factory.aot.AutowiredMethodArgumentsResolver;
+import org.springframework.beans.factory.aot.BeanInstanceSupplier;
+import org.springframework.beans.factory.aot.GeneratedAutowiringBeanPostProcessor;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.RuntimeBeanNameReference;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.AutowireCandidateQualifier;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.LookupOverride;
+import org.springframework.beans.factory.support.ManagedArray;
+import org.springframework.beans.factory.support.ManagedList;
+import org.springframework.beans.factory.support.ManagedMap;
+import org.springframework.beans.factory.support.ManagedProperties;
+import org.springframework.beans.factory.support.ManagedSet;
+import org.springframework.beans.factory.support.MethodOverride;
+import org.springframework.beans.factory.support.ReplaceOverride;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.annotation.AnnotationConfigUtils;
+import org.springframework.context.annotation.ConfigurationClassPostProcessor;
+import org.springframework.context.annotation.ContextAnnotationAutowireCandidateResolver;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.context.annotation.PropertySources;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.Conventions;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.core.io.support.PropertySourceFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Generates the Java source of an {@link ApplicationContextInitializer} that
+ * registers the bean definitions of a bean factory which has been prepared
+ * through {@link GenericApplicationContext#refreshForAotProcessing()}.
+ *
+ * <p>Instances are not reusable: create a new generator per generated class.
+ *
+ * @since 5.2.9
+ * @see ApplicationContextAotGenerator
+ */
+class ApplicationContextInitializerCodeGenerator {
+
+	private static final String CONFIGURATION_CLASS_ATTRIBUTE =
+			Conventions.getQualifiedAttributeName(ConfigurationClassPostProcessor.class, "configurationClass");
+
+	private static final String CONFIGURATION_CLASS_FULL = "full";
+
+	private static final String CONTEXT_ANNOTATION_PACKAGE = "org.springframework.context.annotation.";
+
+	private static final Set<String> EXCLUDED_BEAN_NAMES = new HashSet<>(Arrays.asList(
+			AnnotationConfigUtils.CONFIGURATION_ANNOTATION_PROCESSOR_BEAN_NAME,
+			AnnotationConfigUtils.AUTOWIRED_ANNOTATION_PROCESSOR_BEAN_NAME));
+
+	private static final String INDENT = "\t";
+
+	private static final Log logger = LogFactory.getLog(ApplicationContextInitializerCodeGenerator.class);
+
+
+	private final DefaultListableBeanFactory beanFactory;
+
+	private final String packageName;
+
+	private final String simpleClassName;
+
+	private final AutowiredAnnotationBeanPostProcessor autowiredProcessor;
+
+	private final Set<String> imports = new TreeSet<>();
+
+	private final Set<String> methodNames = new HashSet<>();
+
+	private final Map<String, String> helperMethods = new LinkedHashMap<>();
+
+	private final StringBuilder methods = new StringBuilder();
+
+
+	ApplicationContextInitializerCodeGenerator(DefaultListableBeanFactory beanFactory, String className) {
+		this.beanFactory = beanFactory;
+		this.packageName = ClassUtils.getPackageName(className);
+		this.simpleClassName = ClassUtils.getShortName(className);
+		this.autowiredProcessor = new AutowiredAnnotationBeanPostProcessor();
+		this.autowiredProcessor.setBeanFactory(beanFactory);
+		this.methodNames.add("initialize");
+	}
+
+
+	/**
+	 * Generate the source of the initializer class.
+	 * @throws BeanDefinitionStoreException if a bean definition cannot be
+	 * represented in generated code
+	 */
+	String generate() {
+		StringBuilder body = new StringBuilder();
+		line(body, 2, use(DefaultListableBeanFactory.class) +
+				" beanFactory = applicationContext.getDefaultListableBeanFactory();");
+		if (this.beanFactory.getAutowireCandidateResolver() instanceof ContextAnnotationAutowireCandidateResolver) {
+			line(body, 2, "beanFactory.setAutowireCandidateResolver(new " +
+					use(ContextAnnotationAutowireCandidateResolver.class) + "());");
+		}
+		if (this.beanFactory.getDependencyComparator() instanceof AnnotationAwareOrderComparator) {
+			line(body, 2, "beanFactory.setDependencyComparator(" +
+					use(AnnotationAwareOrderComparator.class) + ".INSTANCE);");
+		}
+
+		StringBuilder registrations = new StringBuilder();
+		StringBuilder autowirings = new StringBuilder();
+		Set<Class<?>> configurationClasses = new LinkedHashSet<>();
+		Map<String, String> importingClassNames = new LinkedHashMap<>();
+		String[] beanNames = this.beanFactory.getBeanDefinitionNames();
+		for (String beanName : beanNames) {
+			RootBeanDefinition mbd = (RootBeanDefinition) this.beanFactory.getMergedBeanDefinition(beanName);
+			if (isExcluded(beanName, mbd)) {
+				continue;
+			}
+			String methodName = generateBeanDefinitionMethod(beanName, mbd, true);
+			line(registrations, 2, "beanFactory.registerBeanDefinition(" + literal(beanName) + ", " +
+					methodName + "(beanFactory));");
+			for (String alias : this.beanFactory.getAliases(beanName)) {
+				line(registrations, 2, "beanFactory.registerAlias(" + literal(beanName) + ", " + literal(alias) + ");");
+			}
+			Class<?> beanType = getBeanType(beanName, mbd);
+			if (beanType != null) {
+				String autowireMethodName = generateAutowireMethod(beanName, beanType);
+				if (autowireMethodName != null) {
+					line(autowirings, 2, "autowiring.registerAutowiring(" + literal(beanName) + ", " +
+							this.simpleClassName + "::" + autowireMethodName + ");");
+				}
+				if (mbd.getAttribute(CONFIGURATION_CLASS_ATTRIBUTE) != null) {
+					Class<?> userClass = ClassUtils.getUserClass(beanType);
+					configurationClasses.add(userClass);
+					String importingClassName =
+							ConfigurationClassPostProcessor.getImportingClassName(this.beanFactory, userClass.getName());
+					if (importingClassName != null) {
+						importingClassNames.put(userClass.getName(), importingClassName);
+					}
+				}
+			}
+		}
+
+		generatePropertySourceRegistrations(body, configurationClasses);
+		body.append(registrations);
+		if (autowirings.length() > 0) {
+			line(body, 2, use(GeneratedAutowiringBeanPostProcessor.class) + " autowiring = new " +
+					use(GeneratedAutowiringBeanPostProcessor.class) + "(beanFactory);");
+			body.append(autowirings);
+			line(body, 2, "beanFactory.addBeanPostProcessor(autowiring);");
+		}
+		if (!configurationClasses.isEmpty()) {
+			line(body, 2, use(Map.class) + "<String, String> importingClassNames = new " +
+					use(HashMap.class) + "<>();");
+			importingClassNames.forEach((imported, importing) -> line(body, 2,
+					"importingClassNames.put(" + literal(imported) + ", " + literal(importing) + ");"));
+			line(body, 2, "new " + use(ConfigurationClassPostProcessor.class) +
+					"().postProcessGeneratedBeanFactory(beanFactory, importingClassNames);");
+		}
+		return generateClass(body.toString());
+	}
+
+	private boolean isExcluded(String beanName, RootBeanDefinition mbd) {
+		if (mbd.isAbstract() || EXCLUDED_BEAN_NAMES.contains(beanName)) {
+			return true;
+		}
+		Class<?> beanType = this.beanFactory.getType(beanName, false);
+		if (beanType != null && BeanDefinitionRegistryPostProcessor.class.isAssignableFrom(beanType)) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Skipping BeanDefinitionRegistryPostProcessor '" + beanName +
+						"': already applied to the generated bean definitions");
+			}
+			return true;
+		}
+		return false;
+	}
+
+	@Nullable
+	private Class<?> getBeanType(String beanName, RootBeanDefinition mbd) {
+		Method factoryMethod = mbd.getResolvedFactoryMethod();
+		if (factoryMethod != null) {
+			return factoryMethod.getReturnType();
+		}
+		if (mbd.getFactoryMethodName() != null) {
+			return this.beanFactory.getType(beanName, false);
+		}
+		return (mbd.hasBeanClass() ? ClassUtils.getUserClass(mbd.getBeanClass()) : null);
+	}
+
+	private void generatePropertySourceRegistrations(StringBuilder body, Set<Class<?>> configurationClasses) {
+		boolean registrarDeclared = false;
+		for (Class<?> configurationClass : configurationClasses) {
+			Set<PropertySource> propertySources = AnnotatedElementUtils.findMergedRepeatableAnnotations(
+					configurationClass, PropertySource.class, PropertySources.class);
+			for (PropertySource propertySource : propertySources) {
+				if (!registrarDeclared) {
+					line(body, 2, use(PropertySourceRegistrar.class) + " propertySources = new " +
+							use(PropertySourceRegistrar.class) + "(applicationContext.getEnvironment(), applicationContext);");
+					registrarDeclared = true;
+				}
+				Class<? extends PropertySourceFactory> factoryClass = propertySource.factory();
+				line(body, 2, "propertySources.register(" +
+						(StringUtils.hasLength(propertySource.name()) ? literal(propertySource.name()) : "null") + ", " +
+						"new String[] {" + literals(propertySource.value()) + "}, " +
+						propertySource.ignoreResourceNotFound() + ", " +
+						(StringUtils.hasLength(propertySource.encoding()) ? literal(propertySource.encoding()) : "null") + ", " +
+						(factoryClass != PropertySourceFactory.class ? classExpression(factoryClass) : "null") + ");");
+			}
+		}
+	}
+
+
+	//---------------------------------------------------------------------
+	// Bean definitions
+	//---------------------------------------------------------------------
+
+	private String generateBeanDefinitionMethod(String beanName, AbstractBeanDefinition bd, boolean topLevel) {
+		String methodName = uniqueMethodName(beanName, "BeanDefinition");
+		StringBuilder code = new StringBuilder();
+		line(code, 1, "/**");
+		line(code, 1, " * Create the bean definition for '" + javadocText(beanName) + "'.");
+		line(code, 1, " */");
+		line(code, 1, "private static " + use(RootBeanDefinition.class) + " " + methodName + "(" +
+				use(DefaultListableBeanFactory.class) + " beanFactory) {");
+
+		Class<?> beanClass = resolveBeanClass(beanName, bd);
+		if (CONFIGURATION_CLASS_FULL.equals(bd.getAttribute(CONFIGURATION_CLASS_ATTRIBUTE)) && beanClass != null) {
+			// Gets enhanced again at runtime: needs to be instantiated through its bean class
+			line(code, 2, use(RootBeanDefinition.class) + " beanDefinition = new " + use(RootBeanDefinition.class) +
+					"(" + classExpression(ClassUtils.getUserClass(beanClass)) + ");");
+			generateConstructorArguments(code, beanName, bd);
+		}
+		else if (bd.getFactoryMethodName() != null) {
+			generateFactoryMethodInstantiation(code, beanName, bd, beanClass, topLevel);
+		}
+		else if (beanClass != null) {
+			generateConstructorInstantiation(code, beanName, bd, beanClass);
+		}
+		else {
+			throw new BeanDefinitionStoreException(bd.getResourceDescription(), beanName,
+					"No bean class or factory method specified: cannot be processed ahead of time");
+		}
+		generateBeanDefinitionProperties(code, beanName, bd);
+		generatePropertyValues(code, beanName, bd);
+		line(code, 2, "return beanDefinition;");
+		line(code, 1, "}");
+		addMethod(code);
+		return methodName;
+	}
+
+	@Nullable
+	private Class<?> resolveBeanClass(String beanName, AbstractBeanDefinition bd) {
+		if (bd.hasBeanClass()) {
+			return bd.getBeanClass();
+		}
+		if (bd.getBeanClassName() == null) {
+			return null;
+		}
+		try {
+			return bd.resolveBeanClass(this.beanFactory.getBeanClassLoader());
+		}
+		catch (ClassNotFoundException ex) {
+			throw new BeanDefinitionStoreException(bd.getResourceDescription(), beanName,
+					"Bean class [" + bd.getBeanClassName() + "] not found", ex);
+		}
+	}
+
+	private void generateConstructorInstantiation(
+			StringBuilder code, String beanName, AbstractBeanDefinition bd, Class<?> beanClass) {
+
+		line(code, 2, use(RootBeanDefinition.class) + " beanDefinition = new " + use(RootBeanDefinition.class) +
+				"(" + classExpression(beanClass) + ");");
+		// Also registers @Lookup methods as method overrides on the bean definition
+		Constructor<?>[] candidates = this.autowiredProcessor.determineCandidateConstructors(beanClass, beanName);
+		Constructor<?> constructor = null;
+		if (bd.hasMethodOverrides()) {
+			generateMethodOverrides(code, bd);
+		}
+		else if (!bd.hasConstructorArgumentValues() && !Modifier.isAbstract(beanClass.getModifiers())) {
+			constructor = (candidates != null ? (candidates.length == 1 ? candidates[0] : null) :
+					getDefaultConstructor(beanClass));
+		}
+		if (constructor == null) {
+			// Let the bean factory pick the constructor at runtime
+			generateConstructorArguments(code, beanName, bd);
+			if (bd.getAutowireMode() == AbstractBeanDefinition.AUTOWIRE_NO && !bd.hasConstructorArgumentValues() &&
+					(candidates != null || getDefaultConstructor(beanClass) == null)) {
+				line(code, 2, "beanDefinition.setAutowireMode(" + use(RootBeanDefinition.class) + ".AUTOWIRE_CONSTRUCTOR);");
+			}
+			return;
+		}
+		Class<?>[] parameterTypes = constructor.getParameterTypes();
+		String typeArgument = (isAccessible(beanClass) ? typeName(beanClass) : "Object");
+		StringBuilder supplier = new StringBuilder();
+		supplier.append(use(BeanInstanceSupplier.class)).append(".<").append(typeArgument)
+				.append(">forConstructor(beanFactory, ").append(literal(beanName)).append(", ")
+				.append(classExpression(beanClass)).append(classExpressions(parameterTypes)).append(")");
+		if (isAccessible(beanClass) && isAccessible(constructor) && !ClassUtils.isInnerClass(beanClass) &&
+				allAccessible(parameterTypes)) {
+			supplier.append("\n").append(indent(4)).append(".withGenerator(args -> new ").append(typeName(beanClass))
+					.append("(").append(argumentList(parameterTypes)).append("))");
+		}
+		line(code, 2, "beanDefinition.setInstanceSupplier(" + supplier + ");");
+	}
+
+	@Nullable
+	private static Constructor<?> getDefaultConstructor(Class<?> beanClass) {
+		try {
+			return beanClass.getDeclaredConstructor();
+		}
+		catch (NoSuchMethodException ex) {
+			return null;
+		}
+	}
+
+	private void generateFactoryMethodInstantiation(StringBuilder code, String beanName,
+			AbstractBeanDefinition bd, @Nullable Class<?> beanClass, boolean topLevel) {
+
+		Method factoryMethod = null;
+		if (topLevel && bd instanceof RootBeanDefinition && !bd.hasConstructorArgumentValues()) {
+			// Resolves the unique factory method candidate as a side effect
+			this.beanFactory.getType(beanName, false);
+			factoryMethod = ((RootBeanDefinition) bd).getResolvedFactoryMethod();
+		}
+		if (factoryMethod == null) {
+			// Let the bean factory resolve the factory method at runtime
+			line(code, 2, use(RootBeanDefinition.class) + " beanDefinition = new " + use(RootBeanDefinition.class) +
+					"(" + (bd.getFactoryBeanName() == null && beanClass != null ?
+					classExpression(beanClass) : "") + ");");
+			if (bd.getFactoryBeanName() != null) {
+				line(code, 2, "beanDefinition.setFactoryBeanName(" + literal(bd.getFactoryBeanName()) + ");");
+			}
+			line(code, 2, "beanDefinition.setFactoryMethodName(" + literal(bd.getFactoryMethodName()) + ");");
+			generateConstructorArguments(code, beanName, bd);
+			return;
+		}
+
+		Class<?> declaringClass = factoryMethod.getDeclaringClass();
+		Class<?>[] parameterTypes = factoryMethod.getParameterTypes();
+		boolean staticMethod = Modifier.isStatic(factoryMethod.getModifiers());
+		String factoryBeanName = (staticMethod ? null : bd.getFactoryBeanName());
+		Class<?> returnType = factoryMethod.getReturnType();
+		String typeArgument = (isAccessible(returnType) && !returnType.isPrimitive() ? typeName(returnType) : "Object");
+
+		line(code, 2, use(RootBeanDefinition.class) + " beanDefinition = new " + use(RootBeanDefinition.class) + "();");
+		line(code, 2, "beanDefinition.setTargetType(" + resolvableTypeExpression(
+				ResolvableType.forMethodReturnType(factoryMethod)) + ");");
+		StringBuilder supplier = new StringBuilder();
+		supplier.append(use(BeanInstanceSupplier.class)).append(".<").append(typeArgument)
+				.append(">forFactoryMethod(beanFactory, ").append(literal(beanName)).append(", ")
+				.append(classExpression(declaringClass)).append(", ")
+				.append(factoryBeanName != null ? literal(factoryBeanName) : "null").append(", ")
+				.append(literal(factoryMethod.getName())).append(classExpressions(parameterTypes)).append(")");
+		if (isAccessible(declaringClass) && isAccessible(factoryMethod) && allAccessible(parameterTypes) &&
+				(staticMethod || factoryBeanName != null)) {
+			String target = (staticMethod ? typeName(declaringClass) :
+					"beanFactory.getBean(" + literal(factoryBeanName) + ", " + typeName(declaringClass) + ".class)");
+			supplier.append("\n").append(indent(4)).append(".withGenerator(args -> ").append(target).append(".")
+					.append(factoryMethod.getName()).append("(").append(argumentList(parameterTypes)).append("))");
+		}
+		if (hasQualifyingAnnotations(factoryMethod)) {
+			// Expose the factory method for qualifier matching against its annotations
+			line(code, 2, use(BeanInstanceSupplier.class) + "<" + typeArgument + "> instanceSupplier = " + supplier + ";");
+			line(code, 2, "beanDefinition.setInstanceSupplier(instanceSupplier);");
+			line(code, 2, "beanDefinition.setResolvedFactoryMethod((" + use(Method.class) +
+					") instanceSupplier.getExecutable());");
+		}
+		else {
+			line(code, 2, "beanDefinition.setInstanceSupplier(" + supplier + ");");
+		}
+	}
+
+	private static boolean hasQualifyingAnnotations(Method factoryMethod) {
+		for (Annotation annotation : factoryMethod.getAnnotations()) {
+			if (!annotation.annotationType().getName().startsWith(CONTEXT_ANNOTATION_PACKAGE)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void generateMethodOverrides(StringBuilder code, AbstractBeanDefinition bd) {
+		for (MethodOverride override : bd.getMethodOverrides().getOverrides()) {
+			if (override instanceof LookupOverride) {
+				String lookupBeanName = ((LookupOverride) override).getBeanName();
+				line(code, 2, "beanDefinition.getMethodOverrides().addOverride(new " + use(LookupOverride.class) + "(" +
+						literal(override.getMethodName()) + ", " +
+						(lookupBeanName != null ? literal(lookupBeanName) : "null") + "));");
+			}
+			else if (override instanceof ReplaceOverride) {
+				line(code, 2, "beanDefinition.getMethodOverrides().addOverride(new " + use(ReplaceOverride.class) + "(" +
+						literal(override.getMethodName()) + ", " +
+						literal(((ReplaceOverride) override).getMethodReplacerBeanName()) + "));");
+			}
+			else {
+				throw new IllegalStateException("Unsupported method override for AOT processing: " + override);
+			}
+		}
+	}
+
+	private void generateConstructorArguments(StringBuilder code, String beanName, AbstractBeanDefinition bd) {
+		if (!bd.hasConstructorArgumentValues()) {
+			return;
+		}
+		ConstructorArgumentValues args = bd.getConstructorArgumentValues();
+		String context = "constructor argument of bean '" + beanName + "'";
+		args.getIndexedArgumentValues().forEach((index, valueHolder) ->
+				line(code, 2, "beanDefinition.getConstructorArgumentValues().addIndexedArgumentValue(" + index + ", " +
+						valueHolderExpression(valueHolder, context) + ");"));
+		for (ConstructorArgumentValues.ValueHolder valueHolder : args.getGenericArgumentValues()) {
+			line(code, 2, "beanDefinition.getConstructorArgumentValues().addGenericArgumentValue(" +
+					valueHolderExpression(valueHolder, context) + ");");
+		}
+	}
+
+	private String valueHolderExpression(ConstructorArgumentValues.ValueHolder valueHolder, String context) {
+		return "new " + use(ConstructorArgumentValues.class) + ".ValueHolder(" +
+				valueExpression(valueHolder.getValue(), context) + ", " +
+				(valueHolder.getType() != null ? literal(valueHolder.getType()) : "null") + ", " +
+				(valueHolder.getName() != null ? literal(valueHolder.getName()) : "null") + ")";
+	}
+
+	private void generateBeanDefinitionProperties(StringBuilder code, String beanName, AbstractBeanDefinition bd) {
+		if (StringUtils.hasLength(bd.getScope()) && !BeanDefinition.SCOPE_SINGLETON.equals(bd.getScope())) {
+			line(code, 2, "beanDefinition.setScope(" + literal(bd.getScope()) + ");");
+		}
+		if (bd.isLazyInit()) {
+			line(code, 2, "beanDefinition.setLazyInit(true);");
+		}
+		if (bd.isPrimary()) {
+			line(code, 2, "beanDefinition.setPrimary(true);");
+		}
+		if (!bd.isAutowireCandidate()) {
+			line(code, 2, "beanDefinition.setAutowireCandidate(false);");
+		}
+		if (bd.getRole() != BeanDefinition.ROLE_APPLICATION) {
+			line(code, 2, "beanDefinition.setRole(" + bd.getRole() + ");");
+		}
+		if (bd.isSynthetic()) {
+			line(code, 2, "beanDefinition.setSynthetic(true);");
+		}
+		if (bd.getAutowireMode() != AbstractBeanDefinition.AUTOWIRE_NO) {
+			line(code, 2, "beanDefinition.setAutowireMode(" + bd.getAutowireMode() + ");");
+		}
+		if (bd.getDependencyCheck() != AbstractBeanDefinition.DEPENDENCY_CHECK_NONE) {
+			line(code, 2, "beanDefinition.setDependencyCheck(" + bd.getDependencyCheck() + ");");
+		}
+		if (!ObjectUtils.isEmpty(bd.getDependsOn())) {
+			line(code, 2, "beanDefinition.setDependsOn(" + literals(bd.getDependsOn()) + ");");
+		}
+		if (bd.getInitMethodName() != null) {
+			line(code, 2, "beanDefinition.setInitMethodName(" + literal(bd.getInitMethodName()) + ");");
+			if (!bd.isEnforceInitMethod()) {
+				line(code, 2, "beanDefinition.setEnforceInitMethod(false);");
+			}
+		}
+		if (bd.getDestroyMethodName() != null) {
+			line(code, 2, "beanDefinition.setDestroyMethodName(" + literal(bd.getDestroyMethodName()) + ");");
+			if (!bd.isEnforceDestroyMethod()) {
+				line(code, 2, "beanDefinition.setEnforceDestroyMethod(false);");
+			}
+		}
+		for (AutowireCandidateQualifier qualifier : bd.getQualifiers()) {
+			Object value = qualifier.getAttribute(AutowireCandidateQualifier.VALUE_KEY);
+			line(code, 2, "beanDefinition.addQualifier(new " + use(AutowireCandidateQualifier.class) + "(" +
+					literal(qualifier.getTypeName()) + (value != null ? ", " +
+					valueExpression(value, "qualifier of bean '" + beanName + "'") : "") + "));");
+		}
+		for (String attributeName : bd.attributeNames()) {
+			Object value = bd.getAttribute(attributeName);
+			if (value instanceof String || value instanceof Boolean || value instanceof Number ||
+					(value instanceof Class && !((Class<?>) value).getName().contains(ClassUtils.CGLIB_CLASS_SEPARATOR))) {
+				line(code, 2, "beanDefinition.setAttribute(" + literal(attributeName) + ", " +
+						valueExpression(value, "attribute of bean '" + beanName + "'") + ");");
+			}
+			else if (logger.isDebugEnabled()) {
+				logger.debug("Skipping attribute '" + attributeName + "' of bean '" + beanName +
+						"': value cannot be represented in generated code");
+			}
+		}
+	}
+
+	private void generatePropertyValues(StringBuilder code, String beanName, AbstractBeanDefinition bd) {
+		String context = "property of bean '" + beanName + "'";
+		for (PropertyValue pv : bd.getPropertyValues().getPropertyValueList()) {
+			line(code, 2, "beanDefinition.getPropertyValues().add(" + literal(pv.getName()) + ", " +
+					valueExpression(pv.getValue(), context) + ");");
+		}
+	}
+
+
+	//---------------------------------------------------------------------
+	// Autowiring
+	//---------------------------------------------------------------------
+
+	@Nullable
+	private String generateAutowireMethod(String beanName, Class<?> beanType) {
+		Map<Member, Boolean> autowiredMembers = this.autowiredProcessor.findAutowiredMembers(beanName, beanType);
+		if (autowiredMembers.isEmpty()) {
+			return null;
+		}
+		String methodName = uniqueMethodName(beanName, "Autowiring");
+		StringBuilder code = new StringBuilder();
+		line(code, 1, "/**");
+		line(code, 1, " * Apply the autowiring of '" + javadocText(beanName) + "' to the given instance.");
+		line(code, 1, " */");
+		line(code, 1, "private static void " + methodName + "(" + use(ConfigurableListableBeanFactory.class) +
+				" beanFactory, Object instance) {");
+		autowiredMembers.forEach((member, required) -> {
+			Class<?> declaringClass = member.getDeclaringClass();
+			if (member instanceof Field) {
+				line(code, 2, use(AutowiredFieldValueResolver.class) + "." +
+						(required ? "forRequiredField" : "forField") + "(" + classExpression(declaringClass) + ", " +
+						literal(member.getName()) + ").resolveAndSet(beanFactory, " + literal(beanName) + ", instance);");
+			}
+			else {
+				Method method = (Method) member;
+				Class<?>[] parameterTypes = method.getParameterTypes();
+				String resolver = use(AutowiredMethodArgumentsResolver.class) + "." +
+						(required ? "forRequiredMethod" : "forMethod") + "(" + classExpression(declaringClass) + ", " +
+						literal(method.getName()) + classExpressions(parameterTypes) + ")";
+				if (isAccessible(declaringClass) && isAccessible(method) && allAccessible(parameterTypes)) {
+					line(code, 2, "{");
+					line(code, 3, use(AutowiredArguments.class) + " args = " + resolver +
+							".resolve(beanFactory, " + literal(beanName) + ", instance);");
+					line(code, 3, "if (args != null) {");
+					line(code, 4, "((" + typeName(declaringClass) + ") instance)." + method.getName() + "(" +
+							argumentList(parameterTypes) + ");");
+					line(code, 3, "}");
+					line(code, 2, "}");
+				}
+				else {
+					line(code, 2, resolver + ".resolveAndInvoke(beanFactory, " + literal(beanName) + ", instance);");
+				}
+			}
+		});
+		line(code, 1, "}");
+		addMethod(code);
+		return methodName;
+	}
+
+
+	//---------------------------------------------------------------------
+	// Values
+	//---------------------------------------------------------------------
+
+	private String valueExpression(@Nullable Object value, String context) {
+		if (value == null) {
+			return "null";
+		}
+		if (value instanceof String) {
+			return literal((String) value);
+		}
+		if (value instanceof Boolean) {
+			return value.toString();
+		}
+		if (value instanceof Character) {
+			return "'" + escape(value.toString(), '\'') + "'";
+		}
+		if (value instanceof Integer) {
+			return value.toString();
+		}
+		if (value instanceof Long) {
+			return value + "L";
+		}
+		if (value instanceof Short) {
+			return "(short) " + value;
+		}
+		if (value instanceof Byte) {
+			return "(byte) " + value;
+		}
+		if (value instanceof Float) {
+			float f = (Float) value;
+			return (Float.isNaN(f) ? "Float.NaN" : Float.isInfinite(f) ?
+					(f > 0 ? "Float.POSITIVE_INFINITY" : "Float.NEGATIVE_INFINITY") : value + "F");
+		}
+		if (value instanceof Double) {
+			double d = (Double) value;
+			return (Double.isNaN(d) ? "Double.NaN" : Double.isInfinite(d) ?
+					(d > 0 ? "Double.POSITIVE_INFINITY" : "Double.NEGATIVE_INFINITY") : value + "D");
+		}
+		if (value instanceof Enum) {
+			// Converted back to the enum constant by the bean wrapper
+			return literal(((Enum<?>) value).name());
+		}
+		if (value instanceof Class) {
+			return classExpression((Class<?>) value);
+		}
+		if (value instanceof TypedStringValue) {
+			TypedStringValue typedValue = (TypedStringValue) value;
+			String targetTypeName = (typedValue.hasTargetType() ? typedValue.getTargetType().getName() :
+					typedValue.getTargetTypeName());
+			return "new " + use(TypedStringValue.class) + "(" +
+					(typedValue.getValue() != null ? literal(typedValue.getValue()) : "(String) null") +
+					(targetTypeName != null ? ", " + literal(targetTypeName) : "") + ")";
+		}
+		if (value instanceof RuntimeBeanReference) {
+			RuntimeBeanReference reference = (RuntimeBeanReference) value;
+			String target = (reference.getBeanType() != null ?
+					classExpression(reference.getBeanType()) : literal(reference.getBeanName()));
+			return "new " + use(RuntimeBeanReference.class) + "(" + target +
+					(reference.isToParent() ? ", true" : "") + ")";
+		}
+		if (value instanceof RuntimeBeanNameReference) {
+			return "new " + use(RuntimeBeanNameReference.class) + "(" +
+					literal(((RuntimeBeanNameReference) value).getBeanName()) + ")";
+		}
+		if (value instanceof BeanDefinitionHolder) {
+			BeanDefinitionHolder holder = (BeanDefinitionHolder) value;
+			return "new " + use(BeanDefinitionHolder.class) + "(" +
+					innerBeanDefinitionExpression(holder.getBeanName(), holder.getBeanDefinition(), context) + ", " +
+					literal(holder.getBeanName()) + ")";
+		}
+		if (value instanceof BeanDefinition) {
+			return innerBeanDefinitionExpression("(inner bean)", (BeanDefinition) value, context);
+		}
+		if (value instanceof ManagedArray) {
+			ManagedArray array = (ManagedArray) value;
+			return helper("managedArray", ManagedArray.class, "String elementTypeName, Object... elements",
+					"ManagedArray array = new ManagedArray(elementTypeName, elements.length);",
+					"array.addAll(Arrays.asList(elements));", "return array;") + "(" +
+					literal(array.getElementTypeName() != null ? array.getElementTypeName() : Object.class.getName()) +
+					elementExpressions(array, context) + ")";
+		}
+		if (value instanceof ManagedList) {
+			ManagedList<?> list = (ManagedList<?>) value;
+			return helper("managedList", ManagedList.class, "String elementTypeName, Object... elements",
+					"ManagedList<Object> list = new ManagedList<>(elements.length);",
+					"list.setElementTypeName(elementTypeName);",
+					"list.addAll(Arrays.asList(elements));", "return list;") + "(" +
+					(list.getElementTypeName() != null ? literal(list.getElementTypeName()) : "null") +
+					elementExpressions(list, context) + ")";
+		}
+		if (value instanceof ManagedSet) {
+			ManagedSet<?> set = (ManagedSet<?>) value;
+			return helper("managedSet", ManagedSet.class, "String elementTypeName, Object... elements",
+					"ManagedSet<Object> set = new ManagedSet<>(elements.length);",
+					"set.setElementTypeName(elementTypeName);",
+					"set.addAll(Arrays.asList(elements));", "return set;") + "(" +
+					(set.getElementTypeName() != null ? literal(set.getElementTypeName()) : "null") +
+					elementExpressions(set, context) + ")";
+		}
+		if (value instanceof ManagedMap) {
+			ManagedMap<?, ?> map = (ManagedMap<?, ?>) value;
+			return helper("managedMap", ManagedMap.class, "String keyTypeName, String valueTypeName, Object... entries",
+					"ManagedMap<Object, Object> map = new ManagedMap<>(entries.length / 2);",
+					"map.setKeyTypeName(keyTypeName);", "map.setValueTypeName(valueTypeName);",
+					"for (int i = 0; i < entries.length; i += 2) {", "\tmap.put(entries[i], entries[i + 1]);", "}",
+					"return map;") + "(" +
+					(map.getKeyTypeName() != null ? literal(map.getKeyTypeName()) : "null") + ", " +
+					(map.getValueTypeName() != null ? literal(map.getValueTypeName()) : "null") +
+					entryExpressions(map, context) + ")";
+		}
+		if (value instanceof ManagedProperties) {
+			return helper("managedProperties", ManagedProperties.class, "Object... entries",
+					"ManagedProperties properties = new ManagedProperties();",
+					"for (int i = 0; i < entries.length; i += 2) {", "\tproperties.put(entries[i], entries[i + 1]);", "}",
+					"return properties;") + "(" + entryExpressions((Map<?, ?>) value, context).substring(2) + ")";
+		}
+		if (value instanceof Properties) {
+			return helper("properties", Properties.class, "Object... entries",
+					"Properties properties = new Properties();",
+					"for (int i = 0; i < entries.length; i += 2) {", "\tproperties.put(entries[i], entries[i + 1]);", "}",
+					"return properties;") + "(" + entryExpressions((Map<?, ?>) value, context).substring(2) + ")";
+		}
+		if (value instanceof List) {
+			return helper("list", List.class, "Object... elements",
+					"return new java.util.ArrayList<>(Arrays.asList(elements));") + "(" +
+					elementExpressions((List<?>) value, context).substring(2) + ")";
+		}
+		if (value instanceof Set) {
+			return helper("set", Set.class, "Object... elements",
+					"return new java.util.LinkedHashSet<>(Arrays.asList(elements));") + "(" +
+					elementExpressions((Set<?>) value, context).substring(2) + ")";
+		}
+		if (value instanceof Map) {
+			return helper("map", Map.class, "Object... entries",
+					"Map<Object, Object> map = new java.util.LinkedHashMap<>();",
+					"for (int i = 0; i < entries.length; i += 2) {", "\tmap.put(entries[i], entries[i + 1]);", "}",
+					"return map;") + "(" + entryExpressions((Map<?, ?>) value, context).substring(2) + ")";
+		}
+		if (value.getClass().isArray() && isAccessible(value.getClass().getComponentType())) {
+			StringBuilder elements = new StringBuilder();
+			int length = Array.getLength(value);
+			for (int i = 0; i < length; i++) {
+				elements.append(i > 0 ? ", " : "").append(valueExpression(Array.get(value, i), context));
+			}
+			return "new " + typeName(value.getClass()) + " {" + elements + "}";
+		}
+		throw new IllegalStateException("Unsupported value type for AOT processing of " + context + ": " +
+				value.getClass().getName());
+	}
+
+	private String innerBeanDefinitionExpression(String innerBeanName, BeanDefinition innerBd, String context) {
+		if (!(innerBd instanceof AbstractBeanDefinition) || innerBd.getParentName() != null) {
+			throw new IllegalStateException("Unsupported inner bean definition for AOT processing of " + context +
+					": " + innerBd);
+		}
+		return generateBeanDefinitionMethod(innerBeanName, (AbstractBeanDefinition) innerBd, false) + "(beanFactory)";
+	}
+
+	private String elementExpressions(Collection<?> elements, String context) {
+		StringBuilder code = new StringBuilder();
+		for (Object element : elements) {
+			code.append(", ").append(valueExpression(element, context));
+		}
+		return code.toString();
+	}
+
+	private String entryExpressions(Map<?, ?> entries, String context) {
+		StringBuilder code = new StringBuilder();
+		entries.forEach((key, value) -> code.append(", ").append(valueExpression(key, context))
+				.append(", ").append(valueExpression(value, context)));
+		return code.toString();
+	}
+
+	/**
+	 * Register a static helper method in the generated class, returning its name.
+	 */
+	private String helper(String name, Class<?> returnType, String parameters, String... statements) {
+		if (!this.helperMethods.containsKey(name)) {
+			use(Arrays.class);
+			StringBuilder code = new StringBuilder();
+			int typeParameters = returnType.getTypeParameters().length;
+			line(code, 1, "private static " + use(returnType) +
+					(typeParameters == 1 ? "<Object>" : typeParameters == 2 ? "<Object, Object>" : "") +
+					" " + name + "(" + parameters + ") {");
+			for (String statement : statements) {
+				line(code, 2, statement);
+			}
+			line(code, 1, "}");
+			this.helperMethods.put(name, code.toString());
+			this.methodNames.add(name);
+		}
+		return name;
+	}
+
+	private String resolvableTypeExpression(ResolvableType type) {
+		Class<?> rawClass = type.resolve(Object.class);
+		if (!type.hasGenerics() || type.hasUnresolvableGenerics()) {
+			return use(ResolvableType.class) + ".forClass(" + classExpression(rawClass) + ")";
+		}
+		StringBuilder generics = new StringBuilder();
+		for (ResolvableType generic : type.getGenerics()) {
+			generics.append(", ").append(resolvableTypeExpression(generic));
+		}
+		return use(ResolvableType.class) + ".forClassWithGenerics(" + classExpression(rawClass) + generics + ")";
+	}
+
+
+	//---------------------------------------------------------------------
+	// Source assembly and naming
+	//---------------------------------------------------------------------
+
+	private String generateClass(String initializeBody) {
+		String initializerType = use(ApplicationContextInitializer.class);
+		String contextType = use(GenericApplicationContext.class);
+		StringBuilder source = new StringBuilder();
+		if (StringUtils.hasLength(this.packageName)) {
+			source.append("package ").append(this.packageName).append(";\n\n");
+		}
+		for (String importName : this.imports) {
+			source.append("import ").append(importName).append(";\n");
+		}
+		source.append("\n");
+		source.append("/**\n");
+		source.append(" * {@link ApplicationContextInitializer} registering bean definitions generated ahead of time.\n");
+		source.append(" * <p>Do not edit: regenerate this class when the application configuration changes.\n");
+		source.append(" */\n");
+		source.append("@SuppressWarnings({\"rawtypes\", \"unchecked\", \"deprecation\"})\n");
+		source.append("public class ").append(this.simpleClassName).append(" implements ")
+				.append(initializerType).append("<").append(contextType).append("> {\n\n");
+		line(source, 1, "@Override");
+		line(source, 1, "public void initialize(" + contextType + " applicationContext) {");
+		source.append(initializeBody);
+		line(source, 1, "}");
+		source.append(this.methods);
+		for (String helperMethod : this.helperMethods.values()) {
+			source.append("\n").append(helperMethod);
+		}
+		source.append("\n}\n");
+		return source.toString();
+	}
+
+	private void addMethod(StringBuilder code) {
+		this.methods.append("\n").append(code);
+	}
+
+	private String uniqueMethodName(String beanName, String suffix) {
+		String shortName = (beanName.indexOf('.') != -1 && beanName.lastIndexOf('.') < beanName.length() - 1 ?
+				beanName.substring(beanName.lastIndexOf('.') + 1) : beanName);
+		StringBuilder name = new StringBuilder();
+		boolean upperCaseNext = false;
+		for (char c : shortName.toCharArray()) {
+			if (Character.isJavaIdentifierPart(c) && c != '$') {
+				name.append(upperCaseNext ? Character.toUpperCase(c) : c);
+				upperCaseNext = false;
+			}
+			else {
+				upperCaseNext = (name.length() > 0);
+			}
+		}
+		if (name.length() == 0 || !Character.isJavaIdentifierStart(name.charAt(0))) {
+			name.insert(0, "bean");
+		}
+		name.setCharAt(0, Character.toLowerCase(name.charAt(0)));
+		String baseName = name + suffix;
+		String methodName = baseName;
+		int counter = 1;
+		while (!this.methodNames.add(methodName)) {
+			methodName = baseName + (++counter);
+		}
+		return methodName;
+	}
+
+	/**
+	 * Return the simple name of the given framework type, adding it to the imports.
+	 */
+	private String use(Class<?> type) {
+		this.imports.add(type.getName().replace('$', '.'));
+		return type.getSimpleName();
+	}
+
+	private static String typeName(Class<?> type) {
+		if (type.isArray()) {
+			return typeName(type.getComponentType()) + "[]";
+		}
+		return type.getName().replace('$', '.');
+	}
+
+	private String classExpression(Class<?> type) {
+		if (isAccessible(type)) {
+			return typeName(type) + ".class";
+		}
+		return use(ClassUtils.class) + ".resolveClassName(" + literal(type.getName()) +
+				", beanFactory.getBeanClassLoader())";
+	}
+
+	private String classExpressions(Class<?>[] types) {
+		StringBuilder code = new StringBuilder();
+		for (Class<?> type : types) {
+			code.append(", ").append(classExpression(type));
+		}
+		return code.toString();
+	}
+
+	private static String argumentList(Class<?>[] parameterTypes) {
+		StringBuilder code = new StringBuilder();
+		for (int i = 0; i < parameterTypes.length; i++) {
+			code.append(i > 0 ? ", " : "").append("(").append(typeName(parameterTypes[i]))
+					.append(") args.getObject(").append(i).append(")");
+		}
+		return code.toString();
+	}
+
+	private boolean allAccessible(Class<?>[] types) {
+		for (Class<?> type : types) {
+			if (!isAccessible(type)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Determine whether the given type can be referenced from the generated class.
+	 */
+	private boolean isAccessible(Class<?> type) {
+		if (type.isArray()) {
+			return isAccessible(type.getComponentType());
+		}
+		if (type.isPrimitive()) {
+			return true;
+		}
+		if (type.isAnonymousClass() || type.isLocalClass() || type.isSynthetic() ||
+				type.getName().contains(ClassUtils.CGLIB_CLASS_SEPARATOR)) {
+			return false;
+		}
+		if (!isAccessible(type.getModifiers(), type)) {
+			return false;
+		}
+		Class<?> enclosingClass = type.getEnclosingClass();
+		return (enclosingClass == null || isAccessible(enclosingClass));
+	}
+
+	/**
+	 * Determine whether the given constructor or method can be invoked from the generated class.
+	 */
+	private boolean isAccessible(Executable executable) {
+		return isAccessible(executable.getModifiers(), executable.getDeclaringClass());
+	}
+
+	private boolean isAccessible(int modifiers, Class<?> typeInPackage) {
+		if (Modifier.isPublic(modifiers)) {
+			return true;
+		}
+		return (!Modifier.isPrivate(modifiers) && !Modifier.isProtected(modifiers) &&
+				this.packageName.equals(ClassUtils.getPackageName(typeInPackage)));
+	}
+
+	private static String literals(String[] values) {
+		StringBuilder code = new StringBuilder();
+		for (String value : values) {
+			code.append(code.length() > 0 ? ", " : "").append(literal(value));
+		}
+		return code.toString();
+	}
+
+	private static String literal(String value) {
+		return "\"" + escape(value, '"') + "\"";
+	}
+
+	private static String escape(String value, char quote) {
+		StringBuilder escaped = new StringBuilder(value.length());
+		for (char c : value.toCharArray()) {
+			if (c == quote || c == '\\') {
+				escaped.append('\\').append(c);
+			}
+			else if (c == '\n') {
+				escaped.append("\\n");
+			}
+			else if (c == '\r') {
+				escaped.append("\\r");
+			}
+			else if (c == '\t') {
+				escaped.append("\\t");
+			}
+			else if (c < 0x20 || c > 0x7e) {
+				escaped.append(String.format("\\u%04x", (int) c));
+			}
+			else {
+				escaped.append(c);
+			}
+		}
+		return escaped.toString();
+	}
+
+	private static String javadocText(String text) {
+		return escape(text, '\0').replace("*/", "*&#47;").replace("@", "{@literal @}");
+	}
+
+	private static String indent(int level) {
+		StringBuilder indent = new StringBuilder();
+		for (int i = 0; i < level; i++) {
+			indent.append(INDENT);
+		}
+		return indent.toString();
+	}
+
+	private static void line(StringBuilder code, int level, String statement) {
+		code.append(indent(level)).append(statement).append("\n");
+	}
+
+}
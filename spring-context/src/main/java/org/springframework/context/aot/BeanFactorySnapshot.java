@@ -0,0 +1,1258 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.aot;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessor;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.RuntimeBeanNameReference;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.AutowireCandidateQualifier;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.LookupOverride;
+import org.springframework.beans.factory.support.ManagedArray;
+import org.springframework.beans.factory.support.ManagedList;
+import org.springframework.beans.factory.support.ManagedMap;
+import org.springframework.beans.factory.support.ManagedProperties;
+import org.springframework.beans.factory.support.ManagedSet;
+import org.springframework.beans.factory.support.MethodOverride;
+import org.springframework.beans.factory.support.ReplaceOverride;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.annotation.AnnotationConfigUtils;
+import org.springframework.context.annotation.ConfigurationClassPostProcessor;
+import org.springframework.context.annotation.ContextAnnotationAutowireCandidateResolver;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.context.annotation.PropertySources;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.Conventions;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.core.io.support.PropertySourceFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Snapshot of the post-processed bean definition state of a refreshed application
+ * context, to be written to a file and restored on the next start of the same
+ * application: e.g. for command-line tools and batch jobs which repeatedly start
+ * short-lived contexts from an unchanged classpath.
+ *
+ * <p>A snapshot holds the merged bean definitions of a {@link GenericApplicationContext}
+ * along with their resolved factory methods, the importing classes of imported
+ * configuration classes, {@code @PropertySource} declarations and the autowired
+ * members determined by {@link AutowiredAnnotationBeanPostProcessor}. Restoring it
+ * into a fresh context registers those bean definitions directly: configuration
+ * classes are neither parsed nor scanned again, and the injection metadata of
+ * the restored beans does not get introspected again.
+ *
+ * <p>A snapshot is tied to the classpath that it has been captured for, identified
+ * through a {@link #computeClasspathFingerprint fingerprint} of all classpath entries.
+ * {@link #load} only returns a snapshot which matches the current classpath:
+ *
+ * <pre class="code">
+ * GenericApplicationContext context = new GenericApplicationContext();
+ * BeanFactorySnapshot snapshot = BeanFactorySnapshot.load(snapshotFile, context.getClassLoader());
+ * if (snapshot != null) {
+ *     snapshot.restore(context);
+ * }
+ * else {
+ *     new AnnotatedBeanDefinitionReader(context).register(MyConfiguration.class);
+ * }
+ * context.refresh();
+ * if (snapshot == null) {
+ *     BeanFactorySnapshot.capture(context).writeTo(snapshotFile);
+ * }</pre>
+ *
+ * <p>Like {@link ApplicationContextAotGenerator}, a snapshot leaves out registry
+ * post-processors since their effect is captured already, and holds bean definition
+ * values as resolved at capture time: e.g. with placeholders in bean definitions
+ * replaced by their values, whereas {@code @Value} expressions are resolved at
+ * runtime as usual. Singletons registered manually are not part of a snapshot.
+ *
+ * @since 5.2.9
+ * @see ApplicationContextAotGenerator
+ * @see AutowiredAnnotationBeanPostProcessor#registerAutowiredMembers
+ */
+public final class BeanFactorySnapshot {
+
+	private static final int MAGIC = 0x53424653;
+
+	private static final int VERSION = 1;
+
+	private static final String CONFIGURATION_CLASS_ATTRIBUTE =
+			Conventions.getQualifiedAttributeName(ConfigurationClassPostProcessor.class, "configurationClass");
+
+	private static final String CONFIGURATION_CLASS_FULL = "full";
+
+	// Value tags
+	private static final byte NULL = 0;
+	private static final byte STRING = 1;
+	private static final byte BOOLEAN = 2;
+	private static final byte CHARACTER = 3;
+	private static final byte INTEGER = 4;
+	private static final byte LONG = 5;
+	private static final byte SHORT = 6;
+	private static final byte BYTE = 7;
+	private static final byte FLOAT = 8;
+	private static final byte DOUBLE = 9;
+	private static final byte CLASS = 10;
+	private static final byte TYPED_STRING = 11;
+	private static final byte BEAN_REFERENCE = 12;
+	private static final byte BEAN_NAME_REFERENCE = 13;
+	private static final byte BEAN_DEFINITION_HOLDER = 14;
+	private static final byte BEAN_DEFINITION = 15;
+	private static final byte MANAGED_ARRAY = 16;
+	private static final byte MANAGED_LIST = 17;
+	private static final byte MANAGED_SET = 18;
+	private static final byte MANAGED_MAP = 19;
+	private static final byte MANAGED_PROPERTIES = 20;
+	private static final byte PROPERTIES = 21;
+	private static final byte LIST = 22;
+	private static final byte SET = 23;
+	private static final byte MAP = 24;
+	private static final byte ARRAY = 25;
+
+	// Method override and member tags
+	private static final byte LOOKUP_OVERRIDE = 1;
+	private static final byte REPLACE_OVERRIDE = 2;
+	private static final byte FIELD = 1;
+	private static final byte METHOD = 2;
+
+	private static final Log logger = LogFactory.getLog(BeanFactorySnapshot.class);
+
+
+	private final String fingerprint;
+
+	private final byte[] content;
+
+
+	private BeanFactorySnapshot(String fingerprint, byte[] content) {
+		this.fingerprint = fingerprint;
+		this.content = content;
+	}
+
+
+	/**
+	 * Return the fingerprint of the classpath that this snapshot has been captured for.
+	 * @see #computeClasspathFingerprint
+	 */
+	public String getFingerprint() {
+		return this.fingerprint;
+	}
+
+	/**
+	 * Return whether this snapshot has been captured for the current classpath
+	 * as seen by the given ClassLoader.
+	 * @param classLoader the ClassLoader to check the classpath of
+	 */
+	public boolean matchesClasspath(@Nullable ClassLoader classLoader) {
+		return this.fingerprint.equals(computeClasspathFingerprint(classLoader));
+	}
+
+	/**
+	 * Restore this snapshot into the given application context, registering
+	 * its bean definitions and preparing the context for a refresh without
+	 * configuration class processing.
+	 * <p>Typically applied to a plain {@link GenericApplicationContext} without
+	 * any bean definitions. A {@link ConfigurationClassPostProcessor} registered
+	 * by the context itself is removed, and other bean definitions of the same
+	 * name get overridden by the restored ones.
+	 * @param applicationContext the non-refreshed application context to restore into
+	 * @throws IllegalStateException if the snapshot refers to classes or members
+	 * which are not present in the context's ClassLoader
+	 */
+	public void restore(GenericApplicationContext applicationContext) {
+		Assert.notNull(applicationContext, "ApplicationContext must not be null");
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(this.content))) {
+			new SnapshotReader(applicationContext, in).read();
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Corrupt bean factory snapshot", ex);
+		}
+	}
+
+	/**
+	 * Write this snapshot to the given file, replacing an existing file atomically
+	 * where supported by the file system.
+	 * @param file the file to write to
+	 * @throws IOException in case of I/O errors
+	 */
+	public void writeTo(Path file) throws IOException {
+		Path directory = file.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+		Path tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+		try {
+			try (OutputStream out = Files.newOutputStream(tempFile)) {
+				writeTo(out);
+			}
+			try {
+				Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (AtomicMoveNotSupportedException ex) {
+				Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	/**
+	 * Write this snapshot to the given stream, leaving the stream open.
+	 * @param out the stream to write to
+	 * @throws IOException in case of I/O errors
+	 */
+	public void writeTo(OutputStream out) throws IOException {
+		DataOutputStream dataOut = new DataOutputStream(out);
+		dataOut.writeInt(MAGIC);
+		dataOut.writeInt(VERSION);
+		dataOut.writeUTF(this.fingerprint);
+		dataOut.writeInt(this.content.length);
+		dataOut.write(this.content);
+		dataOut.flush();
+	}
+
+
+	/**
+	 * Capture a snapshot of the given refreshed application context.
+	 * @param applicationContext the application context to capture
+	 * @return the snapshot
+	 * @throws IllegalStateException if the context has not been refreshed yet,
+	 * or if a bean definition cannot be represented in a snapshot
+	 */
+	public static BeanFactorySnapshot capture(GenericApplicationContext applicationContext) {
+		Assert.notNull(applicationContext, "ApplicationContext must not be null");
+		DefaultListableBeanFactory beanFactory = applicationContext.getDefaultListableBeanFactory();
+		Assert.state(beanFactory.isConfigurationFrozen(),
+				"Bean factory configuration not frozen yet: refresh the application context first");
+		ByteArrayOutputStream content = new ByteArrayOutputStream(8192);
+		try (DataOutputStream out = new DataOutputStream(content)) {
+			new SnapshotWriter(beanFactory, out).write();
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to write bean factory snapshot", ex);
+		}
+		return new BeanFactorySnapshot(
+				computeClasspathFingerprint(applicationContext.getClassLoader()), content.toByteArray());
+	}
+
+	/**
+	 * Read a snapshot from the given stream.
+	 * @param in the stream to read from (not closed by this method)
+	 * @return the snapshot
+	 * @throws IOException in case of I/O errors or if the stream does not contain
+	 * a snapshot in a supported format
+	 */
+	public static BeanFactorySnapshot readFrom(InputStream in) throws IOException {
+		DataInputStream dataIn = new DataInputStream(in);
+		if (dataIn.readInt() != MAGIC) {
+			throw new IOException("Not a bean factory snapshot");
+		}
+		int version = dataIn.readInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported bean factory snapshot version: " + version);
+		}
+		String fingerprint = dataIn.readUTF();
+		byte[] content = new byte[dataIn.readInt()];
+		dataIn.readFully(content);
+		return new BeanFactorySnapshot(fingerprint, content);
+	}
+
+	/**
+	 * Load the snapshot from the given file if it matches the current classpath.
+	 * @param file the snapshot file
+	 * @param classLoader the ClassLoader to check the classpath of
+	 * @return the snapshot, or {@code null} if the file does not exist, cannot be
+	 * read or has been captured for a different classpath
+	 * @see #matchesClasspath
+	 */
+	@Nullable
+	public static BeanFactorySnapshot load(Path file, @Nullable ClassLoader classLoader) {
+		if (!Files.isReadable(file)) {
+			return null;
+		}
+		BeanFactorySnapshot snapshot;
+		try (InputStream in = Files.newInputStream(file)) {
+			snapshot = readFrom(in);
+		}
+		catch (IOException ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Ignoring unreadable bean factory snapshot [" + file + "]: " + ex);
+			}
+			return null;
+		}
+		if (!snapshot.matchesClasspath(classLoader)) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Ignoring bean factory snapshot [" + file + "]: captured for a different classpath");
+			}
+			return null;
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Compute a fingerprint of the classpath as seen by the given ClassLoader,
+	 * covering the URLs of the ClassLoader hierarchy and the {@code java.class.path}
+	 * system property, with the size and the last-modified timestamp of every
+	 * jar file and of every file in a classpath directory.
+	 * @param classLoader the ClassLoader to compute the fingerprint for
+	 * @return the fingerprint as a hex-encoded SHA-256 digest
+	 */
+	public static String computeClasspathFingerprint(@Nullable ClassLoader classLoader) {
+		Set<String> entries = new LinkedHashSet<>();
+		for (ClassLoader cl = classLoader; cl != null; cl = cl.getParent()) {
+			if (cl instanceof URLClassLoader) {
+				for (URL url : ((URLClassLoader) cl).getURLs()) {
+					entries.add(ResourceUtils.isFileURL(url) ? getAbsolutePath(url) : url.toString());
+				}
+			}
+		}
+		String classPath = System.getProperty("java.class.path");
+		if (StringUtils.hasLength(classPath)) {
+			for (String entry : StringUtils.tokenizeToStringArray(classPath, File.pathSeparator)) {
+				entries.add(new File(entry).getAbsolutePath());
+			}
+		}
+
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException("SHA-256 digest not available", ex);
+		}
+		for (String entry : entries) {
+			update(digest, entry);
+			File file = new File(entry);
+			if (file.isFile()) {
+				update(digest, file.length() + ":" + file.lastModified());
+			}
+			else if (file.isDirectory()) {
+				Path root = file.toPath();
+				try (Stream<Path> paths = Files.walk(root)) {
+					for (Path path : paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList())) {
+						File nested = path.toFile();
+						update(digest, root.relativize(path) + ":" + nested.length() + ":" + nested.lastModified());
+					}
+				}
+				catch (IOException ex) {
+					update(digest, "unreadable");
+				}
+			}
+		}
+
+		StringBuilder hex = new StringBuilder(64);
+		for (byte b : digest.digest()) {
+			hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return hex.toString();
+	}
+
+	private static String getAbsolutePath(URL url) {
+		try {
+			return ResourceUtils.getFile(url).getAbsolutePath();
+		}
+		catch (IOException ex) {
+			return url.toString();
+		}
+	}
+
+	private static void update(MessageDigest digest, String value) {
+		digest.update(value.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) '\n');
+	}
+
+
+	/**
+	 * Writes the content of a snapshot for a given bean factory.
+	 */
+	private static class SnapshotWriter {
+
+		private final DefaultListableBeanFactory beanFactory;
+
+		private final DataOutputStream out;
+
+		@Nullable
+		private final AutowiredAnnotationBeanPostProcessor autowiredProcessor;
+
+		SnapshotWriter(DefaultListableBeanFactory beanFactory, DataOutputStream out) {
+			this.beanFactory = beanFactory;
+			this.out = out;
+			if (beanFactory.containsBeanDefinition(AnnotationConfigUtils.AUTOWIRED_ANNOTATION_PROCESSOR_BEAN_NAME) &&
+					AutowiredAnnotationBeanPostProcessor.class.getName().equals(beanFactory.getBeanDefinition(
+							AnnotationConfigUtils.AUTOWIRED_ANNOTATION_PROCESSOR_BEAN_NAME).getBeanClassName())) {
+				// Separate instance: determines autowired members without affecting the context's processor
+				this.autowiredProcessor = new AutowiredAnnotationBeanPostProcessor();
+				this.autowiredProcessor.setBeanFactory(beanFactory);
+			}
+			else {
+				this.autowiredProcessor = null;
+			}
+		}
+
+		void write() throws IOException {
+			this.out.writeBoolean(this.beanFactory.getAutowireCandidateResolver() instanceof
+					ContextAnnotationAutowireCandidateResolver);
+			this.out.writeBoolean(this.beanFactory.getDependencyComparator() instanceof AnnotationAwareOrderComparator);
+			this.out.writeBoolean(this.autowiredProcessor != null);
+
+			List<String> beanNames = new ArrayList<>();
+			for (String beanName : this.beanFactory.getBeanDefinitionNames()) {
+				if (!isExcluded(beanName)) {
+					beanNames.add(beanName);
+				}
+			}
+			Set<Class<?>> configurationClasses = new LinkedHashSet<>();
+			Map<String, String> importingClassNames = new LinkedHashMap<>();
+			this.out.writeInt(beanNames.size());
+			for (String beanName : beanNames) {
+				RootBeanDefinition mbd = (RootBeanDefinition) this.beanFactory.getMergedBeanDefinition(beanName);
+				writeString(beanName);
+				writeStrings(this.beanFactory.getAliases(beanName));
+				writeBeanDefinition(beanName, mbd);
+				this.out.writeBoolean(mbd.isFactoryMethodUnique());
+				Method factoryMethod = mbd.getResolvedFactoryMethod();
+				if (factoryMethod != null && isSnapshotCapable(factoryMethod.getDeclaringClass())) {
+					this.out.writeBoolean(true);
+					writeMethod(factoryMethod);
+				}
+				else {
+					this.out.writeBoolean(false);
+				}
+
+				Class<?> beanType = getBeanType(beanName, mbd);
+				if (this.autowiredProcessor != null && beanType != null && isSnapshotCapable(beanType)) {
+					this.out.writeBoolean(true);
+					writeString(beanType.getName());
+					writeAutowiredMembers(this.autowiredProcessor.findAutowiredMembers(beanName, beanType));
+				}
+				else {
+					this.out.writeBoolean(false);
+				}
+				if (beanType != null && mbd.getAttribute(CONFIGURATION_CLASS_ATTRIBUTE) != null) {
+					Class<?> userClass = ClassUtils.getUserClass(beanType);
+					configurationClasses.add(userClass);
+					String importingClassName =
+							ConfigurationClassPostProcessor.getImportingClassName(this.beanFactory, userClass.getName());
+					if (importingClassName != null) {
+						importingClassNames.put(userClass.getName(), importingClassName);
+					}
+				}
+			}
+
+			this.out.writeBoolean(!configurationClasses.isEmpty());
+			this.out.writeInt(importingClassNames.size());
+			for (Map.Entry<String, String> entry : importingClassNames.entrySet()) {
+				writeString(entry.getKey());
+				writeString(entry.getValue());
+			}
+			writePropertySources(configurationClasses);
+		}
+
+		private boolean isExcluded(String beanName) {
+			BeanDefinition mbd = this.beanFactory.getMergedBeanDefinition(beanName);
+			if (mbd.isAbstract() ||
+					AnnotationConfigUtils.CONFIGURATION_ANNOTATION_PROCESSOR_BEAN_NAME.equals(beanName) ||
+					(this.autowiredProcessor != null &&
+							AnnotationConfigUtils.AUTOWIRED_ANNOTATION_PROCESSOR_BEAN_NAME.equals(beanName))) {
+				return true;
+			}
+			Class<?> beanType = this.beanFactory.getType(beanName, false);
+			return (beanType != null && BeanDefinitionRegistryPostProcessor.class.isAssignableFrom(beanType));
+		}
+
+		@Nullable
+		private Class<?> getBeanType(String beanName, RootBeanDefinition mbd) {
+			Method factoryMethod = mbd.getResolvedFactoryMethod();
+			if (factoryMethod != null) {
+				return factoryMethod.getReturnType();
+			}
+			if (mbd.getFactoryMethodName() != null) {
+				return this.beanFactory.getType(beanName, false);
+			}
+			return (mbd.hasBeanClass() ? ClassUtils.getUserClass(mbd.getBeanClass()) : null);
+		}
+
+		private void writePropertySources(Set<Class<?>> configurationClasses) throws IOException {
+			List<PropertySource> propertySources = new ArrayList<>();
+			for (Class<?> configurationClass : configurationClasses) {
+				propertySources.addAll(AnnotatedElementUtils.findMergedRepeatableAnnotations(
+						configurationClass, PropertySource.class, PropertySources.class));
+			}
+			this.out.writeInt(propertySources.size());
+			for (PropertySource propertySource : propertySources) {
+				writeNullableString(StringUtils.hasLength(propertySource.name()) ? propertySource.name() : null);
+				writeStrings(propertySource.value());
+				this.out.writeBoolean(propertySource.ignoreResourceNotFound());
+				writeNullableString(StringUtils.hasLength(propertySource.encoding()) ? propertySource.encoding() : null);
+				Class<?> factoryClass = propertySource.factory();
+				writeNullableString(factoryClass != PropertySourceFactory.class ? factoryClass.getName() : null);
+			}
+		}
+
+		private void writeBeanDefinition(String beanName, AbstractBeanDefinition bd) throws IOException {
+			if (bd.getInstanceSupplier() != null) {
+				throw new IllegalStateException("Bean definition '" + beanName +
+						"' with instance supplier cannot be captured in a snapshot");
+			}
+			String beanClassName = bd.getBeanClassName();
+			if (CONFIGURATION_CLASS_FULL.equals(bd.getAttribute(CONFIGURATION_CLASS_ATTRIBUTE)) && bd.hasBeanClass()) {
+				// Gets enhanced again on restore: needs to be registered with its user class
+				beanClassName = ClassUtils.getUserClass(bd.getBeanClass()).getName();
+			}
+			writeNullableString(beanClassName);
+			writeNullableString(bd.getFactoryBeanName());
+			writeNullableString(bd.getFactoryMethodName());
+			writeString(bd.getScope() != null ? bd.getScope() : "");
+			Boolean lazyInit = bd.getLazyInit();
+			this.out.writeByte(lazyInit == null ? -1 : (lazyInit ? 1 : 0));
+			this.out.writeBoolean(bd.isAbstract());
+			this.out.writeBoolean(bd.isPrimary());
+			this.out.writeBoolean(bd.isAutowireCandidate());
+			this.out.writeBoolean(bd.isSynthetic());
+			this.out.writeBoolean(bd.isNonPublicAccessAllowed());
+			this.out.writeBoolean(bd.isLenientConstructorResolution());
+			this.out.writeInt(bd.getRole());
+			this.out.writeInt(bd.getAutowireMode());
+			this.out.writeInt(bd.getDependencyCheck());
+			writeStrings(bd.getDependsOn() != null ? bd.getDependsOn() : new String[0]);
+			writeNullableString(bd.getInitMethodName());
+			this.out.writeBoolean(bd.isEnforceInitMethod());
+			writeNullableString(bd.getDestroyMethodName());
+			this.out.writeBoolean(bd.isEnforceDestroyMethod());
+			writeNullableString(bd.getDescription());
+			writeNullableString(bd.getResourceDescription());
+
+			String context = "bean '" + beanName + "'";
+			Set<AutowireCandidateQualifier> qualifiers = bd.getQualifiers();
+			this.out.writeInt(qualifiers.size());
+			for (AutowireCandidateQualifier qualifier : qualifiers) {
+				writeString(qualifier.getTypeName());
+				String[] attributeNames = qualifier.attributeNames();
+				this.out.writeInt(attributeNames.length);
+				for (String attributeName : attributeNames) {
+					writeString(attributeName);
+					writeValue(qualifier.getAttribute(attributeName), context);
+				}
+			}
+			List<String> attributeNames = new ArrayList<>();
+			for (String attributeName : bd.attributeNames()) {
+				Object value = bd.getAttribute(attributeName);
+				if (value instanceof String || value instanceof Boolean || value instanceof Number ||
+						(value instanceof Class && isSnapshotCapable((Class<?>) value))) {
+					attributeNames.add(attributeName);
+				}
+				else if (logger.isDebugEnabled()) {
+					logger.debug("Skipping attribute '" + attributeName + "' of " + context +
+							": value cannot be captured in a snapshot");
+				}
+			}
+			this.out.writeInt(attributeNames.size());
+			for (String attributeName : attributeNames) {
+				writeString(attributeName);
+				writeValue(bd.getAttribute(attributeName), context);
+			}
+
+			Set<MethodOverride> overrides = bd.getMethodOverrides().getOverrides();
+			this.out.writeInt(overrides.size());
+			for (MethodOverride override : overrides) {
+				if (override instanceof LookupOverride) {
+					this.out.writeByte(LOOKUP_OVERRIDE);
+					writeString(override.getMethodName());
+					writeNullableString(((LookupOverride) override).getBeanName());
+				}
+				else if (override instanceof ReplaceOverride) {
+					this.out.writeByte(REPLACE_OVERRIDE);
+					writeString(override.getMethodName());
+					writeString(((ReplaceOverride) override).getMethodReplacerBeanName());
+				}
+				else {
+					throw new IllegalStateException("Unsupported method override in " + context + ": " + override);
+				}
+			}
+
+			ConstructorArgumentValues args = bd.getConstructorArgumentValues();
+			Map<Integer, ConstructorArgumentValues.ValueHolder> indexedArgs = args.getIndexedArgumentValues();
+			this.out.writeInt(indexedArgs.size());
+			for (Map.Entry<Integer, ConstructorArgumentValues.ValueHolder> entry : indexedArgs.entrySet()) {
+				this.out.writeInt(entry.getKey());
+				writeValueHolder(entry.getValue(), context);
+			}
+			List<ConstructorArgumentValues.ValueHolder> genericArgs = args.getGenericArgumentValues();
+			this.out.writeInt(genericArgs.size());
+			for (ConstructorArgumentValues.ValueHolder valueHolder : genericArgs) {
+				writeValueHolder(valueHolder, context);
+			}
+			List<PropertyValue> pvs = bd.getPropertyValues().getPropertyValueList();
+			this.out.writeInt(pvs.size());
+			for (PropertyValue pv : pvs) {
+				writeString(pv.getName());
+				writeValue(pv.getValue(), context);
+			}
+
+			BeanDefinitionHolder decoratedDefinition =
+					(bd instanceof RootBeanDefinition ? ((RootBeanDefinition) bd).getDecoratedDefinition() : null);
+			this.out.writeBoolean(decoratedDefinition != null);
+			if (decoratedDefinition != null) {
+				writeBeanDefinitionHolder(decoratedDefinition, context);
+			}
+		}
+
+		private void writeValueHolder(ConstructorArgumentValues.ValueHolder valueHolder, String context)
+				throws IOException {
+
+			writeValue(valueHolder.getValue(), context);
+			writeNullableString(valueHolder.getType());
+			writeNullableString(valueHolder.getName());
+		}
+
+		private void writeBeanDefinitionHolder(BeanDefinitionHolder holder, String context) throws IOException {
+			writeString(holder.getBeanName());
+			writeStrings(holder.getAliases() != null ? holder.getAliases() : new String[0]);
+			writeInnerBeanDefinition(holder.getBeanName(), holder.getBeanDefinition(), context);
+		}
+
+		private void writeInnerBeanDefinition(String innerBeanName, BeanDefinition innerBd, String context)
+				throws IOException {
+
+			if (!(innerBd instanceof AbstractBeanDefinition) || innerBd.getParentName() != null) {
+				throw new IllegalStateException("Unsupported inner bean definition in " + context + ": " + innerBd);
+			}
+			writeBeanDefinition(innerBeanName, (AbstractBeanDefinition) innerBd);
+		}
+
+		private void writeAutowiredMembers(Map<Member, Boolean> autowiredMembers) throws IOException {
+			this.out.writeInt(autowiredMembers.size());
+			for (Map.Entry<Member, Boolean> entry : autowiredMembers.entrySet()) {
+				Member member = entry.getKey();
+				if (member instanceof Field) {
+					this.out.writeByte(FIELD);
+					writeString(member.getDeclaringClass().getName());
+					writeString(member.getName());
+				}
+				else {
+					this.out.writeByte(METHOD);
+					writeMethod((Method) member);
+				}
+				this.out.writeBoolean(entry.getValue());
+			}
+		}
+
+		private void writeMethod(Method method) throws IOException {
+			writeString(method.getDeclaringClass().getName());
+			writeString(method.getName());
+			Class<?>[] parameterTypes = method.getParameterTypes();
+			this.out.writeInt(parameterTypes.length);
+			for (Class<?> parameterType : parameterTypes) {
+				writeString(parameterType.getName());
+			}
+		}
+
+		private void writeValue(@Nullable Object value, String context) throws IOException {
+			if (value == null) {
+				this.out.writeByte(NULL);
+			}
+			else if (value instanceof String) {
+				this.out.writeByte(STRING);
+				writeString((String) value);
+			}
+			else if (value instanceof Enum) {
+				// Converted back to the enum constant by the bean wrapper
+				this.out.writeByte(STRING);
+				writeString(((Enum<?>) value).name());
+			}
+			else if (value instanceof Boolean) {
+				this.out.writeByte(BOOLEAN);
+				this.out.writeBoolean((Boolean) value);
+			}
+			else if (value instanceof Character) {
+				this.out.writeByte(CHARACTER);
+				this.out.writeChar((Character) value);
+			}
+			else if (value instanceof Integer) {
+				this.out.writeByte(INTEGER);
+				this.out.writeInt((Integer) value);
+			}
+			else if (value instanceof Long) {
+				this.out.writeByte(LONG);
+				this.out.writeLong((Long) value);
+			}
+			else if (value instanceof Short) {
+				this.out.writeByte(SHORT);
+				this.out.writeShort((Short) value);
+			}
+			else if (value instanceof Byte) {
+				this.out.writeByte(BYTE);
+				this.out.writeByte((Byte) value);
+			}
+			else if (value instanceof Float) {
+				this.out.writeByte(FLOAT);
+				this.out.writeFloat((Float) value);
+			}
+			else if (value instanceof Double) {
+				this.out.writeByte(DOUBLE);
+				this.out.writeDouble((Double) value);
+			}
+			else if (value instanceof Class && isSnapshotCapable((Class<?>) value)) {
+				this.out.writeByte(CLASS);
+				writeString(((Class<?>) value).getName());
+			}
+			else if (value instanceof TypedStringValue) {
+				TypedStringValue typedValue = (TypedStringValue) value;
+				this.out.writeByte(TYPED_STRING);
+				writeNullableString(typedValue.getValue());
+				writeNullableString(typedValue.hasTargetType() ?
+						typedValue.getTargetType().getName() : typedValue.getTargetTypeName());
+				this.out.writeBoolean(typedValue.isDynamic());
+			}
+			else if (value instanceof RuntimeBeanReference) {
+				RuntimeBeanReference reference = (RuntimeBeanReference) value;
+				this.out.writeByte(BEAN_REFERENCE);
+				writeString(reference.getBeanName());
+				writeNullableString(reference.getBeanType() != null ? reference.getBeanType().getName() : null);
+				this.out.writeBoolean(reference.isToParent());
+			}
+			else if (value instanceof RuntimeBeanNameReference) {
+				this.out.writeByte(BEAN_NAME_REFERENCE);
+				writeString(((RuntimeBeanNameReference) value).getBeanName());
+			}
+			else if (value instanceof BeanDefinitionHolder) {
+				this.out.writeByte(BEAN_DEFINITION_HOLDER);
+				writeBeanDefinitionHolder((BeanDefinitionHolder) value, context);
+			}
+			else if (value instanceof BeanDefinition) {
+				this.out.writeByte(BEAN_DEFINITION);
+				writeInnerBeanDefinition("(inner bean)", (BeanDefinition) value, context);
+			}
+			else if (value instanceof ManagedArray) {
+				this.out.writeByte(MANAGED_ARRAY);
+				writeNullableString(((ManagedArray) value).getElementTypeName());
+				writeElements((ManagedArray) value, context);
+			}
+			else if (value instanceof ManagedList) {
+				this.out.writeByte(MANAGED_LIST);
+				writeNullableString(((ManagedList<?>) value).getElementTypeName());
+				writeElements((ManagedList<?>) value, context);
+			}
+			else if (value instanceof ManagedSet) {
+				this.out.writeByte(MANAGED_SET);
+				writeNullableString(((ManagedSet<?>) value).getElementTypeName());
+				writeElements((ManagedSet<?>) value, context);
+			}
+			else if (value instanceof ManagedMap) {
+				ManagedMap<?, ?> map = (ManagedMap<?, ?>) value;
+				this.out.writeByte(MANAGED_MAP);
+				writeNullableString(map.getKeyTypeName());
+				writeNullableString(map.getValueTypeName());
+				writeEntries(map, context);
+			}
+			else if (value instanceof ManagedProperties) {
+				this.out.writeByte(MANAGED_PROPERTIES);
+				writeEntries((Map<?, ?>) value, context);
+			}
+			else if (value instanceof Properties) {
+				this.out.writeByte(PROPERTIES);
+				writeEntries((Map<?, ?>) value, context);
+			}
+			else if (value instanceof List) {
+				this.out.writeByte(LIST);
+				writeElements((List<?>) value, context);
+			}
+			else if (value instanceof Set) {
+				this.out.writeByte(SET);
+				writeElements((Set<?>) value, context);
+			}
+			else if (value instanceof Map) {
+				this.out.writeByte(MAP);
+				writeEntries((Map<?, ?>) value, context);
+			}
+			else if (value.getClass().isArray() && isSnapshotCapable(value.getClass().getComponentType())) {
+				this.out.writeByte(ARRAY);
+				writeString(value.getClass().getComponentType().getName());
+				int length = Array.getLength(value);
+				this.out.writeInt(length);
+				for (int i = 0; i < length; i++) {
+					writeValue(Array.get(value, i), context);
+				}
+			}
+			else {
+				throw new IllegalStateException("Unsupported value type in " + context +
+						" for a bean factory snapshot: " + value.getClass().getName());
+			}
+		}
+
+		private void writeElements(Collection<?> elements, String context) throws IOException {
+			this.out.writeInt(elements.size());
+			for (Object element : elements) {
+				writeValue(element, context);
+			}
+		}
+
+		private void writeEntries(Map<?, ?> entries, String context) throws IOException {
+			this.out.writeInt(entries.size());
+			for (Map.Entry<?, ?> entry : entries.entrySet()) {
+				writeValue(entry.getKey(), context);
+				writeValue(entry.getValue(), context);
+			}
+		}
+
+		private void writeStrings(String[] values) throws IOException {
+			this.out.writeInt(values.length);
+			for (String value : values) {
+				writeString(value);
+			}
+		}
+
+		private void writeNullableString(@Nullable String value) throws IOException {
+			this.out.writeBoolean(value != null);
+			if (value != null) {
+				writeString(value);
+			}
+		}
+
+		private void writeString(String value) throws IOException {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			this.out.writeInt(bytes.length);
+			this.out.write(bytes);
+		}
+
+		private static boolean isSnapshotCapable(Class<?> clazz) {
+			return !clazz.getName().contains(ClassUtils.CGLIB_CLASS_SEPARATOR);
+		}
+	}
+
+
+	/**
+	 * Reads the content of a snapshot into a given application context.
+	 */
+	private static class SnapshotReader {
+
+		private final GenericApplicationContext applicationContext;
+
+		private final DefaultListableBeanFactory beanFactory;
+
+		private final DataInputStream in;
+
+		@Nullable
+		private final ClassLoader classLoader;
+
+		SnapshotReader(GenericApplicationContext applicationContext, DataInputStream in) {
+			this.applicationContext = applicationContext;
+			this.beanFactory = applicationContext.getDefaultListableBeanFactory();
+			this.in = in;
+			this.classLoader = this.beanFactory.getBeanClassLoader();
+		}
+
+		void read() throws IOException {
+			if (this.in.readBoolean()) {
+				this.beanFactory.setAutowireCandidateResolver(new ContextAnnotationAutowireCandidateResolver());
+			}
+			if (this.in.readBoolean()) {
+				this.beanFactory.setDependencyComparator(AnnotationAwareOrderComparator.INSTANCE);
+			}
+			AutowiredAnnotationBeanPostProcessor autowiredProcessor = null;
+			if (this.in.readBoolean()) {
+				autowiredProcessor = new AutowiredAnnotationBeanPostProcessor();
+				autowiredProcessor.setBeanFactory(this.beanFactory);
+			}
+			if (this.beanFactory.containsBeanDefinition(AnnotationConfigUtils.CONFIGURATION_ANNOTATION_PROCESSOR_BEAN_NAME)) {
+				// Registered by an annotation config context: configuration classes are processed already
+				this.beanFactory.removeBeanDefinition(AnnotationConfigUtils.CONFIGURATION_ANNOTATION_PROCESSOR_BEAN_NAME);
+			}
+
+			int beanCount = this.in.readInt();
+			for (int i = 0; i < beanCount; i++) {
+				String beanName = readString();
+				String[] aliases = readStrings();
+				RootBeanDefinition bd = readBeanDefinition();
+				boolean factoryMethodUnique = this.in.readBoolean();
+				if (factoryMethodUnique && bd.getFactoryMethodName() != null) {
+					bd.setUniqueFactoryMethodName(bd.getFactoryMethodName());
+				}
+				if (this.in.readBoolean()) {
+					bd.setResolvedFactoryMethod(readMethod());
+				}
+				this.beanFactory.registerBeanDefinition(beanName, bd);
+				for (String alias : aliases) {
+					this.beanFactory.registerAlias(beanName, alias);
+				}
+				if (this.in.readBoolean()) {
+					Class<?> beanType = resolveClass(readString());
+					Map<Member, Boolean> autowiredMembers = readAutowiredMembers();
+					if (autowiredProcessor != null) {
+						autowiredProcessor.registerAutowiredMembers(beanName, beanType, autowiredMembers);
+					}
+				}
+			}
+			if (autowiredProcessor != null) {
+				if (this.beanFactory.containsBeanDefinition(AnnotationConfigUtils.AUTOWIRED_ANNOTATION_PROCESSOR_BEAN_NAME)) {
+					this.beanFactory.removeBeanDefinition(AnnotationConfigUtils.AUTOWIRED_ANNOTATION_PROCESSOR_BEAN_NAME);
+				}
+				this.beanFactory.registerSingleton(
+						AnnotationConfigUtils.AUTOWIRED_ANNOTATION_PROCESSOR_BEAN_NAME, autowiredProcessor);
+			}
+
+			boolean configurationClasses = this.in.readBoolean();
+			Map<String, String> importingClassNames = new LinkedHashMap<>();
+			int importCount = this.in.readInt();
+			for (int i = 0; i < importCount; i++) {
+				importingClassNames.put(readString(), readString());
+			}
+			readPropertySources();
+			if (configurationClasses) {
+				ConfigurationClassPostProcessor postProcessor = new ConfigurationClassPostProcessor();
+				if (this.classLoader != null) {
+					postProcessor.setBeanClassLoader(this.classLoader);
+				}
+				postProcessor.postProcessGeneratedBeanFactory(this.beanFactory, importingClassNames);
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private void readPropertySources() throws IOException {
+			int count = this.in.readInt();
+			if (count == 0) {
+				return;
+			}
+			PropertySourceRegistrar registrar = new PropertySourceRegistrar(
+					this.applicationContext.getEnvironment(), this.applicationContext);
+			for (int i = 0; i < count; i++) {
+				String name = readNullableString();
+				String[] locations = readStrings();
+				boolean ignoreResourceNotFound = this.in.readBoolean();
+				String encoding = readNullableString();
+				String factoryClassName = readNullableString();
+				registrar.register(name, locations, ignoreResourceNotFound, encoding, (factoryClassName != null ?
+						(Class<? extends PropertySourceFactory>) resolveClass(factoryClassName) : null));
+			}
+		}
+
+		private RootBeanDefinition readBeanDefinition() throws IOException {
+			RootBeanDefinition bd = new RootBeanDefinition();
+			bd.setBeanClassName(readNullableString());
+			bd.setFactoryBeanName(readNullableString());
+			bd.setFactoryMethodName(readNullableString());
+			bd.setScope(readString());
+			byte lazyInit = this.in.readByte();
+			if (lazyInit >= 0) {
+				bd.setLazyInit(lazyInit == 1);
+			}
+			bd.setAbstract(this.in.readBoolean());
+			bd.setPrimary(this.in.readBoolean());
+			bd.setAutowireCandidate(this.in.readBoolean());
+			bd.setSynthetic(this.in.readBoolean());
+			bd.setNonPublicAccessAllowed(this.in.readBoolean());
+			bd.setLenientConstructorResolution(this.in.readBoolean());
+			bd.setRole(this.in.readInt());
+			bd.setAutowireMode(this.in.readInt());
+			bd.setDependencyCheck(this.in.readInt());
+			String[] dependsOn = readStrings();
+			bd.setDependsOn(dependsOn.length > 0 ? dependsOn : null);
+			bd.setInitMethodName(readNullableString());
+			bd.setEnforceInitMethod(this.in.readBoolean());
+			bd.setDestroyMethodName(readNullableString());
+			bd.setEnforceDestroyMethod(this.in.readBoolean());
+			bd.setDescription(readNullableString());
+			bd.setResourceDescription(readNullableString());
+
+			int qualifierCount = this.in.readInt();
+			for (int i = 0; i < qualifierCount; i++) {
+				AutowireCandidateQualifier qualifier = new AutowireCandidateQualifier(readString());
+				int attributeCount = this.in.readInt();
+				for (int j = 0; j < attributeCount; j++) {
+					qualifier.setAttribute(readString(), readValue());
+				}
+				bd.addQualifier(qualifier);
+			}
+			int attributeCount = this.in.readInt();
+			for (int i = 0; i < attributeCount; i++) {
+				bd.setAttribute(readString(), readValue());
+			}
+			int overrideCount = this.in.readInt();
+			for (int i = 0; i < overrideCount; i++) {
+				byte type = this.in.readByte();
+				String methodName = readString();
+				bd.getMethodOverrides().addOverride(type == LOOKUP_OVERRIDE ?
+						new LookupOverride(methodName, readNullableString()) :
+						new ReplaceOverride(methodName, readString()));
+			}
+
+			int indexedArgCount = this.in.readInt();
+			for (int i = 0; i < indexedArgCount; i++) {
+				int index = this.in.readInt();
+				bd.getConstructorArgumentValues().addIndexedArgumentValue(index, readValueHolder());
+			}
+			int genericArgCount = this.in.readInt();
+			for (int i = 0; i < genericArgCount; i++) {
+				bd.getConstructorArgumentValues().addGenericArgumentValue(readValueHolder());
+			}
+			int pvCount = this.in.readInt();
+			for (int i = 0; i < pvCount; i++) {
+				bd.getPropertyValues().add(readString(), readValue());
+			}
+			if (this.in.readBoolean()) {
+				bd.setDecoratedDefinition(readBeanDefinitionHolder());
+			}
+			return bd;
+		}
+
+		private ConstructorArgumentValues.ValueHolder readValueHolder() throws IOException {
+			Object value = readValue();
+			return new ConstructorArgumentValues.ValueHolder(value, readNullableString(), readNullableString());
+		}
+
+		private BeanDefinitionHolder readBeanDefinitionHolder() throws IOException {
+			String beanName = readString();
+			String[] aliases = readStrings();
+			return new BeanDefinitionHolder(readBeanDefinition(), beanName, (aliases.length > 0 ? aliases : null));
+		}
+
+		private Map<Member, Boolean> readAutowiredMembers() throws IOException {
+			int count = this.in.readInt();
+			Map<Member, Boolean> autowiredMembers = new LinkedHashMap<>(count);
+			for (int i = 0; i < count; i++) {
+				Member member;
+				if (this.in.readByte() == FIELD) {
+					Class<?> declaringClass = resolveClass(readString());
+					String fieldName = readString();
+					try {
+						member = declaringClass.getDeclaredField(fieldName);
+					}
+					catch (NoSuchFieldException ex) {
+						throw new IllegalStateException("Field '" + fieldName + "' captured in bean factory snapshot " +
+								"not found on " + declaringClass, ex);
+					}
+				}
+				else {
+					member = readMethod();
+				}
+				autowiredMembers.put(member, this.in.readBoolean());
+			}
+			return autowiredMembers;
+		}
+
+		private Method readMethod() throws IOException {
+			Class<?> declaringClass = resolveClass(readString());
+			String methodName = readString();
+			Class<?>[] parameterTypes = new Class<?>[this.in.readInt()];
+			for (int i = 0; i < parameterTypes.length; i++) {
+				parameterTypes[i] = resolveClass(readString());
+			}
+			try {
+				return declaringClass.getDeclaredMethod(methodName, parameterTypes);
+			}
+			catch (NoSuchMethodException ex) {
+				throw new IllegalStateException("Method '" + methodName + "' captured in bean factory snapshot " +
+						"not found on " + declaringClass, ex);
+			}
+		}
+
+		@Nullable
+		private Object readValue() throws IOException {
+			byte tag = this.in.readByte();
+			switch (tag) {
+				case NULL:
+					return null;
+				case STRING:
+					return readString();
+				case BOOLEAN:
+					return this.in.readBoolean();
+				case CHARACTER:
+					return this.in.readChar();
+				case INTEGER:
+					return this.in.readInt();
+				case LONG:
+					return this.in.readLong();
+				case SHORT:
+					return this.in.readShort();
+				case BYTE:
+					return this.in.readByte();
+				case FLOAT:
+					return this.in.readFloat();
+				case DOUBLE:
+					return this.in.readDouble();
+				case CLASS:
+					return resolveClass(readString());
+				case TYPED_STRING: {
+					String value = readNullableString();
+					String targetTypeName = readNullableString();
+					TypedStringValue typedValue = new TypedStringValue(value, targetTypeName);
+					if (this.in.readBoolean()) {
+						typedValue.setDynamic();
+					}
+					return typedValue;
+				}
+				case BEAN_REFERENCE: {
+					String beanName = readString();
+					String beanTypeName = readNullableString();
+					boolean toParent = this.in.readBoolean();
+					return (beanTypeName != null ? new RuntimeBeanReference(resolveClass(beanTypeName), toParent) :
+							new RuntimeBeanReference(beanName, toParent));
+				}
+				case BEAN_NAME_REFERENCE:
+					return new RuntimeBeanNameReference(readString());
+				case BEAN_DEFINITION_HOLDER:
+					return readBeanDefinitionHolder();
+				case BEAN_DEFINITION:
+					return readBeanDefinition();
+				case MANAGED_ARRAY: {
+					String elementTypeName = readNullableString();
+					int size = this.in.readInt();
+					ManagedArray array = new ManagedArray(
+							(elementTypeName != null ? elementTypeName : Object.class.getName()), size);
+					readElements(array, size);
+					return array;
+				}
+				case MANAGED_LIST: {
+					String elementTypeName = readNullableString();
+					int size = this.in.readInt();
+					ManagedList<Object> list = new ManagedList<>(size);
+					list.setElementTypeName(elementTypeName);
+					readElements(list, size);
+					return list;
+				}
+				case MANAGED_SET: {
+					String elementTypeName = readNullableString();
+					int size = this.in.readInt();
+					ManagedSet<Object> set = new ManagedSet<>(size);
+					set.setElementTypeName(elementTypeName);
+					readElements(set, size);
+					return set;
+				}
+				case MANAGED_MAP: {
+					ManagedMap<Object, Object> map = new ManagedMap<>();
+					map.setKeyTypeName(readNullableString());
+					map.setValueTypeName(readNullableString());
+					readEntries(map);
+					return map;
+				}
+				case MANAGED_PROPERTIES:
+					return readEntries(new ManagedProperties());
+				case PROPERTIES:
+					return readEntries(new Properties());
+				case LIST: {
+					int size = this.in.readInt();
+					return readElements(new ArrayList<>(size), size);
+				}
+				case SET: {
+					int size = this.in.readInt();
+					return readElements(new LinkedHashSet<>(size), size);
+				}
+				case MAP:
+					return readEntries(new LinkedHashMap<>());
+				case ARRAY: {
+					Class<?> componentType = resolveClass(readString());
+					Object array = Array.newInstance(componentType, this.in.readInt());
+					for (int i = 0; i < Array.getLength(array); i++) {
+						Array.set(array, i, readValue());
+					}
+					return array;
+				}
+				default:
+					throw new IOException("Unknown value tag in bean factory snapshot: " + tag);
+			}
+		}
+
+		private <C extends Collection<Object>> C readElements(C elements, int size) throws IOException {
+			for (int i = 0; i < size; i++) {
+				elements.add(readValue());
+			}
+			return elements;
+		}
+
+		private <M extends Map<Object, Object>> M readEntries(M entries) throws IOException {
+			int size = this.in.readInt();
+			for (int i = 0; i < size; i++) {
+				entries.put(readValue(), readValue());
+			}
+			return entries;
+		}
+
+		private String[] readStrings() throws IOException {
+			String[] values = new String[this.in.readInt()];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = readString();
+			}
+			return values;
+		}
+
+		@Nullable
+		private String readNullableString() throws IOException {
+			return (this.in.readBoolean() ? readString() : null);
+		}
+
+		private String readString() throws IOException {
+			byte[] bytes = new byte[this.in.readInt()];
+			this.in.readFully(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		private Class<?> resolveClass(String className) {
+			try {
+				return ClassUtils.forName(className, this.classLoader);
+			}
+			catch (ClassNotFoundException | LinkageError ex) {
+				throw new IllegalStateException("Class [" + className + "] captured in bean factory snapshot " +
+						"not found: snapshot does not match the classpath", ex);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.aot;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.DefaultPropertySourceFactory;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PropertySourceFactory;
+import org.springframework.core.io.support.ResourcePropertySource;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Registers the property sources declared through
+ * {@link org.springframework.context.annotation.PropertySource @PropertySource}
+ * on configuration classes that have been processed ahead of time, following
+ * the same ordering rules as configuration class parsing: property sources
+ * registered later take precedence over the ones registered before them.
+ *
+ * <p>Resource locations are resolved against the runtime environment,
+ * so placeholders in locations keep working as usual.
+ *
+ * @since 5.2.9
+ * @see org.springframework.context.annotation.PropertySource
+ */
+public class PropertySourceRegistrar {
+
+	private static final PropertySourceFactory DEFAULT_PROPERTY_SOURCE_FACTORY = new DefaultPropertySourceFactory();
+
+	private static final Log logger = LogFactory.getLog(PropertySourceRegistrar.class);
+
+	private final ConfigurableEnvironment environment;
+
+	private final ResourceLoader resourceLoader;
+
+	private final List<String> propertySourceNames = new ArrayList<>();
+
+
+	/**
+	 * Create a new {@code PropertySourceRegistrar} for the given environment.
+	 * @param environment the environment to register property sources with
+	 * @param resourceLoader the resource loader to load property resources with
+	 */
+	public PropertySourceRegistrar(ConfigurableEnvironment environment, ResourceLoader resourceLoader) {
+		Assert.notNull(environment, "Environment must not be null");
+		Assert.notNull(resourceLoader, "ResourceLoader must not be null");
+		this.environment = environment;
+		this.resourceLoader = resourceLoader;
+	}
+
+
+	/**
+	 * Register the property source(s) for the given declaration.
+	 * @param name the name of the property source, or {@code null} for a generated name
+	 * @param locations the resource locations to load
+	 * @param ignoreResourceNotFound whether a missing resource should be ignored
+	 * @param encoding the encoding of the resources, or {@code null} for the default
+	 * @param factoryClass a custom {@link PropertySourceFactory}, or {@code null} for the default
+	 * @throws UncheckedIOException if a resource could not be loaded
+	 */
+	public void register(@Nullable String name, String[] locations, boolean ignoreResourceNotFound,
+			@Nullable String encoding, @Nullable Class<? extends PropertySourceFactory> factoryClass) {
+
+		Assert.isTrue(locations.length > 0, "At least one @PropertySource(value) location is required");
+		PropertySourceFactory factory = (factoryClass == null || factoryClass == PropertySourceFactory.class ?
+				DEFAULT_PROPERTY_SOURCE_FACTORY : BeanUtils.instantiateClass(factoryClass));
+
+		for (String location : locations) {
+			try {
+				String resolvedLocation = this.environment.resolveRequiredPlaceholders(location);
+				Resource resource = this.resourceLoader.getResource(resolvedLocation);
+				addPropertySource(factory.createPropertySource(name, new EncodedResource(resource, encoding)));
+			}
+			catch (IllegalArgumentException | FileNotFoundException | UnknownHostException ex) {
+				// Placeholders not resolvable or resource not found when trying to open it
+				if (ignoreResourceNotFound) {
+					if (logger.isInfoEnabled()) {
+						logger.info("Properties location [" + location + "] not resolvable: " + ex.getMessage());
+					}
+				}
+				else if (ex instanceof IOException) {
+					throw new UncheckedIOException((IOException) ex);
+				}
+				else {
+					throw (IllegalArgumentException) ex;
+				}
+			}
+			catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		}
+	}
+
+	private void addPropertySource(PropertySource<?> propertySource) {
+		String name = propertySource.getName();
+		MutablePropertySources propertySources = this.environment.getPropertySources();
+
+		if (this.propertySourceNames.contains(name)) {
+			// We've already added a version, we need to extend it
+			PropertySource<?> existing = propertySources.get(name);
+			if (existing != null) {
+				PropertySource<?> newSource = (propertySource instanceof ResourcePropertySource ?
+						((ResourcePropertySource) propertySource).withResourceName() : propertySource);
+				if (existing instanceof CompositePropertySource) {
+					((CompositePropertySource) existing).addFirstPropertySource(newSource);
+				}
+				else {
+					if (existing instanceof ResourcePropertySource) {
+						existing = ((ResourcePropertySource) existing).withResourceName();
+					}
+					CompositePropertySource composite = new CompositePropertySource(name);
+					composite.addPropertySource(newSource);
+					composite.addPropertySource(existing);
+					propertySources.replace(name, composite);
+				}
+				return;
+			}
+		}
+
+		if (this.propertySourceNames.isEmpty()) {
+			propertySources.addLast(propertySource);
+		}
+		else {
+			String firstProcessed = this.propertySourceNames.get(this.propertySourceNames.size() - 1);
+			propertySources.addBefore(firstProcessed, propertySource);
+		}
+		this.propertySourceNames.add(name);
+	}
+
+}
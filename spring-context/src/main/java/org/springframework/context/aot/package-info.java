@@ -0,0 +1,11 @@
+/**
+ * Ahead-of-time processing of application contexts: generation of
+ * bean definition registration code at build time, and snapshots of
+ * post-processed bean definitions for restoring on subsequent starts.
+ */
+@NonNullApi
+@NonNullFields
+package org.springframework.context.aot;
+
+import org.springframework.lang.NonNullApi;
+import org.springframework.lang.NonNullFields;
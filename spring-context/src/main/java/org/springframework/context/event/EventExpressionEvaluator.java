@@ -27,6 +27,7 @@ import org.springframework.context.expression.BeanFactoryResolver;
 import org.springframework.context.expression.CachedExpressionEvaluator;
 import org.springframework.context.expression.MethodBasedEvaluationContext;
 import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionCache;
 import org.springframework.lang.Nullable;
 
 /**
@@ -42,6 +43,21 @@ class EventExpressionEvaluator extends CachedExpressionEvaluator {
 	private final Map<ExpressionKey, Expression> conditionCache = new ConcurrentHashMap<>(64);
 
 
+	/**
+	 * Create a new instance with a default {@code SpelExpressionParser}.
+	 */
+	public EventExpressionEvaluator() {
+	}
+
+	/**
+	 * Create a new instance with the specified {@link SpelExpressionCache}.
+	 * @since 5.2.9
+	 */
+	public EventExpressionEvaluator(SpelExpressionCache expressionCache) {
+		super(expressionCache);
+	}
+
+
 	/**
 	 * Determine if the condition defined by the specified expression evaluates
 	 * to {@code true}.
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,7 @@ import java.util.Map;
 import org.springframework.core.DefaultParameterNameDiscoverer;
 import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionCache;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -38,6 +39,9 @@ public abstract class CachedExpressionEvaluator {
 
 	private final SpelExpressionParser parser;
 
+	@Nullable
+	private final SpelExpressionCache expressionCache;
+
 	private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
 
 
@@ -47,6 +51,21 @@ public abstract class CachedExpressionEvaluator {
 	protected CachedExpressionEvaluator(SpelExpressionParser parser) {
 		Assert.notNull(parser, "SpelExpressionParser must not be null");
 		this.parser = parser;
+		this.expressionCache = null;
+	}
+
+	/**
+	 * Create a new instance with the specified {@link SpelExpressionCache},
+	 * sharing parsed and compiled expressions with other users of the cache.
+	 * <p>Expressions are not held by this evaluator in that case but rather
+	 * looked up in the given cache every time, so that they can be released
+	 * once evicted from it.
+	 * @since 5.2.9
+	 */
+	protected CachedExpressionEvaluator(SpelExpressionCache expressionCache) {
+		Assert.notNull(expressionCache, "SpelExpressionCache must not be null");
+		this.parser = expressionCache.getParser();
+		this.expressionCache = expressionCache;
 	}
 
 	/**
@@ -83,6 +102,9 @@ public abstract class CachedExpressionEvaluator {
 	protected Expression getExpression(Map<ExpressionKey, Expression> cache,
 			AnnotatedElementKey elementKey, String expression) {
 
+		if (this.expressionCache != null) {
+			return this.expressionCache.getExpression(expression);
+		}
 		ExpressionKey expressionKey = createKey(elementKey, expression);
 		Expression expr = cache.get(expressionKey);
 		if (expr == null) {
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.type.classreading.ClassMetadataIndexLoader;
+import org.springframework.core.type.classreading.ClassMetadataIndexWriter;
+import org.springframework.core.type.classreading.SimpleMetadataReaderFactory;
+import org.springframework.core.type.filter.TypeFilter;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Generates a {@link org.springframework.core.type.classreading.ClassMetadataIndex}
+ * for the classes in the given base packages at build time, using the same
+ * class path scanning as {@link ClassPathScanningCandidateComponentProvider}.
+ *
+ * <p>Every class found by the scan is indexed, not just component candidates,
+ * since configuration class processing reads the metadata of imported classes
+ * and superclasses as well. Only classes within the given classes directory
+ * get indexed though, with dependencies on the class path just being available
+ * for the scan: an index is only ever consulted for the class path root that
+ * it is packaged with. Class files are always read directly here, so a stale
+ * index left over from a previous build is never taken into account.
+ *
+ * <p>Typically invoked by build tooling after compilation, with the compiled
+ * classes and their dependencies on the class path, writing the index into the
+ * classes directory so that it gets packaged with the application.
+ *
+ * @since 5.2.9
+ * @see ClassMetadataIndexLoader#METADATA_RESOURCE_LOCATION
+ */
+public class ClassMetadataIndexGenerator {
+
+	private final ClassMetadataIndexWriter writer = new ClassMetadataIndexWriter();
+
+	private final Path classesDirectory;
+
+	private final ClassPathScanningCandidateComponentProvider scanner;
+
+
+	/**
+	 * Create a new generator for the given classes directory.
+	 * @param classesDirectory the root directory of the application's classes
+	 * @param classLoader the ClassLoader to scan (can be {@code null} to use the default),
+	 * including the given classes directory
+	 */
+	public ClassMetadataIndexGenerator(Path classesDirectory, @Nullable ClassLoader classLoader) {
+		Assert.notNull(classesDirectory, "Classes directory must not be null");
+		this.classesDirectory = classesDirectory.toAbsolutePath().normalize();
+		this.scanner = new ClassPathScanningCandidateComponentProvider(false);
+		this.scanner.setResourceLoader(new PathMatchingResourcePatternResolver(classLoader));
+		this.scanner.setMetadataReaderFactory(new SimpleMetadataReaderFactory(classLoader));
+		this.scanner.addIncludeFilter((metadataReader, metadataReaderFactory) -> {
+			if (isInClassesDirectory(metadataReader.getResource())) {
+				this.writer.add(metadataReader);
+			}
+			return false;
+		});
+	}
+
+
+	/**
+	 * Exclude the classes matching the given filter from the index.
+	 */
+	public void addExcludeFilter(TypeFilter excludeFilter) {
+		this.scanner.addExcludeFilter(excludeFilter);
+	}
+
+	/**
+	 * Index all classes in the given base packages and their sub-packages,
+	 * as far as they are located in the classes directory.
+	 * @param basePackages the packages to scan
+	 */
+	public void scan(String... basePackages) {
+		for (String basePackage : basePackages) {
+			this.scanner.findCandidateComponents(basePackage);
+		}
+	}
+
+	/**
+	 * Return the number of classes indexed so far.
+	 */
+	public int getClassCount() {
+		return this.writer.size();
+	}
+
+	/**
+	 * Write the index to the given stream.
+	 * @param out the stream to write to (flushed but not closed)
+	 * @throws IOException in case of I/O errors
+	 */
+	public void write(OutputStream out) throws IOException {
+		this.writer.write(out);
+	}
+
+	/**
+	 * Write the index to its standard location within the classes directory.
+	 * @return the path of the written index file
+	 * @throws IOException in case of I/O errors
+	 */
+	public Path write() throws IOException {
+		Path indexFile = this.classesDirectory.resolve(ClassMetadataIndexLoader.METADATA_RESOURCE_LOCATION);
+		Files.createDirectories(indexFile.getParent());
+		try (OutputStream out = Files.newOutputStream(indexFile)) {
+			write(out);
+		}
+		return indexFile;
+	}
+
+	private boolean isInClassesDirectory(Resource resource) {
+		if (!resource.isFile()) {
+			return false;
+		}
+		try {
+			return resource.getFile().toPath().toAbsolutePath().normalize().startsWith(this.classesDirectory);
+		}
+		catch (IOException ex) {
+			return false;
+		}
+	}
+
+}
@@ -1,5 +1,6 @@
 /**
- * Support package for reading and managing the components index.
+ * Support package for reading and managing the components index,
+ * as well as for generating the class metadata index at build time.
  */
 @NonNullApi
 @NonNullFields
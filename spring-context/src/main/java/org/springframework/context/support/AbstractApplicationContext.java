@@ -26,6 +26,7 @@ import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
 import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.beans.support.ResourceEditorRegistrar;
 import org.springframework.context.*;
 import org.springframework.context.event.*;
@@ -34,6 +35,7 @@ import org.springframework.context.weaving.LoadTimeWeaverAware;
 import org.springframework.context.weaving.LoadTimeWeaverAwareProcessor;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.MergedAnnotationCache;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.Environment;
@@ -43,6 +45,8 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
@@ -52,6 +56,7 @@ import org.springframework.util.ReflectionUtils;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.util.*;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -117,6 +122,15 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	 */
 	public static final String LIFECYCLE_PROCESSOR_BEAN_NAME = "lifecycleProcessor";
 
+	/**
+	 * Name of the BackgroundSingletonInitializer bean in the factory,
+	 * registered if {@link #setLazyInitialization lazy initialization} is active.
+	 *
+	 * @see BackgroundSingletonInitializer
+	 * @since 5.2.9
+	 */
+	public static final String BACKGROUND_SINGLETON_INITIALIZER_BEAN_NAME = "backgroundSingletonInitializer";
+
 	/**
 	 * Name of the ApplicationEventMulticaster bean in the factory.
 	 * If none is supplied, a default SimpleApplicationEventMulticaster is used.
@@ -240,6 +254,23 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	@Nullable
 	private Set<ApplicationEvent> earlyApplicationEvents;
 
+	/** Application startup metrics. **/
+	private ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
+
+	/** Whether singletons are lazily initialized by default, with a background warm-up. */
+	private boolean lazyInitialization = false;
+
+	/** Executor for the background warm-up of lazy singletons, if not the default thread. */
+	@Nullable
+	private Executor backgroundInitializationExecutor;
+
+	/** Background warm-up of lazy singletons for the current refresh, if any. */
+	@Nullable
+	private BackgroundSingletonInitializer backgroundSingletonInitializer;
+
+	/** Whether to pre-warm the merged annotation cache for all bean classes on refresh. */
+	private boolean annotationCachePreWarming = false;
+
 
 	/**
 	 * Create a new AbstractApplicationContext with no parent.
@@ -357,6 +388,113 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		return new StandardEnvironment();
 	}
 
+	@Override
+	public void setApplicationStartup(ApplicationStartup applicationStartup) {
+		Assert.notNull(applicationStartup, "applicationStartup should not be null");
+		this.applicationStartup = applicationStartup;
+	}
+
+	@Override
+	public ApplicationStartup getApplicationStartup() {
+		return this.applicationStartup;
+	}
+
+	/**
+	 * Set whether this context should initialize its singletons lazily by default,
+	 * for a fast startup, and progressively instantiate the remaining singletons in
+	 * the background after the {@link ContextRefreshedEvent} has been published.
+	 * <p>Default is "false", pre-instantiating all non-lazy singletons on refresh.
+	 * Bean definitions with an explicit lazy-init flag retain their behavior either
+	 * way, and {@link org.springframework.context.SmartLifecycle} beans still get
+	 * created and started in their phases on refresh.
+	 * <p>Only applies to a {@link DefaultListableBeanFactory}, and needs to be set
+	 * before {@link #refresh()}.
+	 *
+	 * @see DefaultListableBeanFactory#setLazyInitByDefault
+	 * @see #setBackgroundInitializationExecutor
+	 * @see #getBackgroundSingletonInitializer()
+	 * @since 5.2.9
+	 */
+	public void setLazyInitialization(boolean lazyInitialization) {
+		this.lazyInitialization = lazyInitialization;
+	}
+
+	/**
+	 * Return whether this context initializes its singletons lazily by default.
+	 *
+	 * @since 5.2.9
+	 */
+	public boolean isLazyInitialization() {
+		return this.lazyInitialization;
+	}
+
+	/**
+	 * Set the {@link Executor} to use for the background warm-up of lazy singletons.
+	 * <p>Default is a dedicated daemon thread with minimum priority per refresh.
+	 *
+	 * @see #setLazyInitialization
+	 * @since 5.2.9
+	 */
+	public void setBackgroundInitializationExecutor(@Nullable Executor backgroundInitializationExecutor) {
+		this.backgroundInitializationExecutor = backgroundInitializationExecutor;
+	}
+
+	/**
+	 * Return the background warm-up of lazy singletons for the current refresh,
+	 * exposing its progress, or {@code null} if lazy initialization is not active.
+	 *
+	 * @see #setLazyInitialization
+	 * @since 5.2.9
+	 */
+	@Nullable
+	public BackgroundSingletonInitializer getBackgroundSingletonInitializer() {
+		return this.backgroundSingletonInitializer;
+	}
+
+	/**
+	 * Set whether this context should resolve resource location patterns in
+	 * parallel, e.g. for component scanning across many classpath roots.
+	 * <p>Default is "false". If switched on, the default
+	 * {@link PathMatchingResourcePatternResolver} searches the root directories of
+	 * a pattern concurrently and caches the entry names of jar files until the end
+	 * of the current refresh. Does not affect custom resource pattern resolvers.
+	 *
+	 * @see PathMatchingResourcePatternResolver#setParallelResolution
+	 * @see PathMatchingResourcePatternResolver#setCacheJarEntries
+	 * @since 5.2.9
+	 */
+	public void setParallelResourceResolution(boolean parallelResourceResolution) {
+		if (this.resourcePatternResolver instanceof PathMatchingResourcePatternResolver) {
+			PathMatchingResourcePatternResolver resolver = (PathMatchingResourcePatternResolver) this.resourcePatternResolver;
+			resolver.setParallelResolution(parallelResourceResolution);
+			resolver.setCacheJarEntries(parallelResourceResolution);
+		}
+	}
+
+	/**
+	 * Set whether this context should pre-warm the global merged annotation cache
+	 * for all bean classes and their methods on refresh, right before the
+	 * singletons get instantiated.
+	 * <p>Default is "false", populating the cache on demand. Switch this flag
+	 * to "true" for annotation-heavy applications, so that merged annotation
+	 * lookups during singleton creation and at runtime are served from the cache.
+	 *
+	 * @see MergedAnnotationCache#preWarm(Class)
+	 * @since 5.2.9
+	 */
+	public void setAnnotationCachePreWarming(boolean annotationCachePreWarming) {
+		this.annotationCachePreWarming = annotationCachePreWarming;
+	}
+
+	/**
+	 * Return whether this context pre-warms the merged annotation cache on refresh.
+	 *
+	 * @since 5.2.9
+	 */
+	public boolean isAnnotationCachePreWarming() {
+		return this.annotationCachePreWarming;
+	}
+
 	/**
 	 * Return this context's internal bean factory as AutowireCapableBeanFactory,
 	 * if already available.
@@ -584,6 +722,8 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	@Override
 	public void refresh() throws BeansException, IllegalStateException {
 		synchronized (this.startupShutdownMonitor) {
+			StartupStep contextRefresh = this.applicationStartup.start("spring.context.refresh");
+
 			/* 一、实例化前的准备工作（为实例化做准备） */
 
 			/* 1、容器刷新前的准备工作 —— 在整个容器刷新之前，做一些准备工作（前戏，容器刷新前的准备工作） */
@@ -661,6 +801,8 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 				// 题外：钩子方法、模版方法。
 				postProcessBeanFactory(beanFactory);
 
+				StartupStep beanPostProcess = this.applicationStartup.start("spring.context.beans.post-process");
+
 				/*
 
 				5、调用BeanDefinitionRegistryPostProcessor(BDRPP)、BeanFactoryPostProcessor(BFPP)
@@ -708,6 +850,7 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 				// Register bean processors that intercept bean creation.
 				// 注册bean处理器，这里只是注册功能，真正调用的是getBean()
 				registerBeanPostProcessors(beanFactory);
+				beanPostProcess.end();
 
 				/*
 
@@ -826,6 +969,7 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 				// Reset common introspection caches in Spring's core, since we
 				// might not ever need metadata for singleton beans anymore...
 				resetCommonCaches();
+				contextRefresh.end();
 			}
 		}
 	}
@@ -974,6 +1118,7 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		beanFactory.ignoreDependencyInterface(ApplicationEventPublisherAware.class);
 		beanFactory.ignoreDependencyInterface(MessageSourceAware.class);
 		beanFactory.ignoreDependencyInterface(ApplicationContextAware.class);
+		beanFactory.ignoreDependencyInterface(ApplicationStartupAware.class);
 
 		/* 5、设置如果存在多个匹配对象的话，应该哪个对象优先 */
 
@@ -1061,6 +1206,9 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		if (!beanFactory.containsLocalBean(SYSTEM_ENVIRONMENT_BEAN_NAME)) {
 			beanFactory.registerSingleton(SYSTEM_ENVIRONMENT_BEAN_NAME, getEnvironment().getSystemEnvironment());
 		}
+		if (!beanFactory.containsLocalBean(APPLICATION_STARTUP_BEAN_NAME)) {
+			beanFactory.registerSingleton(APPLICATION_STARTUP_BEAN_NAME, getApplicationStartup());
+		}
 	}
 
 	/**
@@ -1334,6 +1482,12 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 			beanFactory.setConversionService/* 设置转换服务 */(beanFactory.getBean(CONVERSION_SERVICE_BEAN_NAME, ConversionService.class));
 		}
 
+		// Initialize bootstrap executor for parallel pre-instantiation of singletons, if any.
+		if (beanFactory.getBootstrapExecutor() == null && beanFactory.containsBean(BOOTSTRAP_EXECUTOR_BEAN_NAME) &&
+				beanFactory.isTypeMatch(BOOTSTRAP_EXECUTOR_BEAN_NAME, Executor.class)) {
+			beanFactory.setBootstrapExecutor(beanFactory.getBean(BOOTSTRAP_EXECUTOR_BEAN_NAME, Executor.class));
+		}
+
 		/*
 
 		2、设置值处理器
@@ -1395,6 +1549,22 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		// (因为不要再修改bd了，所以放入一个冰冻集合里面去，代表我的bd不会再修改了，后面在进行实例化的时候，就按照这个bd完成实例化操作就搞定了，其它东西不用再考虑了  )
 		beanFactory.freezeConfiguration();
 
+		// Resolve merged annotations of all bean classes upfront, if requested.
+		if (this.annotationCachePreWarming) {
+			preWarmAnnotationCache(beanFactory);
+		}
+
+		// Defer singleton creation to a background warm-up after refresh, if requested.
+		this.backgroundSingletonInitializer = null;
+		if (this.lazyInitialization && beanFactory instanceof DefaultListableBeanFactory) {
+			((DefaultListableBeanFactory) beanFactory).setLazyInitByDefault(true);
+			BackgroundSingletonInitializer initializer =
+					new BackgroundSingletonInitializer(this, beanFactory, this.backgroundInitializationExecutor);
+			beanFactory.registerSingleton(BACKGROUND_SINGLETON_INITIALIZER_BEAN_NAME, initializer);
+			addApplicationListener(initializer);
+			this.backgroundSingletonInitializer = initializer;
+		}
+
 		/* 6、实例化所有剩余的（非懒加载的）单例 */
 
 		// Instantiate all remaining (non-lazy-init) singletons. - 实例化所有剩余的（非延迟初始化）单例。
@@ -1403,6 +1573,37 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		beanFactory.preInstantiateSingletons/* 预实例化单例 */();
 	}
 
+	/**
+	 * Pre-warm the global merged annotation cache for the types of all
+	 * non-abstract bean definitions in the given bean factory.
+	 * <p>Bean types are determined without initializing FactoryBeans;
+	 * beans with undeterminable types are skipped.
+	 *
+	 * @param beanFactory the bean factory of this context
+	 * @see #setAnnotationCachePreWarming
+	 * @since 5.2.9
+	 */
+	protected void preWarmAnnotationCache(ConfigurableListableBeanFactory beanFactory) {
+		StartupStep preWarm = this.applicationStartup.start("spring.context.annotations.pre-warm");
+		Set<Class<?>> beanTypes = new HashSet<>();
+		for (String beanName : beanFactory.getBeanDefinitionNames()) {
+			try {
+				if (!beanFactory.getMergedBeanDefinition(beanName).isAbstract()) {
+					Class<?> beanType = beanFactory.getType(beanName, false);
+					if (beanType != null && beanTypes.add(beanType)) {
+						MergedAnnotationCache.preWarm(beanType);
+					}
+				}
+			}
+			catch (BeansException ex) {
+				if (logger.isTraceEnabled()) {
+					logger.trace("Skipping bean '" + beanName + "' for annotation cache pre-warming: " + ex);
+				}
+			}
+		}
+		preWarm.tag("beanTypes", String.valueOf(beanTypes.size())).end();
+	}
+
 	/**
 	 * 完成刷新
 	 * <p>
@@ -1455,7 +1656,8 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	/**
 	 * Reset Spring's common reflection metadata caches, in particular the
 	 * {@link ReflectionUtils}, {@link AnnotationUtils}, {@link ResolvableType}
-	 * and {@link CachedIntrospectionResults} caches.
+	 * and {@link CachedIntrospectionResults} caches, as well as the jar entry
+	 * cache of this context's resource pattern resolver.
 	 *
 	 * @see ReflectionUtils#clearCache()
 	 * @see AnnotationUtils#clearCache()
@@ -1468,6 +1670,9 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		AnnotationUtils.clearCache();
 		ResolvableType.clearCache();
 		CachedIntrospectionResults.clearClassLoader(getClassLoader());
+		if (this.resourcePatternResolver instanceof PathMatchingResourcePatternResolver) {
+			((PathMatchingResourcePatternResolver) this.resourcePatternResolver).clearCache();
+		}
 	}
 
 
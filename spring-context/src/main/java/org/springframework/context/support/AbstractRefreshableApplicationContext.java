@@ -21,6 +21,7 @@ import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextException;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.lang.Nullable;
 
 import java.io.IOException;
@@ -141,12 +142,19 @@ public abstract class AbstractRefreshableApplicationContext /* 抽象的可刷
 			beanFactory.setSerializationId(getId()/* 每一个容器在启动的时候都会生成一个唯一的id标识 */);
 			// 定制BeanFactory，设置相关属性，包括是"否允许覆盖同名称的不同定义的对象"以及"是否允许bean之前存在循环依赖"
 			customizeBeanFactory(beanFactory);
+			beanFactory.setApplicationStartup(getApplicationStartup());
 
 			// ⚠️加载配置文件，解析为一堆bd
 			// 初始化documentReader，并读取XML文件以及解析（读取配置文件中的bean定义信息！）
 			// 🚩默认命名空间的解析，自定义标签的解析
 			// AbstractXmlApplicationContext
-			loadBeanDefinitions(beanFactory);
+			StartupStep loadBeanDefinitions = getApplicationStartup().start("spring.context.bean-definitions.load");
+			try {
+				loadBeanDefinitions(beanFactory);
+			}
+			finally {
+				loadBeanDefinitions.end();
+			}
 			this.beanFactory = beanFactory;
 		} catch (IOException ex) {
 			throw new ApplicationContextException("I/O error parsing bean definition source for " + getDisplayName(), ex);
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.SmartFactoryBean;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.lang.Nullable;
+
+/**
+ * Progressively instantiates the singletons of a lazy-by-default application
+ * context in the background, once the context has published its
+ * {@link ContextRefreshedEvent}: the context becomes ready quickly, while
+ * the remaining singletons are created ahead of their first use.
+ *
+ * <p>Only singletons without an explicit lazy-init flag get initialized,
+ * one after the other in registration order, with each {@code getBean} call
+ * creating the bean's dependencies first. Failures are logged and skipped,
+ * leaving the affected bean to be created (and to fail again) on first access.
+ *
+ * <p>As a {@link SmartLifecycle} in the last phase, the initializer starts
+ * after all other phased components and stops before any of them on context
+ * close, waiting for the current bean creation to complete, so no singleton
+ * gets created in the background while the context is shutting down.
+ *
+ * @since 5.2.9
+ * @see AbstractApplicationContext#setLazyInitialization
+ * @see org.springframework.beans.factory.support.DefaultListableBeanFactory#setLazyInitByDefault
+ */
+public class BackgroundSingletonInitializer implements SmartLifecycle, ApplicationListener<ContextRefreshedEvent> {
+
+	/**
+	 * {@link Thread#getName() Name} of the default background thread: {@value}.
+	 */
+	public static final String THREAD_NAME = "SpringContextBackgroundInit";
+
+
+	private static final Log logger = LogFactory.getLog(BackgroundSingletonInitializer.class);
+
+	private final ApplicationContext applicationContext;
+
+	private final ConfigurableListableBeanFactory beanFactory;
+
+	@Nullable
+	private final Executor executor;
+
+	/** Monitor held while creating a singleton, for {@link #stop()} to wait on. */
+	private final Object creationMonitor = new Object();
+
+	private final AtomicBoolean initializationStarted = new AtomicBoolean();
+
+	private final CountDownLatch completionLatch = new CountDownLatch(1);
+
+	private volatile boolean running;
+
+	private volatile int singletonCount;
+
+	private volatile int initializedCount;
+
+	private volatile int failedCount;
+
+
+	/**
+	 * Create a new BackgroundSingletonInitializer for the given context.
+	 * @param applicationContext the context to listen for refresh events from
+	 * @param beanFactory the context's bean factory to initialize singletons in
+	 * @param executor the executor to run the initialization on, or {@code null}
+	 * for a dedicated daemon thread with minimum priority
+	 */
+	public BackgroundSingletonInitializer(ApplicationContext applicationContext,
+			ConfigurableListableBeanFactory beanFactory, @Nullable Executor executor) {
+
+		this.applicationContext = applicationContext;
+		this.beanFactory = beanFactory;
+		this.executor = executor;
+	}
+
+
+	@Override
+	public void start() {
+		this.running = true;
+	}
+
+	@Override
+	public void stop() {
+		this.running = false;
+		synchronized (this.creationMonitor) {
+			// Wait for the current singleton creation to complete
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.running;
+	}
+
+	/**
+	 * Return {@link Integer#MAX_VALUE}: starting after and stopping before
+	 * all other phased components.
+	 */
+	@Override
+	public int getPhase() {
+		return Integer.MAX_VALUE;
+	}
+
+	@Override
+	public void onApplicationEvent(ContextRefreshedEvent event) {
+		if (event.getApplicationContext() != this.applicationContext || !this.running ||
+				!this.initializationStarted.compareAndSet(false, true)) {
+			return;
+		}
+		Runnable task = this::initializeSingletons;
+		if (this.executor != null) {
+			this.executor.execute(task);
+		}
+		else {
+			Thread thread = new Thread(task, THREAD_NAME);
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			thread.start();
+		}
+	}
+
+	/**
+	 * Initialize all remaining singletons, unless stopped in the meantime.
+	 */
+	protected void initializeSingletons() {
+		try {
+			List<String> beanNames = new ArrayList<>();
+			for (String beanName : this.beanFactory.getBeanDefinitionNames()) {
+				if (!this.beanFactory.containsSingleton(beanName) && isWarmUpCandidate(beanName)) {
+					beanNames.add(beanName);
+				}
+			}
+			this.singletonCount = beanNames.size();
+			if (logger.isDebugEnabled()) {
+				logger.debug("Initializing " + beanNames.size() + " lazy singletons in the background");
+			}
+			for (String beanName : beanNames) {
+				synchronized (this.creationMonitor) {
+					if (!this.running) {
+						if (logger.isDebugEnabled()) {
+							logger.debug("Background initialization stopped after " +
+									this.initializedCount + " of " + beanNames.size() + " singletons");
+						}
+						return;
+					}
+					try {
+						initializeSingleton(beanName);
+					}
+					catch (Throwable ex) {
+						this.failedCount++;
+						if (logger.isWarnEnabled()) {
+							logger.warn("Background initialization of singleton '" + beanName + "' failed: " + ex);
+						}
+					}
+					this.initializedCount++;
+				}
+			}
+		}
+		finally {
+			this.completionLatch.countDown();
+		}
+	}
+
+	private boolean isWarmUpCandidate(String beanName) {
+		BeanDefinition bd = this.beanFactory.getMergedBeanDefinition(beanName);
+		return (!bd.isAbstract() && bd.isSingleton() &&
+				bd instanceof AbstractBeanDefinition && ((AbstractBeanDefinition) bd).getLazyInit() == null);
+	}
+
+	private void initializeSingleton(String beanName) {
+		if (this.beanFactory.isFactoryBean(beanName)) {
+			Object bean = this.beanFactory.getBean(BeanFactory.FACTORY_BEAN_PREFIX + beanName);
+			if (bean instanceof SmartFactoryBean && ((SmartFactoryBean<?>) bean).isEagerInit()) {
+				this.beanFactory.getBean(beanName);
+			}
+		}
+		else {
+			this.beanFactory.getBean(beanName);
+		}
+	}
+
+
+	/**
+	 * Return the number of singletons to initialize in the background,
+	 * or 0 if the background initialization has not begun yet.
+	 */
+	public int getSingletonCount() {
+		return this.singletonCount;
+	}
+
+	/**
+	 * Return the number of singletons processed so far, including failed ones.
+	 */
+	public int getInitializedCount() {
+		return this.initializedCount;
+	}
+
+	/**
+	 * Return the number of singletons that failed to initialize.
+	 */
+	public int getFailedCount() {
+		return this.failedCount;
+	}
+
+	/**
+	 * Return whether the background initialization has ended, either
+	 * through completion or through being stopped.
+	 */
+	public boolean isCompleted() {
+		return (this.completionLatch.getCount() == 0);
+	}
+
+	/**
+	 * Wait for the background initialization to end.
+	 * @param timeout the maximum time to wait
+	 * @param unit the time unit of the timeout argument
+	 * @return {@code true} if the initialization has ended,
+	 * {@code false} if the waiting time elapsed before
+	 * @throws InterruptedException if the current thread is interrupted while waiting
+	 */
+	public boolean awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException {
+		return this.completionLatch.await(timeout, unit);
+	}
+
+	@Override
+	public String toString() {
+		return "BackgroundSingletonInitializer: " + this.initializedCount + " of " + this.singletonCount +
+				" singletons initialized, " + this.failedCount + " failed";
+	}
+
+}
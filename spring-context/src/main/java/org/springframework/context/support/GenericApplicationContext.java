@@ -31,6 +31,7 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.metrics.ApplicationStartup;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 
@@ -159,6 +160,17 @@ public class GenericApplicationContext extends AbstractApplicationContext implem
 		this.beanFactory.setParentBeanFactory(getInternalParentBeanFactory());
 	}
 
+	/**
+	 * Set the {@link ApplicationStartup} for this context, also setting
+	 * it on the internal BeanFactory accordingly.
+	 * @see org.springframework.beans.factory.config.ConfigurableBeanFactory#setApplicationStartup
+	 */
+	@Override
+	public void setApplicationStartup(ApplicationStartup applicationStartup) {
+		super.setApplicationStartup(applicationStartup);
+		this.beanFactory.setApplicationStartup(applicationStartup);
+	}
+
 	/**
 	 * Set whether it should be allowed to override bean definitions by registering
 	 * a different definition with the same name, automatically replacing the former.
@@ -312,6 +324,32 @@ public class GenericApplicationContext extends AbstractApplicationContext implem
 		return this.beanFactory;
 	}
 
+	/**
+	 * Load the configuration of this context up to the point where the
+	 * underlying bean factory holds its final set of bean definitions,
+	 * without instantiating any bean.
+	 * <p>All {@link org.springframework.beans.factory.config.BeanFactoryPostProcessor
+	 * BeanFactoryPostProcessors} are invoked (e.g. parsing configuration classes
+	 * and evaluating their conditions), but no bean post-processors are registered
+	 * and no singletons are created. The configuration gets frozen afterwards, so
+	 * that the bean definitions can be processed ahead of time.
+	 * @throws BeansException if the bean factory could not be initialized
+	 * @throws IllegalStateException if already refreshed
+	 * @since 5.2.9
+	 * @see org.springframework.context.aot.ApplicationContextAotGenerator
+	 */
+	public void refreshForAotProcessing() throws BeansException, IllegalStateException {
+		if (logger.isDebugEnabled()) {
+			logger.debug("Preparing bean factory for AOT processing");
+		}
+		prepareRefresh();
+		obtainFreshBeanFactory();
+		prepareBeanFactory(this.beanFactory);
+		postProcessBeanFactory(this.beanFactory);
+		invokeBeanFactoryPostProcessors(this.beanFactory);
+		this.beanFactory.freezeConfiguration();
+	}
+
 
 	//---------------------------------------------------------------------
 	// Implementation of BeanDefinitionRegistry
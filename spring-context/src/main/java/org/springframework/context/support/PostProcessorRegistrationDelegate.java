@@ -28,6 +28,8 @@ import org.springframework.context.event.EventListenerMethodProcessor;
 import org.springframework.core.OrderComparator;
 import org.springframework.core.Ordered;
 import org.springframework.core.PriorityOrdered;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.lang.Nullable;
 
 import java.util.*;
@@ -222,7 +224,7 @@ final class PostProcessorRegistrationDelegate/* 后处理器的注册代表 */ {
 			registryProcessors.addAll(currentRegistryProcessors);
 			// ⚠️遍历currentRegistryProcessors，执行️BeanDefinitionRegistryPostProcessor#postProcessBeanDefinitionRegistry()
 			// 题外：执行所有Spring自身的BeanDefinitionRegistryPostProcessors（目前只有ConfigurationAnnotationProcessor）
-			invokeBeanDefinitionRegistryPostProcessors(currentRegistryProcessors, registry);
+			invokeBeanDefinitionRegistryPostProcessors(currentRegistryProcessors, registry, beanFactory.getApplicationStartup());
 			// 执行完毕之后，清空currentRegistryProcessors
 			currentRegistryProcessors.clear();
 
@@ -248,7 +250,7 @@ final class PostProcessorRegistrationDelegate/* 后处理器的注册代表 */ {
 			// 添加到registryProcessors中，用于最后执行postProcessBeanFactory方法
 			registryProcessors.addAll(currentRegistryProcessors);
 			// ⚠️遍历currentRegistryProcessors，执行️BeanDefinitionRegistryPostProcessor#postProcessBeanDefinitionRegistry()
-			invokeBeanDefinitionRegistryPostProcessors(currentRegistryProcessors, registry);
+			invokeBeanDefinitionRegistryPostProcessors(currentRegistryProcessors, registry, beanFactory.getApplicationStartup());
 			// 执行完毕之后，清空currentRegistryProcessors
 			currentRegistryProcessors.clear();
 
@@ -282,7 +284,7 @@ final class PostProcessorRegistrationDelegate/* 后处理器的注册代表 */ {
 				sortPostProcessors(currentRegistryProcessors, beanFactory);
 				// 添加到registryProcessors中，用于最后执行postProcessBeanFactory方法
 				registryProcessors.addAll(currentRegistryProcessors);
-				invokeBeanDefinitionRegistryPostProcessors(currentRegistryProcessors, registry);
+				invokeBeanDefinitionRegistryPostProcessors(currentRegistryProcessors, registry, beanFactory.getApplicationStartup());
 				currentRegistryProcessors.clear();
 			}
 
@@ -627,11 +629,15 @@ final class PostProcessorRegistrationDelegate/* 后处理器的注册代表 */ {
 	 * Invoke the given BeanDefinitionRegistryPostProcessor beans. - 调用给定的BeanDefinitionRegistryPostProcessor Bean。
 	 */
 	private static void invokeBeanDefinitionRegistryPostProcessors(
-			Collection<? extends BeanDefinitionRegistryPostProcessor> postProcessors, BeanDefinitionRegistry registry) {
+			Collection<? extends BeanDefinitionRegistryPostProcessor> postProcessors, BeanDefinitionRegistry registry,
+			ApplicationStartup applicationStartup) {
 
 		for (BeanDefinitionRegistryPostProcessor postProcessor : postProcessors) {
+			StartupStep postProcessBeanDefRegistry = applicationStartup.start("spring.context.beandef-registry.post-process")
+					.tag("postProcessor", postProcessor::toString);
 			// 目前postProcessor是ConfigurationClassPostProcessor对象
 			postProcessor.postProcessBeanDefinitionRegistry(registry);
+			postProcessBeanDefRegistry.end();
 		}
 	}
 
@@ -644,8 +650,11 @@ final class PostProcessorRegistrationDelegate/* 后处理器的注册代表 */ {
 			Collection<? extends BeanFactoryPostProcessor> postProcessors, ConfigurableListableBeanFactory beanFactory) {
 
 		for (BeanFactoryPostProcessor postProcessor : postProcessors) {
+			StartupStep postProcessBeanFactory = beanFactory.getApplicationStartup().start("spring.context.bean-factory.post-process")
+					.tag("postProcessor", postProcessor::toString);
 			// ConfigurationClassPostProcessor
 			postProcessor.postProcessBeanFactory(beanFactory);
+			postProcessBeanFactory.end();
 		}
 	}
 
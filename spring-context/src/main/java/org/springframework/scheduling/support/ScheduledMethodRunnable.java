@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.UndeclaredThrowableException;
 
+import org.springframework.core.MethodInvokerCache;
 import org.springframework.util.ReflectionUtils;
 
 /**
@@ -81,7 +82,7 @@ public class ScheduledMethodRunnable implements Runnable {
 	public void run() {
 		try {
 			ReflectionUtils.makeAccessible(this.method);
-			this.method.invoke(this.target);
+			MethodInvokerCache.getInvoker(this.method).invoke(this.target);
 		}
 		catch (InvocationTargetException ex) {
 			ReflectionUtils.rethrowRuntimeException(ex.getTargetException());
@@ -41,6 +41,7 @@ import org.springframework.context.testfixture.cache.SomeKeyGenerator;
 import org.springframework.context.testfixture.cache.beans.AnnotatedClassCacheableService;
 import org.springframework.context.testfixture.cache.beans.CacheableService;
 import org.springframework.context.testfixture.cache.beans.DefaultCacheableService;
+import org.springframework.expression.spel.standard.SpelExpressionCache;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -143,6 +144,20 @@ public class EnableCachingTests extends AbstractCacheAnnotationTests {
 		context.close();
 	}
 
+	@Test
+	public void expressionCacheBean() {
+		ConfigurableApplicationContext context = new AnnotationConfigApplicationContext(
+				EnableCachingConfig.class, SpelExpressionCache.class);
+		SpelExpressionCache expressionCache = context.getBean(SpelExpressionCache.class);
+		CacheableService<?> service = context.getBean("service", CacheableService.class);
+
+		Object r1 = service.conditional(3);
+		Object r2 = service.conditional(3);
+		assertThat(r2).isSameAs(r1);
+		assertThat(expressionCache.size()).isEqualTo(1);
+		context.close();
+	}
+
 
 	@Configuration
 	@EnableCaching
@@ -31,6 +31,8 @@ import org.springframework.context.annotation6.ComponentForScanning;
 import org.springframework.context.annotation6.ConfigForScanning;
 import org.springframework.context.annotation6.Jsr330NamedForScanning;
 import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.MergedAnnotationCache;
 import org.springframework.util.ObjectUtils;
 
 import static java.lang.String.format;
@@ -71,6 +73,22 @@ class AnnotationConfigApplicationContextTests {
 		assertThat(beans).hasSize(2);
 	}
 
+	@Test
+	void registerAndRefreshWithAnnotationCachePreWarming() throws Exception {
+		MergedAnnotationCache.clearCache();
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.setAnnotationCachePreWarming(true);
+		context.register(Config.class, NameConfig.class);
+		context.refresh();
+
+		long misses = MergedAnnotationCache.getMissCount();
+		assertThat(AnnotatedElementUtils.findMergedAnnotation(Config.class, Configuration.class)).isNotNull();
+		assertThat(AnnotatedElementUtils.findMergedAnnotation(Config.class.getDeclaredMethod("testBean"), Bean.class))
+				.isNotNull();
+		assertThat(MergedAnnotationCache.getMissCount()).isEqualTo(misses);
+		context.close();
+	}
+
 	@Test
 	void getBeansWithAnnotation() {
 		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.aot;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.context.aot.AotSamples.SampleConfiguration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link AotProcessor}.
+ *
+ * @since 5.2.9
+ */
+class AotProcessorTests {
+
+	@Test
+	void mainWritesInitializerForConfigurationClass(@TempDir Path tempDir) throws Exception {
+		AotProcessor.main(new String[] {SampleConfiguration.class.getName(), tempDir.toString()});
+		String className = SampleConfiguration.class.getName() + ApplicationContextAotGenerator.DEFAULT_INITIALIZER_SUFFIX;
+		assertThat(tempDir.resolve(className.replace('.', '/') + ".java")).exists();
+	}
+
+	@Test
+	void mainRejectsMissingOutputDirectory() {
+		assertThatIllegalArgumentException().isThrownBy(() ->
+				AotProcessor.main(new String[] {SampleConfiguration.class.getName()}))
+				.withMessageContaining("Usage");
+	}
+
+}
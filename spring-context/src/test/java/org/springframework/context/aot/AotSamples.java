@@ -0,0 +1,136 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.aot;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.ImportAware;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sample application components for {@link ApplicationContextAotGeneratorTests}
+ * and {@link BeanFactorySnapshotTests}.
+ */
+public abstract class AotSamples {
+
+	@Configuration
+	@Import(ImportAwareConfiguration.class)
+	@PropertySource("classpath:org/springframework/context/annotation/p1.properties")
+	public static class SampleConfiguration {
+
+		@Bean
+		public SampleRepository sampleRepository() {
+			return new SampleRepository();
+		}
+
+		@Bean
+		public SampleService sampleService(SampleRepository repository) {
+			return new SampleService(repository);
+		}
+
+		@Bean
+		public SampleService directService() {
+			return new SampleService(sampleRepository());
+		}
+
+		@Bean
+		SampleService hiddenService(SampleRepository repository) {
+			return new SampleService(repository);
+		}
+	}
+
+
+	@Configuration
+	public static class ImportAwareConfiguration implements ImportAware {
+
+		private AnnotationMetadata importMetadata;
+
+		@Override
+		public void setImportMetadata(AnnotationMetadata importMetadata) {
+			this.importMetadata = importMetadata;
+		}
+
+		public AnnotationMetadata getImportMetadata() {
+			return this.importMetadata;
+		}
+	}
+
+
+	public static class SampleRepository {
+	}
+
+
+	public static class SampleService {
+
+		private final SampleRepository repository;
+
+		public SampleService(SampleRepository repository) {
+			this.repository = repository;
+		}
+
+		public SampleRepository getRepository() {
+			return this.repository;
+		}
+	}
+
+
+	@Component("sampleComponent")
+	public static class SampleComponent {
+
+		private final SampleRepository repository;
+
+		@Autowired
+		private SampleService sampleService;
+
+		@Value("${testbean.name}")
+		private String name;
+
+		private Environment environment;
+
+		public SampleComponent(SampleRepository repository) {
+			this.repository = repository;
+		}
+
+		@Autowired
+		public void setEnvironment(Environment environment) {
+			this.environment = environment;
+		}
+
+		public SampleRepository getRepository() {
+			return this.repository;
+		}
+
+		public SampleService getSampleService() {
+			return this.sampleService;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public Environment getEnvironment() {
+			return this.environment;
+		}
+	}
+
+}
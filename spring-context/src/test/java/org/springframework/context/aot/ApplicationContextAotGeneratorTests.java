@@ -0,0 +1,189 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.aot;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.support.ManagedList;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.aot.AotSamples.ImportAwareConfiguration;
+import org.springframework.context.aot.AotSamples.SampleComponent;
+import org.springframework.context.aot.AotSamples.SampleConfiguration;
+import org.springframework.context.aot.AotSamples.SampleRepository;
+import org.springframework.context.aot.AotSamples.SampleService;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.util.ClassUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests for {@link ApplicationContextAotGenerator}.
+ *
+ * @since 5.2.9
+ */
+class ApplicationContextAotGeneratorTests {
+
+	private static final String CLASS_NAME = "org.springframework.context.aot.generated.SampleInitializer";
+
+	private static final String SAMPLES = AotSamples.class.getName() + ".";
+
+
+	@Test
+	void constructorBeanWithDirectGenerator() {
+		String source = generate(SampleComponent.class);
+		assertThat(source).contains("package org.springframework.context.aot.generated;");
+		assertThat(source).contains("beanFactory.registerBeanDefinition(\"sampleComponent\", sampleComponentBeanDefinition(beanFactory));");
+		assertThat(source).contains("BeanInstanceSupplier.<" + SAMPLES + "SampleComponent>forConstructor(beanFactory, " +
+				"\"sampleComponent\", " + SAMPLES + "SampleComponent.class, " + SAMPLES + "SampleRepository.class)");
+		assertThat(source).contains(".withGenerator(args -> new " + SAMPLES + "SampleComponent((" +
+				SAMPLES + "SampleRepository) args.getObject(0)))");
+	}
+
+	@Test
+	void autowiredMembersResolvedThroughGeneratedCode() {
+		String source = generate(SampleComponent.class);
+		assertThat(source).contains("AutowiredFieldValueResolver.forRequiredField(" + SAMPLES +
+				"SampleComponent.class, \"sampleService\").resolveAndSet(beanFactory, \"sampleComponent\", instance);");
+		assertThat(source).contains("AutowiredFieldValueResolver.forRequiredField(" + SAMPLES +
+				"SampleComponent.class, \"name\")");
+		assertThat(source).contains("((" + SAMPLES + "SampleComponent) instance).setEnvironment(" +
+				"(org.springframework.core.env.Environment) args.getObject(0));");
+		assertThat(source).contains("autowiring.registerAutowiring(\"sampleComponent\", SampleInitializer::sampleComponentAutowiring);");
+	}
+
+	@Test
+	void factoryMethodBeans() {
+		String source = generate(SampleConfiguration.class);
+		assertThat(source).contains("forFactoryMethod(beanFactory, \"sampleService\", " + SAMPLES +
+				"SampleConfiguration.class, \"aotSamples.SampleConfiguration\", \"sampleService\", " +
+				SAMPLES + "SampleRepository.class)");
+		assertThat(source).contains(".withGenerator(args -> beanFactory.getBean(\"aotSamples.SampleConfiguration\", " +
+				SAMPLES + "SampleConfiguration.class).sampleService((" + SAMPLES + "SampleRepository) args.getObject(0)))");
+		assertThat(source).contains("beanDefinition.setTargetType(ResolvableType.forClass(" + SAMPLES + "SampleService.class));");
+		// Package-private factory method: invoked reflectively
+		assertThat(source).contains("\"hiddenService\", " + SAMPLES + "SampleRepository.class));");
+	}
+
+	@Test
+	void configurationClassesPostProcessedAtRuntime() {
+		String source = generate(SampleConfiguration.class);
+		assertThat(source).doesNotContain("internalConfigurationAnnotationProcessor");
+		assertThat(source).doesNotContain("internalAutowiredAnnotationProcessor");
+		assertThat(source).contains("beanDefinition.setAttribute(" +
+				"\"org.springframework.context.annotation.ConfigurationClassPostProcessor.configurationClass\", \"full\");");
+		assertThat(source).contains("importingClassNames.put(\"" + ImportAwareConfiguration.class.getName() +
+				"\", \"" + SampleConfiguration.class.getName() + "\");");
+		assertThat(source).contains("new ConfigurationClassPostProcessor().postProcessGeneratedBeanFactory(beanFactory, importingClassNames);");
+		assertThat(source).contains("propertySources.register(null, " +
+				"new String[] {\"classpath:org/springframework/context/annotation/p1.properties\"}, false, null, null);");
+	}
+
+	@Test
+	void propertyValues() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		RootBeanDefinition beanDefinition = new RootBeanDefinition(SampleService.class);
+		ManagedList<Object> list = new ManagedList<>();
+		list.add(new RuntimeBeanReference("repository"));
+		list.add("value\n\"quoted\"");
+		beanDefinition.getPropertyValues().add("items", list).add("count", 3L);
+		context.registerBeanDefinition("service", beanDefinition);
+		String source = new ApplicationContextAotGenerator().generateApplicationContextInitializer(context, CLASS_NAME);
+		assertThat(source).contains("beanDefinition.getPropertyValues().add(\"items\", " +
+				"managedList(null, new RuntimeBeanReference(\"repository\"), \"value\\n\\\"quoted\\\"\"));");
+		assertThat(source).contains("beanDefinition.getPropertyValues().add(\"count\", 3L);");
+		assertThat(source).contains("private static ManagedList<Object> managedList(String elementTypeName, Object... elements) {");
+	}
+
+	@Test
+	void unsupportedPropertyValue() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		RootBeanDefinition beanDefinition = new RootBeanDefinition(SampleService.class);
+		beanDefinition.getPropertyValues().add("item", new Object());
+		context.registerBeanDefinition("service", beanDefinition);
+		assertThatIllegalStateException().isThrownBy(() ->
+				new ApplicationContextAotGenerator().generateApplicationContextInitializer(context, CLASS_NAME))
+				.withMessageContaining("property of bean 'service'");
+	}
+
+	@Test
+	void configurationClassWrittenWithDefaultName(@TempDir Path tempDir) throws Exception {
+		Path sourceFile = new ApplicationContextAotGenerator()
+				.generateApplicationContextInitializer(SampleConfiguration.class, tempDir);
+		String className = SampleConfiguration.class.getName() + ApplicationContextAotGenerator.DEFAULT_INITIALIZER_SUFFIX;
+		assertThat(sourceFile).isEqualTo(tempDir.resolve(className.replace('.', '/') + ".java"));
+		assertThat(sourceFile).exists();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void generatedInitializerRestoresContext(@TempDir Path tempDir) throws Exception {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		assumeTrue(compiler != null, "No system Java compiler available");
+
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.register(SampleConfiguration.class, SampleComponent.class);
+		Path sourceFile = new ApplicationContextAotGenerator()
+				.generateApplicationContextInitializer(context, CLASS_NAME, tempDir);
+		int result = compiler.run(null, null, null, "-proc:none", "-classpath", System.getProperty("java.class.path"),
+				"-d", tempDir.toString(), sourceFile.toString());
+		assertThat(result).isEqualTo(0);
+
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[] {tempDir.toUri().toURL()}, getClass().getClassLoader())) {
+			ApplicationContextInitializer<GenericApplicationContext> initializer =
+					(ApplicationContextInitializer<GenericApplicationContext>) classLoader.loadClass(CLASS_NAME).newInstance();
+			GenericApplicationContext runtimeContext = new GenericApplicationContext();
+			initializer.initialize(runtimeContext);
+			runtimeContext.refresh();
+
+			SampleRepository repository = runtimeContext.getBean(SampleRepository.class);
+			assertThat(runtimeContext.getBean(SampleConfiguration.class).getClass().getName())
+					.contains(ClassUtils.CGLIB_CLASS_SEPARATOR);
+			assertThat(runtimeContext.getBean("sampleService", SampleService.class).getRepository()).isSameAs(repository);
+			assertThat(runtimeContext.getBean("directService", SampleService.class).getRepository()).isSameAs(repository);
+			assertThat(runtimeContext.getBean("hiddenService", SampleService.class).getRepository()).isSameAs(repository);
+			SampleComponent component = runtimeContext.getBean(SampleComponent.class);
+			assertThat(component.getRepository()).isSameAs(repository);
+			assertThat(component.getSampleService()).isSameAs(runtimeContext.getBean("sampleService"));
+			assertThat(component.getName()).isEqualTo("p1TestBean");
+			assertThat(component.getEnvironment()).isSameAs(runtimeContext.getEnvironment());
+			assertThat(runtimeContext.getBean(ImportAwareConfiguration.class).getImportMetadata().getClassName())
+					.isEqualTo(SampleConfiguration.class.getName());
+			runtimeContext.close();
+		}
+	}
+
+
+	private static String generate(Class<?>... componentClasses) {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.register(componentClasses);
+		return new ApplicationContextAotGenerator().generateApplicationContextInitializer(context, CLASS_NAME);
+	}
+
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.aot;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.beans.factory.support.ManagedList;
+import org.springframework.beans.factory.support.ManagedMap;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.beans.testfixture.beans.TestBean;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigUtils;
+import org.springframework.context.aot.AotSamples.ImportAwareConfiguration;
+import org.springframework.context.aot.AotSamples.SampleComponent;
+import org.springframework.context.aot.AotSamples.SampleConfiguration;
+import org.springframework.context.aot.AotSamples.SampleRepository;
+import org.springframework.context.aot.AotSamples.SampleService;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.util.ClassUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link BeanFactorySnapshot}.
+ *
+ * @since 5.2.9
+ */
+class BeanFactorySnapshotTests {
+
+	@Test
+	void snapshotRestoresContext(@TempDir Path tempDir) throws Exception {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.register(SampleConfiguration.class, SampleComponent.class);
+		context.refresh();
+		Path file = tempDir.resolve("context.snapshot");
+		BeanFactorySnapshot.capture(context).writeTo(file);
+		context.close();
+
+		BeanFactorySnapshot snapshot = BeanFactorySnapshot.load(file, getClass().getClassLoader());
+		assertThat(snapshot).isNotNull();
+		GenericApplicationContext restoredContext = new GenericApplicationContext();
+		snapshot.restore(restoredContext);
+		assertThat(restoredContext.containsBeanDefinition(
+				AnnotationConfigUtils.CONFIGURATION_ANNOTATION_PROCESSOR_BEAN_NAME)).isFalse();
+		restoredContext.refresh();
+
+		SampleRepository repository = restoredContext.getBean(SampleRepository.class);
+		assertThat(restoredContext.getBean(SampleConfiguration.class).getClass().getName())
+				.contains(ClassUtils.CGLIB_CLASS_SEPARATOR);
+		assertThat(restoredContext.getBean("sampleService", SampleService.class).getRepository()).isSameAs(repository);
+		assertThat(restoredContext.getBean("directService", SampleService.class).getRepository()).isSameAs(repository);
+		assertThat(restoredContext.getBean("hiddenService", SampleService.class).getRepository()).isSameAs(repository);
+		SampleComponent component = restoredContext.getBean(SampleComponent.class);
+		assertThat(component.getRepository()).isSameAs(repository);
+		assertThat(component.getSampleService()).isSameAs(restoredContext.getBean("sampleService"));
+		assertThat(component.getName()).isEqualTo("p1TestBean");
+		assertThat(component.getEnvironment()).isSameAs(restoredContext.getEnvironment());
+		assertThat(restoredContext.getBean(ImportAwareConfiguration.class).getImportMetadata().getClassName())
+				.isEqualTo(SampleConfiguration.class.getName());
+		restoredContext.close();
+	}
+
+	@Test
+	void snapshotRestoresIntoAnnotationConfigContext() throws Exception {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.register(SampleConfiguration.class);
+		context.refresh();
+		BeanFactorySnapshot snapshot = roundTrip(BeanFactorySnapshot.capture(context));
+		context.close();
+
+		AnnotationConfigApplicationContext restoredContext = new AnnotationConfigApplicationContext();
+		snapshot.restore(restoredContext);
+		restoredContext.refresh();
+		assertThat(restoredContext.getBean("sampleService", SampleService.class).getRepository())
+				.isSameAs(restoredContext.getBean(SampleRepository.class));
+		restoredContext.close();
+	}
+
+	@Test
+	void snapshotRestoresPropertyValues() throws Exception {
+		GenericApplicationContext context = new GenericApplicationContext();
+		RootBeanDefinition spouse = new RootBeanDefinition(TestBean.class);
+		spouse.getPropertyValues().add("name", new TypedStringValue("kerry"));
+		context.registerBeanDefinition("spouse", spouse);
+		context.registerAlias("spouse", "partner");
+		RootBeanDefinition tb = new RootBeanDefinition(TestBean.class);
+		tb.getConstructorArgumentValues().addIndexedArgumentValue(0, "tom");
+		tb.getConstructorArgumentValues().addIndexedArgumentValue(1, 42);
+		ManagedList<Object> friends = new ManagedList<>();
+		friends.add(new RuntimeBeanReference("partner"));
+		friends.add(new RootBeanDefinition(TestBean.class));
+		ManagedMap<Object, Object> someMap = new ManagedMap<>();
+		someMap.put("key", new TypedStringValue("value"));
+		tb.getPropertyValues().add("friends", friends).add("someMap", someMap).add("spouse", new RuntimeBeanReference("spouse"));
+		tb.setLazyInit(true);
+		tb.setPrimary(true);
+		tb.setDependsOn("spouse");
+		context.registerBeanDefinition("tb", tb);
+		context.refresh();
+		BeanFactorySnapshot snapshot = roundTrip(BeanFactorySnapshot.capture(context));
+		context.close();
+
+		GenericApplicationContext restoredContext = new GenericApplicationContext();
+		snapshot.restore(restoredContext);
+		restoredContext.refresh();
+		assertThat(restoredContext.getAliases("spouse")).containsExactly("partner");
+		RootBeanDefinition restoredTb = (RootBeanDefinition) restoredContext.getBeanDefinition("tb");
+		assertThat(restoredTb.isLazyInit()).isTrue();
+		assertThat(restoredTb.isPrimary()).isTrue();
+		assertThat(restoredTb.getDependsOn()).containsExactly("spouse");
+		assertThat(restoredContext.getBeanFactory().containsSingleton("tb")).isFalse();
+		TestBean bean = restoredContext.getBean("tb", TestBean.class);
+		assertThat(bean.getName()).isEqualTo("tom");
+		assertThat(bean.getAge()).isEqualTo(42);
+		assertThat(bean.getSpouse()).isSameAs(restoredContext.getBean("spouse"));
+		assertThat(bean.getSpouse().getName()).isEqualTo("kerry");
+		assertThat(bean.getFriends()).hasSize(2);
+		assertThat(((List<?>) bean.getFriends()).get(0)).isSameAs(bean.getSpouse());
+		assertThat(bean.getSomeMap().get("key")).isEqualTo("value");
+		restoredContext.close();
+	}
+
+	@Test
+	void snapshotIgnoredForDifferentClasspath(@TempDir Path tempDir) throws Exception {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.registerBeanDefinition("repository", new RootBeanDefinition(SampleRepository.class));
+		context.refresh();
+		Path file = tempDir.resolve("context.snapshot");
+		BeanFactorySnapshot snapshot = BeanFactorySnapshot.capture(context);
+		snapshot.writeTo(file);
+		context.close();
+
+		assertThat(snapshot.matchesClasspath(getClass().getClassLoader())).isTrue();
+		Path extraEntry = Files.createDirectory(tempDir.resolve("classes"));
+		try (URLClassLoader classLoader = new URLClassLoader(
+				new URL[] {extraEntry.toUri().toURL()}, getClass().getClassLoader())) {
+			assertThat(snapshot.matchesClasspath(classLoader)).isFalse();
+			assertThat(BeanFactorySnapshot.load(file, classLoader)).isNull();
+			Files.write(extraEntry.resolve("Sample.class"), new byte[] {1, 2, 3});
+			assertThat(BeanFactorySnapshot.computeClasspathFingerprint(classLoader))
+					.isNotEqualTo(BeanFactorySnapshot.computeClasspathFingerprint(classLoader.getParent()));
+		}
+	}
+
+	@Test
+	void missingOrCorruptSnapshotIgnored(@TempDir Path tempDir) throws Exception {
+		Path file = tempDir.resolve("context.snapshot");
+		assertThat(BeanFactorySnapshot.load(file, getClass().getClassLoader())).isNull();
+		Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+		assertThat(BeanFactorySnapshot.load(file, getClass().getClassLoader())).isNull();
+	}
+
+	@Test
+	void instanceSupplierNotSupported() {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.registerBean("repository", SampleRepository.class, SampleRepository::new);
+		context.refresh();
+		assertThatIllegalStateException().isThrownBy(() -> BeanFactorySnapshot.capture(context))
+				.withMessageContaining("'repository'");
+		context.close();
+	}
+
+	@Test
+	void captureRequiresRefreshedContext() {
+		assertThatIllegalStateException().isThrownBy(() ->
+				BeanFactorySnapshot.capture(new GenericApplicationContext()));
+	}
+
+
+	private static BeanFactorySnapshot roundTrip(BeanFactorySnapshot snapshot) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		snapshot.writeTo(out);
+		return BeanFactorySnapshot.readFrom(new ByteArrayInputStream(out.toByteArray()));
+	}
+
+}
@@ -63,6 +63,7 @@ import org.springframework.context.event.test.TestEvent;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
 import org.springframework.core.annotation.AliasFor;
 import org.springframework.core.annotation.Order;
+import org.springframework.expression.spel.standard.SpelExpressionCache;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.stereotype.Component;
@@ -581,6 +582,19 @@ public class AnnotationDrivenEventListenerTests {
 		this.eventCollector.assertTotalEventsCount(4);
 	}
 
+	@Test
+	public void conditionMatchWithExpressionCache() {
+		load(ConditionalEventListener.class, SpelExpressionCache.class);
+		SpelExpressionCache expressionCache = this.context.getBean(SpelExpressionCache.class);
+		TestEventListener listener = this.context.getBean(ConditionalEventListener.class);
+
+		this.context.publishEvent("OK");
+		this.context.publishEvent("NOT OK");
+		this.eventCollector.assertEvent(listener, "OK");
+		this.eventCollector.assertTotalEventsCount(1);
+		assertThat(expressionCache.size()).isEqualTo(1);
+	}
+
 	@Test
 	public void conditionDoesNotMatch() {
 		long maxLong = Long.MAX_VALUE;
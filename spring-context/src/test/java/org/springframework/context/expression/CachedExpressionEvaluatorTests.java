@@ -23,6 +23,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionCache;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.util.ReflectionUtils;
 
@@ -66,6 +67,20 @@ public class CachedExpressionEvaluatorTests {
 		assertThat(expressionEvaluator.testCache.size()).as("Cached expression should be based on type").isEqualTo(2);
 	}
 
+	@Test
+	public void expressionCacheDoesNotPinExpressions() {
+		Method method = ReflectionUtils.findMethod(getClass(), "toString");
+		SpelExpressionCache expressionCache = new SpelExpressionCache(1, 10, null);
+		TestExpressionEvaluator evaluator = new TestExpressionEvaluator(expressionCache);
+
+		Expression expression = evaluator.getTestExpression("true", method, getClass());
+		assertThat(evaluator.getTestExpression("true", method, Object.class)).isSameAs(expression);
+		assertThat(evaluator.testCache).as("Expression should only be in shared cache").isEmpty();
+
+		evaluator.getTestExpression("false", method, getClass());
+		assertThat(evaluator.getTestExpression("true", method, getClass())).isNotSameAs(expression);
+	}
+
 	private void hasParsedExpression(String expression) {
 		verify(expressionEvaluator.getParser(), times(1)).parseExpression(expression);
 	}
@@ -78,6 +93,10 @@ public class CachedExpressionEvaluatorTests {
 			super(mockSpelExpressionParser());
 		}
 
+		public TestExpressionEvaluator(SpelExpressionCache expressionCache) {
+			super(expressionCache);
+		}
+
 		public Expression getTestExpression(String expression, Method method, Class<?> type) {
 			return getExpression(this.testCache, new AnnotatedElementKey(method, type), expression);
 		}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import example.scannable.FooServiceImpl;
+import example.scannable.sub.BarComponent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
+import org.springframework.core.type.classreading.ClassMetadataIndex;
+import org.springframework.core.type.classreading.ClassMetadataIndexLoader;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.util.ClassUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ClassMetadataIndexGenerator}.
+ *
+ * @since 5.2.9
+ */
+class ClassMetadataIndexGeneratorTests {
+
+	@Test
+	void scanWithGeneratedIndex(@TempDir Path tempDir) throws Exception {
+		Path testClasses = new ClassPathResource("example/scannable").getFile().toPath();
+		Path classesDirectory = tempDir.resolve("classes");
+		List<Path> classFiles = copyClassFiles(testClasses, classesDirectory.resolve("example/scannable"));
+
+		URL[] urls = new URL[] {classesDirectory.toUri().toURL()};
+		ClassMetadataIndexGenerator generator;
+		try (URLClassLoader classLoader = new URLClassLoader(urls, getClass().getClassLoader())) {
+			generator = new ClassMetadataIndexGenerator(classesDirectory, classLoader);
+			generator.addExcludeFilter(new AssignableTypeFilter(BarComponent.class));
+			generator.scan("example.scannable", "org.springframework.context.index");
+			// Same classes in the test classes directory not indexed, neither is this test class
+			assertThat(generator.getClassCount()).isEqualTo(classFiles.size() - 1);
+			Path indexFile = generator.write();
+			assertThat(indexFile).isEqualTo(classesDirectory.resolve(ClassMetadataIndexLoader.METADATA_RESOURCE_LOCATION));
+		}
+
+		try (URLClassLoader classLoader = new URLClassLoader(urls, getClass().getClassLoader())) {
+			ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
+			provider.setResourceLoader(new DefaultResourceLoader(classLoader));
+			ClassMetadataIndex index = ((CachingMetadataReaderFactory) provider.getMetadataReaderFactory()).getMetadataIndex();
+			assertThat(index).isNotNull();
+			assertThat(index.size()).isEqualTo(generator.getClassCount());
+			assertThat(index.containsClass(FooServiceImpl.class.getName())).isTrue();
+			assertThat(index.containsClass(BarComponent.class.getName())).isFalse();
+			assertThat(index.containsClass(getClass().getName())).isFalse();
+			String fooPath = "example/scannable/" + ClassUtils.getClassFileName(FooServiceImpl.class);
+			assertThat(index.getMetadataReader(new FileSystemResource(classesDirectory.resolve(fooPath)))).isNotNull();
+			assertThat(index.getMetadataReader(new FileSystemResource(testClasses.resolve(
+					ClassUtils.getClassFileName(FooServiceImpl.class))))).isNull();
+
+			ClassPathScanningCandidateComponentProvider regularProvider = new ClassPathScanningCandidateComponentProvider(true);
+			assertThat(beanClassNames(provider.findCandidateComponents("example.scannable")))
+					.isEqualTo(beanClassNames(regularProvider.findCandidateComponents("example.scannable")));
+		}
+	}
+
+
+	private static List<Path> copyClassFiles(Path sourceDirectory, Path targetDirectory) throws IOException {
+		List<Path> classFiles = new ArrayList<>();
+		try (Stream<Path> paths = Files.walk(sourceDirectory)) {
+			for (Path path : (Iterable<Path>) paths::iterator) {
+				if (path.toString().endsWith(ClassUtils.CLASS_FILE_SUFFIX)) {
+					Path target = targetDirectory.resolve(sourceDirectory.relativize(path).toString());
+					Files.createDirectories(target.getParent());
+					classFiles.add(Files.copy(path, target));
+				}
+			}
+		}
+		return classFiles;
+	}
+
+	private static Set<String> beanClassNames(Set<BeanDefinition> beanDefinitions) {
+		return beanDefinitions.stream().map(BeanDefinition::getBeanClassName).collect(Collectors.toSet());
+	}
+
+}
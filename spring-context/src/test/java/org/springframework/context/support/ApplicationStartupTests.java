@@ -0,0 +1,108 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.support;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.context.ApplicationStartupAware;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.BufferingApplicationStartup;
+import org.springframework.core.metrics.BufferingApplicationStartup.RecordedStep;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ApplicationStartup} instrumentation of the application context refresh.
+ */
+class ApplicationStartupTests {
+
+	@Test
+	void refreshRecordsContextAndBeanSteps() {
+		BufferingApplicationStartup startup = new BufferingApplicationStartup(100);
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.setApplicationStartup(startup);
+		context.register(StartupConfig.class);
+		context.refresh();
+
+		List<RecordedStep> steps = startup.getBufferedSteps();
+		assertThat(steps).extracting(RecordedStep::getName).contains(
+				"spring.context.component-classes.register", "spring.context.refresh",
+				"spring.context.beans.post-process", "spring.context.beandef-registry.post-process",
+				"spring.context.bean-factory.post-process", "spring.context.config-classes.parse",
+				"spring.context.config-classes.enhance", "spring.beans.instantiate");
+		RecordedStep refresh = steps.stream()
+				.filter(step -> step.getName().equals("spring.context.refresh")).findFirst().get();
+		RecordedStep dependent = steps.stream()
+				.filter(step -> step.getStackPath().endsWith("[beanName=dependent]")).findFirst().get();
+		assertThat(dependent.getStackPath()).startsWith("spring.context.refresh;");
+		assertThat(steps.stream().anyMatch(step -> step.getStackPath().endsWith(
+				"[beanName=dependent];spring.beans.instantiate[beanName=dependency]"))).isTrue();
+		assertThat(refresh.getDuration()).isGreaterThanOrEqualTo(dependent.getDuration());
+		context.close();
+	}
+
+	@Test
+	void applicationStartupIsExposedToBeans() {
+		BufferingApplicationStartup startup = new BufferingApplicationStartup(100);
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.setApplicationStartup(startup);
+		context.register(StartupConfig.class);
+		context.refresh();
+
+		assertThat(context.getBeanFactory().getApplicationStartup()).isSameAs(startup);
+		assertThat(context.getBean(ApplicationStartup.class)).isSameAs(startup);
+		assertThat(context.getBean(StartupAwareBean.class).applicationStartup).isSameAs(startup);
+		context.close();
+	}
+
+
+	@Configuration
+	static class StartupConfig {
+
+		@Bean
+		public String dependent(Object dependency) {
+			return dependency.toString();
+		}
+
+		@Bean
+		public Object dependency() {
+			return new Object();
+		}
+
+		@Bean
+		public StartupAwareBean startupAwareBean() {
+			return new StartupAwareBean();
+		}
+	}
+
+
+	static class StartupAwareBean implements ApplicationStartupAware {
+
+		ApplicationStartup applicationStartup;
+
+		@Override
+		public void setApplicationStartup(ApplicationStartup applicationStartup) {
+			this.applicationStartup = applicationStartup;
+		}
+	}
+
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.beans.testfixture.beans.TestBean;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.lang.Nullable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for lazy initialization of an application context
+ * with a {@link BackgroundSingletonInitializer}.
+ *
+ * @since 5.2.9
+ */
+class BackgroundSingletonInitializerTests {
+
+	@Test
+	void singletonsInitializedAfterRefresh() {
+		List<Runnable> tasks = new ArrayList<>();
+		GenericApplicationContext context = createContext(tasks::add);
+		context.refresh();
+
+		BackgroundSingletonInitializer initializer = context.getBackgroundSingletonInitializer();
+		assertThat(initializer).isNotNull();
+		assertThat(initializer.isRunning()).isTrue();
+		assertThat(tasks).hasSize(1);
+		assertThat(context.getBeanFactory().containsSingleton("dependent")).isFalse();
+		assertThat(context.getBeanFactory().containsSingleton("dependency")).isFalse();
+		assertThat(context.getBeanFactory().containsSingleton("eager")).isTrue();
+		assertThat(context.getBean("lifecycle", TestLifecycle.class).isRunning()).isTrue();
+
+		tasks.get(0).run();
+		assertThat(initializer.isCompleted()).isTrue();
+		assertThat(initializer.getSingletonCount()).isEqualTo(2);
+		assertThat(initializer.getInitializedCount()).isEqualTo(2);
+		assertThat(initializer.getFailedCount()).isEqualTo(0);
+		assertThat(context.getBeanFactory().containsSingleton("dependent")).isTrue();
+		assertThat(context.getBeanFactory().containsSingleton("dependency")).isTrue();
+		assertThat(context.getBeanFactory().containsSingleton("lazy")).isFalse();
+		assertThat(context.getBean("dependent", TestBean.class).getSpouse()).isSameAs(context.getBean("dependency"));
+		context.close();
+	}
+
+	@Test
+	void singletonsInitializedOnBackgroundThread() throws InterruptedException {
+		GenericApplicationContext context = createContext(null);
+		context.refresh();
+
+		BackgroundSingletonInitializer initializer = context.getBackgroundSingletonInitializer();
+		assertThat(initializer.awaitCompletion(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(initializer.getInitializedCount()).isEqualTo(2);
+		assertThat(context.getBeanFactory().containsSingleton("dependent")).isTrue();
+		context.close();
+	}
+
+	@Test
+	void failedSingletonSkipped() {
+		List<Runnable> tasks = new ArrayList<>();
+		GenericApplicationContext context = createContext(tasks::add);
+		context.registerBeanDefinition("failing", new RootBeanDefinition(FailingBean.class));
+		context.refresh();
+
+		BackgroundSingletonInitializer initializer = context.getBackgroundSingletonInitializer();
+		tasks.get(0).run();
+		assertThat(initializer.getSingletonCount()).isEqualTo(3);
+		assertThat(initializer.getInitializedCount()).isEqualTo(3);
+		assertThat(initializer.getFailedCount()).isEqualTo(1);
+		assertThat(context.getBeanFactory().containsSingleton("dependent")).isTrue();
+		context.close();
+	}
+
+	@Test
+	void stoppedOnClose() {
+		List<Runnable> tasks = new ArrayList<>();
+		GenericApplicationContext context = createContext(tasks::add);
+		context.refresh();
+
+		BackgroundSingletonInitializer initializer = context.getBackgroundSingletonInitializer();
+		TestLifecycle lifecycle = context.getBean("lifecycle", TestLifecycle.class);
+		context.close();
+		assertThat(initializer.isRunning()).isFalse();
+		assertThat(lifecycle.isRunning()).isFalse();
+
+		tasks.get(0).run();
+		assertThat(initializer.isCompleted()).isTrue();
+		assertThat(initializer.getInitializedCount()).isEqualTo(0);
+		assertThat(context.getBeanFactory().containsSingleton("dependent")).isFalse();
+	}
+
+	@Test
+	void noBackgroundInitializationByDefault() {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.registerBeanDefinition("dependency", new RootBeanDefinition(TestBean.class));
+		context.refresh();
+
+		assertThat(context.getBackgroundSingletonInitializer()).isNull();
+		assertThat(context.containsBean(AbstractApplicationContext.BACKGROUND_SINGLETON_INITIALIZER_BEAN_NAME)).isFalse();
+		assertThat(context.getBeanFactory().containsSingleton("dependency")).isTrue();
+		context.close();
+	}
+
+
+	private static GenericApplicationContext createContext(@Nullable Executor executor) {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.setLazyInitialization(true);
+		context.setBackgroundInitializationExecutor(executor);
+		RootBeanDefinition dependent = new RootBeanDefinition(TestBean.class);
+		dependent.getPropertyValues().add("spouse", new RuntimeBeanReference("dependency"));
+		context.registerBeanDefinition("dependent", dependent);
+		context.registerBeanDefinition("dependency", new RootBeanDefinition(TestBean.class));
+		RootBeanDefinition eager = new RootBeanDefinition(TestBean.class);
+		eager.setLazyInit(false);
+		context.registerBeanDefinition("eager", eager);
+		RootBeanDefinition lazy = new RootBeanDefinition(TestBean.class);
+		lazy.setLazyInit(true);
+		context.registerBeanDefinition("lazy", lazy);
+		RootBeanDefinition lifecycle = new RootBeanDefinition(TestLifecycle.class);
+		lifecycle.setLazyInit(true);
+		context.registerBeanDefinition("lifecycle", lifecycle);
+		return context;
+	}
+
+
+	public static class TestLifecycle implements SmartLifecycle {
+
+		private volatile boolean running;
+
+		@Override
+		public void start() {
+			this.running = true;
+		}
+
+		@Override
+		public void stop() {
+			this.running = false;
+		}
+
+		@Override
+		public boolean isRunning() {
+			return this.running;
+		}
+	}
+
+
+	public static class FailingBean {
+
+		public FailingBean() {
+			throw new IllegalStateException("Expected failure");
+		}
+	}
+
+}
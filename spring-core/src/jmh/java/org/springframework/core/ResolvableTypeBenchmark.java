@@ -0,0 +1,104 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark for common {@link ResolvableType} operations as performed during
+ * generic autowiring and codec selection: creating types for fields, method
+ * parameters and classes with generics, and checking generic assignability.
+ * <p>Typically run with {@code "./gradlew :spring-core:jmh -PbenchmarkInclude=ResolvableTypeBenchmark -PbenchmarkProfilers=gc"}
+ * in order to report allocation rates alongside throughput.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class ResolvableTypeBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		public Field field;
+
+		public MethodParameter methodParameter;
+
+		public ResolvableType stringListType;
+
+		public ResolvableType arrayListType;
+
+		@Setup(Level.Trial)
+		public void setup() throws Exception {
+			this.field = Holder.class.getField("map");
+			Method method = Holder.class.getMethod("handle", List.class);
+			this.methodParameter = new MethodParameter(method, 0);
+			this.stringListType = ResolvableType.forClassWithGenerics(List.class, String.class);
+			this.arrayListType = ResolvableType.forField(Holder.class.getField("list"));
+		}
+	}
+
+
+	@Benchmark
+	public void forField(BenchmarkState state, Blackhole bh) {
+		ResolvableType type = ResolvableType.forField(state.field);
+		bh.consume(type.getGeneric(1).resolve());
+	}
+
+	@Benchmark
+	public void forMethodParameter(BenchmarkState state, Blackhole bh) {
+		ResolvableType type = ResolvableType.forMethodParameter(state.methodParameter);
+		bh.consume(type.getGeneric().resolve());
+	}
+
+	@Benchmark
+	public Object forClassWithGenerics() {
+		return ResolvableType.forClassWithGenerics(Map.class, String.class, Integer.class);
+	}
+
+	@Benchmark
+	public boolean isAssignableFrom(BenchmarkState state) {
+		return state.stringListType.isAssignableFrom(state.arrayListType);
+	}
+
+	@Benchmark
+	public Object asCollection(BenchmarkState state) {
+		return state.arrayListType.asCollection().getGeneric().resolve();
+	}
+
+
+	public static class Holder {
+
+		public Map<String, List<Integer>> map;
+
+		public ArrayList<String> list;
+
+		public void handle(List<String> list) {
+		}
+	}
+
+}
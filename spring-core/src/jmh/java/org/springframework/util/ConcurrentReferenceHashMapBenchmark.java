@@ -0,0 +1,114 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Benchmark for concurrent cache-style access to a {@link ConcurrentReferenceHashMap}
+ * from 8 threads, compared against a {@link ConcurrentHashMap}: lookups of existing
+ * keys, lookups with insertion on a miss, and updates of a hot key range.
+ * <p>Typically run with {@code "./gradlew :spring-core:jmh -PbenchmarkInclude=ConcurrentReferenceHashMapBenchmark"}.
+ * For a comparison with the lock-based implementation of previous versions,
+ * run the same benchmark against a build of the previous revision.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Threads(8)
+public class ConcurrentReferenceHashMapBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"ConcurrentReferenceHashMap", "ConcurrentHashMap"})
+		public String mapType;
+
+		@Param({"1024", "65536"})
+		public int keyCount;
+
+		public Map<Integer, Object> map;
+
+		public Integer[] keys;
+
+		@Setup(Level.Iteration)
+		public void setup() {
+			this.map = ("ConcurrentHashMap".equals(this.mapType) ?
+					new ConcurrentHashMap<>() : new ConcurrentReferenceHashMap<>());
+			this.keys = new Integer[this.keyCount * 2];
+			for (int i = 0; i < this.keys.length; i++) {
+				this.keys[i] = i;
+			}
+			for (int i = 0; i < this.keyCount; i++) {
+				this.map.put(this.keys[i], new Object());
+			}
+		}
+
+		Integer existingKey() {
+			return this.keys[ThreadLocalRandom.current().nextInt(this.keyCount)];
+		}
+
+		Integer anyKey() {
+			return this.keys[ThreadLocalRandom.current().nextInt(this.keys.length)];
+		}
+	}
+
+
+	@Benchmark
+	public Object get(BenchmarkState state) {
+		return state.map.get(state.existingKey());
+	}
+
+	@Benchmark
+	public Object getOrPutIfAbsent(BenchmarkState state) {
+		Integer key = state.anyKey();
+		Object value = state.map.get(key);
+		if (value == null) {
+			value = new Object();
+			Object existing = state.map.putIfAbsent(key, value);
+			if (existing != null) {
+				value = existing;
+			}
+		}
+		return value;
+	}
+
+	@Benchmark
+	public Object put(BenchmarkState state) {
+		return state.map.put(state.anyKey(), Boolean.TRUE);
+	}
+
+	@Benchmark
+	public Object mixedWithRemove(BenchmarkState state) {
+		Integer key = state.anyKey();
+		if (key % 16 == 0) {
+			return state.map.remove(key);
+		}
+		return state.map.putIfAbsent(key, Boolean.TRUE);
+	}
+
+}
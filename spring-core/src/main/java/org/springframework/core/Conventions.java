@@ -21,7 +21,6 @@ import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 
 import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
 import java.util.Collection;
 import java.util.Iterator;
 
@@ -272,7 +271,7 @@ public final class Conventions {
 	 */
 	private static Class<?> getClassForValue(Object value) {
 		Class<?> valueClass = value.getClass();
-		if (Proxy.isProxyClass(valueClass)) {
+		if (ClassUtils.isInterfaceProxyClass(valueClass)) {
 			Class<?>[] ifcs = valueClass.getInterfaces();
 			for (Class<?> ifc : ifcs) {
 				if (!ClassUtils.isJavaLanguageInterface(ifc)) {
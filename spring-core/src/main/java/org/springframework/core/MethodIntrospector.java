@@ -21,7 +21,6 @@ import org.springframework.util.ClassUtils;
 import org.springframework.util.ReflectionUtils;
 
 import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
@@ -61,7 +60,7 @@ public final class MethodIntrospector {
 		Class<?> specificHandlerType = null;
 
 		// 判断是不是代理类
-		if (!Proxy.isProxyClass(targetType)) {
+		if (!ClassUtils.isInterfaceProxyClass(targetType)) {
 			/* 不是代理类 */
 
 			specificHandlerType = ClassUtils.getUserClass(targetType);
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * Cache of reusable {@link Invoker invokers} for reflective method invocation,
+ * keyed by {@link Method}: backed by a pre-adapted {@link MethodHandle} which
+ * avoids the per-call access and argument checks of {@link Method#invoke}.
+ *
+ * <p>Invokers follow the exception contract of {@link Method#invoke}, so they
+ * can be used as a drop-in replacement for existing reflective invocation code:
+ * exceptions thrown by the invoked method are wrapped in an
+ * {@link InvocationTargetException}, and arguments or targets of the wrong type
+ * lead to an {@link IllegalArgumentException}.
+ *
+ * <p>Invokers are cached per method and accessibility: an accessible
+ * {@code Method} (e.g. through
+ * {@link org.springframework.util.ReflectionUtils#makeAccessible(Method)})
+ * shares its invoker with other accessible copies of the same method only,
+ * whereas a non-accessible {@code Method} is only adapted if it is a public
+ * method of a public class. Any other method is invoked through the given
+ * {@code Method} instance itself, with the regular reflective access checks.
+ *
+ * <p>Mainly for internal use within the framework.
+ *
+ * @since 5.2.9
+ * @see #getInvoker(Method)
+ */
+public abstract class MethodInvokerCache {
+
+	/**
+	 * System property that instructs Spring to ignore {@code MethodHandle}-based
+	 * invocation, i.e. to always invoke methods through regular reflection.
+	 * <p>The default is "false". Consider switching this flag to "true" if you
+	 * encounter behavioral differences with reflective invocation on your JVM.
+	 */
+	public static final String IGNORE_METHOD_HANDLES_PROPERTY_NAME = "spring.methodhandles.ignore";
+
+	private static final boolean shouldIgnoreMethodHandles =
+			SpringProperties.getFlag(IGNORE_METHOD_HANDLES_PROPERTY_NAME);
+
+	private static final MethodHandle wrapTargetExceptionHandle;
+
+	static {
+		try {
+			wrapTargetExceptionHandle = MethodHandles.lookup().findStatic(MethodInvokerCache.class,
+					"wrapTargetException", MethodType.methodType(Object.class, Throwable.class));
+		}
+		catch (NoSuchMethodException | IllegalAccessException ex) {
+			throw new IllegalStateException("Failed to initialize MethodInvokerCache", ex);
+		}
+	}
+
+	/** Invokers for accessible methods, created with access checks suppressed. */
+	private static final Map<Method, Invoker> accessibleInvokerCache = new ConcurrentReferenceHashMap<>(256);
+
+	/** Invokers for public methods of public classes, created with regular access checks. */
+	private static final Map<Method, Invoker> publicInvokerCache = new ConcurrentReferenceHashMap<>(256);
+
+
+	/**
+	 * Return a cached invoker for the given method, creating it if necessary.
+	 * <p>Methods that cannot be adapted for the accessibility of the given
+	 * {@code Method} instance get an uncached invoker delegating to
+	 * {@link Method#invoke} on that very instance.
+	 * @param method the method to invoke (accessible, if not public)
+	 * @return the corresponding invoker (never {@code null})
+	 */
+	@SuppressWarnings("deprecation")  // on JDK 9
+	public static Invoker getInvoker(Method method) {
+		Assert.notNull(method, "Method must not be null");
+		if (shouldIgnoreMethodHandles) {
+			return method::invoke;
+		}
+		boolean accessible = method.isAccessible();
+		if (!accessible && (!Modifier.isPublic(method.getModifiers()) ||
+				!Modifier.isPublic(method.getDeclaringClass().getModifiers()))) {
+			// Let reflection perform the regular access checks for the caller's own Method
+			return method::invoke;
+		}
+		Map<Method, Invoker> invokerCache = (accessible ? accessibleInvokerCache : publicInvokerCache);
+		Invoker invoker = invokerCache.get(method);
+		if (invoker == null) {
+			MethodHandle handle = adaptMethod(method, accessible);
+			if (handle == null) {
+				return method::invoke;
+			}
+			invoker = new MethodHandleInvoker(method, handle, Modifier.isStatic(method.getModifiers()));
+			Invoker existing = invokerCache.putIfAbsent(method, invoker);
+			if (existing != null) {
+				invoker = existing;
+			}
+		}
+		return invoker;
+	}
+
+	/**
+	 * Clear the internal invoker cache.
+	 */
+	public static void clearCache() {
+		accessibleInvokerCache.clear();
+		publicInvokerCache.clear();
+	}
+
+	/**
+	 * Adapt the given method to a spreading {@code (Object, Object[])Object} handle.
+	 * @param method the method to adapt
+	 * @param accessible whether the method is accessible, i.e. whether access
+	 * checks are suppressed for it (otherwise only public access is granted)
+	 * @return the adapted handle, or {@code null} if not accessible
+	 */
+	@Nullable
+	private static MethodHandle adaptMethod(Method method, boolean accessible) {
+		MethodHandle handle;
+		try {
+			MethodHandles.Lookup lookup = (accessible ? MethodHandles.lookup() : MethodHandles.publicLookup());
+			handle = lookup.unreflect(method).asFixedArity();
+		}
+		catch (IllegalAccessException ex) {
+			return null;
+		}
+		// Wrap any exception thrown by the method itself, before argument conversion gets applied
+		MethodType type = handle.type();
+		MethodHandle handler = MethodHandles.dropArguments(
+				wrapTargetExceptionHandle.asType(MethodType.methodType(type.returnType(), Throwable.class)),
+				1, type.parameterList());
+		handle = MethodHandles.catchException(handle, Throwable.class, handler);
+		if (Modifier.isStatic(method.getModifiers())) {
+			handle = MethodHandles.dropArguments(handle, 0, Object.class);
+		}
+		int parameterCount = method.getParameterCount();
+		return handle.asType(MethodType.genericMethodType(parameterCount + 1))
+				.asSpreader(Object[].class, parameterCount);
+	}
+
+	@SuppressWarnings("unused")
+	private static Object wrapTargetException(Throwable ex) throws InvocationTargetException {
+		throw new InvocationTargetException(ex);
+	}
+
+
+	/**
+	 * Strategy interface for invoking a specific method, with the same
+	 * semantics as {@link Method#invoke(Object, Object...)}.
+	 */
+	@FunctionalInterface
+	public interface Invoker {
+
+		/**
+		 * Invoke the method on the given target with the given arguments.
+		 * @param target the target object to invoke the method on
+		 * (may be {@code null} for a static method)
+		 * @param args the invocation arguments (may be {@code null} for none)
+		 * @return the invocation result, if any
+		 * @throws IllegalAccessException if the method is not accessible
+		 * @throws IllegalArgumentException if the target or the arguments do not match
+		 * @throws InvocationTargetException if the invoked method threw an exception
+		 * @see Method#invoke(Object, Object...)
+		 */
+		@Nullable
+		Object invoke(@Nullable Object target, @Nullable Object... args)
+				throws IllegalAccessException, InvocationTargetException;
+	}
+
+
+	/**
+	 * {@link Invoker} implementation for a spreading {@link MethodHandle} of
+	 * type {@code (Object, Object[])Object}.
+	 */
+	private static class MethodHandleInvoker implements Invoker {
+
+		private static final Object[] EMPTY_ARGS = new Object[0];
+
+		private final Method method;
+
+		private final MethodHandle handle;
+
+		private final boolean isStatic;
+
+		MethodHandleInvoker(Method method, MethodHandle handle, boolean isStatic) {
+			this.method = method;
+			this.handle = handle;
+			this.isStatic = isStatic;
+		}
+
+		@Override
+		@Nullable
+		public Object invoke(@Nullable Object target, @Nullable Object... args) throws InvocationTargetException {
+			if (target == null && !this.isStatic) {
+				throw new NullPointerException("Target must not be null for non-static method: " + this.method);
+			}
+			Object[] argsToUse = (args != null ? args : EMPTY_ARGS);
+			if (argsToUse.length != this.method.getParameterCount()) {
+				throw new IllegalArgumentException("wrong number of arguments");
+			}
+			try {
+				return (Object) this.handle.invokeExact(target, argsToUse);
+			}
+			catch (InvocationTargetException ex) {
+				throw ex;
+			}
+			catch (ClassCastException | NullPointerException | WrongMethodTypeException ex) {
+				// Target or argument conversion failed - exceptions from the method
+				// itself would have been wrapped in an InvocationTargetException
+				throw new IllegalArgumentException(
+						(this.isStatic ? "argument type mismatch" : "object is not an instance of declaring " +
+								"class or argument type mismatch") + ": " + ex.getMessage(), ex);
+			}
+			catch (RuntimeException | Error ex) {
+				throw ex;
+			}
+			catch (Throwable ex) {
+				throw new IllegalStateException("Unexpected invocation failure: " + this.method, ex);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "MethodHandleInvoker for " + this.method;
+		}
+	}
+
+}
@@ -78,6 +78,9 @@ public class ResolvableType/* 可解析类型 */ implements Serializable {
 	private static final ConcurrentReferenceHashMap<ResolvableType, ResolvableType> cache =
 			new ConcurrentReferenceHashMap<>(256);
 
+	private static final ConcurrentReferenceHashMap<Class<?>, ResolvableType> classCache =
+			new ConcurrentReferenceHashMap<>(256);
+
 
 	/**
 	 * The underlying Java type being managed.
@@ -103,19 +106,26 @@ public class ResolvableType/* 可解析类型 */ implements Serializable {
 	private final ResolvableType componentType;
 
 	@Nullable
-	private final Integer hash;
+	private Integer hash;
 
 	@Nullable
 	private Class<?> resolved;
 
+	/**
+	 * The canonical cached instance equal to this type, if any, sharing its
+	 * lazily resolved supertype, interfaces and generics.
+	 */
+	@Nullable
+	private transient ResolvableType canonicalType;
+
 	@Nullable
-	private volatile ResolvableType superType;
+	private transient volatile ResolvableType superType;
 
 	@Nullable
-	private volatile ResolvableType[] interfaces;
+	private transient volatile ResolvableType[] interfaces;
 
 	@Nullable
-	private volatile ResolvableType[] generics;
+	private transient volatile ResolvableType[] generics;
 
 
 	/**
@@ -447,26 +457,27 @@ public class ResolvableType/* 可解析类型 */ implements Serializable {
 	 * @see #getInterfaces()
 	 */
 	public ResolvableType getSuperType() {
+		ResolvableType canonicalType = this.canonicalType;
+		if (canonicalType != null) {
+			return canonicalType.getSuperType();
+		}
 		Class<?> resolved = resolve();
 		if (resolved == null) {
 			return NONE;
 		}
-		try {
-			Type superclass = resolved.getGenericSuperclass();
-			if (superclass == null) {
-				return NONE;
+		ResolvableType superType = this.superType;
+		if (superType == null) {
+			try {
+				Type superclass = resolved.getGenericSuperclass();
+				superType = (superclass != null ? forType(superclass, this) : NONE);
 			}
-			ResolvableType superType = this.superType;
-			if (superType == null) {
-				superType = forType(superclass, this);
-				this.superType = superType;
+			catch (TypeNotPresentException ex) {
+				// Ignore non-present types in generic signature
+				return NONE;
 			}
-			return superType;
-		}
-		catch (TypeNotPresentException ex) {
-			// Ignore non-present types in generic signature
-			return NONE;
+			this.superType = superType;
 		}
+		return superType;
 	}
 
 	/**
@@ -477,6 +488,10 @@ public class ResolvableType/* 可解析类型 */ implements Serializable {
 	 * @see #getSuperType()
 	 */
 	public ResolvableType[] getInterfaces() {
+		ResolvableType canonicalType = this.canonicalType;
+		if (canonicalType != null) {
+			return canonicalType.getInterfaces();
+		}
 		Class<?> resolved = resolve();
 		if (resolved == null) {
 			return EMPTY_TYPES_ARRAY;
@@ -689,6 +704,10 @@ public class ResolvableType/* 可解析类型 */ implements Serializable {
 		if (this == NONE) {
 			return EMPTY_TYPES_ARRAY;
 		}
+		ResolvableType canonicalType = this.canonicalType;
+		if (canonicalType != null) {
+			return canonicalType.getGenerics();
+		}
 		ResolvableType[] generics = this.generics;
 		if (generics == null) {
 			if (this.type instanceof Class) {
@@ -917,7 +936,12 @@ public class ResolvableType/* 可解析类型 */ implements Serializable {
 
 	@Override
 	public int hashCode() {
-		return (this.hash != null ? this.hash : calculateHashCode());
+		Integer hash = this.hash;
+		if (hash == null) {
+			hash = calculateHashCode();
+			this.hash = hash;
+		}
+		return hash;
 	}
 
 	private int calculateHashCode() {
@@ -992,7 +1016,16 @@ public class ResolvableType/* 可解析类型 */ implements Serializable {
 	 * @see #forClassWithGenerics(Class, Class...)
 	 */
 	public static ResolvableType forClass(@Nullable Class<?> clazz) {
-		return new ResolvableType(clazz);
+		Class<?> key = (clazz != null ? clazz : Object.class);
+		ResolvableType type = classCache.get(key);
+		if (type == null) {
+			type = new ResolvableType(key);
+			ResolvableType existing = classCache.putIfAbsent(key, type);
+			if (existing != null) {
+				type = existing;
+			}
+		}
+		return type;
 	}
 
 	/**
@@ -1412,6 +1445,9 @@ public class ResolvableType/* 可解析类型 */ implements Serializable {
 		// For simple Class references, build the wrapper right away -
 		// no expensive resolution necessary, so not worth caching...
 		if (type instanceof Class) {
+			if (typeProvider == null && variableResolver == null) {
+				return forClass((Class<?>) type);
+			}
 			return new ResolvableType(type, typeProvider, variableResolver, (ResolvableType) null);
 		}
 
@@ -1426,6 +1462,17 @@ public class ResolvableType/* 可解析类型 */ implements Serializable {
 			cache.put(cachedType, cachedType);
 		}
 		resultType.resolved = cachedType.resolved;
+		// Only share lazily resolved state between types of the same serializability,
+		// since nested types get derived from the underlying Java type
+		if ((type instanceof SerializableTypeWrapper.SerializableTypeProxy) ==
+				(cachedType.type instanceof SerializableTypeWrapper.SerializableTypeProxy)) {
+			if (typeProvider == null && cachedType.typeProvider == null) {
+				// No specific source to expose: return the canonical instance itself,
+				// reusing its previously resolved supertype, interfaces and generics
+				return cachedType;
+			}
+			resultType.canonicalType = cachedType;
+		}
 		return resultType;
 	}
 
@@ -1435,6 +1482,7 @@ public class ResolvableType/* 可解析类型 */ implements Serializable {
 	 */
 	public static void clearCache() {
 		cache.clear();
+		classCache.clear();
 		SerializableTypeWrapper.cache.clear();
 	}
 
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.annotation;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Base class for synthesized annotations implemented by generated classes
+ * instead of JDK dynamic proxies, with each attribute value held in a field
+ * of the generated subclass. Implements the {@link Annotation} contract for
+ * {@code equals}, {@code hashCode} and {@code toString} based on the attribute
+ * values in declaration order, as resolved once on synthesis.
+ *
+ * <p>Only to be subclassed by generated classes: not intended for direct use.
+ *
+ * @since 5.2.9
+ * @see #GENERATE_CLASSES_PROPERTY_NAME
+ */
+public abstract class AbstractSynthesizedAnnotation implements Annotation, SynthesizedAnnotation {
+
+	/**
+	 * System property that instructs Spring to synthesize merged annotations as
+	 * instances of generated annotation implementation classes, one per annotation
+	 * type, rather than as JDK dynamic proxies: {@code "spring.annotations.generate-classes"}.
+	 * <p>The default is "false", synthesizing dynamic proxies. Consider switching
+	 * this flag to "true" if synthesized annotation attributes are accessed on hot
+	 * paths, turning each attribute access into a plain field read. Annotation
+	 * types in class loaders which cannot see the Spring classes are still
+	 * synthesized as proxies.
+	 */
+	public static final String GENERATE_CLASSES_PROPERTY_NAME = "spring.annotations.generate-classes";
+
+
+	private final Class<? extends Annotation> type;
+
+	private final Object[] values;
+
+	private final int hashCode;
+
+	@Nullable
+	private String string;
+
+
+	/**
+	 * Create a new synthesized annotation.
+	 * @param type the annotation type
+	 * @param values the attribute values in {@link AttributeMethods} order
+	 */
+	protected AbstractSynthesizedAnnotation(Class<? extends Annotation> type, Object[] values) {
+		this.type = type;
+		this.values = values;
+		this.hashCode = computeHashCode();
+	}
+
+
+	@Override
+	public final Class<? extends Annotation> annotationType() {
+		return this.type;
+	}
+
+	/**
+	 * See {@link Annotation#equals(Object)} for a definition of the required algorithm.
+	 */
+	@Override
+	public final boolean equals(@Nullable Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!this.type.isInstance(other)) {
+			return false;
+		}
+		Object[] otherValues = (other instanceof AbstractSynthesizedAnnotation ?
+				((AbstractSynthesizedAnnotation) other).values : null);
+		AttributeMethods attributes = AttributeMethods.forAnnotationType(this.type);
+		for (int i = 0; i < attributes.size(); i++) {
+			Object otherValue = (otherValues != null ? otherValues[i] :
+					ReflectionUtils.invokeMethod(attributes.get(i), other));
+			if (!ObjectUtils.nullSafeEquals(this.values[i], otherValue)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * See {@link Annotation#hashCode()} for a definition of the required algorithm.
+	 */
+	@Override
+	public final int hashCode() {
+		return this.hashCode;
+	}
+
+	private int computeHashCode() {
+		AttributeMethods attributes = AttributeMethods.forAnnotationType(this.type);
+		int hashCode = 0;
+		for (int i = 0; i < attributes.size(); i++) {
+			hashCode += (127 * attributes.get(i).getName().hashCode()) ^ getValueHashCode(this.values[i]);
+		}
+		return hashCode;
+	}
+
+	@Override
+	public final String toString() {
+		String string = this.string;
+		if (string == null) {
+			AttributeMethods attributes = AttributeMethods.forAnnotationType(this.type);
+			StringBuilder builder = new StringBuilder("@").append(this.type.getName()).append("(");
+			for (int i = 0; i < attributes.size(); i++) {
+				Method attribute = attributes.get(i);
+				if (i > 0) {
+					builder.append(", ");
+				}
+				builder.append(attribute.getName());
+				builder.append("=");
+				builder.append(toString(this.values[i]));
+			}
+			builder.append(")");
+			string = builder.toString();
+			this.string = string;
+		}
+		return string;
+	}
+
+
+	static int getValueHashCode(Object value) {
+		// Use Arrays.hashCode(...) since Spring's ObjectUtils doesn't comply
+		// with the requirements specified in Annotation#hashCode().
+		if (value instanceof boolean[]) {
+			return Arrays.hashCode((boolean[]) value);
+		}
+		if (value instanceof byte[]) {
+			return Arrays.hashCode((byte[]) value);
+		}
+		if (value instanceof char[]) {
+			return Arrays.hashCode((char[]) value);
+		}
+		if (value instanceof double[]) {
+			return Arrays.hashCode((double[]) value);
+		}
+		if (value instanceof float[]) {
+			return Arrays.hashCode((float[]) value);
+		}
+		if (value instanceof int[]) {
+			return Arrays.hashCode((int[]) value);
+		}
+		if (value instanceof long[]) {
+			return Arrays.hashCode((long[]) value);
+		}
+		if (value instanceof short[]) {
+			return Arrays.hashCode((short[]) value);
+		}
+		if (value instanceof Object[]) {
+			return Arrays.hashCode((Object[]) value);
+		}
+		return value.hashCode();
+	}
+
+	static String toString(Object value) {
+		if (value instanceof Class) {
+			return ((Class<?>) value).getName();
+		}
+		if (value.getClass().isArray()) {
+			StringBuilder builder = new StringBuilder("[");
+			for (int i = 0; i < Array.getLength(value); i++) {
+				if (i > 0) {
+					builder.append(", ");
+				}
+				builder.append(toString(Array.get(value, i)));
+			}
+			builder.append("]");
+			return builder.toString();
+		}
+		return String.valueOf(value);
+	}
+
+	/**
+	 * Clone the provided array if not empty, ensuring that the original
+	 * component type is retained.
+	 * <p>Called by generated attribute methods, so that callers cannot
+	 * modify the attribute values of a shared annotation instance.
+	 * @param array the array to clone
+	 * @return the cloned array, or the given array if empty
+	 */
+	protected static Object cloneArray(Object array) {
+		if (Array.getLength(array) == 0) {
+			return array;
+		}
+		if (array instanceof boolean[]) {
+			return ((boolean[]) array).clone();
+		}
+		if (array instanceof byte[]) {
+			return ((byte[]) array).clone();
+		}
+		if (array instanceof char[]) {
+			return ((char[]) array).clone();
+		}
+		if (array instanceof double[]) {
+			return ((double[]) array).clone();
+		}
+		if (array instanceof float[]) {
+			return ((float[]) array).clone();
+		}
+		if (array instanceof int[]) {
+			return ((int[]) array).clone();
+		}
+		if (array instanceof long[]) {
+			return ((long[]) array).clone();
+		}
+		if (array instanceof short[]) {
+			return ((short[]) array).clone();
+		}
+		return ((Object[]) array).clone();
+	}
+
+}
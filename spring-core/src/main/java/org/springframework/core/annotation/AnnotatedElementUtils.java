@@ -337,10 +337,8 @@ public abstract class AnnotatedElementUtils {
 				AnnotationsScanner.hasPlainJavaAnnotationsOnly(element)) {
 			return element.getDeclaredAnnotation(annotationType);
 		}
-		// Exhaustive retrieval of merged annotations...
-		return getAnnotations(element)
-				.get(annotationType, null, MergedAnnotationSelectors.firstDirectlyDeclared())
-				.synthesize(MergedAnnotation::isPresent).orElse(null);
+		// Exhaustive retrieval of merged annotations, cached per element...
+		return MergedAnnotationCache.getMergedAnnotation(element, SearchStrategy.INHERITED_ANNOTATIONS, annotationType);
 	}
 
 	/**
@@ -641,10 +639,8 @@ public abstract class AnnotatedElementUtils {
 				AnnotationsScanner.hasPlainJavaAnnotationsOnly/* 仅具有纯Java注解 */(element)) {
 			return element.getDeclaredAnnotation(annotationType);
 		}
-		// Exhaustive retrieval of merged annotations... —— 合并注释的详尽检索...
-		return findAnnotations(element)
-				.get(annotationType, null, MergedAnnotationSelectors.firstDirectlyDeclared())
-				.synthesize(MergedAnnotation::isPresent).orElse(null);
+		// Exhaustive retrieval of merged annotations, cached per element... —— 合并注释的详尽检索（按元素缓存）...
+		return MergedAnnotationCache.getMergedAnnotation(element, SearchStrategy.TYPE_HIERARCHY, annotationType);
 	}
 
 	/**
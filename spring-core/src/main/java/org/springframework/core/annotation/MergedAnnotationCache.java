@@ -0,0 +1,271 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.annotation;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.core.SpringProperties;
+import org.springframework.core.annotation.MergedAnnotations.SearchStrategy;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Global cache of merged, synthesized annotations per annotated element and
+ * {@link SearchStrategy}, backing {@link AnnotatedElementUtils#getMergedAnnotation}
+ * and {@link AnnotatedElementUtils#findMergedAnnotation}: repeated lookups for
+ * the same class, method, field or constructor are served from the cache instead
+ * of scanning and merging the annotation hierarchy again, including lookups for
+ * annotations that turned out not to be present.
+ *
+ * <p>The cache holds up to {@link #DEFAULT_CACHE_LIMIT} annotated elements,
+ * evicting an arbitrary element once full. Its entries are softly referenced,
+ * so they never prevent class unloading beyond the next memory shortage.
+ * Unlike the scanning caches cleared by {@link AnnotationUtils#clearCache()}
+ * at the end of an application context refresh, this cache is meant to survive
+ * for runtime lookups: see {@link #clearCache()} for explicit clearing.
+ *
+ * <p>Mainly for internal use within the framework.
+ *
+ * @since 5.2.9
+ * @see #preWarm(Class)
+ */
+public abstract class MergedAnnotationCache {
+
+	/**
+	 * System property that specifies the maximum number of annotated elements
+	 * to cache merged annotations for, with "0" turning the cache off.
+	 * <p>The default is {@link #DEFAULT_CACHE_LIMIT}.
+	 */
+	public static final String CACHE_LIMIT_PROPERTY_NAME = "spring.annotations.cache-limit";
+
+	/** Default maximum number of annotated elements in the cache: 4096. */
+	public static final int DEFAULT_CACHE_LIMIT = 4096;
+
+
+	private static final Object NOT_PRESENT = new Object();
+
+	private static final int cacheLimit = determineCacheLimit();
+
+	private static final Map<ElementKey, Map<Class<?>, Object>> mergedAnnotationCache =
+			new ConcurrentReferenceHashMap<>(256);
+
+	private static final LongAdder hitCount = new LongAdder();
+
+	private static final LongAdder missCount = new LongAdder();
+
+	private static final LongAdder evictionCount = new LongAdder();
+
+
+	private static int determineCacheLimit() {
+		String limit = SpringProperties.getProperty(CACHE_LIMIT_PROPERTY_NAME);
+		return (limit != null ? Integer.parseInt(limit.trim()) : DEFAULT_CACHE_LIMIT);
+	}
+
+
+	/**
+	 * Return the merged annotation of the given type as found by
+	 * {@link AnnotatedElementUtils#findMergedAnnotation} (for
+	 * {@link SearchStrategy#TYPE_HIERARCHY}) or
+	 * {@link AnnotatedElementUtils#getMergedAnnotation} (for
+	 * {@link SearchStrategy#INHERITED_ANNOTATIONS}), from the cache if possible.
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	static <A extends Annotation> A getMergedAnnotation(
+			AnnotatedElement element, SearchStrategy searchStrategy, Class<A> annotationType) {
+
+		if (!isCacheable(element)) {
+			return synthesize(element, searchStrategy, annotationType);
+		}
+		Map<Class<?>, Object> annotations = getAnnotationsForElement(element, searchStrategy);
+		Object annotation = annotations.get(annotationType);
+		if (annotation != null) {
+			hitCount.increment();
+		}
+		else {
+			missCount.increment();
+			annotation = synthesize(element, searchStrategy, annotationType);
+			annotations.put(annotationType, (annotation != null ? annotation : NOT_PRESENT));
+		}
+		return (annotation != NOT_PRESENT ? (A) annotation : null);
+	}
+
+	@Nullable
+	private static <A extends Annotation> A synthesize(
+			AnnotatedElement element, SearchStrategy searchStrategy, Class<A> annotationType) {
+
+		return MergedAnnotations.from(element, searchStrategy, RepeatableContainers.none())
+				.get(annotationType, null, MergedAnnotationSelectors.firstDirectlyDeclared())
+				.synthesize(MergedAnnotation::isPresent).orElse(null);
+	}
+
+	private static boolean isCacheable(AnnotatedElement element) {
+		return (cacheLimit > 0 && (element instanceof Class || element instanceof Member));
+	}
+
+	private static Map<Class<?>, Object> getAnnotationsForElement(
+			AnnotatedElement element, SearchStrategy searchStrategy) {
+
+		ElementKey key = new ElementKey(element, searchStrategy);
+		Map<Class<?>, Object> annotations = mergedAnnotationCache.get(key);
+		if (annotations == null) {
+			if (mergedAnnotationCache.size() >= cacheLimit) {
+				evictElement();
+			}
+			annotations = new ConcurrentHashMap<>(8);
+			Map<Class<?>, Object> existing = mergedAnnotationCache.putIfAbsent(key, annotations);
+			if (existing != null) {
+				annotations = existing;
+			}
+		}
+		return annotations;
+	}
+
+	private static void evictElement() {
+		Iterator<ElementKey> it = mergedAnnotationCache.keySet().iterator();
+		if (it.hasNext()) {
+			it.next();
+			it.remove();
+			evictionCount.increment();
+		}
+	}
+
+
+	/**
+	 * Pre-warm the cache for the given class and its user-declared methods,
+	 * resolving all merged annotations present on them with
+	 * {@link AnnotatedElementUtils#findMergedAnnotation find semantics}.
+	 * <p>Intended for bulk warm-up at startup, e.g. for all bean classes,
+	 * so that subsequent lookups on hot paths turn into plain map lookups.
+	 * @param clazz the class to introspect (a CGLIB subclass is introspected
+	 * as its user-defined superclass)
+	 * @see org.springframework.util.ClassUtils#getUserClass(Class)
+	 */
+	public static void preWarm(Class<?> clazz) {
+		Class<?> userClass = ClassUtils.getUserClass(clazz);
+		if (cacheLimit <= 0 || AnnotationFilter.PLAIN.matches(userClass)) {
+			return;
+		}
+		try {
+			preWarmElement(userClass);
+			for (Method method : ReflectionUtils.getUniqueDeclaredMethods(userClass, ReflectionUtils.USER_DECLARED_METHODS)) {
+				preWarmElement(method);
+			}
+		}
+		catch (Exception ex) {
+			// Introspection failure, e.g. due to missing classes: leave it to regular lookups
+			IntrospectionFailureLogger.DEBUG.log("Failed to pre-warm merged annotation cache", userClass, ex);
+		}
+	}
+
+	private static void preWarmElement(AnnotatedElement element) {
+		if (AnnotationsScanner.hasPlainJavaAnnotationsOnly(element)) {
+			return;
+		}
+		MergedAnnotations mergedAnnotations =
+				MergedAnnotations.from(element, SearchStrategy.TYPE_HIERARCHY, RepeatableContainers.none());
+		if (!mergedAnnotations.stream().findAny().isPresent()) {
+			return;
+		}
+		Map<Class<?>, Object> annotations = getAnnotationsForElement(element, SearchStrategy.TYPE_HIERARCHY);
+		mergedAnnotations.stream().map(MergedAnnotation::getType).distinct().forEach(annotationType -> {
+			if (!annotations.containsKey(annotationType)) {
+				Annotation annotation = synthesize(element, SearchStrategy.TYPE_HIERARCHY, annotationType);
+				annotations.put(annotationType, (annotation != null ? annotation : NOT_PRESENT));
+			}
+		});
+	}
+
+
+	/**
+	 * Return the number of annotated elements currently held in the cache.
+	 */
+	public static int getCacheSize() {
+		return mergedAnnotationCache.size();
+	}
+
+	/**
+	 * Return the number of lookups served from the cache.
+	 */
+	public static long getHitCount() {
+		return hitCount.sum();
+	}
+
+	/**
+	 * Return the number of lookups that had to resolve the merged annotation.
+	 */
+	public static long getMissCount() {
+		return missCount.sum();
+	}
+
+	/**
+	 * Return the number of annotated elements evicted due to the cache limit.
+	 */
+	public static long getEvictionCount() {
+		return evictionCount.sum();
+	}
+
+	/**
+	 * Clear the merged annotation cache.
+	 */
+	public static void clearCache() {
+		mergedAnnotationCache.clear();
+	}
+
+
+	/**
+	 * Cache key for an annotated element and a search strategy.
+	 */
+	private static final class ElementKey {
+
+		private final AnnotatedElement element;
+
+		private final SearchStrategy searchStrategy;
+
+		ElementKey(AnnotatedElement element, SearchStrategy searchStrategy) {
+			this.element = element;
+			this.searchStrategy = searchStrategy;
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ElementKey)) {
+				return false;
+			}
+			ElementKey otherKey = (ElementKey) other;
+			return (this.element.equals(otherKey.element) && this.searchStrategy == otherKey.searchStrategy);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.element.hashCode() * 31 + this.searchStrategy.hashCode();
+		}
+	}
+
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.annotation;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.cglib.core.ReflectUtils;
+import org.springframework.core.SpringProperties;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * Generates an {@link AbstractSynthesizedAnnotation} subclass per annotation
+ * type via ASM, implementing the annotation interface with one final field
+ * per attribute, and synthesizes merged annotations as instances of it.
+ *
+ * <p>The generated class is defined in the package and class loader of the
+ * annotation type, so that non-public annotation types are supported as well.
+ * Annotation types for which no class can be generated, e.g. in a class loader
+ * that cannot see the Spring classes, are indicated by a {@code null} return
+ * value from {@link #synthesize}: callers fall back to a dynamic proxy then.
+ *
+ * @since 5.2.9
+ * @see AbstractSynthesizedAnnotation#GENERATE_CLASSES_PROPERTY_NAME
+ */
+final class SynthesizedAnnotationClassGenerator implements Opcodes {
+
+	/**
+	 * Whether synthesized annotations are to be generated as classes rather than proxies.
+	 */
+	static final boolean shouldGenerateClasses =
+			SpringProperties.getFlag(AbstractSynthesizedAnnotation.GENERATE_CLASSES_PROPERTY_NAME);
+
+	private static final String CLASS_NAME_SUFFIX = "$$SpringSynthesized";
+
+	private static final String SUPERCLASS_NAME = Type.getInternalName(AbstractSynthesizedAnnotation.class);
+
+	private static final String CONSTRUCTOR_DESCRIPTOR = Type.getMethodDescriptor(
+			Type.VOID_TYPE, Type.getType(Class.class), Type.getType(Object[].class));
+
+	private static final String CLONE_ARRAY_DESCRIPTOR = Type.getMethodDescriptor(
+			Type.getType(Object.class), Type.getType(Object.class));
+
+	private static final Object NOT_GENERATABLE = new Object();
+
+	private static final Log logger = LogFactory.getLog(SynthesizedAnnotationClassGenerator.class);
+
+	private static final Map<Class<?>, Object> constructorCache = new ConcurrentReferenceHashMap<>(64);
+
+
+	private SynthesizedAnnotationClassGenerator() {
+	}
+
+
+	/**
+	 * Synthesize the given merged annotation as an instance of the generated
+	 * class for its type, resolving all attribute values upfront.
+	 * @param annotation the merged annotation to synthesize
+	 * @param type the annotation type
+	 * @return the synthesized annotation, or {@code null} if no class can be
+	 * generated for the given type or if an attribute value cannot be resolved
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	static <A extends Annotation> A synthesize(MergedAnnotation<A> annotation, Class<A> type) {
+		Constructor<?> constructor = getConstructor(type);
+		if (constructor == null) {
+			return null;
+		}
+		AttributeMethods attributes = AttributeMethods.forAnnotationType(type);
+		Object[] values = new Object[attributes.size()];
+		try {
+			for (int i = 0; i < attributes.size(); i++) {
+				Method attribute = attributes.get(i);
+				values[i] = annotation.getValue(attribute.getName(),
+						ClassUtils.resolvePrimitiveIfNecessary(attribute.getReturnType())).orElseThrow(
+								() -> new NoSuchElementException("No value found for attribute named '" +
+										attribute.getName() + "' in merged annotation " + type.getName()));
+			}
+		}
+		catch (RuntimeException ex) {
+			// Leave it to a proxy to report the failure on access to the affected attribute
+			return null;
+		}
+		try {
+			return (A) constructor.newInstance(type, values);
+		}
+		catch (Exception ex) {
+			throw new IllegalStateException("Failed to instantiate synthesized annotation class for " + type, ex);
+		}
+	}
+
+	@Nullable
+	private static Constructor<?> getConstructor(Class<? extends Annotation> type) {
+		Object constructor = constructorCache.get(type);
+		if (constructor == null) {
+			constructor = generateClass(type);
+			constructorCache.put(type, constructor);
+		}
+		return (constructor != NOT_GENERATABLE ? (Constructor<?>) constructor : null);
+	}
+
+	private static Object generateClass(Class<? extends Annotation> type) {
+		ClassLoader classLoader = type.getClassLoader();
+		if (classLoader == null || !isVisible(classLoader, AbstractSynthesizedAnnotation.class)) {
+			return NOT_GENERATABLE;
+		}
+		String className = type.getName() + CLASS_NAME_SUFFIX;
+		try {
+			Class<?> generatedClass;
+			try {
+				// Already generated before, e.g. prior to a clearing of the cache
+				generatedClass = Class.forName(className, false, classLoader);
+			}
+			catch (ClassNotFoundException ex) {
+				byte[] bytes = generateBytecode(type, className);
+				generatedClass = ReflectUtils.defineClass(className, bytes, classLoader, type.getProtectionDomain(), type);
+			}
+			return generatedClass.getDeclaredConstructor(Class.class, Object[].class);
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to generate synthesized annotation class for " + type +
+						" - falling back to dynamic proxies: " + ex);
+			}
+			return NOT_GENERATABLE;
+		}
+	}
+
+	private static byte[] generateBytecode(Class<? extends Annotation> type, String className) {
+		String internalName = className.replace('.', '/');
+		AttributeMethods attributes = AttributeMethods.forAnnotationType(type);
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, internalName, null,
+				SUPERCLASS_NAME, new String[] {Type.getInternalName(type)});
+
+		for (int i = 0; i < attributes.size(); i++) {
+			Method attribute = attributes.get(i);
+			cw.visitField(ACC_PRIVATE | ACC_FINAL, attribute.getName(),
+					Type.getDescriptor(attribute.getReturnType()), null, null).visitEnd();
+		}
+
+		// Constructor: pass all values to the superclass and unpack them into the fields
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR, null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitVarInsn(ALOAD, 2);
+		mv.visitMethodInsn(INVOKESPECIAL, SUPERCLASS_NAME, "<init>", CONSTRUCTOR_DESCRIPTOR, false);
+		for (int i = 0; i < attributes.size(); i++) {
+			Method attribute = attributes.get(i);
+			Class<?> returnType = attribute.getReturnType();
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitLdcInsn(i);
+			mv.visitInsn(AALOAD);
+			if (returnType.isPrimitive()) {
+				String wrapperName = Type.getInternalName(ClassUtils.resolvePrimitiveIfNecessary(returnType));
+				mv.visitTypeInsn(CHECKCAST, wrapperName);
+				mv.visitMethodInsn(INVOKEVIRTUAL, wrapperName, returnType.getName() + "Value",
+						Type.getMethodDescriptor(Type.getType(returnType)), false);
+			}
+			else {
+				mv.visitTypeInsn(CHECKCAST, Type.getInternalName(returnType));
+			}
+			mv.visitFieldInsn(PUTFIELD, internalName, attribute.getName(), Type.getDescriptor(returnType));
+		}
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		// Attribute methods: plain field reads, cloning non-empty arrays
+		for (int i = 0; i < attributes.size(); i++) {
+			Method attribute = attributes.get(i);
+			Class<?> returnType = attribute.getReturnType();
+			Type fieldType = Type.getType(returnType);
+			mv = cw.visitMethod(ACC_PUBLIC, attribute.getName(), Type.getMethodDescriptor(fieldType), null, null);
+			mv.visitCode();
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, internalName, attribute.getName(), fieldType.getDescriptor());
+			if (returnType.isArray()) {
+				mv.visitMethodInsn(INVOKESTATIC, SUPERCLASS_NAME, "cloneArray", CLONE_ARRAY_DESCRIPTOR, false);
+				mv.visitTypeInsn(CHECKCAST, fieldType.getInternalName());
+			}
+			mv.visitInsn(fieldType.getOpcode(IRETURN));
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+		}
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private static boolean isVisible(ClassLoader classLoader, Class<?> clazz) {
+		if (classLoader == clazz.getClassLoader()) {
+			return true;
+		}
+		try {
+			return (Class.forName(clazz.getName(), false, classLoader) == clazz);
+		}
+		catch (ClassNotFoundException ex) {
+			return false;
+		}
+	}
+
+}
@@ -22,7 +22,6 @@ import java.lang.reflect.Array;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
-import java.util.Arrays;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.concurrent.ConcurrentHashMap;
@@ -136,44 +135,11 @@ final class SynthesizedMergedAnnotationInvocationHandler<A extends Annotation> i
 		for (int i = 0; i < this.attributes.size(); i++) {
 			Method attribute = this.attributes.get(i);
 			Object value = getAttributeValue(attribute);
-			hashCode += (127 * attribute.getName().hashCode()) ^ getValueHashCode(value);
+			hashCode += (127 * attribute.getName().hashCode()) ^ AbstractSynthesizedAnnotation.getValueHashCode(value);
 		}
 		return hashCode;
 	}
 
-	private int getValueHashCode(Object value) {
-		// Use Arrays.hashCode(...) since Spring's ObjectUtils doesn't comply
-		// with the requirements specified in Annotation#hashCode().
-		if (value instanceof boolean[]) {
-			return Arrays.hashCode((boolean[]) value);
-		}
-		if (value instanceof byte[]) {
-			return Arrays.hashCode((byte[]) value);
-		}
-		if (value instanceof char[]) {
-			return Arrays.hashCode((char[]) value);
-		}
-		if (value instanceof double[]) {
-			return Arrays.hashCode((double[]) value);
-		}
-		if (value instanceof float[]) {
-			return Arrays.hashCode((float[]) value);
-		}
-		if (value instanceof int[]) {
-			return Arrays.hashCode((int[]) value);
-		}
-		if (value instanceof long[]) {
-			return Arrays.hashCode((long[]) value);
-		}
-		if (value instanceof short[]) {
-			return Arrays.hashCode((short[]) value);
-		}
-		if (value instanceof Object[]) {
-			return Arrays.hashCode((Object[]) value);
-		}
-		return value.hashCode();
-	}
-
 	private String annotationToString() {
 		String string = this.string;
 		if (string == null) {
@@ -185,7 +151,7 @@ final class SynthesizedMergedAnnotationInvocationHandler<A extends Annotation> i
 				}
 				builder.append(attribute.getName());
 				builder.append("=");
-				builder.append(toString(getAttributeValue(attribute)));
+				builder.append(AbstractSynthesizedAnnotation.toString(getAttributeValue(attribute)));
 			}
 			builder.append(")");
 			string = builder.toString();
@@ -194,24 +160,6 @@ final class SynthesizedMergedAnnotationInvocationHandler<A extends Annotation> i
 		return string;
 	}
 
-	private String toString(Object value) {
-		if (value instanceof Class) {
-			return ((Class<?>) value).getName();
-		}
-		if (value.getClass().isArray()) {
-			StringBuilder builder = new StringBuilder("[");
-			for (int i = 0; i < Array.getLength(value); i++) {
-				if (i > 0) {
-					builder.append(", ");
-				}
-				builder.append(toString(Array.get(value, i)));
-			}
-			builder.append("]");
-			return builder.toString();
-		}
-		return String.valueOf(value);
-	}
-
 	private Object getAttributeValue(Method method) {
 		Object value = this.valueCache.computeIfAbsent(method.getName(), attributeName -> {
 			Class<?> type = ClassUtils.resolvePrimitiveIfNecessary(method.getReturnType());
@@ -222,46 +170,12 @@ final class SynthesizedMergedAnnotationInvocationHandler<A extends Annotation> i
 
 		// Clone non-empty arrays so that users cannot alter the contents of values in our cache.
 		if (value.getClass().isArray() && Array.getLength(value) > 0) {
-			value = cloneArray(value);
+			value = AbstractSynthesizedAnnotation.cloneArray(value);
 		}
 
 		return value;
 	}
 
-	/**
-	 * Clone the provided array, ensuring that the original component type is retained.
-	 * @param array the array to clone
-	 */
-	private Object cloneArray(Object array) {
-		if (array instanceof boolean[]) {
-			return ((boolean[]) array).clone();
-		}
-		if (array instanceof byte[]) {
-			return ((byte[]) array).clone();
-		}
-		if (array instanceof char[]) {
-			return ((char[]) array).clone();
-		}
-		if (array instanceof double[]) {
-			return ((double[]) array).clone();
-		}
-		if (array instanceof float[]) {
-			return ((float[]) array).clone();
-		}
-		if (array instanceof int[]) {
-			return ((int[]) array).clone();
-		}
-		if (array instanceof long[]) {
-			return ((long[]) array).clone();
-		}
-		if (array instanceof short[]) {
-			return ((short[]) array).clone();
-		}
-
-		// else
-		return ((Object[]) array).clone();
-	}
-
 	@SuppressWarnings("unchecked")
 	static <A extends Annotation> A createProxy(MergedAnnotation<A> annotation, Class<A> type) {
 		ClassLoader classLoader = type.getClassLoader();
@@ -332,6 +332,12 @@ final class TypeMappedAnnotation<A extends Annotation> extends AbstractMergedAnn
 		if (getType().isInstance(this.rootAttributes) && !isSynthesizable()) {
 			return (A) this.rootAttributes;
 		}
+		if (SynthesizedAnnotationClassGenerator.shouldGenerateClasses) {
+			A synthesized = SynthesizedAnnotationClassGenerator.synthesize(this, getType());
+			if (synthesized != null) {
+				return synthesized;
+			}
+		}
 		return SynthesizedMergedAnnotationInvocationHandler.createProxy(this, getType());
 	}
 
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.convert.converter;
+
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.lang.Nullable;
+
+/**
+ * A converter bound to a specific pair of source and target type descriptors,
+ * with the underlying conversion logic resolved upfront: to be obtained once
+ * and then reused for any number of values of the same source type, e.g.
+ * for every row of a result set or every binding of a given property.
+ *
+ * <p>Implementations of this interface are thread-safe and can be shared.
+ *
+ * @since 5.2.9
+ * @param <S> the source type
+ * @param <T> the target type
+ * @see org.springframework.core.convert.support.GenericConversionService#getTypedConverter
+ */
+public interface TypedConverter<S, T> {
+
+	/**
+	 * Convert the given source object to the target type, with the same
+	 * semantics as {@link org.springframework.core.convert.ConversionService#convert(Object, TypeDescriptor, TypeDescriptor)}
+	 * for this converter's source and target type.
+	 * @param source the source object to convert (may be {@code null})
+	 * @return the converted object, an instance of the target type
+	 * @throws org.springframework.core.convert.ConversionException if a conversion exception occurred
+	 * @throws IllegalArgumentException if the source is not an instance of the source type
+	 */
+	@Nullable
+	T convert(@Nullable S source);
+
+	/**
+	 * Return the type descriptor of the source objects to convert.
+	 */
+	TypeDescriptor getSourceType();
+
+	/**
+	 * Return the type descriptor of the target objects to convert to.
+	 */
+	TypeDescriptor getTargetType();
+
+}
@@ -274,6 +274,49 @@ public class GenericConversionService implements ConfigurableConversionService {
 		return convert(source, TypeDescriptor.forObject(source), targetType);
 	}
 
+	/**
+	 * Return a {@link TypedConverter} for the given source and target type,
+	 * with the applicable converter resolved upfront. Conversions between
+	 * arrays and collections resolve their element converters once per
+	 * element class, rather than once per element.
+	 * <p>Intended for callers that repeatedly convert values of the same
+	 * declared type, e.g. for every row of a result set. The returned converter
+	 * reflects the converters registered at the time of this call: obtain a
+	 * new one after adding or removing converters.
+	 * @param sourceType context about the source type to convert from
+	 * @param targetType context about the target type to convert to
+	 * @return the pre-resolved converter (never {@code null})
+	 * @throws ConverterNotFoundException if no suitable converter was found
+	 * @since 5.2.9
+	 * @see #convert(Object, TypeDescriptor, TypeDescriptor)
+	 */
+	@SuppressWarnings("unchecked")
+	public <S, T> TypedConverter<S, T> getTypedConverter(TypeDescriptor sourceType, TypeDescriptor targetType) {
+		Assert.notNull(sourceType, "Source type to convert from cannot be null");
+		Assert.notNull(targetType, "Target type to convert to cannot be null");
+		GenericConverter converter = getConverter(sourceType, targetType);
+		if (converter == null) {
+			throw new ConverterNotFoundException(sourceType, targetType);
+		}
+		return (TypedConverter<S, T>) TypedConverters.forConverter(
+				this, converter, converter == NO_OP_CONVERTER, sourceType, targetType);
+	}
+
+	/**
+	 * Return a {@link TypedConverter} for the given source and target class.
+	 * @param sourceType the source class to convert from
+	 * @param targetType the target class to convert to
+	 * @return the pre-resolved converter (never {@code null})
+	 * @throws ConverterNotFoundException if no suitable converter was found
+	 * @since 5.2.9
+	 * @see #getTypedConverter(TypeDescriptor, TypeDescriptor)
+	 */
+	public <S, T> TypedConverter<S, T> getTypedConverter(Class<S> sourceType, Class<T> targetType) {
+		Assert.notNull(sourceType, "Source type to convert from cannot be null");
+		Assert.notNull(targetType, "Target type to convert to cannot be null");
+		return getTypedConverter(TypeDescriptor.valueOf(sourceType), TypeDescriptor.valueOf(targetType));
+	}
+
 	@Override
 	public String toString() {
 		return this.converters.toString();
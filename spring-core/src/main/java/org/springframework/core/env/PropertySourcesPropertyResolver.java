@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,12 +16,26 @@
 
 package org.springframework.core.env;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.SpringProperties;
 import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
 
 /**
  * {@link PropertyResolver} implementation that resolves property values against
  * an underlying set of {@link PropertySources}.
  *
+ * <p>Can optionally resolve properties through an index of the property names
+ * in all {@link MapPropertySource map-based property sources}, avoiding a
+ * search through the entire set of property sources for every lookup: see
+ * {@link #setPropertyIndexEnabled} and {@link #PROPERTY_INDEX_PROPERTY_NAME}.
+ *
  * @author Chris Beams
  * @author Juergen Hoeller
  * @since 3.1
@@ -31,9 +45,28 @@ import org.springframework.lang.Nullable;
  */
 public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 
+	/**
+	 * System property that instructs Spring to resolve properties through an
+	 * index of property names by default: {@code "spring.env.property-index"}.
+	 * <p>The default is "false", searching all property sources for every lookup.
+	 * Consider switching this flag to "true" for large sets of property sources
+	 * with many property lookups, e.g. for {@code @Value} resolution at startup,
+	 * provided that the keys of map-based property sources are not modified
+	 * after the first lookup.
+	 * @since 5.2.9
+	 * @see #setPropertyIndexEnabled
+	 */
+	public static final String PROPERTY_INDEX_PROPERTY_NAME = "spring.env.property-index";
+
+
 	@Nullable
 	private final PropertySources propertySources;
 
+	private boolean propertyIndexEnabled = SpringProperties.getFlag(PROPERTY_INDEX_PROPERTY_NAME);
+
+	@Nullable
+	private volatile PropertyIndex propertyIndex;
+
 
 	/**
 	 * Create a new resolver against the given property sources.
@@ -44,10 +77,48 @@ public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 	}
 
 
+	/**
+	 * Specify whether to resolve properties through an index of the property
+	 * names in all {@link MapPropertySource map-based property sources},
+	 * including the {@linkplain SystemEnvironmentPropertySource#resolvePropertyName
+	 * relaxed names} of system environment variables. Other property sources
+	 * are searched for every lookup, in their regular order of precedence.
+	 * <p>The index is rebuilt whenever property sources are added, removed or
+	 * replaced in the underlying {@link MutablePropertySources}. Modifications
+	 * to the keys of an indexed property source are not detected: call
+	 * {@link #clearPropertyIndex()} after such a modification.
+	 * <p>Default is "false", unless the {@link #PROPERTY_INDEX_PROPERTY_NAME}
+	 * system property has been set to "true". Only effective for
+	 * {@code MutablePropertySources}.
+	 * @since 5.2.9
+	 */
+	public void setPropertyIndexEnabled(boolean propertyIndexEnabled) {
+		this.propertyIndexEnabled = propertyIndexEnabled;
+		this.propertyIndex = null;
+	}
+
+	/**
+	 * Return whether to resolve properties through an index of property names.
+	 * @since 5.2.9
+	 */
+	public boolean isPropertyIndexEnabled() {
+		return this.propertyIndexEnabled;
+	}
+
+	/**
+	 * Clear the index of property names, if any, to be rebuilt on the next lookup.
+	 * @since 5.2.9
+	 * @see #setPropertyIndexEnabled
+	 */
+	public void clearPropertyIndex() {
+		this.propertyIndex = null;
+	}
+
+
 	@Override
 	public boolean containsProperty(String key) {
 		if (this.propertySources != null) {
-			for (PropertySource<?> propertySource : this.propertySources) {
+			for (PropertySource<?> propertySource : getCandidatePropertySources(key)) {
 				if (propertySource.containsProperty(key)) {
 					return true;
 				}
@@ -77,7 +148,7 @@ public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 	@Nullable
 	protected <T> T getProperty(String key, Class<T> targetValueType, boolean resolveNestedPlaceholders) {
 		if (this.propertySources != null) {
-			for (PropertySource<?> propertySource : this.propertySources) {
+			for (PropertySource<?> propertySource : getCandidatePropertySources(key)) {
 				if (logger.isTraceEnabled()) {
 					logger.trace("Searching for key '" + key + "' in PropertySource '" +
 							propertySource.getName() + "'");
@@ -98,6 +169,25 @@ public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 		return null;
 	}
 
+	/**
+	 * Return the property sources to search for the given key, in order of precedence.
+	 * @param key the property name to resolve
+	 * @return all property sources, or a subset as determined by the property index
+	 */
+	private Iterable<PropertySource<?>> getCandidatePropertySources(String key) {
+		Assert.state(this.propertySources != null, "No PropertySources");
+		if (!this.propertyIndexEnabled || !(this.propertySources instanceof MutablePropertySources)) {
+			return this.propertySources;
+		}
+		MutablePropertySources propertySources = (MutablePropertySources) this.propertySources;
+		PropertyIndex propertyIndex = this.propertyIndex;
+		if (propertyIndex == null || propertyIndex.modificationCount != propertySources.getModificationCount()) {
+			propertyIndex = new PropertyIndex(propertySources);
+			this.propertyIndex = propertyIndex;
+		}
+		return propertyIndex.getCandidatePropertySources(key);
+	}
+
 	/**
 	 * Log the given key as found in the given {@link PropertySource}, resulting in
 	 * the given value.
@@ -117,4 +207,111 @@ public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 		}
 	}
 
+
+
+	/**
+	 * Index of the property names in the map-based property sources of a
+	 * {@link MutablePropertySources} instance, as of a given modification count.
+	 */
+	private static final class PropertyIndex {
+
+		final int modificationCount;
+
+		private final List<PropertySource<?>> propertySources;
+
+		private final Map<String, Integer> exactPositions = new HashMap<>();
+
+		private final Map<String, int[]> relaxedPositions = new HashMap<>();
+
+		private final int[] unindexedPositions;
+
+		PropertyIndex(MutablePropertySources propertySources) {
+			// Read the count first: a concurrent modification leads to a rebuild on next access
+			this.modificationCount = propertySources.getModificationCount();
+			List<PropertySource<?>> sources = new ArrayList<>();
+			propertySources.forEach(sources::add);
+			this.propertySources = sources;
+			List<Integer> unindexed = new ArrayList<>();
+			for (int i = 0; i < sources.size(); i++) {
+				PropertySource<?> source = sources.get(i);
+				String[] names = null;
+				if (source instanceof MapPropertySource) {
+					try {
+						names = ((MapPropertySource) source).getPropertyNames();
+					}
+					catch (RuntimeException ex) {
+						// E.g. non-String keys in a Properties object: search the source on every lookup
+					}
+				}
+				if (names == null) {
+					unindexed.add(i);
+					continue;
+				}
+				boolean relaxed = (source instanceof SystemEnvironmentPropertySource);
+				for (String name : names) {
+					this.exactPositions.putIfAbsent(name, i);
+					if (relaxed) {
+						addRelaxedPosition(SystemEnvironmentPropertySource.getCanonicalPropertyName(name), i);
+					}
+				}
+			}
+			this.unindexedPositions = unindexed.stream().mapToInt(Integer::intValue).toArray();
+		}
+
+		private void addRelaxedPosition(String canonicalName, int position) {
+			int[] positions = this.relaxedPositions.get(canonicalName);
+			if (positions == null) {
+				this.relaxedPositions.put(canonicalName, new int[] {position});
+			}
+			else if (positions[positions.length - 1] != position) {
+				int[] newPositions = Arrays.copyOf(positions, positions.length + 1);
+				newPositions[positions.length] = position;
+				this.relaxedPositions.put(canonicalName, newPositions);
+			}
+		}
+
+		/**
+		 * Return the unindexed property sources with a higher precedence than
+		 * the first indexed property source containing the given key, followed
+		 * by that property source and all property sources with lower precedence
+		 * (to be searched in case of a {@code null} value for the given key).
+		 */
+		List<PropertySource<?>> getCandidatePropertySources(String key) {
+			int size = this.propertySources.size();
+			Integer exactPosition = this.exactPositions.get(key);
+			int position = (exactPosition != null ? exactPosition : size);
+			if (!this.relaxedPositions.isEmpty()) {
+				int[] relaxed = this.relaxedPositions.get(SystemEnvironmentPropertySource.getCanonicalPropertyName(key));
+				if (relaxed != null) {
+					for (int candidate : relaxed) {
+						if (candidate >= position) {
+							break;
+						}
+						if (this.propertySources.get(candidate).containsProperty(key)) {
+							position = candidate;
+							break;
+						}
+					}
+				}
+			}
+			List<PropertySource<?>> result = null;
+			for (int unindexed : this.unindexedPositions) {
+				if (unindexed >= position) {
+					break;
+				}
+				if (result == null) {
+					result = new ArrayList<>();
+				}
+				result.add(this.propertySources.get(unindexed));
+			}
+			if (result == null) {
+				return (position < size ? this.propertySources.subList(position, size) : Collections.emptyList());
+			}
+			if (position < size) {
+				result.addAll(this.propertySources.subList(position, size));
+			}
+			return result;
+		}
+	}
+
 }
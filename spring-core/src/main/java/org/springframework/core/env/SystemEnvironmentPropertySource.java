@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2015 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -144,6 +144,21 @@ public class SystemEnvironmentPropertySource extends MapPropertySource {
 		return null;
 	}
 
+	/**
+	 * Return the canonical form of the given property name, with all of its
+	 * underscore / uppercase variations mapping to the same canonical name:
+	 * i.e. uppercased, with dots and hyphens replaced by underscores.
+	 * <p>Any variation checked by {@link #resolvePropertyName} has the same
+	 * canonical name as the given name, so a property source without an entry
+	 * of the same canonical name cannot contain the given property.
+	 * @param name the property name
+	 * @return the canonical name
+	 * @since 5.2.9
+	 */
+	static String getCanonicalPropertyName(String name) {
+		return name.toUpperCase().replace('.', '_').replace('-', '_');
+	}
+
 	private boolean containsKey(String name) {
 		return (isSecurityManagerPresent() ? this.source.keySet().contains(name) : this.source.containsKey(name));
 	}
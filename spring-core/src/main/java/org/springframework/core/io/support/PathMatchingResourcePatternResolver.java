@@ -25,10 +25,16 @@ import org.springframework.util.*;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.net.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.zip.ZipException;
@@ -183,6 +189,13 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 	// ⚠️蚂蚁路径匹配器
 	private PathMatcher pathMatcher = new AntPathMatcher();
 
+	private boolean parallelResolution = false;
+
+	private boolean cacheJarEntries = false;
+
+	/** Cache of jar entry names, keyed by jar file URL. */
+	private final Map<String, String[]> jarEntryCache = new ConcurrentHashMap<>(64);
+
 
 	/**
 	 * Create a new PathMatchingResourcePatternResolver with a DefaultResourceLoader.
@@ -247,6 +260,60 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 		return this.pathMatcher;
 	}
 
+	/**
+	 * Set whether to search the root directories of a location pattern in parallel,
+	 * e.g. the jar files and directories of a "classpath*:" pattern, on the common
+	 * {@link ForkJoinPool}.
+	 * <p>Default is "false", searching one root directory after the other. Note
+	 * that template methods such as {@link #doFindPathMatchingJarResources} and
+	 * {@link #doFindPathMatchingFileResources} get called concurrently in parallel
+	 * mode: custom overrides need to be thread-safe then.
+	 * @since 5.2.9
+	 */
+	public void setParallelResolution(boolean parallelResolution) {
+		this.parallelResolution = parallelResolution;
+	}
+
+	/**
+	 * Return whether this resolver searches root directories in parallel.
+	 * @since 5.2.9
+	 */
+	public boolean isParallelResolution() {
+		return this.parallelResolution;
+	}
+
+	/**
+	 * Set whether to cache the entry names of every searched jar file, avoiding
+	 * repeated opening and traversal of the same jar file for subsequent patterns.
+	 * <p>Default is "false". Switch this to "true" for a series of pattern resolution
+	 * calls against an unchanging classpath, e.g. during an application context
+	 * refresh, and call {@link #clearCache()} at the end of it.
+	 * @since 5.2.9
+	 */
+	public void setCacheJarEntries(boolean cacheJarEntries) {
+		this.cacheJarEntries = cacheJarEntries;
+		if (!cacheJarEntries) {
+			this.jarEntryCache.clear();
+		}
+	}
+
+	/**
+	 * Return whether this resolver caches the entry names of searched jar files.
+	 * @since 5.2.9
+	 */
+	public boolean isCacheJarEntries() {
+		return this.cacheJarEntries;
+	}
+
+	/**
+	 * Clear the cache of jar entry names, if any.
+	 * @since 5.2.9
+	 * @see #setCacheJarEntries
+	 */
+	public void clearCache() {
+		this.jarEntryCache.clear();
+	}
+
 
 	@Override
 	public Resource getResource(String location) {
@@ -481,24 +548,20 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 		String subPattern = locationPattern.substring(rootDirPath.length());
 		Resource[] rootDirResources = getResources(rootDirPath);
 		Set<Resource> result = new LinkedHashSet<>(16);
-		for (Resource rootDirResource : rootDirResources) {
-			rootDirResource = resolveRootDirResource(rootDirResource);
-			URL rootDirUrl = rootDirResource.getURL();
-			if (equinoxResolveMethod != null && rootDirUrl.getProtocol().startsWith("bundle")) {
-				URL resolvedUrl = (URL) ReflectionUtils.invokeMethod(equinoxResolveMethod, null, rootDirUrl);
-				if (resolvedUrl != null) {
-					rootDirUrl = resolvedUrl;
-				}
-				rootDirResource = new UrlResource(rootDirUrl);
+		if (this.parallelResolution && rootDirResources.length > 1) {
+			// Search all root directories concurrently, collecting the results in root order
+			List<Future<Set<Resource>>> futures = new ArrayList<>(rootDirResources.length);
+			for (Resource rootDirResource : rootDirResources) {
+				futures.add(ForkJoinPool.commonPool().submit(() ->
+						findMatchingResourcesInRoot(rootDirResource, subPattern)));
 			}
-			if (rootDirUrl.getProtocol().startsWith(ResourceUtils.URL_PROTOCOL_VFS)) {
-				result.addAll(VfsResourceMatchingDelegate.findMatchingResources(rootDirUrl, subPattern, getPathMatcher()));
+			for (Future<Set<Resource>> future : futures) {
+				result.addAll(getResult(future));
 			}
-			else if (ResourceUtils.isJarURL(rootDirUrl) || isJarResource(rootDirResource)) {
-				result.addAll(doFindPathMatchingJarResources(rootDirResource, rootDirUrl, subPattern));
-			}
-			else {
-				result.addAll(doFindPathMatchingFileResources(rootDirResource, subPattern));
+		}
+		else {
+			for (Resource rootDirResource : rootDirResources) {
+				result.addAll(findMatchingResourcesInRoot(rootDirResource, subPattern));
 			}
 		}
 		if (logger.isTraceEnabled()) {
@@ -507,6 +570,54 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 		return result.toArray(new Resource[0]);
 	}
 
+	/**
+	 * Find all resources underneath the given root directory
+	 * that match the given sub pattern.
+	 */
+	private Set<Resource> findMatchingResourcesInRoot(Resource rootDirResource, String subPattern) throws IOException {
+		rootDirResource = resolveRootDirResource(rootDirResource);
+		URL rootDirUrl = rootDirResource.getURL();
+		if (equinoxResolveMethod != null && rootDirUrl.getProtocol().startsWith("bundle")) {
+			URL resolvedUrl = (URL) ReflectionUtils.invokeMethod(equinoxResolveMethod, null, rootDirUrl);
+			if (resolvedUrl != null) {
+				rootDirUrl = resolvedUrl;
+			}
+			rootDirResource = new UrlResource(rootDirUrl);
+		}
+		if (rootDirUrl.getProtocol().startsWith(ResourceUtils.URL_PROTOCOL_VFS)) {
+			return VfsResourceMatchingDelegate.findMatchingResources(rootDirUrl, subPattern, getPathMatcher());
+		}
+		else if (ResourceUtils.isJarURL(rootDirUrl) || isJarResource(rootDirResource)) {
+			return doFindPathMatchingJarResources(rootDirResource, rootDirUrl, subPattern);
+		}
+		else {
+			return doFindPathMatchingFileResources(rootDirResource, subPattern);
+		}
+	}
+
+	private static Set<Resource> getResult(Future<Set<Resource>> future) throws IOException {
+		try {
+			return future.get();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while searching for matching resources");
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException("Unexpected exception while searching for matching resources", cause);
+		}
+	}
+
 	/**
 	 * Determine the root directory for the given location.
 	 * <p>Used for determining the starting point for file matching,
@@ -577,6 +688,16 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 			throws IOException {
 
 		URLConnection con = rootDirURL.openConnection();
+		if (this.cacheJarEntries && con instanceof JarURLConnection) {
+			// Jar file URL and entry name are available without connecting
+			JarURLConnection jarCon = (JarURLConnection) con;
+			String[] entryNames = this.jarEntryCache.get(jarCon.getJarFileURL().toExternalForm());
+			if (entryNames != null) {
+				String entryName = jarCon.getEntryName();
+				return findMatchingJarEntries(rootDirResource, entryNames, (entryName != null ? entryName : ""), subPattern);
+			}
+		}
+
 		JarFile jarFile;
 		String jarFileUrl;
 		String rootEntryPath;
@@ -627,23 +748,15 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 			if (logger.isTraceEnabled()) {
 				logger.trace("Looking for matching resources in jar file [" + jarFileUrl + "]");
 			}
-			if (!"".equals(rootEntryPath) && !rootEntryPath.endsWith("/")) {
-				// Root entry path must end with slash to allow for proper matching.
-				// The Sun JRE does not return a slash here, but BEA JRockit does.
-				rootEntryPath = rootEntryPath + "/";
-			}
-			Set<Resource> result = new LinkedHashSet<>(8);
+			List<String> entryNames = new ArrayList<>(jarFile.size());
 			for (Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements();) {
-				JarEntry entry = entries.nextElement();
-				String entryPath = entry.getName();
-				if (entryPath.startsWith(rootEntryPath)) {
-					String relativePath = entryPath.substring(rootEntryPath.length());
-					if (getPathMatcher().match(subPattern, relativePath)) {
-						result.add(rootDirResource.createRelative(relativePath));
-					}
-				}
+				entryNames.add(entries.nextElement().getName());
+			}
+			String[] entryNameArray = StringUtils.toStringArray(entryNames);
+			if (this.cacheJarEntries && con instanceof JarURLConnection) {
+				this.jarEntryCache.put(jarFileUrl, entryNameArray);
 			}
-			return result;
+			return findMatchingJarEntries(rootDirResource, entryNameArray, rootEntryPath, subPattern);
 		}
 		finally {
 			if (closeJarFile) {
@@ -652,6 +765,43 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 		}
 	}
 
+	/**
+	 * Match the given jar entry names underneath the given root entry path
+	 * against the given sub pattern.
+	 */
+	private Set<Resource> findMatchingJarEntries(Resource rootDirResource, String[] entryNames,
+			String rootEntryPath, String subPattern) throws IOException {
+
+		if (!"".equals(rootEntryPath) && !rootEntryPath.endsWith("/")) {
+			// Root entry path must end with slash to allow for proper matching.
+			// The Sun JRE does not return a slash here, but BEA JRockit does.
+			rootEntryPath = rootEntryPath + "/";
+		}
+		Predicate<String> matcher = compilePattern(subPattern);
+		Set<Resource> result = new LinkedHashSet<>(8);
+		for (String entryPath : entryNames) {
+			if (entryPath.startsWith(rootEntryPath)) {
+				String relativePath = entryPath.substring(rootEntryPath.length());
+				if (matcher.test(relativePath)) {
+					result.add(rootDirResource.createRelative(relativePath));
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Compile the given pattern for matching against many paths,
+	 * using {@link AntPathMatcher#compile} if available.
+	 */
+	private Predicate<String> compilePattern(String pattern) {
+		PathMatcher pathMatcher = getPathMatcher();
+		if (pathMatcher instanceof AntPathMatcher) {
+			return ((AntPathMatcher) pathMatcher).compile(pattern);
+		}
+		return path -> pathMatcher.match(pattern, path);
+	}
+
 	/**
 	 * Resolve the given jar file URL into a JarFile object.
 	 */
@@ -0,0 +1,436 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.springframework.core.NamedThreadLocal;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ApplicationStartup} implementation that buffers {@link StartupStep steps}
+ * and records their timestamps as well as their processing time.
+ *
+ * <p>Steps are nested per thread: a step started while another step is active
+ * on the same thread becomes a child of that step. Once ended, steps are kept
+ * in a bounded buffer (see {@link #BufferingApplicationStartup(int)}) and can be
+ * retrieved via {@link #getBufferedSteps()} or written out in the "folded stacks"
+ * format understood by common flame graph tools via {@link #writeFoldedStacks(Writer)}.
+ *
+ * <p>Use {@link #addFilter(Predicate)} to only record steps of interest,
+ * e.g. {@code step -> step.getName().startsWith("spring.beans.")}.
+ *
+ * @since 5.2.9
+ */
+public class BufferingApplicationStartup implements ApplicationStartup {
+
+	private final int capacity;
+
+	private final long startNanos = System.nanoTime();
+
+	private final Instant startInstant = Instant.now();
+
+	private final AtomicLong idSequence = new AtomicLong();
+
+	private final ThreadLocal<BufferedStartupStep> currentStep = new NamedThreadLocal<>("Current startup step");
+
+	private final Queue<RecordedStep> recordedSteps = new ConcurrentLinkedQueue<>();
+
+	private final AtomicInteger recordedCount = new AtomicInteger();
+
+	private volatile Predicate<StartupStep> filter = step -> true;
+
+
+	/**
+	 * Create a new buffered {@link ApplicationStartup} with a limited capacity.
+	 * <p>Steps ended once the capacity has been reached are dropped.
+	 * @param capacity the maximum number of recorded steps
+	 */
+	public BufferingApplicationStartup(int capacity) {
+		Assert.isTrue(capacity > 0, "Capacity must be greater than 0");
+		this.capacity = capacity;
+	}
+
+
+	/**
+	 * Add a predicate filter to the list of existing ones.
+	 * <p>A {@link StartupStep step} that doesn't match all filters will not be recorded.
+	 * Its children will still be recorded, with their stack paths including it.
+	 * @param filter the predicate filter to add
+	 */
+	public void addFilter(Predicate<StartupStep> filter) {
+		Assert.notNull(filter, "Filter must not be null");
+		this.filter = this.filter.and(filter);
+	}
+
+	/**
+	 * Return the instant at which this {@code ApplicationStartup} was created.
+	 */
+	public Instant getStartTime() {
+		return this.startInstant;
+	}
+
+	@Override
+	public StartupStep start(String name) {
+		BufferedStartupStep parent = this.currentStep.get();
+		BufferedStartupStep step = new BufferedStartupStep(
+				this.idSequence.getAndIncrement(), name, parent, System.nanoTime());
+		this.currentStep.set(step);
+		return step;
+	}
+
+	private void record(BufferedStartupStep step, long endNanos) {
+		if (this.currentStep.get() == step) {
+			if (step.parent != null) {
+				this.currentStep.set(step.parent);
+			}
+			else {
+				this.currentStep.remove();
+			}
+		}
+		long durationNanos = endNanos - step.startNanos;
+		if (step.parent != null) {
+			step.parent.childNanos.addAndGet(durationNanos);
+		}
+		if (this.filter.test(step) && reserveCapacity()) {
+			long selfNanos = Math.max(0L, durationNanos - step.childNanos.get());
+			this.recordedSteps.add(new RecordedStep(step, toInstant(step.startNanos), toInstant(endNanos),
+					Duration.ofNanos(durationNanos), Duration.ofNanos(selfNanos)));
+		}
+	}
+
+	private boolean reserveCapacity() {
+		int count;
+		do {
+			count = this.recordedCount.get();
+			if (count >= this.capacity) {
+				return false;
+			}
+		}
+		while (!this.recordedCount.compareAndSet(count, count + 1));
+		return true;
+	}
+
+	private Instant toInstant(long nanos) {
+		return this.startInstant.plusNanos(nanos - this.startNanos);
+	}
+
+	/**
+	 * Return a snapshot of the recorded steps, in the order they ended.
+	 */
+	public List<RecordedStep> getBufferedSteps() {
+		return Collections.unmodifiableList(new ArrayList<>(this.recordedSteps));
+	}
+
+	/**
+	 * Return the recorded steps and remove them from the buffer,
+	 * making room for further steps.
+	 */
+	public List<RecordedStep> drainBufferedSteps() {
+		List<RecordedStep> drained = new ArrayList<>();
+		RecordedStep step;
+		while ((step = this.recordedSteps.poll()) != null) {
+			drained.add(step);
+			this.recordedCount.decrementAndGet();
+		}
+		return Collections.unmodifiableList(drained);
+	}
+
+	/**
+	 * Write the recorded steps in the "folded stacks" format: one line per
+	 * distinct stack path, with frames separated by {@code ';'} and followed
+	 * by the self time spent in that path in microseconds.
+	 * <p>The output can be fed into flame graph tools such as
+	 * {@code flamegraph.pl} or speedscope.
+	 * @param writer the writer to write to
+	 * @throws IOException in case of I/O errors
+	 */
+	public void writeFoldedStacks(Writer writer) throws IOException {
+		Map<String, Long> folded = new LinkedHashMap<>();
+		for (RecordedStep step : this.recordedSteps) {
+			folded.merge(step.getStackPath(), TimeUnit.NANOSECONDS.toMicros(step.getSelfDuration().toNanos()), Long::sum);
+		}
+		for (Map.Entry<String, Long> entry : folded.entrySet()) {
+			writer.write(entry.getKey());
+			writer.write(' ');
+			writer.write(Long.toString(entry.getValue()));
+			writer.write('\n');
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Return the recorded steps in the "folded stacks" format.
+	 * @see #writeFoldedStacks(Writer)
+	 */
+	public String getFoldedStacks() {
+		StringWriter writer = new StringWriter();
+		try {
+			writeFoldedStacks(writer);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException(ex);
+		}
+		return writer.toString();
+	}
+
+
+	/**
+	 * A {@link StartupStep} that has ended and was recorded, along with its timing.
+	 */
+	public static final class RecordedStep {
+
+		private final long id;
+
+		@Nullable
+		private final Long parentId;
+
+		private final String name;
+
+		private final List<StartupStep.Tag> tags;
+
+		private final String stackPath;
+
+		private final Instant startTime;
+
+		private final Instant endTime;
+
+		private final Duration duration;
+
+		private final Duration selfDuration;
+
+		RecordedStep(BufferedStartupStep step, Instant startTime, Instant endTime,
+				Duration duration, Duration selfDuration) {
+
+			this.id = step.getId();
+			this.parentId = step.getParentId();
+			this.name = step.getName();
+			this.tags = Collections.unmodifiableList(new ArrayList<>(step.tags.values()));
+			this.stackPath = step.getStackPath();
+			this.startTime = startTime;
+			this.endTime = endTime;
+			this.duration = duration;
+			this.selfDuration = selfDuration;
+		}
+
+		public long getId() {
+			return this.id;
+		}
+
+		@Nullable
+		public Long getParentId() {
+			return this.parentId;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public List<StartupStep.Tag> getTags() {
+			return this.tags;
+		}
+
+		/**
+		 * Return the path of this step, from the root step down to this one,
+		 * with frames separated by {@code ';'}.
+		 */
+		public String getStackPath() {
+			return this.stackPath;
+		}
+
+		public Instant getStartTime() {
+			return this.startTime;
+		}
+
+		public Instant getEndTime() {
+			return this.endTime;
+		}
+
+		/**
+		 * Return the total time spent in this step, including nested steps.
+		 */
+		public Duration getDuration() {
+			return this.duration;
+		}
+
+		/**
+		 * Return the time spent in this step, excluding nested steps.
+		 */
+		public Duration getSelfDuration() {
+			return this.selfDuration;
+		}
+
+		@Override
+		public String toString() {
+			return this.stackPath + " (" + this.duration.toMillis() + " ms)";
+		}
+	}
+
+
+	private class BufferedStartupStep implements StartupStep {
+
+		private final long id;
+
+		private final String name;
+
+		@Nullable
+		private final BufferedStartupStep parent;
+
+		private final long startNanos;
+
+		private final Map<String, StartupStep.Tag> tags = new LinkedHashMap<>();
+
+		private final AtomicLong childNanos = new AtomicLong();
+
+		@Nullable
+		private volatile String stackPath;
+
+		private volatile boolean ended;
+
+		BufferedStartupStep(long id, String name, @Nullable BufferedStartupStep parent, long startNanos) {
+			this.id = id;
+			this.name = name;
+			this.parent = parent;
+			this.startNanos = startNanos;
+		}
+
+		@Override
+		public String getName() {
+			return this.name;
+		}
+
+		@Override
+		public long getId() {
+			return this.id;
+		}
+
+		@Override
+		@Nullable
+		public Long getParentId() {
+			return (this.parent != null ? this.parent.id : null);
+		}
+
+		@Override
+		public StartupStep tag(String key, String value) {
+			Assert.state(!this.ended, "StartupStep has already ended.");
+			synchronized (this.tags) {
+				this.tags.put(key, new BufferedTag(key, value));
+			}
+			return this;
+		}
+
+		@Override
+		public StartupStep tag(String key, Supplier<String> value) {
+			return tag(key, value.get());
+		}
+
+		@Override
+		public Tags getTags() {
+			List<StartupStep.Tag> snapshot;
+			synchronized (this.tags) {
+				snapshot = new ArrayList<>(this.tags.values());
+			}
+			return snapshot::iterator;
+		}
+
+		/**
+		 * Build the stack path lazily, so that tags added right after
+		 * the start of this step are part of its frame.
+		 */
+		String getStackPath() {
+			String stackPath = this.stackPath;
+			if (stackPath == null) {
+				StringBuilder sb = new StringBuilder();
+				if (this.parent != null) {
+					sb.append(this.parent.getStackPath()).append(';');
+				}
+				sb.append(this.name);
+				Iterator<StartupStep.Tag> it = getTags().iterator();
+				if (it.hasNext()) {
+					sb.append('[');
+					while (it.hasNext()) {
+						StartupStep.Tag tag = it.next();
+						sb.append(tag.getKey()).append('=').append(tag.getValue().replace(';', ','));
+						if (it.hasNext()) {
+							sb.append(',');
+						}
+					}
+					sb.append(']');
+				}
+				stackPath = sb.toString();
+				this.stackPath = stackPath;
+			}
+			return stackPath;
+		}
+
+		@Override
+		public void end() {
+			Assert.state(!this.ended, "StartupStep has already ended.");
+			long endNanos = System.nanoTime();
+			getStackPath();
+			this.ended = true;
+			record(this, endNanos);
+		}
+	}
+
+
+	private static class BufferedTag implements StartupStep.Tag {
+
+		private final String key;
+
+		private final String value;
+
+		BufferedTag(String key, String value) {
+			this.key = key;
+			this.value = value;
+		}
+
+		@Override
+		public String getKey() {
+			return this.key;
+		}
+
+		@Override
+		public String getValue() {
+			return this.value;
+		}
+
+		@Override
+		public String toString() {
+			return this.key + "=" + this.value;
+		}
+	}
+
+}
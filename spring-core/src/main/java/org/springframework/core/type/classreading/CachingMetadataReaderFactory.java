@@ -17,6 +17,7 @@
 package org.springframework.core.type.classreading;
 
 import java.io.IOException;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
@@ -31,6 +32,13 @@ import org.springframework.lang.Nullable;
  * caching a {@link MetadataReader} instance per Spring {@link Resource} handle
  * (i.e. per ".class" file).
  *
+ * <p>As of 5.2.9, classes covered by a {@link ClassMetadataIndex} found on the
+ * class path are served from the pre-computed index, without reading their
+ * class files at all (and without occupying the cache), as long as they are
+ * located in the same class path root as their index. A local cache can also
+ * be bounded by the total size of the cached class files, evicting the least
+ * recently used entries first: see {@link #setCacheByteLimit}.
+ *
  * @author Juergen Hoeller
  * @author Costin Leau
  * @since 2.5
@@ -40,10 +48,17 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 	/** Default maximum number of entries for a local MetadataReader cache: 256. */
 	public static final int DEFAULT_CACHE_LIMIT = 256;
 
+	/** Assumed class file size for MetadataReaders of unknown size, in bytes. */
+	private static final int DEFAULT_CLASS_FILE_LENGTH = 2048;
+
 	/** MetadataReader cache: either local or shared at the ResourceLoader level. */
 	@Nullable
 	private Map<Resource, MetadataReader> metadataReaderCache;
 
+	/** Pre-computed class metadata from a build-time index, if any. */
+	@Nullable
+	private final ClassMetadataIndex metadataIndex;
+
 
 	/**
 	 * Create a new CachingMetadataReaderFactory for the default class loader,
@@ -52,6 +67,7 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 	public CachingMetadataReaderFactory() {
 		super();
 		setCacheLimit(DEFAULT_CACHE_LIMIT);
+		this.metadataIndex = ClassMetadataIndexLoader.loadIndex(getResourceLoader().getClassLoader());
 	}
 
 	/**
@@ -62,6 +78,7 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 	public CachingMetadataReaderFactory(@Nullable ClassLoader classLoader) {
 		super(classLoader);
 		setCacheLimit(DEFAULT_CACHE_LIMIT);
+		this.metadataIndex = ClassMetadataIndexLoader.loadIndex(getResourceLoader().getClassLoader());
 	}
 
 	/**
@@ -80,6 +97,7 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 		else {
 			setCacheLimit(DEFAULT_CACHE_LIMIT);
 		}
+		this.metadataIndex = ClassMetadataIndexLoader.loadIndex(getResourceLoader().getClassLoader());
 	}
 
 
@@ -113,14 +131,99 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 		}
 	}
 
+	/**
+	 * Specify the maximum total size of the class files behind the cached
+	 * MetadataReaders, in bytes, as an estimate for their memory footprint.
+	 * <p>Switches the cache to weighted eviction of its least recently used
+	 * entries, without an entry count limit: call {@link #setCacheLimit}
+	 * afterwards for an additional entry count limit. Like {@code setCacheLimit},
+	 * this method enforces a local resource cache.
+	 * @param cacheByteLimit the maximum total class file size, or 0 to turn
+	 * caching off completely
+	 * @since 5.2.9
+	 */
+	public void setCacheByteLimit(long cacheByteLimit) {
+		if (cacheByteLimit <= 0) {
+			this.metadataReaderCache = null;
+			return;
+		}
+		if (!(this.metadataReaderCache instanceof LocalResourceCache)) {
+			this.metadataReaderCache = new LocalResourceCache(Integer.MAX_VALUE);
+		}
+		LocalResourceCache localCache = (LocalResourceCache) this.metadataReaderCache;
+		synchronized (localCache) {
+			localCache.setCacheLimit(Integer.MAX_VALUE);
+			localCache.setByteLimit(cacheByteLimit);
+		}
+	}
+
+	/**
+	 * Return the maximum total class file size for the MetadataReader cache,
+	 * or {@link Long#MAX_VALUE} if not bounded by size.
+	 * @since 5.2.9
+	 */
+	public long getCacheByteLimit() {
+		if (this.metadataReaderCache instanceof LocalResourceCache) {
+			return ((LocalResourceCache) this.metadataReaderCache).getByteLimit();
+		}
+		else {
+			return (this.metadataReaderCache != null ? Long.MAX_VALUE : 0);
+		}
+	}
+
+	/**
+	 * Return the current total class file size of the cached MetadataReaders,
+	 * or -1 if not tracked for a shared resource cache.
+	 * @since 5.2.9
+	 */
+	public long getCachedBytes() {
+		if (this.metadataReaderCache instanceof LocalResourceCache) {
+			synchronized (this.metadataReaderCache) {
+				return ((LocalResourceCache) this.metadataReaderCache).getCachedBytes();
+			}
+		}
+		else {
+			return (this.metadataReaderCache != null ? -1 : 0);
+		}
+	}
+
+
+	/**
+	 * Return the class metadata index consulted before reading any class file,
+	 * or {@code null} if none is available for the ResourceLoader's ClassLoader.
+	 * @since 5.2.9
+	 * @see ClassMetadataIndexLoader#loadIndex(ClassLoader)
+	 */
+	@Nullable
+	public final ClassMetadataIndex getMetadataIndex() {
+		return this.metadataIndex;
+	}
+
+
+	@Override
+	public MetadataReader getMetadataReader(String className) throws IOException {
+		if (this.metadataIndex != null) {
+			MetadataReader metadataReader = this.metadataIndex.getMetadataReader(className);
+			if (metadataReader != null) {
+				return metadataReader;
+			}
+		}
+		return super.getMetadataReader(className);
+	}
 
 	@Override
 	public MetadataReader getMetadataReader(Resource resource) throws IOException {
+		if (this.metadataIndex != null) {
+			MetadataReader metadataReader = this.metadataIndex.getMetadataReader(resource);
+			if (metadataReader != null) {
+				return metadataReader;
+			}
+		}
 		if (this.metadataReaderCache instanceof ConcurrentMap) {
 			// No synchronization necessary...
 			MetadataReader metadataReader = this.metadataReaderCache.get(resource);
 			if (metadataReader == null) {
-				metadataReader = super.getMetadataReader(resource);
+				metadataReader = createMetadataReader(resource);
 				this.metadataReaderCache.put(resource, metadataReader);
 			}
 			return metadataReader;
@@ -129,17 +232,30 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 			synchronized (this.metadataReaderCache) {
 				MetadataReader metadataReader = this.metadataReaderCache.get(resource);
 				if (metadataReader == null) {
-					metadataReader = super.getMetadataReader(resource);
+					metadataReader = createMetadataReader(resource);
 					this.metadataReaderCache.put(resource, metadataReader);
 				}
 				return metadataReader;
 			}
 		}
 		else {
-			return super.getMetadataReader(resource);
+			return createMetadataReader(resource);
 		}
 	}
 
+	/**
+	 * Create a new MetadataReader for the given resource, to be cached.
+	 * <p>The default implementation reads the class file through
+	 * {@link SimpleMetadataReaderFactory#getMetadataReader(Resource)}.
+	 * @param resource the resource (pointing to a ".class" file)
+	 * @return the newly created MetadataReader
+	 * @throws IOException in case of I/O failure
+	 * @since 5.2.9
+	 */
+	protected MetadataReader createMetadataReader(Resource resource) throws IOException {
+		return super.getMetadataReader(resource);
+	}
+
 	/**
 	 * Clear the local MetadataReader cache, if any, removing all cached class metadata.
 	 */
@@ -156,13 +272,23 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 	}
 
 
+	private static long getClassFileLength(MetadataReader metadataReader) {
+		return (metadataReader instanceof SimpleMetadataReader ?
+				((SimpleMetadataReader) metadataReader).getClassFileLength() : DEFAULT_CLASS_FILE_LENGTH);
+	}
+
+
 	@SuppressWarnings("serial")
 	private static class LocalResourceCache extends LinkedHashMap<Resource, MetadataReader> {
 
 		private volatile int cacheLimit;
 
+		private volatile long byteLimit = Long.MAX_VALUE;
+
+		private long cachedBytes;
+
 		public LocalResourceCache(int cacheLimit) {
-			super(cacheLimit, 0.75f, true);
+			super(Math.min(cacheLimit, DEFAULT_CACHE_LIMIT), 0.75f, true);
 			this.cacheLimit = cacheLimit;
 		}
 
@@ -174,9 +300,52 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 			return this.cacheLimit;
 		}
 
+		public void setByteLimit(long byteLimit) {
+			this.byteLimit = byteLimit;
+			evictToByteLimit();
+		}
+
+		public long getByteLimit() {
+			return this.byteLimit;
+		}
+
+		public long getCachedBytes() {
+			return this.cachedBytes;
+		}
+
+		@Override
+		public MetadataReader put(Resource key, MetadataReader value) {
+			MetadataReader previous = super.put(key, value);
+			if (previous != null) {
+				this.cachedBytes -= getClassFileLength(previous);
+			}
+			this.cachedBytes += getClassFileLength(value);
+			evictToByteLimit();
+			return previous;
+		}
+
+		@Override
+		public void clear() {
+			super.clear();
+			this.cachedBytes = 0;
+		}
+
 		@Override
 		protected boolean removeEldestEntry(Map.Entry<Resource, MetadataReader> eldest) {
-			return size() > this.cacheLimit;
+			if (size() > this.cacheLimit) {
+				this.cachedBytes -= getClassFileLength(eldest.getValue());
+				return true;
+			}
+			return false;
+		}
+
+		private void evictToByteLimit() {
+			// Keep the most recently used entry even if it exceeds the limit on its own
+			Iterator<MetadataReader> it = values().iterator();
+			while (this.cachedBytes > this.byteLimit && size() > 1) {
+				this.cachedBytes -= getClassFileLength(it.next());
+				it.remove();
+			}
 		}
 	}
 
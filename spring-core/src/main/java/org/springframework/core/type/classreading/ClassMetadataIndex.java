@@ -0,0 +1,503 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.core.annotation.MergedAnnotation;
+import org.springframework.core.annotation.MergedAnnotations;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.ClassMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.lang.Nullable;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Pre-computed class metadata for the classes of one or more index files,
+ * serving {@link MetadataReader} instances without opening any ".class" file.
+ *
+ * <p>Index entries are decoded eagerly into a compact form when the index is
+ * loaded; the {@link AnnotationMetadata} for an entry is only materialized on
+ * first access, resolving annotation types against the index's class loader
+ * just like ASM-based reading does. The resulting metadata is equivalent to the
+ * one obtained from a {@link SimpleMetadataReaderFactory}.
+ *
+ * <p>Each index file only covers the classes within the class path root it
+ * was loaded from, i.e. the directory or jar file containing it. Metadata is
+ * only served for a ".class" resource at exactly such a location, so a class
+ * that is shadowed by an earlier class path entry, or that got recompiled into
+ * a different location, is always read from its actual class file instead.
+ *
+ * @since 5.2.9
+ * @see ClassMetadataIndexLoader
+ * @see ClassMetadataIndexWriter
+ * @see CachingMetadataReaderFactory
+ */
+public final class ClassMetadataIndex {
+
+	private static final AntPathMatcher pathMatcher = new AntPathMatcher(".");
+
+	@Nullable
+	private final ClassLoader classLoader;
+
+	private final Map<String, IndexedClass> classes = new LinkedHashMap<>(256);
+
+	private final Map<String, IndexedClass> classesByLocation = new HashMap<>(256);
+
+
+	ClassMetadataIndex(@Nullable ClassLoader classLoader) {
+		this.classLoader = classLoader;
+	}
+
+
+	/**
+	 * Read the index entries from the given stream, in addition to the
+	 * entries read before. For a class that is present in several index
+	 * files, the first entry wins for lookups by name - in line with class
+	 * loading order.
+	 * @param inputStream the stream to read from (not closed)
+	 * @param rootPath the URL path of the class path root that the index
+	 * belongs to, ending with a slash
+	 * @throws IOException in case of I/O errors or an unsupported format
+	 */
+	void read(InputStream inputStream, String rootPath) throws IOException {
+		DataInputStream data = new DataInputStream(new BufferedInputStream(inputStream));
+		if (data.readInt() != ClassMetadataIndexWriter.MAGIC) {
+			throw new IOException("Not a class metadata index");
+		}
+		int version = data.readInt();
+		if (version != ClassMetadataIndexWriter.VERSION) {
+			throw new IOException("Unsupported class metadata index version " + version);
+		}
+		int count = data.readInt();
+		for (int i = 0; i < count; i++) {
+			IndexedClass indexedClass = readClass(data);
+			this.classes.putIfAbsent(indexedClass.className, indexedClass);
+			this.classesByLocation.putIfAbsent(rootPath + getResourcePath(indexedClass.className), indexedClass);
+		}
+	}
+
+
+	/**
+	 * Return the number of classes in this index.
+	 */
+	public int size() {
+		return this.classes.size();
+	}
+
+	/**
+	 * Determine whether this index contains the given class.
+	 * @param className the fully qualified class name
+	 */
+	public boolean containsClass(String className) {
+		return this.classes.containsKey(className);
+	}
+
+	/**
+	 * Return the names of all indexed classes in the given package or any of
+	 * its sub-packages.
+	 * @param basePackage the package to check, possibly containing
+	 * Ant-style patterns for the package segments
+	 * @return the fully qualified class names (never {@code null})
+	 */
+	public Set<String> getClassNames(String basePackage) {
+		Set<String> result = new LinkedHashSet<>();
+		boolean pattern = pathMatcher.isPattern(basePackage);
+		for (String className : this.classes.keySet()) {
+			if (pattern ? pathMatcher.match(basePackage, ClassUtils.getPackageName(className)) :
+					className.startsWith(basePackage + ".")) {
+				result.add(className);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Obtain a {@link MetadataReader} for the given class name.
+	 * <p>Supports the dot syntax for inner classes as well.
+	 * @param className the fully qualified class name
+	 * @return the reader, or {@code null} if the class is not indexed
+	 * for the location that the class loader resolves it from
+	 */
+	@Nullable
+	public MetadataReader getMetadataReader(String className) {
+		String classNameToUse = className;
+		if (!this.classes.containsKey(classNameToUse)) {
+			int lastDotIndex = className.lastIndexOf('.');
+			if (lastDotIndex == -1) {
+				return null;
+			}
+			classNameToUse = className.substring(0, lastDotIndex) + '$' + className.substring(lastDotIndex + 1);
+			if (!this.classes.containsKey(classNameToUse)) {
+				return null;
+			}
+		}
+		return getMetadataReader(new ClassPathResource(getResourcePath(classNameToUse), this.classLoader));
+	}
+
+	/**
+	 * Obtain a {@link MetadataReader} for the given ".class" file resource.
+	 * <p>The resource is matched by the path of its URL, which has to point
+	 * to a class within the class path root of the index file that the
+	 * class has been indexed in.
+	 * @param resource the resource (pointing to a ".class" file)
+	 * @return the reader, or {@code null} if the class is not indexed
+	 * for the resource's location
+	 */
+	@Nullable
+	public MetadataReader getMetadataReader(Resource resource) {
+		String filename = resource.getFilename();
+		if (filename == null || !filename.endsWith(ClassUtils.CLASS_FILE_SUFFIX)) {
+			return null;
+		}
+		IndexedClass indexedClass;
+		try {
+			indexedClass = this.classesByLocation.get(resource.getURL().getPath());
+		}
+		catch (IOException ex) {
+			return null;
+		}
+		return (indexedClass != null ?
+				new IndexedMetadataReader(resource, getAnnotationMetadata(indexedClass)) : null);
+	}
+
+	private AnnotationMetadata getAnnotationMetadata(IndexedClass indexedClass) {
+		AnnotationMetadata metadata = indexedClass.metadata;
+		if (metadata == null) {
+			metadata = createAnnotationMetadata(indexedClass);
+			indexedClass.metadata = metadata;
+		}
+		return metadata;
+	}
+
+
+	private AnnotationMetadata createAnnotationMetadata(IndexedClass indexedClass) {
+		MethodMetadata[] annotatedMethods = new MethodMetadata[indexedClass.annotatedMethods.length];
+		for (int i = 0; i < annotatedMethods.length; i++) {
+			IndexedMethod method = indexedClass.annotatedMethods[i];
+			annotatedMethods[i] = new SimpleMethodMetadata(method.methodName, method.access,
+					method.declaringClassName, method.returnTypeName,
+					createAnnotations(method.annotations, method.declaringClassName + '.' + method.methodName));
+		}
+		return new SimpleAnnotationMetadata(indexedClass.className, indexedClass.access,
+				indexedClass.enclosingClassName, indexedClass.superClassName,
+				indexedClass.independentInnerClass, indexedClass.interfaceNames,
+				indexedClass.memberClassNames, annotatedMethods,
+				createAnnotations(indexedClass.annotations, indexedClass.className));
+	}
+
+	private MergedAnnotations createAnnotations(IndexedAnnotation[] indexedAnnotations, Object source) {
+		List<MergedAnnotation<?>> annotations = new ArrayList<>(indexedAnnotations.length);
+		for (IndexedAnnotation indexedAnnotation : indexedAnnotations) {
+			try {
+				annotations.add(createAnnotation(indexedAnnotation, source));
+			}
+			catch (ClassNotFoundException | LinkageError ex) {
+				// Annotation type not present at runtime - ignored like in ASM-based reading
+			}
+		}
+		return MergedAnnotations.of(annotations);
+	}
+
+	@SuppressWarnings("unchecked")
+	private <A extends Annotation> MergedAnnotation<A> createAnnotation(
+			IndexedAnnotation indexedAnnotation, Object source) throws ClassNotFoundException {
+
+		Class<A> annotationType = (Class<A>) ClassUtils.forName(indexedAnnotation.typeName, this.classLoader);
+		Map<String, Object> attributes = new LinkedHashMap<>(indexedAnnotation.attributes.size());
+		for (Map.Entry<String, Object> entry : indexedAnnotation.attributes.entrySet()) {
+			attributes.put(entry.getKey(), createValue(entry.getValue(), source));
+		}
+		return MergedAnnotation.of(this.classLoader, source, annotationType, attributes);
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private Object createValue(Object value, Object source) throws ClassNotFoundException {
+		if (value instanceof EnumValue) {
+			EnumValue enumValue = (EnumValue) value;
+			Class<? extends Enum> enumType = (Class<? extends Enum>) ClassUtils.forName(enumValue.typeName, this.classLoader);
+			Object[] result = (Object[]) Array.newInstance(enumType, enumValue.names.length);
+			for (int i = 0; i < result.length; i++) {
+				result[i] = Enum.valueOf(enumType, enumValue.names[i]);
+			}
+			return (enumValue.array ? result : result[0]);
+		}
+		if (value instanceof IndexedAnnotation) {
+			return createAnnotation((IndexedAnnotation) value, source);
+		}
+		if (value instanceof IndexedAnnotation[]) {
+			IndexedAnnotation[] indexedAnnotations = (IndexedAnnotation[]) value;
+			if (indexedAnnotations.length == 0) {
+				return new Object[0];
+			}
+			MergedAnnotation<?>[] result = new MergedAnnotation<?>[indexedAnnotations.length];
+			for (int i = 0; i < result.length; i++) {
+				result[i] = createAnnotation(indexedAnnotations[i], source);
+			}
+			return result;
+		}
+		return value;
+	}
+
+
+	private static String getResourcePath(String className) {
+		return ClassUtils.convertClassNameToResourcePath(className) + ClassUtils.CLASS_FILE_SUFFIX;
+	}
+
+	private static IndexedClass readClass(DataInputStream data) throws IOException {
+		IndexedClass indexedClass = new IndexedClass();
+		indexedClass.className = data.readUTF();
+		indexedClass.access = data.readInt();
+		indexedClass.enclosingClassName = readNullableString(data);
+		indexedClass.superClassName = readNullableString(data);
+		indexedClass.independentInnerClass = data.readBoolean();
+		indexedClass.interfaceNames = readStrings(data);
+		indexedClass.memberClassNames = readStrings(data);
+		indexedClass.annotatedMethods = new IndexedMethod[data.readInt()];
+		for (int i = 0; i < indexedClass.annotatedMethods.length; i++) {
+			IndexedMethod method = new IndexedMethod();
+			method.methodName = data.readUTF();
+			method.access = data.readInt();
+			method.declaringClassName = data.readUTF();
+			method.returnTypeName = data.readUTF();
+			method.annotations = readAnnotations(data);
+			indexedClass.annotatedMethods[i] = method;
+		}
+		indexedClass.annotations = readAnnotations(data);
+		return indexedClass;
+	}
+
+	private static IndexedAnnotation[] readAnnotations(DataInputStream data) throws IOException {
+		IndexedAnnotation[] annotations = new IndexedAnnotation[data.readInt()];
+		for (int i = 0; i < annotations.length; i++) {
+			annotations[i] = readAnnotation(data);
+		}
+		return annotations;
+	}
+
+	private static IndexedAnnotation readAnnotation(DataInputStream data) throws IOException {
+		String typeName = data.readUTF();
+		int count = data.readInt();
+		Map<String, Object> attributes = new LinkedHashMap<>(count);
+		for (int i = 0; i < count; i++) {
+			String name = data.readUTF();
+			attributes.put(name, readValue(data, data.readByte()));
+		}
+		return new IndexedAnnotation(typeName, attributes);
+	}
+
+	private static Object readValue(DataInputStream data, byte tag) throws IOException {
+		switch (tag) {
+			case ClassMetadataIndexWriter.TAG_STRING:
+				return data.readUTF();
+			case ClassMetadataIndexWriter.TAG_BOOLEAN:
+				return data.readBoolean();
+			case ClassMetadataIndexWriter.TAG_BYTE:
+				return data.readByte();
+			case ClassMetadataIndexWriter.TAG_CHAR:
+				return data.readChar();
+			case ClassMetadataIndexWriter.TAG_SHORT:
+				return data.readShort();
+			case ClassMetadataIndexWriter.TAG_INT:
+				return data.readInt();
+			case ClassMetadataIndexWriter.TAG_LONG:
+				return data.readLong();
+			case ClassMetadataIndexWriter.TAG_FLOAT:
+				return data.readFloat();
+			case ClassMetadataIndexWriter.TAG_DOUBLE:
+				return data.readDouble();
+			case ClassMetadataIndexWriter.TAG_ENUM:
+				return new EnumValue(data.readUTF(), new String[] {data.readUTF()}, false);
+			case ClassMetadataIndexWriter.TAG_ENUM_ARRAY:
+				return new EnumValue(data.readUTF(), readStrings(data), true);
+			case ClassMetadataIndexWriter.TAG_ANNOTATION:
+				return readAnnotation(data);
+			case ClassMetadataIndexWriter.TAG_ANNOTATION_ARRAY:
+				return readAnnotations(data);
+			case ClassMetadataIndexWriter.TAG_ARRAY:
+				int length = data.readInt();
+				if (length == 0) {
+					return new Object[0];
+				}
+				// Primitive arrays as produced by ASM-based reading, String arrays otherwise
+				byte elementTag = data.readByte();
+				Object array = Array.newInstance(getArrayComponentType(elementTag), length);
+				Array.set(array, 0, readValue(data, elementTag));
+				for (int i = 1; i < length; i++) {
+					Array.set(array, i, readValue(data, data.readByte()));
+				}
+				return array;
+			default:
+				throw new IOException("Invalid attribute value tag '" + (char) tag + "' in class metadata index");
+		}
+	}
+
+	private static Class<?> getArrayComponentType(byte tag) throws IOException {
+		switch (tag) {
+			case ClassMetadataIndexWriter.TAG_STRING:
+				return String.class;
+			case ClassMetadataIndexWriter.TAG_BOOLEAN:
+				return boolean.class;
+			case ClassMetadataIndexWriter.TAG_BYTE:
+				return byte.class;
+			case ClassMetadataIndexWriter.TAG_CHAR:
+				return char.class;
+			case ClassMetadataIndexWriter.TAG_SHORT:
+				return short.class;
+			case ClassMetadataIndexWriter.TAG_INT:
+				return int.class;
+			case ClassMetadataIndexWriter.TAG_LONG:
+				return long.class;
+			case ClassMetadataIndexWriter.TAG_FLOAT:
+				return float.class;
+			case ClassMetadataIndexWriter.TAG_DOUBLE:
+				return double.class;
+			default:
+				throw new IOException("Invalid array element tag '" + (char) tag + "' in class metadata index");
+		}
+	}
+
+	private static String[] readStrings(DataInputStream data) throws IOException {
+		String[] values = new String[data.readInt()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = data.readUTF();
+		}
+		return values;
+	}
+
+	@Nullable
+	private static String readNullableString(DataInputStream data) throws IOException {
+		return (data.readBoolean() ? data.readUTF() : null);
+	}
+
+
+	private static class IndexedClass {
+
+		String className;
+
+		int access;
+
+		@Nullable
+		String enclosingClassName;
+
+		@Nullable
+		String superClassName;
+
+		boolean independentInnerClass;
+
+		String[] interfaceNames;
+
+		String[] memberClassNames;
+
+		IndexedMethod[] annotatedMethods;
+
+		IndexedAnnotation[] annotations;
+
+		@Nullable
+		volatile AnnotationMetadata metadata;
+	}
+
+
+	private static class IndexedMethod {
+
+		String methodName;
+
+		int access;
+
+		String declaringClassName;
+
+		String returnTypeName;
+
+		IndexedAnnotation[] annotations;
+	}
+
+
+	private static class IndexedAnnotation {
+
+		final String typeName;
+
+		final Map<String, Object> attributes;
+
+		IndexedAnnotation(String typeName, Map<String, Object> attributes) {
+			this.typeName = typeName;
+			this.attributes = attributes;
+		}
+	}
+
+
+	private static class EnumValue {
+
+		final String typeName;
+
+		final String[] names;
+
+		final boolean array;
+
+		EnumValue(String typeName, String[] names, boolean array) {
+			this.typeName = typeName;
+			this.names = names;
+			this.array = array;
+		}
+	}
+
+
+	/**
+	 * {@link MetadataReader} exposing indexed metadata for a given resource.
+	 */
+	private static class IndexedMetadataReader implements MetadataReader {
+
+		private final Resource resource;
+
+		private final AnnotationMetadata metadata;
+
+		IndexedMetadataReader(Resource resource, AnnotationMetadata metadata) {
+			this.resource = resource;
+			this.metadata = metadata;
+		}
+
+		@Override
+		public Resource getResource() {
+			return this.resource;
+		}
+
+		@Override
+		public ClassMetadata getClassMetadata() {
+			return this.metadata;
+		}
+
+		@Override
+		public AnnotationMetadata getAnnotationMetadata() {
+			return this.metadata;
+		}
+	}
+
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.MergedAnnotation;
+import org.springframework.core.annotation.MergedAnnotation.Adapt;
+import org.springframework.core.annotation.MergedAnnotations;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Writes the binary class metadata index read by {@link ClassMetadataIndex}.
+ *
+ * <p>Classes are added through the {@link MetadataReader} obtained from a
+ * {@link SimpleMetadataReaderFactory}, typically at build time right after
+ * compilation. The index captures the full state of the ASM-based
+ * {@link AnnotationMetadata}: class name, access flags, type hierarchy names,
+ * member classes, directly present annotations with their explicitly declared
+ * attribute values, and all annotated methods (e.g. {@code @Bean} or
+ * {@code @EventListener} methods) with their own annotations.
+ *
+ * @since 5.2.9
+ * @see ClassMetadataIndex
+ */
+public class ClassMetadataIndexWriter {
+
+	static final int MAGIC = 0x53504D44;
+
+	static final int VERSION = 1;
+
+	static final byte TAG_STRING = 's';
+
+	static final byte TAG_BOOLEAN = 'Z';
+
+	static final byte TAG_BYTE = 'B';
+
+	static final byte TAG_CHAR = 'C';
+
+	static final byte TAG_SHORT = 'S';
+
+	static final byte TAG_INT = 'I';
+
+	static final byte TAG_LONG = 'J';
+
+	static final byte TAG_FLOAT = 'F';
+
+	static final byte TAG_DOUBLE = 'D';
+
+	static final byte TAG_ENUM = 'e';
+
+	static final byte TAG_ANNOTATION = '@';
+
+	static final byte TAG_ARRAY = '[';
+
+	static final byte TAG_ENUM_ARRAY = 'E';
+
+	static final byte TAG_ANNOTATION_ARRAY = 'A';
+
+
+	private final Map<String, SimpleAnnotationMetadata> classes = new TreeMap<>();
+
+
+	/**
+	 * Add the class described by the given {@link MetadataReader} to the index.
+	 * @param metadataReader a reader created by a {@link SimpleMetadataReaderFactory}
+	 * @throws IllegalArgumentException if the reader does not expose ASM-based metadata
+	 */
+	public void add(MetadataReader metadataReader) {
+		AnnotationMetadata metadata = metadataReader.getAnnotationMetadata();
+		Assert.isInstanceOf(SimpleAnnotationMetadata.class, metadata,
+				"Only ASM-based class metadata can be indexed");
+		this.classes.put(metadata.getClassName(), (SimpleAnnotationMetadata) metadata);
+	}
+
+	/**
+	 * Return the number of classes added so far.
+	 */
+	public int size() {
+		return this.classes.size();
+	}
+
+	/**
+	 * Write the index to the given stream, sorted by class name.
+	 * <p>The stream is flushed but not closed.
+	 * @param out the stream to write to
+	 * @throws IOException in case of I/O errors
+	 */
+	public void write(OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+		data.writeInt(MAGIC);
+		data.writeInt(VERSION);
+		data.writeInt(this.classes.size());
+		for (SimpleAnnotationMetadata metadata : this.classes.values()) {
+			writeClass(data, metadata);
+		}
+		data.flush();
+	}
+
+	private void writeClass(DataOutputStream data, SimpleAnnotationMetadata metadata) throws IOException {
+		data.writeUTF(metadata.getClassName());
+		data.writeInt(metadata.getAccess());
+		writeNullableString(data, metadata.getEnclosingClassName());
+		writeNullableString(data, metadata.getSuperClassName());
+		data.writeBoolean(metadata.isIndependentInnerClass());
+		writeStrings(data, metadata.getInterfaceNames());
+		writeStrings(data, metadata.getMemberClassNames());
+		MethodMetadata[] annotatedMethods = metadata.getDeclaredAnnotatedMethods();
+		data.writeInt(annotatedMethods.length);
+		for (MethodMetadata method : annotatedMethods) {
+			Assert.isInstanceOf(SimpleMethodMetadata.class, method, "Only ASM-based method metadata can be indexed");
+			data.writeUTF(method.getMethodName());
+			data.writeInt(((SimpleMethodMetadata) method).getAccess());
+			data.writeUTF(method.getDeclaringClassName());
+			data.writeUTF(method.getReturnTypeName());
+			writeAnnotations(data, method.getAnnotations());
+		}
+		writeAnnotations(data, metadata.getAnnotations());
+	}
+
+	private void writeAnnotations(DataOutputStream data, MergedAnnotations annotations) throws IOException {
+		List<MergedAnnotation<Annotation>> directAnnotations = annotations.stream()
+				.filter(MergedAnnotation::isDirectlyPresent)
+				.collect(Collectors.toList());
+		data.writeInt(directAnnotations.size());
+		for (MergedAnnotation<Annotation> annotation : directAnnotations) {
+			writeAnnotation(data, annotation.getType(),
+					annotation.asAnnotationAttributes(Adapt.CLASS_TO_STRING, Adapt.ANNOTATION_TO_MAP));
+		}
+	}
+
+	private void writeAnnotation(DataOutputStream data, Class<? extends Annotation> annotationType,
+			Map<String, Object> attributes) throws IOException {
+
+		// Only record values differing from the defaults, just like the class file does
+		Map<String, Object> declaredAttributes = new TreeMap<>();
+		attributes.forEach((name, value) -> {
+			if (!isDefaultValue(value, AnnotationUtils.getDefaultValue(annotationType, name))) {
+				declaredAttributes.put(name, value);
+			}
+		});
+		data.writeUTF(annotationType.getName());
+		data.writeInt(declaredAttributes.size());
+		for (Map.Entry<String, Object> entry : declaredAttributes.entrySet()) {
+			data.writeUTF(entry.getKey());
+			writeValue(data, entry.getValue());
+		}
+	}
+
+	private boolean isDefaultValue(Object value, @Nullable Object defaultValue) {
+		if (defaultValue instanceof Class) {
+			return ((Class<?>) defaultValue).getName().equals(value);
+		}
+		if (defaultValue instanceof Class[] && value instanceof String[]) {
+			Class<?>[] defaultClasses = (Class<?>[]) defaultValue;
+			String[] classNames = (String[]) value;
+			if (defaultClasses.length != classNames.length) {
+				return false;
+			}
+			for (int i = 0; i < defaultClasses.length; i++) {
+				if (!defaultClasses[i].getName().equals(classNames[i])) {
+					return false;
+				}
+			}
+			return true;
+		}
+		return ObjectUtils.nullSafeEquals(value, defaultValue);
+	}
+
+	private void writeValue(DataOutputStream data, Object value) throws IOException {
+		if (value instanceof String) {
+			data.writeByte(TAG_STRING);
+			data.writeUTF((String) value);
+		}
+		else if (value instanceof Boolean) {
+			data.writeByte(TAG_BOOLEAN);
+			data.writeBoolean((Boolean) value);
+		}
+		else if (value instanceof Byte) {
+			data.writeByte(TAG_BYTE);
+			data.writeByte((Byte) value);
+		}
+		else if (value instanceof Character) {
+			data.writeByte(TAG_CHAR);
+			data.writeChar((Character) value);
+		}
+		else if (value instanceof Short) {
+			data.writeByte(TAG_SHORT);
+			data.writeShort((Short) value);
+		}
+		else if (value instanceof Integer) {
+			data.writeByte(TAG_INT);
+			data.writeInt((Integer) value);
+		}
+		else if (value instanceof Long) {
+			data.writeByte(TAG_LONG);
+			data.writeLong((Long) value);
+		}
+		else if (value instanceof Float) {
+			data.writeByte(TAG_FLOAT);
+			data.writeFloat((Float) value);
+		}
+		else if (value instanceof Double) {
+			data.writeByte(TAG_DOUBLE);
+			data.writeDouble((Double) value);
+		}
+		else if (value instanceof Enum) {
+			Enum<?> enumValue = (Enum<?>) value;
+			data.writeByte(TAG_ENUM);
+			data.writeUTF(enumValue.getDeclaringClass().getName());
+			data.writeUTF(enumValue.name());
+		}
+		else if (value instanceof AnnotationAttributes) {
+			data.writeByte(TAG_ANNOTATION);
+			writeNestedAnnotation(data, (AnnotationAttributes) value);
+		}
+		else if (value instanceof Enum[]) {
+			Enum<?>[] enumValues = (Enum<?>[]) value;
+			data.writeByte(TAG_ENUM_ARRAY);
+			data.writeUTF(enumValues.getClass().getComponentType().getName());
+			data.writeInt(enumValues.length);
+			for (Enum<?> enumValue : enumValues) {
+				data.writeUTF(enumValue.name());
+			}
+		}
+		else if (value instanceof AnnotationAttributes[]) {
+			AnnotationAttributes[] nestedValues = (AnnotationAttributes[]) value;
+			data.writeByte(TAG_ANNOTATION_ARRAY);
+			data.writeInt(nestedValues.length);
+			for (AnnotationAttributes nestedValue : nestedValues) {
+				writeNestedAnnotation(data, nestedValue);
+			}
+		}
+		else if (value.getClass().isArray()) {
+			Object[] elements = ObjectUtils.toObjectArray(value);
+			data.writeByte(TAG_ARRAY);
+			data.writeInt(elements.length);
+			for (Object element : elements) {
+				writeValue(data, element);
+			}
+		}
+		else {
+			throw new IllegalArgumentException("Unsupported annotation attribute value: " + value);
+		}
+	}
+
+	private void writeNestedAnnotation(DataOutputStream data, AnnotationAttributes attributes) throws IOException {
+		Class<? extends Annotation> annotationType = attributes.annotationType();
+		Assert.state(annotationType != null, "Nested annotation attributes without annotation type");
+		writeAnnotation(data, annotationType, attributes);
+	}
+
+	private void writeStrings(DataOutputStream data, String[] values) throws IOException {
+		data.writeInt(values.length);
+		for (String value : values) {
+			data.writeUTF(value);
+		}
+	}
+
+	private void writeNullableString(DataOutputStream data, @Nullable String value) throws IOException {
+		data.writeBoolean(value != null);
+		if (value != null) {
+			data.writeUTF(value);
+		}
+	}
+
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Variant of {@link CachingMetadataReaderFactory} which reads class files
+ * straight from the file system instead of through {@link Resource#getInputStream()}:
+ * class files in directories are read through a {@link FileChannel}, with
+ * large files being memory-mapped, and class files in jar files are read
+ * from a {@link ZipFile} handle shared across all entries of the same jar,
+ * avoiding a {@code JarURLConnection} per class file.
+ *
+ * <p>Class file content is read into a per-thread buffer which is reused
+ * across class files, so that a classpath scan does not allocate a new byte
+ * array for every candidate class. Resources of any other kind are read as
+ * in {@link SimpleMetadataReaderFactory}.
+ *
+ * <p>The shared jar file handles remain open until this factory is
+ * {@link #close() closed}, typically at the end of a classpath scan.
+ *
+ * @since 5.2.9
+ * @see #setMappingThreshold
+ * @see #setCacheByteLimit
+ */
+public class MappedMetadataReaderFactory extends CachingMetadataReaderFactory implements Closeable {
+
+	/** Default minimum size of a class file to get memory-mapped: 64 KB. */
+	public static final int DEFAULT_MAPPING_THRESHOLD = 64 * 1024;
+
+	/** Maximum size of a per-thread buffer to be kept for reuse: 1 MB. */
+	private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+
+	private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+
+
+	private final Map<String, ZipFile> jarFileCache = new ConcurrentHashMap<>();
+
+	private final ThreadLocal<byte[]> bufferHolder = new ThreadLocal<>();
+
+	private volatile int mappingThreshold = DEFAULT_MAPPING_THRESHOLD;
+
+	private volatile boolean closed;
+
+
+	/**
+	 * Create a new MappedMetadataReaderFactory for the default class loader,
+	 * using a local resource cache.
+	 */
+	public MappedMetadataReaderFactory() {
+		super();
+	}
+
+	/**
+	 * Create a new MappedMetadataReaderFactory for the given resource loader,
+	 * using a shared resource cache if supported or a local resource cache otherwise.
+	 * @param resourceLoader the Spring ResourceLoader to use
+	 * (also determines the ClassLoader to use)
+	 */
+	public MappedMetadataReaderFactory(@Nullable ResourceLoader resourceLoader) {
+		super(resourceLoader);
+	}
+
+	/**
+	 * Create a new MappedMetadataReaderFactory for the given class loader,
+	 * using a local resource cache.
+	 * @param classLoader the ClassLoader to use
+	 */
+	public MappedMetadataReaderFactory(@Nullable ClassLoader classLoader) {
+		super(classLoader);
+	}
+
+
+	/**
+	 * Specify the minimum size of a class file in a directory to be
+	 * memory-mapped rather than read into the per-thread buffer.
+	 * <p>Default is {@link #DEFAULT_MAPPING_THRESHOLD}. Mapping is only worth
+	 * it for large class files: small mappings cost more to set up than a
+	 * plain read, and their release is deferred to garbage collection.
+	 * Specify {@link Integer#MAX_VALUE} to never map class files.
+	 */
+	public void setMappingThreshold(int mappingThreshold) {
+		this.mappingThreshold = mappingThreshold;
+	}
+
+	/**
+	 * Return the minimum size of a class file to get memory-mapped.
+	 */
+	public int getMappingThreshold() {
+		return this.mappingThreshold;
+	}
+
+	/**
+	 * Return the number of jar files currently held open by this factory.
+	 */
+	public int getOpenJarFileCount() {
+		return this.jarFileCache.size();
+	}
+
+
+	@Override
+	protected MetadataReader createMetadataReader(Resource resource) throws IOException {
+		if (resource.isFile()) {
+			return readFromFile(resource, resource.getFile());
+		}
+		URL url = resource.getURL();
+		if (!this.closed && ResourceUtils.URL_PROTOCOL_JAR.equals(url.getProtocol())) {
+			String urlFile = url.getFile();
+			int separatorIndex = urlFile.indexOf(ResourceUtils.JAR_URL_SEPARATOR);
+			if (separatorIndex != -1 &&
+					urlFile.indexOf(ResourceUtils.JAR_URL_SEPARATOR, separatorIndex + 1) == -1) {
+				URL jarFileUrl = ResourceUtils.extractJarFileURL(url);
+				if (ResourceUtils.URL_PROTOCOL_FILE.equals(jarFileUrl.getProtocol())) {
+					String entryName = StringUtils.uriDecode(
+							urlFile.substring(separatorIndex + ResourceUtils.JAR_URL_SEPARATOR.length()),
+							StandardCharsets.UTF_8);
+					return readFromJarFile(resource, ResourceUtils.getFile(jarFileUrl), entryName);
+				}
+			}
+		}
+		return super.createMetadataReader(resource);
+	}
+
+	private MetadataReader readFromFile(Resource resource, File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("Class file too large: " + resource);
+			}
+			int length = (int) size;
+			byte[] buffer = obtainBuffer(length);
+			try {
+				if (length >= this.mappingThreshold) {
+					MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+					mapped.get(buffer, 0, length);
+				}
+				else {
+					ByteBuffer target = ByteBuffer.wrap(buffer, 0, length);
+					while (target.hasRemaining()) {
+						if (channel.read(target) == -1) {
+							throw new IOException("Unexpected end of class file: " + resource);
+						}
+					}
+				}
+				return new SimpleMetadataReader(resource, buffer, length, getResourceLoader().getClassLoader());
+			}
+			finally {
+				releaseBuffer(buffer);
+			}
+		}
+	}
+
+	private MetadataReader readFromJarFile(Resource resource, File jarFile, String entryName) throws IOException {
+		ZipFile zipFile = getZipFile(jarFile);
+		ZipEntry entry = zipFile.getEntry(entryName);
+		if (entry == null) {
+			throw new FileNotFoundException(resource.getDescription() + " cannot be opened because it does not exist");
+		}
+		long size = entry.getSize();
+		if (size < 0 || size > Integer.MAX_VALUE) {
+			// Unknown entry size: read in full through the entry's stream
+			try (InputStream is = zipFile.getInputStream(entry)) {
+				byte[] content = StreamUtils.copyToByteArray(is);
+				return new SimpleMetadataReader(resource, content, content.length, getResourceLoader().getClassLoader());
+			}
+		}
+		int length = (int) size;
+		byte[] buffer = obtainBuffer(length);
+		try {
+			try (InputStream is = zipFile.getInputStream(entry)) {
+				int offset = 0;
+				while (offset < length) {
+					int read = is.read(buffer, offset, length - offset);
+					if (read == -1) {
+						throw new IOException("Unexpected end of class file: " + resource);
+					}
+					offset += read;
+				}
+			}
+			return new SimpleMetadataReader(resource, buffer, length, getResourceLoader().getClassLoader());
+		}
+		finally {
+			releaseBuffer(buffer);
+		}
+	}
+
+	private ZipFile getZipFile(File jarFile) throws IOException {
+		String key = jarFile.getAbsolutePath();
+		ZipFile zipFile = this.jarFileCache.get(key);
+		if (zipFile == null) {
+			ZipFile newZipFile = new ZipFile(jarFile);
+			zipFile = this.jarFileCache.putIfAbsent(key, newZipFile);
+			if (zipFile != null) {
+				newZipFile.close();
+			}
+			else {
+				zipFile = newZipFile;
+				if (this.closed) {
+					// Closed in the meantime: do not leave the new handle open
+					this.jarFileCache.remove(key);
+					newZipFile.close();
+					throw new IOException("MappedMetadataReaderFactory has been closed");
+				}
+			}
+		}
+		return zipFile;
+	}
+
+	/**
+	 * Take the current thread's buffer if large enough, or allocate a new one.
+	 * The buffer is detached from the thread while in use, so that a nested
+	 * read on the same thread never overwrites it.
+	 */
+	private byte[] obtainBuffer(int length) {
+		byte[] buffer = this.bufferHolder.get();
+		if (buffer != null && buffer.length >= length) {
+			this.bufferHolder.remove();
+			return buffer;
+		}
+		return new byte[Math.max(length, INITIAL_BUFFER_SIZE)];
+	}
+
+	private void releaseBuffer(byte[] buffer) {
+		if (buffer.length <= MAX_RETAINED_BUFFER_SIZE) {
+			byte[] current = this.bufferHolder.get();
+			if (current == null || current.length < buffer.length) {
+				this.bufferHolder.set(buffer);
+			}
+		}
+	}
+
+
+	/**
+	 * Close all jar files held open by this factory. Subsequent requests
+	 * for jar entries are served through the resource's input stream.
+	 */
+	@Override
+	public void close() throws IOException {
+		this.closed = true;
+		IOException failure = null;
+		for (String key : this.jarFileCache.keySet()) {
+			ZipFile zipFile = this.jarFileCache.remove(key);
+			if (zipFile != null) {
+				try {
+					zipFile.close();
+				}
+				catch (IOException ex) {
+					if (failure == null) {
+						failure = ex;
+					}
+				}
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+}
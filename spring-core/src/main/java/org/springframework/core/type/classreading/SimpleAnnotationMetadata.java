@@ -158,4 +158,16 @@ final class SimpleAnnotationMetadata implements AnnotationMetadata {
 		return this.annotations;
 	}
 
+	int getAccess() {
+		return this.access;
+	}
+
+	boolean isIndependentInnerClass() {
+		return this.independentInnerClass;
+	}
+
+	MethodMetadata[] getDeclaredAnnotatedMethods() {
+		return this.annotatedMethods;
+	}
+
 }
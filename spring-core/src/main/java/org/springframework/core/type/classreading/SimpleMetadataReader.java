@@ -25,6 +25,7 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.core.type.ClassMetadata;
 import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
 
 /**
  * {@link MetadataReader} implementation based on an ASM
@@ -43,26 +44,65 @@ final class SimpleMetadataReader implements MetadataReader {
 
 	private final AnnotationMetadata annotationMetadata;
 
+	private final int classFileLength;
+
 
 	SimpleMetadataReader(Resource resource, @Nullable ClassLoader classLoader) throws IOException {
+		this(resource, readClassFile(resource), classLoader);
+	}
+
+	private SimpleMetadataReader(Resource resource, byte[] classFile, @Nullable ClassLoader classLoader)
+			throws IOException {
+
+		this(resource, classFile, classFile.length, classLoader);
+	}
+
+	/**
+	 * Create a new SimpleMetadataReader for the given class file content.
+	 * @param resource the resource that the class file has been read from
+	 * @param classFileBuffer the buffer holding the class file, starting at offset 0
+	 * (may be reused by the caller once this constructor has returned)
+	 * @param classFileLength the length of the class file within the buffer
+	 * @param classLoader the ClassLoader to use for loading annotation types
+	 * @since 5.2.9
+	 */
+	SimpleMetadataReader(Resource resource, byte[] classFileBuffer, int classFileLength,
+			@Nullable ClassLoader classLoader) throws IOException {
+
 		SimpleAnnotationMetadataReadingVisitor visitor = new SimpleAnnotationMetadataReadingVisitor(classLoader);
-		getClassReader(resource).accept(visitor, PARSING_OPTIONS);
+		getClassReader(resource, classFileBuffer, classFileLength).accept(visitor, PARSING_OPTIONS);
 		this.resource = resource;
 		this.annotationMetadata = visitor.getMetadata();
+		this.classFileLength = classFileLength;
 	}
 
-	private static ClassReader getClassReader(Resource resource) throws IOException {
+	private static byte[] readClassFile(Resource resource) throws IOException {
 		try (InputStream is = resource.getInputStream()) {
-			try {
-				return new ClassReader(is);
-			}
-			catch (IllegalArgumentException ex) {
-				throw new NestedIOException("ASM ClassReader failed to parse class file - " +
-						"probably due to a new Java class file version that isn't supported yet: " + resource, ex);
-			}
+			return StreamUtils.copyToByteArray(is);
 		}
 	}
 
+	private static ClassReader getClassReader(Resource resource, byte[] classFileBuffer, int classFileLength)
+			throws IOException {
+
+		try {
+			return new ClassReader(classFileBuffer, 0, classFileLength);
+		}
+		catch (IllegalArgumentException ex) {
+			throw new NestedIOException("ASM ClassReader failed to parse class file - " +
+					"probably due to a new Java class file version that isn't supported yet: " + resource, ex);
+		}
+	}
+
+
+	/**
+	 * Return the length of the class file that this reader has been created for,
+	 * as an estimate for the memory footprint of its metadata.
+	 * @since 5.2.9
+	 */
+	int getClassFileLength() {
+		return this.classFileLength;
+	}
 
 	@Override
 	public Resource getResource() {
@@ -22,6 +22,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -199,6 +200,42 @@ public class AntPathMatcher implements PathMatcher {
 		return doMatch(pattern, path, false, null);
 	}
 
+	/**
+	 * Compile the given pattern for repeated full matching against many paths,
+	 * e.g. against all entries of a jar file.
+	 * <p>The returned predicate is equivalent to {@link #match(String, String)}
+	 * for the given pattern, but rejects paths which cannot match the literal
+	 * suffix of the pattern's last segment (e.g. ".class" for "**&#47;*.class")
+	 * upfront, without tokenizing them.
+	 * @param pattern the pattern to compile
+	 * @return a predicate for matching paths against the pattern
+	 * @since 5.2.9
+	 */
+	public Predicate<String> compile(String pattern) {
+		String suffix = (this.caseSensitive && !this.trimTokens ? getLiteralSuffix(pattern) : "");
+		if (suffix.isEmpty()) {
+			return path -> match(pattern, path);
+		}
+		String separator = this.pathSeparator;
+		return path -> ((path.endsWith(suffix) || path.endsWith(separator)) && match(pattern, path));
+	}
+
+	/**
+	 * Determine the literal end of the last segment of the given pattern,
+	 * which every matching path needs to end with.
+	 */
+	private String getLiteralSuffix(String pattern) {
+		int segmentStart = pattern.lastIndexOf(this.pathSeparator);
+		String lastSegment = (segmentStart != -1 ?
+				pattern.substring(segmentStart + this.pathSeparator.length()) : pattern);
+		if (lastSegment.indexOf('{') != -1 || lastSegment.indexOf('}') != -1) {
+			// Regular expression within a URI variable: no literal suffix
+			return "";
+		}
+		int wildcardIndex = Math.max(lastSegment.lastIndexOf('*'), lastSegment.lastIndexOf('?'));
+		return lastSegment.substring(wildcardIndex + 1);
+	}
+
 	/**
 	 * Actually match the given {@code path} against the given {@code pattern}.
 	 * @param pattern the pattern to match against
@@ -1154,6 +1154,20 @@ public abstract class ClassUtils {
 		return (className != null && className.contains(CGLIB_CLASS_SEPARATOR));
 	}
 
+	/**
+	 * Check whether the specified class is an interface-based proxy class:
+	 * a JDK dynamic proxy class or a {@link GeneratedInterfaceProxy} class
+	 * generated as an alternative to it. Such a class only implements the methods of its
+	 * interfaces, without carrying any annotations on its redeclared methods.
+	 * @param clazz the class to check
+	 * @since 5.2.9
+	 * @see java.lang.reflect.Proxy#isProxyClass(Class)
+	 */
+	public static boolean isInterfaceProxyClass(@Nullable Class<?> clazz) {
+		return (clazz != null && (Proxy.isProxyClass(clazz) ||
+				(!clazz.isInterface() && GeneratedInterfaceProxy.class.isAssignableFrom(clazz))));
+	}
+
 	/**
 	 * 返回给定实例的用户定义类：通常给定的实例是简单的类，但是在一个CGLIB生成的子类情况下，则是原始类
 	 *
@@ -1204,7 +1218,7 @@ public abstract class ClassUtils {
 	 *
 	 * Return a descriptive name for the given object's type: usually simply
 	 * the class name, but component type class name + "[]" for arrays,
-	 * and an appended list of implemented interfaces for JDK proxies.
+	 * and an appended list of implemented interfaces for interface-based proxies.
 	 * @param value the value to introspect
 	 * @return the qualified name of the class
 	 */
@@ -1218,7 +1232,7 @@ public abstract class ClassUtils {
 		//获取value的类
 		Class<?> clazz = value.getClass();
 		//如果clazz是JDK代理类
-		if (Proxy.isProxyClass(clazz)) {
+		if (isInterfaceProxyClass(clazz)) {
 			//拼装前缀 ，类全名+'implementing'
 			String prefix = clazz.getName() + " implementing ";
 			//新建一个StringJoiner对象，每个添加的字符串都会加入prefix前缀和''后缀，
@@ -28,11 +28,16 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.springframework.lang.Nullable;
 
@@ -54,6 +59,13 @@ import org.springframework.lang.Nullable;
  * <p>If not explicitly specified, this implementation will use
  * {@linkplain SoftReference soft entry references}.
  *
+ * <p>As of 5.2.9, reads are lock-free, and new entries are inserted through
+ * compare-and-set on their bucket without excluding concurrent inserts into the
+ * same segment. Only removals, replacements and restructuring (resizing and the
+ * purging of garbage-collected references) lock a segment exclusively. A read
+ * that encounters garbage-collected references purges them only if the segment
+ * is not locked at the time, otherwise deferring them to the next restructuring.
+ *
  * @author Phillip Webb
  * @author Juergen Hoeller
  * @since 3.2
@@ -279,7 +291,15 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 
 	@Nullable
 	private V put(@Nullable final K key, @Nullable final V value, final boolean overwriteExisting) {
-		return doTask(key, new Task<V>(TaskOption.RESTRUCTURE_BEFORE, TaskOption.RESIZE) {
+		if (!overwriteExisting) {
+			// Lock-free check for an existing entry, e.g. for a putIfAbsent call after a cache miss
+			Reference<K, V> ref = getReference(key, Restructure.NEVER);
+			Entry<K, V> entry = (ref != null ? ref.get() : null);
+			if (entry != null) {
+				return entry.getValue();
+			}
+		}
+		return doTask(key, new Task<V>(TaskOption.RESTRUCTURE_BEFORE, TaskOption.RESIZE, TaskOption.CONCURRENT) {
 			@Override
 			@Nullable
 			protected V execute(@Nullable Reference<K, V> ref, @Nullable Entry<K, V> entry, @Nullable Entries<V> entries) {
@@ -456,9 +476,11 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 
 	/**
 	 * A single segment used to divide the map to allow better concurrent performance.
+	 * <p>The read lock is held for concurrent inserts, the write lock for all other
+	 * updates and for restructuring. Reads do not lock at all.
 	 */
 	@SuppressWarnings("serial")
-	protected final class Segment extends ReentrantLock {
+	protected final class Segment extends ReentrantReadWriteLock {
 
 		private final ReferenceManager referenceManager;
 
@@ -468,7 +490,7 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 		 * Array of references indexed using the low order bits from the hash.
 		 * This property should only be set along with {@code resizeThreshold}.
 		 */
-		private volatile Reference<K, V>[] references;
+		private volatile AtomicReferenceArray<Reference<K, V>> references;
 
 		/**
 		 * The total number of references contained in this segment. This includes chained
@@ -476,37 +498,44 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 		 */
 		private final AtomicInteger count = new AtomicInteger(0);
 
+		/**
+		 * References polled for purging by readers while the segment was locked,
+		 * to be purged on the next restructuring.
+		 */
+		private final Queue<Reference<K, V>> deferredPurges = new ConcurrentLinkedQueue<>();
+
 		/**
 		 * The threshold when resizing of the references should occur. When {@code count}
 		 * exceeds this value references will be resized.
 		 */
-		private int resizeThreshold;
+		private volatile int resizeThreshold;
 
 		public Segment(int initialSize, int resizeThreshold) {
 			this.referenceManager = createReferenceManager();
 			this.initialSize = initialSize;
-			this.references = createReferenceArray(initialSize);
+			this.references = new AtomicReferenceArray<>(initialSize);
 			this.resizeThreshold = resizeThreshold;
 		}
 
 		@Nullable
 		public Reference<K, V> getReference(@Nullable Object key, int hash, Restructure restructure) {
 			if (restructure == Restructure.WHEN_NECESSARY) {
-				restructureIfNecessary(false);
+				purgeIfPossible();
 			}
 			if (this.count.get() == 0) {
 				return null;
 			}
 			// Use a local copy to protect against other threads writing
-			Reference<K, V>[] references = this.references;
+			AtomicReferenceArray<Reference<K, V>> references = this.references;
 			int index = getIndex(hash, references);
-			Reference<K, V> head = references[index];
+			Reference<K, V> head = references.get(index);
 			return findInChain(head, key, hash);
 		}
 
 		/**
 		 * Apply an update operation to this segment.
-		 * The segment will be locked during the update.
+		 * The segment will be locked during the update: exclusively unless
+		 * the task allows for {@link TaskOption#CONCURRENT concurrent} execution.
 		 * @param hash the hash of the key
 		 * @param key the key
 		 * @param task the update operation
@@ -521,23 +550,27 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 			if (task.hasOption(TaskOption.SKIP_IF_EMPTY) && this.count.get() == 0) {
 				return task.execute(null, null, null);
 			}
-			lock();
+			boolean concurrent = task.hasOption(TaskOption.CONCURRENT);
+			Lock lock = (concurrent ? readLock() : writeLock());
+			lock.lock();
 			try {
-				final int index = getIndex(hash, this.references);
-				final Reference<K, V> head = this.references[index];
-				Reference<K, V> ref = findInChain(head, key, hash);
-				Entry<K, V> entry = (ref != null ? ref.get() : null);
-				Entries<V> entries = value -> {
-					@SuppressWarnings("unchecked")
-					Entry<K, V> newEntry = new Entry<>((K) key, value);
-					Reference<K, V> newReference = Segment.this.referenceManager.createReference(newEntry, hash, head);
-					Segment.this.references[index] = newReference;
-					Segment.this.count.incrementAndGet();
-				};
-				return task.execute(ref, entry, entries);
+				// Stable while locked: only replaced under the write lock
+				AtomicReferenceArray<Reference<K, V>> references = this.references;
+				int index = getIndex(hash, references);
+				while (true) {
+					Reference<K, V> head = references.get(index);
+					Reference<K, V> ref = findInChain(head, key, hash);
+					Entry<K, V> entry = (ref != null ? ref.get() : null);
+					SegmentEntries entries = new SegmentEntries(references, index, head, hash, key, concurrent);
+					T result = task.execute(ref, entry, entries);
+					if (!entries.isConflicting()) {
+						return result;
+					}
+					// Concurrent insert into the same bucket: search the chain again
+				}
 			}
 			finally {
-				unlock();
+				lock.unlock();
 				if (task.hasOption(TaskOption.RESTRUCTURE_AFTER)) {
 					restructureIfNecessary(resize);
 				}
@@ -551,14 +584,15 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 			if (this.count.get() == 0) {
 				return;
 			}
-			lock();
+			Lock lock = writeLock();
+			lock.lock();
 			try {
-				this.references = createReferenceArray(this.initialSize);
-				this.resizeThreshold = (int) (this.references.length * getLoadFactor());
+				this.references = new AtomicReferenceArray<>(this.initialSize);
+				this.resizeThreshold = (int) (this.references.length() * getLoadFactor());
 				this.count.set(0);
 			}
 			finally {
-				unlock();
+				lock.unlock();
 			}
 		}
 
@@ -572,73 +606,102 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 			int currCount = this.count.get();
 			boolean needsResize = allowResize && (currCount > 0 && currCount >= this.resizeThreshold);
 			Reference<K, V> ref = this.referenceManager.pollForPurge();
-			if (ref != null || (needsResize)) {
-				restructure(allowResize, ref);
+			if (ref != null || needsResize || !this.deferredPurges.isEmpty()) {
+				Lock lock = writeLock();
+				lock.lock();
+				try {
+					restructure(allowResize, ref);
+				}
+				finally {
+					lock.unlock();
+				}
 			}
 		}
 
-		private void restructure(boolean allowResize, @Nullable Reference<K, V> ref) {
-			boolean needsResize;
-			lock();
-			try {
-				int countAfterRestructure = this.count.get();
-				Set<Reference<K, V>> toPurge = Collections.emptySet();
-				if (ref != null) {
-					toPurge = new HashSet<>();
-					while (ref != null) {
-						toPurge.add(ref);
-						ref = this.referenceManager.pollForPurge();
-					}
+		/**
+		 * Purge references that have been garbage collected, without waiting
+		 * for a concurrent update or restructuring of this segment to complete.
+		 */
+		private void purgeIfPossible() {
+			Reference<K, V> ref = this.referenceManager.pollForPurge();
+			if (ref == null && this.deferredPurges.isEmpty()) {
+				return;
+			}
+			Lock lock = writeLock();
+			if (lock.tryLock()) {
+				try {
+					restructure(false, ref);
 				}
-				countAfterRestructure -= toPurge.size();
-
-				// Recalculate taking into account count inside lock and items that
-				// will be purged
-				needsResize = (countAfterRestructure > 0 && countAfterRestructure >= this.resizeThreshold);
-				boolean resizing = false;
-				int restructureSize = this.references.length;
-				if (allowResize && needsResize && restructureSize < MAXIMUM_SEGMENT_SIZE) {
-					restructureSize <<= 1;
-					resizing = true;
+				finally {
+					lock.unlock();
 				}
+			}
+			else if (ref != null) {
+				// Polled references are only returned once: keep them for the next restructuring
+				this.deferredPurges.add(ref);
+			}
+		}
 
-				// Either create a new table or reuse the existing one
-				Reference<K, V>[] restructured =
-						(resizing ? createReferenceArray(restructureSize) : this.references);
+		/**
+		 * Restructure this segment while holding the write lock.
+		 */
+		private void restructure(boolean allowResize, @Nullable Reference<K, V> ref) {
+			int countAfterRestructure = this.count.get();
+			Set<Reference<K, V>> toPurge = Collections.emptySet();
+			if (ref != null || !this.deferredPurges.isEmpty()) {
+				toPurge = new HashSet<>();
+				while (ref != null) {
+					toPurge.add(ref);
+					ref = this.referenceManager.pollForPurge();
+				}
+				Reference<K, V> deferred;
+				while ((deferred = this.deferredPurges.poll()) != null) {
+					toPurge.add(deferred);
+				}
+			}
+			countAfterRestructure -= toPurge.size();
+
+			// Recalculate taking into account count inside lock and items that
+			// will be purged
+			AtomicReferenceArray<Reference<K, V>> references = this.references;
+			boolean needsResize = (countAfterRestructure > 0 && countAfterRestructure >= this.resizeThreshold);
+			boolean resizing = false;
+			int restructureSize = references.length();
+			if (allowResize && needsResize && restructureSize < MAXIMUM_SEGMENT_SIZE) {
+				restructureSize <<= 1;
+				resizing = true;
+			}
 
-				// Restructure
-				for (int i = 0; i < this.references.length; i++) {
-					ref = this.references[i];
-					if (!resizing) {
-						restructured[i] = null;
-					}
-					while (ref != null) {
-						if (!toPurge.contains(ref)) {
-							Entry<K, V> entry = ref.get();
-							if (entry != null) {
-								int index = getIndex(ref.getHash(), restructured);
-								restructured[index] = this.referenceManager.createReference(
-										entry, ref.getHash(), restructured[index]);
-							}
+			// Always create a new table, so that lock-free readers never
+			// observe a partially restructured one
+			AtomicReferenceArray<Reference<K, V>> restructured = new AtomicReferenceArray<>(restructureSize);
+
+			// Restructure
+			for (int i = 0; i < references.length(); i++) {
+				ref = references.get(i);
+				while (ref != null) {
+					if (!toPurge.contains(ref)) {
+						Entry<K, V> entry = ref.get();
+						if (entry != null) {
+							int index = getIndex(ref.getHash(), restructured);
+							restructured.set(index, this.referenceManager.createReference(
+									entry, ref.getHash(), restructured.get(index)));
 						}
-						ref = ref.getNext();
 					}
+					ref = ref.getNext();
 				}
-
-				// Replace volatile members
-				if (resizing) {
-					this.references = restructured;
-					this.resizeThreshold = (int) (this.references.length * getLoadFactor());
-				}
-				this.count.set(Math.max(countAfterRestructure, 0));
 			}
-			finally {
-				unlock();
+
+			// Replace volatile members
+			this.references = restructured;
+			if (resizing) {
+				this.resizeThreshold = (int) (restructured.length() * getLoadFactor());
 			}
+			this.count.set(Math.max(countAfterRestructure, 0));
 		}
 
 		@Nullable
-		private Reference<K, V> findInChain(Reference<K, V> ref, @Nullable Object key, int hash) {
+		private Reference<K, V> findInChain(@Nullable Reference<K, V> ref, @Nullable Object key, int hash) {
 			Reference<K, V> currRef = ref;
 			while (currRef != null) {
 				if (currRef.getHash() == hash) {
@@ -655,20 +718,15 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 			return null;
 		}
 
-		@SuppressWarnings({"rawtypes", "unchecked"})
-		private Reference<K, V>[] createReferenceArray(int size) {
-			return new Reference[size];
-		}
-
-		private int getIndex(int hash, Reference<K, V>[] references) {
-			return (hash & (references.length - 1));
+		private int getIndex(int hash, AtomicReferenceArray<Reference<K, V>> references) {
+			return (hash & (references.length() - 1));
 		}
 
 		/**
 		 * Return the size of the current references array.
 		 */
 		public final int getSize() {
-			return this.references.length;
+			return this.references.length();
 		}
 
 		/**
@@ -677,6 +735,65 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 		public final int getCount() {
 			return this.count.get();
 		}
+
+
+		/**
+		 * {@link Entries} implementation that adds a new entry at the head of the
+		 * bucket, via compare-and-set for concurrent tasks.
+		 */
+		private final class SegmentEntries implements Entries<V> {
+
+			private final AtomicReferenceArray<Reference<K, V>> references;
+
+			private final int index;
+
+			@Nullable
+			private final Reference<K, V> head;
+
+			private final int hash;
+
+			@Nullable
+			private final Object key;
+
+			private final boolean concurrent;
+
+			private boolean conflicting;
+
+			SegmentEntries(AtomicReferenceArray<Reference<K, V>> references, int index,
+					@Nullable Reference<K, V> head, int hash, @Nullable Object key, boolean concurrent) {
+
+				this.references = references;
+				this.index = index;
+				this.head = head;
+				this.hash = hash;
+				this.key = key;
+				this.concurrent = concurrent;
+			}
+
+			@Override
+			public void add(@Nullable V value) {
+				@SuppressWarnings("unchecked")
+				Entry<K, V> newEntry = new Entry<>((K) this.key, value);
+				Reference<K, V> newReference =
+						Segment.this.referenceManager.createReference(newEntry, this.hash, this.head);
+				if (!this.concurrent) {
+					this.references.set(this.index, newReference);
+				}
+				else if (!this.references.compareAndSet(this.index, this.head, newReference)) {
+					this.conflicting = true;
+					return;
+				}
+				Segment.this.count.incrementAndGet();
+			}
+
+			/**
+			 * Return whether a concurrent insert into the same bucket prevented
+			 * the addition of an entry, requiring the task to be retried.
+			 */
+			boolean isConflicting() {
+				return this.conflicting;
+			}
+		}
 	}
 
 
@@ -720,6 +837,10 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 	 */
 	protected static final class Entry<K, V> implements Map.Entry<K, V> {
 
+		@SuppressWarnings("rawtypes")
+		private static final AtomicReferenceFieldUpdater<Entry, Object> valueUpdater =
+				AtomicReferenceFieldUpdater.newUpdater(Entry.class, Object.class, "value");
+
 		@Nullable
 		private final K key;
 
@@ -745,10 +866,10 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 
 		@Override
 		@Nullable
+		@SuppressWarnings("unchecked")
 		public V setValue(@Nullable V value) {
-			V previous = this.value;
-			this.value = value;
-			return previous;
+			// Atomic, since concurrent puts may update the same entry
+			return (V) valueUpdater.getAndSet(this, value);
 		}
 
 		@Override
@@ -824,7 +945,14 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 	 */
 	private enum TaskOption {
 
-		RESTRUCTURE_BEFORE, RESTRUCTURE_AFTER, SKIP_IF_EMPTY, RESIZE
+		RESTRUCTURE_BEFORE, RESTRUCTURE_AFTER, SKIP_IF_EMPTY, RESIZE,
+
+		/**
+		 * The task may run concurrently with other concurrent tasks on the same
+		 * segment, adding entries via compare-and-set. Such a task is retried
+		 * if its addition of an entry conflicts with a concurrent addition.
+		 */
+		CONCURRENT
 	}
 
 
@@ -895,7 +1023,7 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 		private int referenceIndex;
 
 		@Nullable
-		private Reference<K, V>[] references;
+		private AtomicReferenceArray<Reference<K, V>> references;
 
 		@Nullable
 		private Reference<K, V> reference;
@@ -942,12 +1070,12 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 				this.reference = this.reference.getNext();
 			}
 			while (this.reference == null && this.references != null) {
-				if (this.referenceIndex >= this.references.length) {
+				if (this.referenceIndex >= this.references.length()) {
 					moveToNextSegment();
 					this.referenceIndex = 0;
 				}
 				else {
-					this.reference = this.references[this.referenceIndex];
+					this.reference = this.references.get(this.referenceIndex);
 					this.referenceIndex++;
 				}
 			}
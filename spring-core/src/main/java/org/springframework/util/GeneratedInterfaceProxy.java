@@ -0,0 +1,34 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+/**
+ * Marker interface for interface-based proxy classes generated as an
+ * alternative to JDK dynamic proxies, e.g. by Spring AOP: such a class only
+ * implements the methods of its interfaces and is to be treated like a JDK
+ * dynamic proxy class for introspection purposes.
+ *
+ * <p>Defined in the core module in order to allow
+ * {@link ClassUtils#isInterfaceProxyClass(Class)} (and potential other
+ * candidates without spring-aop dependencies) to detect such classes.
+ *
+ * @since 5.2.9
+ * @see ClassUtils#isInterfaceProxyClass(Class)
+ */
+public interface GeneratedInterfaceProxy {
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,8 +16,10 @@
 
 package org.springframework.util;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
@@ -33,6 +35,11 @@ import org.springframework.lang.Nullable;
  * user-supplied values. <p> Values for substitution can be supplied using a {@link Properties} instance or
  * using a {@link PlaceholderResolver}.
  *
+ * <p>Each distinct value is parsed into its literal and placeholder parts
+ * only once per helper instance, with repeated resolution of the same value
+ * (e.g. for the same {@code @Value} expression on every prototype instance)
+ * walking the pre-parsed parts in a single pass.
+ *
  * @author Juergen Hoeller
  * @author Rob Harrop
  * @since 3.0
@@ -61,6 +68,8 @@ public class PropertyPlaceholderHelper {
 
 	private final boolean ignoreUnresolvablePlaceholders;
 
+	private final Map<String, ParsedValue> parsedValueCache = new ConcurrentReferenceHashMap<>(256);
+
 
 	/**
 	 * Creates a new {@code PropertyPlaceholderHelper} that uses the supplied prefix and suffix.
@@ -131,65 +140,41 @@ public class PropertyPlaceholderHelper {
 		if (startIndex == -1) {
 			return value;
 		}
+		ParsedValue parsedValue = this.parsedValueCache.get(value);
+		if (parsedValue == null) {
+			parsedValue = parse(value, startIndex);
+			this.parsedValueCache.put(value, parsedValue);
+		}
+		return parsedValue.resolve(placeholderResolver, visitedPlaceholders);
+	}
 
-		StringBuilder result = new StringBuilder(value);
+	/**
+	 * Parse the given value into literal parts and placeholder parts once,
+	 * with the keys of placeholders parsed recursively, for repeated
+	 * resolution against any {@link PlaceholderResolver}.
+	 * @param value the value containing placeholders
+	 * @param startIndex the index of the first placeholder prefix in the value
+	 */
+	private ParsedValue parse(String value, int startIndex) {
+		List<Object> parts = new ArrayList<>();
+		int literalIndex = 0;
 		while (startIndex != -1) {
-			int endIndex = findPlaceholderEndIndex(result, startIndex);
-			if (endIndex != -1) {
-				String placeholder = result.substring(startIndex + this.placeholderPrefix.length(), endIndex);
-				String originalPlaceholder = placeholder;
-				if (visitedPlaceholders == null) {
-					visitedPlaceholders = new HashSet<>(4);
-				}
-				if (!visitedPlaceholders.add(originalPlaceholder)) {
-					throw new IllegalArgumentException(
-							"Circular placeholder reference '" + originalPlaceholder + "' in property definitions");
-				}
-
-				/**
-				 * 会递归调用parseStringValue()，确保了可以解析【spring-${user${ha}name}.xml}】这样的复杂操作！
-				 */
-
-				// Recursive invocation, parsing placeholders contained in the placeholder key.
-				placeholder = parseStringValue(placeholder, placeholderResolver, visitedPlaceholders);
-				// Now obtain the value for the fully resolved key...
-				String propVal = placeholderResolver.resolvePlaceholder(placeholder);
-				if (propVal == null && this.valueSeparator != null) {
-					int separatorIndex = placeholder.indexOf(this.valueSeparator);
-					if (separatorIndex != -1) {
-						String actualPlaceholder = placeholder.substring(0, separatorIndex);
-						String defaultValue = placeholder.substring(separatorIndex + this.valueSeparator.length());
-						propVal = placeholderResolver.resolvePlaceholder(actualPlaceholder);
-						if (propVal == null) {
-							propVal = defaultValue;
-						}
-					}
-				}
-				if (propVal != null) {
-					// Recursive invocation, parsing placeholders contained in the
-					// previously resolved placeholder value.
-					propVal = parseStringValue(propVal, placeholderResolver, visitedPlaceholders);
-					result.replace(startIndex, endIndex + this.placeholderSuffix.length(), propVal);
-					if (logger.isTraceEnabled()) {
-						logger.trace("Resolved placeholder '" + placeholder + "'");
-					}
-					startIndex = result.indexOf(this.placeholderPrefix, startIndex + propVal.length());
-				}
-				else if (this.ignoreUnresolvablePlaceholders) {
-					// Proceed with unprocessed value.
-					startIndex = result.indexOf(this.placeholderPrefix, endIndex + this.placeholderSuffix.length());
-				}
-				else {
-					throw new IllegalArgumentException("Could not resolve placeholder '" +
-							placeholder + "'" + " in value \"" + value + "\"");
-				}
-				visitedPlaceholders.remove(originalPlaceholder);
+			int endIndex = findPlaceholderEndIndex(value, startIndex);
+			if (endIndex == -1) {
+				break;
 			}
-			else {
-				startIndex = -1;
+			if (startIndex > literalIndex) {
+				parts.add(value.substring(literalIndex, startIndex));
 			}
+			String placeholder = value.substring(startIndex + this.placeholderPrefix.length(), endIndex);
+			literalIndex = endIndex + this.placeholderSuffix.length();
+			parts.add(new PlaceholderPart(value.substring(startIndex, literalIndex), placeholder));
+			startIndex = value.indexOf(this.placeholderPrefix, literalIndex);
+		}
+		if (literalIndex < value.length()) {
+			parts.add(value.substring(literalIndex));
 		}
-		return result.toString();
+		return new ParsedValue(value, parts.toArray());
 	}
 
 	private int findPlaceholderEndIndex(CharSequence buf, int startIndex) {
@@ -232,4 +217,139 @@ public class PropertyPlaceholderHelper {
 		String resolvePlaceholder(String placeholderName);
 	}
 
+
+
+	/**
+	 * A value pre-parsed into literal parts ({@code String}) and placeholder
+	 * parts ({@link PlaceholderPart}), in their original order.
+	 */
+	private final class ParsedValue {
+
+		private final String value;
+
+		private final Object[] parts;
+
+		ParsedValue(String value, Object[] parts) {
+			this.value = value;
+			this.parts = parts;
+		}
+
+		String resolve(PlaceholderResolver placeholderResolver, @Nullable Set<String> visitedPlaceholders) {
+			if (this.parts.length == 1 && this.parts[0] instanceof String) {
+				// No complete placeholder, e.g. "${name" without suffix
+				return this.value;
+			}
+			if (this.parts.length == 1 && this.parts[0] instanceof PlaceholderPart) {
+				// Common case: the value is a single placeholder, e.g. "${name}"
+				return ((PlaceholderPart) this.parts[0]).resolve(this.value, placeholderResolver, visitedPlaceholders);
+			}
+			StringBuilder result = new StringBuilder(this.value.length());
+			for (Object part : this.parts) {
+				if (part instanceof PlaceholderPart) {
+					if (visitedPlaceholders == null) {
+						visitedPlaceholders = new HashSet<>(4);
+					}
+					result.append(((PlaceholderPart) part).resolve(this.value, placeholderResolver, visitedPlaceholders));
+				}
+				else {
+					result.append((String) part);
+				}
+			}
+			return result.toString();
+		}
+	}
+
+
+	/**
+	 * A placeholder within a pre-parsed value, with its key parsed as well.
+	 */
+	private final class PlaceholderPart {
+
+		private final String text;
+
+		private final String placeholder;
+
+		@Nullable
+		private final ParsedValue parsedPlaceholder;
+
+		@Nullable
+		private final String actualPlaceholder;
+
+		@Nullable
+		private final String defaultValue;
+
+		PlaceholderPart(String text, String placeholder) {
+			this.text = text;
+			this.placeholder = placeholder;
+			int startIndex = placeholder.indexOf(placeholderPrefix);
+			this.parsedPlaceholder = (startIndex != -1 ? parse(placeholder, startIndex) : null);
+			int separatorIndex = (this.parsedPlaceholder == null && valueSeparator != null ?
+					placeholder.indexOf(valueSeparator) : -1);
+			if (separatorIndex != -1) {
+				this.actualPlaceholder = placeholder.substring(0, separatorIndex);
+				this.defaultValue = placeholder.substring(separatorIndex + valueSeparator.length());
+			}
+			else {
+				this.actualPlaceholder = null;
+				this.defaultValue = null;
+			}
+		}
+
+		/**
+		 * Resolve this placeholder, returning its replacement or the original
+		 * placeholder text if unresolvable and to be ignored.
+		 */
+		String resolve(String value, PlaceholderResolver placeholderResolver, @Nullable Set<String> visitedPlaceholders) {
+			if (visitedPlaceholders == null) {
+				visitedPlaceholders = new HashSet<>(4);
+			}
+			if (!visitedPlaceholders.add(this.placeholder)) {
+				throw new IllegalArgumentException(
+						"Circular placeholder reference '" + this.placeholder + "' in property definitions");
+			}
+			/**
+			 * 会递归调用parseStringValue()，确保了可以解析【spring-${user${ha}name}.xml}】这样的复杂操作！
+			 */
+
+			// Resolve placeholders contained in the placeholder key, if any.
+			String placeholder = this.placeholder;
+			String actualPlaceholder = this.actualPlaceholder;
+			String defaultValue = this.defaultValue;
+			if (this.parsedPlaceholder != null) {
+				placeholder = this.parsedPlaceholder.resolve(placeholderResolver, visitedPlaceholders);
+				int separatorIndex = (valueSeparator != null ? placeholder.indexOf(valueSeparator) : -1);
+				if (separatorIndex != -1) {
+					actualPlaceholder = placeholder.substring(0, separatorIndex);
+					defaultValue = placeholder.substring(separatorIndex + valueSeparator.length());
+				}
+			}
+			// Now obtain the value for the fully resolved key...
+			String propVal = placeholderResolver.resolvePlaceholder(placeholder);
+			if (propVal == null && actualPlaceholder != null) {
+				propVal = placeholderResolver.resolvePlaceholder(actualPlaceholder);
+				if (propVal == null) {
+					propVal = defaultValue;
+				}
+			}
+			String result;
+			if (propVal != null) {
+				// Parsing placeholders contained in the previously resolved placeholder value.
+				result = parseStringValue(propVal, placeholderResolver, visitedPlaceholders);
+				if (logger.isTraceEnabled()) {
+					logger.trace("Resolved placeholder '" + placeholder + "'");
+				}
+			}
+			else if (ignoreUnresolvablePlaceholders) {
+				// Proceed with unprocessed value.
+				result = this.text;
+			}
+			else {
+				throw new IllegalArgumentException("Could not resolve placeholder '" +
+						placeholder + "'" + " in value \"" + value + "\"");
+			}
+			visitedPlaceholders.remove(this.placeholder);
+			return result;
+		}
+	}
+
 }
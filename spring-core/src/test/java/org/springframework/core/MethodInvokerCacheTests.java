@@ -0,0 +1,182 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.util.ReflectionUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit tests for {@link MethodInvokerCache}.
+ *
+ * @since 5.2.9
+ */
+class MethodInvokerCacheTests {
+
+	private final Target target = new Target();
+
+
+	@Test
+	void invokerIsCached() throws Exception {
+		Method method = Target.class.getMethod("concat", String.class, int.class);
+		assertThat(MethodInvokerCache.getInvoker(method)).isSameAs(MethodInvokerCache.getInvoker(method));
+		assertThat(MethodInvokerCache.getInvoker(method))
+				.isSameAs(MethodInvokerCache.getInvoker(Target.class.getMethod("concat", String.class, int.class)));
+	}
+
+	@Test
+	void invokeWithPrimitiveArgument() throws Exception {
+		Method method = Target.class.getMethod("concat", String.class, int.class);
+		assertThat(MethodInvokerCache.getInvoker(method).invoke(this.target, "a", 1)).isEqualTo("a1");
+	}
+
+	@Test
+	void invokeWithPrimitiveReturnType() throws Exception {
+		Method method = Target.class.getMethod("length", String.class);
+		assertThat(MethodInvokerCache.getInvoker(method).invoke(this.target, "abc")).isEqualTo(3);
+	}
+
+	@Test
+	void invokeVoidMethod() throws Exception {
+		Method method = Target.class.getMethod("increment");
+		assertThat(MethodInvokerCache.getInvoker(method).invoke(this.target)).isNull();
+		assertThat(MethodInvokerCache.getInvoker(method).invoke(this.target, (Object[]) null)).isNull();
+		assertThat(this.target.counter).isEqualTo(2);
+	}
+
+	@Test
+	void invokeStaticMethod() throws Exception {
+		Method method = Target.class.getMethod("staticUpperCase", String.class);
+		assertThat(MethodInvokerCache.getInvoker(method).invoke(null, "abc")).isEqualTo("ABC");
+	}
+
+	@Test
+	void invokeVarargsMethod() throws Exception {
+		Method method = Target.class.getMethod("join", String[].class);
+		assertThat(MethodInvokerCache.getInvoker(method).invoke(this.target, (Object) new String[] {"a", "b"}))
+				.isEqualTo("ab");
+	}
+
+	@Test
+	void invokePrivateMethod() throws Exception {
+		Method method = Target.class.getDeclaredMethod("secret");
+		ReflectionUtils.makeAccessible(method);
+		assertThat(MethodInvokerCache.getInvoker(method).invoke(this.target)).isEqualTo("secret");
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")  // on JDK 9
+	void accessibleMethodFirstDoesNotGrantAccessToInaccessibleMethod() throws Exception {
+		Method accessible = Target.class.getDeclaredMethod("secret");
+		ReflectionUtils.makeAccessible(accessible);
+		assertThat(MethodInvokerCache.getInvoker(accessible).invoke(this.target)).isEqualTo("secret");
+
+		Method inaccessible = Target.class.getDeclaredMethod("secret");
+		assertThat(inaccessible.isAccessible()).isFalse();
+		assertThat(MethodInvokerCache.getInvoker(inaccessible)).isNotSameAs(MethodInvokerCache.getInvoker(accessible));
+		assertThatExceptionOfType(IllegalAccessException.class).isThrownBy(() ->
+				MethodInvokerCache.getInvoker(inaccessible).invoke(this.target));
+	}
+
+	@Test
+	void inaccessibleMethodFirstDoesNotDenyAccessToAccessibleMethod() throws Exception {
+		Method inaccessible = Target.class.getDeclaredMethod("secret");
+		assertThatExceptionOfType(IllegalAccessException.class).isThrownBy(() ->
+				MethodInvokerCache.getInvoker(inaccessible).invoke(this.target));
+
+		Method accessible = Target.class.getDeclaredMethod("secret");
+		ReflectionUtils.makeAccessible(accessible);
+		assertThat(MethodInvokerCache.getInvoker(accessible).invoke(this.target)).isEqualTo("secret");
+	}
+
+	@Test
+	void exceptionIsWrapped() throws Exception {
+		Method method = Target.class.getMethod("fail");
+		assertThatExceptionOfType(InvocationTargetException.class).isThrownBy(() ->
+				MethodInvokerCache.getInvoker(method).invoke(this.target))
+			.satisfies(ex -> assertThat(ex.getTargetException()).isInstanceOf(IOException.class));
+	}
+
+	@Test
+	void runtimeExceptionIsWrapped() throws Exception {
+		Method method = Target.class.getMethod("length", String.class);
+		assertThatExceptionOfType(InvocationTargetException.class).isThrownBy(() ->
+				MethodInvokerCache.getInvoker(method).invoke(this.target, (Object) null))
+			.satisfies(ex -> assertThat(ex.getTargetException()).isInstanceOf(NullPointerException.class));
+	}
+
+	@Test
+	void argumentTypeMismatch() throws Exception {
+		Method method = Target.class.getMethod("concat", String.class, int.class);
+		assertThatIllegalArgumentException().isThrownBy(() ->
+				MethodInvokerCache.getInvoker(method).invoke(this.target, "a", "b"));
+		assertThatIllegalArgumentException().isThrownBy(() ->
+				MethodInvokerCache.getInvoker(method).invoke(this.target, "a", null));
+		assertThatIllegalArgumentException().isThrownBy(() ->
+				MethodInvokerCache.getInvoker(method).invoke(this.target, "a"));
+	}
+
+	@Test
+	void targetTypeMismatch() throws Exception {
+		Method method = Target.class.getMethod("increment");
+		assertThatIllegalArgumentException().isThrownBy(() ->
+				MethodInvokerCache.getInvoker(method).invoke("target"));
+	}
+
+
+	public static class Target {
+
+		int counter;
+
+		public String concat(String s, int i) {
+			return s + i;
+		}
+
+		public int length(String s) {
+			return s.length();
+		}
+
+		public void increment() {
+			this.counter++;
+		}
+
+		public static String staticUpperCase(String s) {
+			return s.toUpperCase();
+		}
+
+		public String join(String... parts) {
+			return String.join("", parts);
+		}
+
+		public void fail() throws IOException {
+			throw new IOException("fail");
+		}
+
+		private String secret() {
+			return "secret";
+		}
+	}
+
+}
@@ -199,6 +199,37 @@ class ResolvableTypeTests {
 		assertThat(type2.hashCode()).isEqualTo(type.hashCode());
 	}
 
+	@Test
+	void forClassIsCached() throws Exception {
+		assertThat(ResolvableType.forClass(ExtendsList.class)).isSameAs(ResolvableType.forClass(ExtendsList.class));
+		assertThat(ResolvableType.forClass(null)).isSameAs(ResolvableType.forClass(Object.class));
+		assertThat(ResolvableType.forType(String.class)).isSameAs(ResolvableType.forClass(String.class));
+	}
+
+	@Test
+	void forTypeWithoutSourceIsInterned() throws Exception {
+		ResolvableType.clearCache();
+		Type genericType = Fields.class.getField("stringList").getGenericType();
+		ResolvableType type = ResolvableType.forType(genericType);
+		assertThat(ResolvableType.forType(genericType)).isSameAs(type);
+		assertThat(type.getGenerics()).isSameAs(ResolvableType.forType(genericType).getGenerics());
+	}
+
+	@Test
+	void forFieldSharesResolvedStateWithEqualTypes() throws Exception {
+		Field field = Fields.class.getDeclaredField("privateField");
+		Field field2 = Fields.class.getDeclaredField("otherPrivateField");
+		ResolvableType type = ResolvableType.forField(field);
+		ResolvableType type2 = ResolvableType.forField(field2);
+		assertThat(type2).isNotSameAs(type);
+		assertThat(type.getSource()).isSameAs(field);
+		assertThat(type2.getSource()).isSameAs(field2);
+		assertThat(type2.getGenerics()).isSameAs(type.getGenerics());
+		assertThat(type2.getInterfaces()).isSameAs(type.getInterfaces());
+		assertThat(type.getGeneric(0).resolve()).isEqualTo(String.class);
+		assertThat(type.asCollection().getGeneric(0).resolve()).isEqualTo(String.class);
+	}
+
 	@Test
 	void forFieldMustNotBeNull() throws Exception {
 		assertThatIllegalArgumentException().isThrownBy(() ->
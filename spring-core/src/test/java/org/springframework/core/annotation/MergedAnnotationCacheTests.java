@@ -0,0 +1,125 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.Method;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link MergedAnnotationCache}.
+ *
+ * @since 5.2.9
+ */
+class MergedAnnotationCacheTests {
+
+	@BeforeEach
+	void clearCache() {
+		MergedAnnotationCache.clearCache();
+	}
+
+
+	@Test
+	void findMergedAnnotationServedFromCache() {
+		long hits = MergedAnnotationCache.getHitCount();
+		long misses = MergedAnnotationCache.getMissCount();
+		TestAnnotation annotation = AnnotatedElementUtils.findMergedAnnotation(Composed.class, TestAnnotation.class);
+		assertThat(annotation.value()).isEqualTo("composed");
+		assertThat(MergedAnnotationCache.getMissCount()).isEqualTo(misses + 1);
+
+		assertThat(AnnotatedElementUtils.findMergedAnnotation(Composed.class, TestAnnotation.class)).isSameAs(annotation);
+		assertThat(MergedAnnotationCache.getHitCount()).isEqualTo(hits + 1);
+		assertThat(AnnotatedElementUtils.getMergedAnnotation(Composed.class, TestAnnotation.class))
+				.isEqualTo(annotation).isNotSameAs(annotation);
+		assertThat(MergedAnnotationCache.getMissCount()).isEqualTo(misses + 2);
+	}
+
+	@Test
+	void findMergedAnnotationCachesAbsence() throws Exception {
+		Method method = Composed.class.getMethod("plain");
+		long hits = MergedAnnotationCache.getHitCount();
+		assertThat(AnnotatedElementUtils.findMergedAnnotation(method, TestAnnotation.class)).isNull();
+		assertThat(AnnotatedElementUtils.findMergedAnnotation(method, TestAnnotation.class)).isNull();
+		assertThat(MergedAnnotationCache.getHitCount()).isEqualTo(hits + 1);
+	}
+
+	@Test
+	void findMergedAnnotationOnInterfaceMethod() throws Exception {
+		Method method = Composed.class.getMethod("handle");
+		TestAnnotation annotation = AnnotatedElementUtils.findMergedAnnotation(method, TestAnnotation.class);
+		assertThat(annotation.value()).isEqualTo("interface");
+		assertThat(AnnotatedElementUtils.findMergedAnnotation(method, TestAnnotation.class)).isSameAs(annotation);
+		assertThat(AnnotatedElementUtils.getMergedAnnotation(method, TestAnnotation.class)).isNull();
+	}
+
+	@Test
+	void preWarmResolvesClassAndMethods() throws Exception {
+		MergedAnnotationCache.preWarm(Composed.class);
+		assertThat(MergedAnnotationCache.getCacheSize()).isEqualTo(2);
+
+		long hits = MergedAnnotationCache.getHitCount();
+		long misses = MergedAnnotationCache.getMissCount();
+		assertThat(AnnotatedElementUtils.findMergedAnnotation(Composed.class, TestAnnotation.class).value())
+				.isEqualTo("composed");
+		assertThat(AnnotatedElementUtils.findMergedAnnotation(Composed.class, ComposedAnnotation.class)).isNotNull();
+		assertThat(AnnotatedElementUtils.findMergedAnnotation(Composed.class.getMethod("handle"), TestAnnotation.class)
+				.value()).isEqualTo("interface");
+		assertThat(MergedAnnotationCache.getHitCount()).isEqualTo(hits + 3);
+		assertThat(MergedAnnotationCache.getMissCount()).isEqualTo(misses);
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface TestAnnotation {
+
+		String value() default "";
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@TestAnnotation
+	@interface ComposedAnnotation {
+
+		@AliasFor(annotation = TestAnnotation.class)
+		String value() default "";
+	}
+
+
+	interface Handler {
+
+		@TestAnnotation("interface")
+		void handle();
+	}
+
+
+	@ComposedAnnotation("composed")
+	static class Composed implements Handler {
+
+		@Override
+		public void handle() {
+		}
+
+		public void plain() {
+		}
+	}
+
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.annotation;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link SynthesizedAnnotationClassGenerator}, comparing generated
+ * synthesized annotations with proxy-based and JDK annotation instances.
+ *
+ * @since 5.2.9
+ */
+class SynthesizedAnnotationClassGeneratorTests {
+
+	@Test
+	void synthesizedAnnotationWithAllKindsOfAttributes() {
+		AllKinds jdkAnnotation = WithAllKinds.class.getAnnotation(AllKinds.class);
+		MergedAnnotation<AllKinds> mergedAnnotation = MergedAnnotation.from(jdkAnnotation);
+		AllKinds generated = SynthesizedAnnotationClassGenerator.synthesize(mergedAnnotation, AllKinds.class);
+		assertThat(generated).isNotNull().isInstanceOf(AbstractSynthesizedAnnotation.class);
+		assertThat(Proxy.isProxyClass(generated.getClass())).isFalse();
+		assertThat(generated.getClass().getName()).endsWith("$$SpringSynthesized");
+
+		assertThat(generated.text()).isEqualTo("value");
+		assertThat(generated.number()).isEqualTo(42);
+		assertThat(generated.flag()).isTrue();
+		assertThat(generated.character()).isEqualTo('x');
+		assertThat(generated.ratio()).isEqualTo(0.5d);
+		assertThat(generated.type()).isEqualTo(String.class);
+		assertThat(generated.unit()).isEqualTo(TimeUnit.SECONDS);
+		assertThat(generated.numbers()).containsExactly(1, 2, 3);
+		assertThat(generated.texts()).containsExactly("a", "b");
+		assertThat(generated.nested().value()).isEqualTo("nested");
+		assertThat(generated.nestedArray()).extracting(Nested::value).containsExactly("first", "second");
+		assertThat(generated.empty()).isEmpty();
+		assertThat(generated.annotationType()).isEqualTo(AllKinds.class);
+
+		AllKinds proxy = SynthesizedMergedAnnotationInvocationHandler.createProxy(mergedAnnotation, AllKinds.class);
+		assertThat(generated).isEqualTo(jdkAnnotation).isEqualTo(proxy);
+		assertThat(jdkAnnotation).isEqualTo(generated);
+		assertThat(proxy).isEqualTo(generated);
+		assertThat(generated.hashCode()).isEqualTo(jdkAnnotation.hashCode()).isEqualTo(proxy.hashCode());
+		assertThat(generated.toString()).isEqualTo(proxy.toString());
+		assertThat(SynthesizedAnnotationClassGenerator.synthesize(mergedAnnotation, AllKinds.class))
+				.isEqualTo(generated).isNotSameAs(generated);
+	}
+
+	@Test
+	void synthesizedAnnotationReturnsArrayCopies() {
+		AllKinds generated = SynthesizedAnnotationClassGenerator.synthesize(
+				MergedAnnotation.from(WithAllKinds.class.getAnnotation(AllKinds.class)), AllKinds.class);
+		int[] numbers = generated.numbers();
+		numbers[0] = 99;
+		assertThat(generated.numbers()).containsExactly(1, 2, 3);
+		assertThat(generated.numbers()).isNotSameAs(generated.numbers());
+		assertThat(generated.empty()).isSameAs(generated.empty());
+	}
+
+	@Test
+	void synthesizedAnnotationWithAliases() {
+		MergedAnnotation<Aliased> mergedAnnotation = MergedAnnotations.from(WithAliased.class).get(Aliased.class);
+		Aliased generated = SynthesizedAnnotationClassGenerator.synthesize(mergedAnnotation, Aliased.class);
+		assertThat(generated.value()).isEqualTo("alias");
+		assertThat(generated.name()).isEqualTo("alias");
+		assertThat(generated).isEqualTo(mergedAnnotation.synthesize());
+	}
+
+	@Test
+	void notEqualForDifferentValues() {
+		MergedAnnotation<Aliased> first = MergedAnnotations.from(WithAliased.class).get(Aliased.class);
+		MergedAnnotation<Aliased> second = MergedAnnotations.from(WithOtherAliased.class).get(Aliased.class);
+		Annotation generated = SynthesizedAnnotationClassGenerator.synthesize(first, Aliased.class);
+		assertThat(generated).isNotEqualTo(SynthesizedAnnotationClassGenerator.synthesize(second, Aliased.class));
+		assertThat(generated).isNotEqualTo(WithAllKinds.class.getAnnotation(AllKinds.class));
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface Nested {
+
+		String value();
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface AllKinds {
+
+		String text();
+
+		int number();
+
+		boolean flag();
+
+		char character();
+
+		double ratio();
+
+		Class<?> type();
+
+		TimeUnit unit();
+
+		int[] numbers();
+
+		String[] texts();
+
+		Nested nested();
+
+		Nested[] nestedArray();
+
+		String[] empty() default {};
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface Aliased {
+
+		@AliasFor("name")
+		String value() default "";
+
+		@AliasFor("value")
+		String name() default "";
+	}
+
+
+	@AllKinds(text = "value", number = 42, flag = true, character = 'x', ratio = 0.5d, type = String.class,
+			unit = TimeUnit.SECONDS, numbers = {1, 2, 3}, texts = {"a", "b"}, nested = @Nested("nested"),
+			nestedArray = {@Nested("first"), @Nested("second")})
+	static class WithAllKinds {
+	}
+
+
+	@Aliased(name = "alias")
+	static class WithAliased {
+	}
+
+
+	@Aliased("other")
+	static class WithOtherAliased {
+	}
+
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.convert.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.convert.ConversionFailedException;
+import org.springframework.core.convert.ConverterNotFoundException;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.convert.converter.TypedConverter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link TypedConverters} as obtained through
+ * {@link GenericConversionService#getTypedConverter}, verifying the same
+ * results as regular {@link GenericConversionService#convert} calls.
+ *
+ * @since 5.2.9
+ */
+class TypedConvertersTests {
+
+	private final DefaultConversionService conversionService = new DefaultConversionService();
+
+
+	@Test
+	void simpleConversion() {
+		TypedConverter<String, Integer> converter = conversionService.getTypedConverter(String.class, Integer.class);
+		assertThat(converter.convert("42")).isEqualTo(42);
+		assertThat(converter.convert(null)).isNull();
+		assertThat(converter.getSourceType()).isEqualTo(TypeDescriptor.valueOf(String.class));
+		assertThat(converter.getTargetType()).isEqualTo(TypeDescriptor.valueOf(Integer.class));
+	}
+
+	@Test
+	void assignableConversion() {
+		TypedConverter<Integer, Number> converter = conversionService.getTypedConverter(Integer.class, Number.class);
+		Integer value = 42;
+		assertThat(converter.convert(value)).isSameAs(value);
+	}
+
+	@Test
+	void nullToPrimitive() {
+		TypedConverter<String, Integer> converter = conversionService.getTypedConverter(String.class, int.class);
+		assertThat(converter.convert("1")).isEqualTo(1);
+		assertThatExceptionOfType(ConversionFailedException.class).isThrownBy(() ->
+				converter.convert(null));
+	}
+
+	@Test
+	void conversionFailure() {
+		TypedConverter<String, Integer> converter = conversionService.getTypedConverter(String.class, Integer.class);
+		assertThatExceptionOfType(ConversionFailedException.class).isThrownBy(() ->
+				converter.convert("abc"))
+			.withCauseInstanceOf(NumberFormatException.class);
+	}
+
+	@Test
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	void wrongSourceType() {
+		TypedConverter converter = conversionService.getTypedConverter(String.class, Integer.class);
+		assertThatIllegalArgumentException().isThrownBy(() ->
+				converter.convert(Boolean.TRUE));
+	}
+
+	@Test
+	void noConverterFound() {
+		assertThatExceptionOfType(ConverterNotFoundException.class).isThrownBy(() ->
+				new GenericConversionService().getTypedConverter(String.class, Integer.class));
+	}
+
+	@Test
+	void collectionToCollection() throws Exception {
+		TypeDescriptor sourceType = TypeDescriptor.collection(List.class, TypeDescriptor.valueOf(String.class));
+		TypeDescriptor targetType = new TypeDescriptor(getClass().getField("integerSet"));
+		TypedConverter<List<String>, Set<Integer>> converter = conversionService.getTypedConverter(sourceType, targetType);
+		List<String> source = Arrays.asList("1", "2", null, "2");
+		Set<Integer> result = converter.convert(source);
+		assertThat(result).containsExactly(1, 2, null);
+		assertThat(result).isInstanceOf(LinkedHashSet.class);
+		assertThat(result).isEqualTo(conversionService.convert(source, sourceType, targetType));
+	}
+
+	@Test
+	void collectionToCollectionWithoutCopy() throws Exception {
+		TypeDescriptor sourceType = TypeDescriptor.collection(List.class, TypeDescriptor.valueOf(Integer.class));
+		TypeDescriptor targetType = new TypeDescriptor(getClass().getField("numberList"));
+		TypedConverter<List<Integer>, List<Number>> converter = conversionService.getTypedConverter(sourceType, targetType);
+		List<Integer> source = new ArrayList<>(Arrays.asList(1, 2, 3));
+		assertThat(converter.convert(source)).isSameAs(source);
+		List<Integer> empty = Collections.emptyList();
+		assertThat(converter.convert(empty)).isSameAs(empty);
+	}
+
+	@Test
+	void collectionWithMixedElementTypes() throws Exception {
+		TypeDescriptor targetType = new TypeDescriptor(getClass().getField("stringList"));
+		TypedConverter<List<Object>, List<String>> converter =
+				conversionService.getTypedConverter(TypeDescriptor.valueOf(List.class), targetType);
+		List<Object> source = Arrays.asList(1, "two", 3L, 4, Boolean.TRUE);
+		assertThat(converter.convert(source)).containsExactly("1", "two", "3", "4", "true");
+	}
+
+	@Test
+	void primitiveArrayToPrimitiveArray() {
+		TypedConverter<int[], long[]> converter = conversionService.getTypedConverter(int[].class, long[].class);
+		assertThat(converter.convert(new int[] {1, 2, 3})).containsExactly(1L, 2L, 3L);
+	}
+
+	@Test
+	void primitiveArrayBypass() {
+		TypedConverter<int[], int[]> converter = conversionService.getTypedConverter(int[].class, int[].class);
+		int[] source = new int[] {1, 2, 3};
+		assertThat(converter.convert(source)).isSameAs(source);
+	}
+
+	@Test
+	void stringArrayToPrimitiveArray() {
+		TypedConverter<String[], int[]> converter = conversionService.getTypedConverter(String[].class, int[].class);
+		assertThat(converter.convert(new String[] {"1", "2", "3"})).containsExactly(1, 2, 3);
+		assertThat(converter.convert(new String[] {"4", "5"}))
+				.isEqualTo(conversionService.convert(new String[] {"4", "5"}, int[].class));
+	}
+
+	@Test
+	void primitiveArrayToCollection() throws Exception {
+		TypeDescriptor targetType = new TypeDescriptor(getClass().getField("stringList"));
+		TypedConverter<double[], List<String>> converter =
+				conversionService.getTypedConverter(TypeDescriptor.valueOf(double[].class), targetType);
+		assertThat(converter.convert(new double[] {1.5, 2.0})).containsExactly("1.5", "2.0");
+	}
+
+	@Test
+	void collectionToPrimitiveArray() {
+		TypeDescriptor sourceType = TypeDescriptor.collection(List.class, TypeDescriptor.valueOf(String.class));
+		TypedConverter<List<String>, boolean[]> converter =
+				conversionService.getTypedConverter(sourceType, TypeDescriptor.valueOf(boolean[].class));
+		assertThat(converter.convert(Arrays.asList("true", "false", "yes"))).containsExactly(true, false, true);
+	}
+
+	@Test
+	void nullElementToPrimitiveArray() {
+		TypedConverter<String[], int[]> converter = conversionService.getTypedConverter(String[].class, int[].class);
+		assertThatExceptionOfType(ConversionFailedException.class).isThrownBy(() ->
+				converter.convert(new String[] {"1", null}));
+	}
+
+
+	public Set<Integer> integerSet;
+
+	public List<Number> numberList;
+
+	public List<String> stringList;
+
+}
@@ -332,4 +332,57 @@ class PropertySourcesPropertyResolverTests {
 			.withMessageContaining("Could not resolve placeholder 'bogus' in value \"${p1}:${p2}:${bogus}\"");
 	}
 
+	@Test
+	void propertyIndex() {
+		MutablePropertySources ps = new MutablePropertySources();
+		Map<String, Object> env = new HashMap<>();
+		env.put("FOO_BAR", "fromEnv");
+		env.put("shared", "fromEnv");
+		ps.addLast(new MockPropertySource("first").withProperty("shared", "fromFirst"));
+		ps.addLast(new PropertySource<Object>("unindexed") {
+			@Override
+			public Object getProperty(String name) {
+				return (name.equals("dynamic") ? "fromUnindexed" : null);
+			}
+		});
+		ps.addLast(new SystemEnvironmentPropertySource("env", env));
+		ps.addLast(new MockPropertySource("last").withProperty("foo.bar", "fromLast").withProperty("dynamic", "x"));
+		PropertySourcesPropertyResolver pr = new PropertySourcesPropertyResolver(ps);
+		pr.setPropertyIndexEnabled(true);
+
+		assertThat(pr.getProperty("shared")).isEqualTo("fromFirst");
+		assertThat(pr.getProperty("foo.bar")).isEqualTo("fromEnv");
+		assertThat(pr.getProperty("foo-bar")).isEqualTo("fromEnv");
+		assertThat(pr.getProperty("dynamic")).isEqualTo("fromUnindexed");
+		assertThat(pr.containsProperty("FOO.BAR")).isTrue();
+		assertThat(pr.getProperty("bogus")).isNull();
+		assertThat(pr.containsProperty("bogus")).isFalse();
+
+		ps.addFirst(new MockPropertySource("override").withProperty("foo.bar", "fromOverride"));
+		assertThat(pr.getProperty("foo.bar")).isEqualTo("fromOverride");
+		ps.remove("override");
+		ps.remove("env");
+		assertThat(pr.getProperty("foo.bar")).isEqualTo("fromLast");
+		ps.replace("first", new MockPropertySource("first"));
+		assertThat(pr.getProperty("shared")).isNull();
+
+		// Key set modifications require an explicit index reset
+		((MockPropertySource) ps.get("first")).setProperty("added", "value");
+		assertThat(pr.getProperty("added")).isNull();
+		pr.clearPropertyIndex();
+		assertThat(pr.getProperty("added")).isEqualTo("value");
+	}
+
+	@Test
+	void propertyIndexWithNullValue() {
+		MutablePropertySources ps = new MutablePropertySources();
+		Map<String, Object> first = new HashMap<>();
+		first.put("foo", null);
+		ps.addLast(new MapPropertySource("first", first));
+		ps.addLast(new MockPropertySource("second").withProperty("foo", "bar"));
+		PropertySourcesPropertyResolver pr = new PropertySourcesPropertyResolver(ps);
+		pr.setPropertyIndexEnabled(true);
+		assertThat(pr.getProperty("foo")).isEqualTo("bar");
+	}
+
 }
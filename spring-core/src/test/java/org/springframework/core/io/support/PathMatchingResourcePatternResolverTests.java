@@ -129,6 +129,23 @@ class PathMatchingResourcePatternResolverTests {
 		assertThat(found).as("Could not find aspectj_1_5_0.dtd in the root of the aspectjweaver jar").isTrue();
 	}
 
+	@Test
+	void parallelResolutionWithJarEntryCache() throws IOException {
+		PathMatchingResourcePatternResolver parallelResolver = new PathMatchingResourcePatternResolver();
+		parallelResolver.setParallelResolution(true);
+		parallelResolver.setCacheJarEntries(true);
+		Resource[] expected = resolver.getResources("classpath*:org/springframework/util/*.class");
+		assertThat(parallelResolver.getResources("classpath*:org/springframework/util/*.class")).containsExactly(expected);
+		// Second round served from the jar entry cache
+		assertThat(parallelResolver.getResources("classpath*:org/springframework/util/*.class")).containsExactly(expected);
+
+		Resource[] dtds = parallelResolver.getResources("classpath*:*.dtd");
+		assertThat(dtds).extracting(Resource::getFilename).contains("aspectj_1_5_0.dtd");
+		assertThat(parallelResolver.getResources("classpath*:*.dtd")).containsExactly(dtds);
+		parallelResolver.clearCache();
+		assertThat(parallelResolver.getResources("classpath*:*.dtd")).containsExactly(dtds);
+	}
+
 
 	private void assertProtocolAndFilenames(Resource[] resources, String protocol, String... filenames)
 			throws IOException {
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.metrics.BufferingApplicationStartup.RecordedStep;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Unit tests for {@link BufferingApplicationStartup}.
+ */
+class BufferingApplicationStartupTests {
+
+	@Test
+	void recordsNestedStepsWithParentIds() {
+		BufferingApplicationStartup startup = new BufferingApplicationStartup(10);
+		StartupStep outer = startup.start("spring.test.outer");
+		StartupStep inner = startup.start("spring.test.inner").tag("beanName", "foo");
+		inner.end();
+		outer.end();
+
+		List<RecordedStep> steps = startup.getBufferedSteps();
+		assertThat(steps).hasSize(2);
+		assertThat(steps.get(0).getName()).isEqualTo("spring.test.inner");
+		assertThat(steps.get(0).getParentId()).isEqualTo(outer.getId());
+		assertThat(steps.get(0).getStackPath()).isEqualTo("spring.test.outer;spring.test.inner[beanName=foo]");
+		assertThat(steps.get(1).getName()).isEqualTo("spring.test.outer");
+		assertThat(steps.get(1).getParentId()).isNull();
+		assertThat(steps.get(1).getDuration()).isGreaterThanOrEqualTo(steps.get(0).getDuration());
+	}
+
+	@Test
+	void siblingStepsShareParent() {
+		BufferingApplicationStartup startup = new BufferingApplicationStartup(10);
+		StartupStep parent = startup.start("spring.test.parent");
+		startup.start("spring.test.first").end();
+		startup.start("spring.test.second").end();
+		parent.end();
+
+		List<RecordedStep> steps = startup.getBufferedSteps();
+		assertThat(steps).extracting(RecordedStep::getParentId)
+				.containsExactly(parent.getId(), parent.getId(), null);
+	}
+
+	@Test
+	void dropsStepsBeyondCapacity() {
+		BufferingApplicationStartup startup = new BufferingApplicationStartup(2);
+		for (int i = 0; i < 5; i++) {
+			startup.start("spring.test.step").end();
+		}
+		assertThat(startup.getBufferedSteps()).hasSize(2);
+		assertThat(startup.drainBufferedSteps()).hasSize(2);
+		assertThat(startup.getBufferedSteps()).isEmpty();
+		startup.start("spring.test.step").end();
+		assertThat(startup.getBufferedSteps()).hasSize(1);
+	}
+
+	@Test
+	void filteredStepsAreNotRecorded() {
+		BufferingApplicationStartup startup = new BufferingApplicationStartup(10);
+		startup.addFilter(step -> step.getName().startsWith("spring.beans."));
+		StartupStep refresh = startup.start("spring.context.refresh");
+		startup.start("spring.beans.instantiate").tag("beanName", "foo").end();
+		refresh.end();
+
+		List<RecordedStep> steps = startup.getBufferedSteps();
+		assertThat(steps).hasSize(1);
+		assertThat(steps.get(0).getStackPath()).isEqualTo("spring.context.refresh;spring.beans.instantiate[beanName=foo]");
+	}
+
+	@Test
+	void writesFoldedStacks() {
+		BufferingApplicationStartup startup = new BufferingApplicationStartup(10);
+		StartupStep refresh = startup.start("spring.context.refresh");
+		startup.start("spring.beans.instantiate").tag("beanName", "a;b").end();
+		refresh.end();
+
+		String[] lines = startup.getFoldedStacks().split("\n");
+		assertThat(lines).hasSize(2);
+		assertThat(lines[0]).matches("spring\\.context\\.refresh;spring\\.beans\\.instantiate\\[beanName=a,b] \\d+");
+		assertThat(lines[1]).matches("spring\\.context\\.refresh \\d+");
+	}
+
+	@Test
+	void endingStepTwiceFails() {
+		BufferingApplicationStartup startup = new BufferingApplicationStartup(10);
+		StartupStep step = startup.start("spring.test.step");
+		step.end();
+		assertThatIllegalStateException().isThrownBy(step::end);
+		assertThatIllegalStateException().isThrownBy(() -> step.tag("key", "value"));
+	}
+
+	@Test
+	void defaultStartupDoesNotRecord() {
+		StartupStep step = ApplicationStartup.DEFAULT.start("spring.test.step").tag("key", "value");
+		assertThat(step.getTags()).isEmpty();
+		step.end();
+	}
+
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.core.annotation.MergedAnnotation.Adapt;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.core.type.AbstractAnnotationMetadataTests;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.util.ClassUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ClassMetadataIndex} and {@link ClassMetadataIndexWriter},
+ * verifying that indexed metadata is equivalent to ASM-based metadata.
+ *
+ * @since 5.2.9
+ */
+class ClassMetadataIndexTests extends AbstractAnnotationMetadataTests {
+
+	@Override
+	protected AnnotationMetadata get(Class<?> source) {
+		MetadataReader metadataReader = index(source).getMetadataReader(source.getName());
+		assertThat(metadataReader).isNotNull();
+		return metadataReader.getAnnotationMetadata();
+	}
+
+	@Test
+	void attributeValuesOfAllKinds() {
+		AnnotationMetadata metadata = get(WithAllKindsOfAttributes.class);
+		org.springframework.core.annotation.AnnotationAttributes attributes =
+				metadata.getAnnotations().get(AllKinds.class).asAnnotationAttributes(Adapt.values());
+		assertThat(attributes.getString("text")).isEqualTo("value");
+		assertThat(attributes.getStringArray("texts")).containsExactly("a", "b");
+		assertThat(attributes.getNumber("number").intValue()).isEqualTo(42);
+		assertThat((int[]) attributes.get("numbers")).containsExactly(1, 2, 3);
+		assertThat(attributes.get("character")).isEqualTo('x');
+		assertThat(attributes.getBoolean("flag")).isTrue();
+		assertThat(attributes.getString("type")).isEqualTo(String.class.getName());
+		assertThat(attributes.getStringArray("types")).containsExactly(Integer.class.getName(), Long.class.getName());
+		assertThat(attributes.<TimeUnit>getEnum("unit")).isEqualTo(TimeUnit.SECONDS);
+		assertThat((TimeUnit[]) attributes.get("units")).containsExactly(TimeUnit.DAYS, TimeUnit.HOURS);
+		assertThat(attributes.getAnnotation("nested").getString("value")).isEqualTo("single");
+		assertThat(attributes.getAnnotationArray("nestedArray")).extracting(nested -> nested.getString("value"))
+				.containsExactly("first", "second");
+		assertThat(attributes.getString("defaulted")).isEqualTo("default");
+	}
+
+	@Test
+	void innerClassWithDotSyntax() {
+		ClassMetadataIndex index = index(WithAllKindsOfAttributes.class);
+		String dotName = getClass().getName() + ".WithAllKindsOfAttributes";
+		assertThat(index.getMetadataReader(dotName).getClassMetadata().getClassName())
+				.isEqualTo(WithAllKindsOfAttributes.class.getName());
+		assertThat(index.getMetadataReader(String.class.getName())).isNull();
+	}
+
+	@Test
+	void metadataReaderForResourceMatchedByLocation() throws Exception {
+		ClassMetadataIndex index = index("/app/classes/", WithAllKindsOfAttributes.class);
+		String path = ClassUtils.convertClassNameToResourcePath(WithAllKindsOfAttributes.class.getName()) +
+				ClassUtils.CLASS_FILE_SUFFIX;
+		// Never read: the index serves the metadata for the class path root it belongs to
+		FileSystemResource fileResource = new FileSystemResource("/app/classes/" + path);
+		MetadataReader metadataReader = index.getMetadataReader(fileResource);
+		assertThat(metadataReader.getResource()).isSameAs(fileResource);
+		assertThat(metadataReader.getAnnotationMetadata().hasAnnotation(AllKinds.class.getName())).isTrue();
+		assertThat(index.getMetadataReader(new FileSystemResource("/app/classes/Other.class"))).isNull();
+		assertThat(index.getMetadataReader(new FileSystemResource("/other/classes/" + path))).isNull();
+		assertThat(index.getMetadataReader(new UrlResource("jar:file:/app/classes/lib.jar!/" + path))).isNull();
+	}
+
+	@Test
+	void metadataReaderForJarEntry() throws Exception {
+		ClassMetadataIndex index = index("file:/app/app.jar!/", WithAllKindsOfAttributes.class);
+		String path = ClassUtils.convertClassNameToResourcePath(WithAllKindsOfAttributes.class.getName()) +
+				ClassUtils.CLASS_FILE_SUFFIX;
+		assertThat(index.getMetadataReader(new UrlResource("jar:file:/app/app.jar!/" + path))).isNotNull();
+		assertThat(index.getMetadataReader(new UrlResource("jar:file:/app/lib.jar!/" + path))).isNull();
+	}
+
+	@Test
+	void metadataReaderForClassNameResolvedFromOtherLocation() {
+		ClassMetadataIndex index = index("/app/classes/", WithAllKindsOfAttributes.class);
+		assertThat(index.containsClass(WithAllKindsOfAttributes.class.getName())).isTrue();
+		assertThat(index.getMetadataReader(WithAllKindsOfAttributes.class.getName())).isNull();
+	}
+
+	@Test
+	void classNamesInPackage() {
+		ClassMetadataIndex index = index(WithAllKindsOfAttributes.class, String.class);
+		assertThat(index.size()).isEqualTo(2);
+		assertThat(index.getClassNames("org.springframework.core")).containsExactly(WithAllKindsOfAttributes.class.getName());
+		assertThat(index.getClassNames("org.springframework.*.type")).isEmpty();
+		assertThat(index.getClassNames("org.springframework.**.classreading")).containsExactly(WithAllKindsOfAttributes.class.getName());
+		assertThat(index.getClassNames("java.lang")).containsExactly(String.class.getName());
+		assertThat(index.getClassNames("java.lan")).isEmpty();
+	}
+
+	@Test
+	void cachingMetadataReaderFactoryUsesIndexFromClassPath(@TempDir Path tempDir) throws Exception {
+		Path classFile = tempDir.resolve(getResourcePath(WithAllKindsOfAttributes.class));
+		Files.createDirectories(classFile.getParent());
+		try (InputStream in = WithAllKindsOfAttributes.class.getResourceAsStream(classFile.getFileName().toString())) {
+			Files.copy(in, classFile);
+		}
+		Path indexFile = tempDir.resolve(ClassMetadataIndexLoader.METADATA_RESOURCE_LOCATION);
+		Files.createDirectories(indexFile.getParent());
+		try (OutputStream out = Files.newOutputStream(indexFile)) {
+			writer(WithAllKindsOfAttributes.class).write(out);
+		}
+		URL[] urls = new URL[] {tempDir.toUri().toURL()};
+		try (URLClassLoader classLoader = new URLClassLoader(urls, getClass().getClassLoader())) {
+			// Class resolved from the test classes, shadowing the indexed copy
+			CachingMetadataReaderFactory metadataReaderFactory = new CachingMetadataReaderFactory(classLoader);
+			assertThat(metadataReaderFactory.getMetadataIndex()).isNotNull();
+			assertThat(metadataReaderFactory.getMetadataReader(WithAllKindsOfAttributes.class.getName()))
+					.isInstanceOf(SimpleMetadataReader.class);
+		}
+		try (URLClassLoader classLoader = new URLClassLoader(urls, null)) {
+			CachingMetadataReaderFactory metadataReaderFactory = new CachingMetadataReaderFactory(classLoader);
+			MetadataReader metadataReader = metadataReaderFactory.getMetadataReader(WithAllKindsOfAttributes.class.getName());
+			assertThat(metadataReader).isNotInstanceOf(SimpleMetadataReader.class);
+			assertThat(metadataReader.getClassMetadata().getClassName()).isEqualTo(WithAllKindsOfAttributes.class.getName());
+			assertThat(metadataReaderFactory.getMetadataReader(Object.class.getName())).isInstanceOf(SimpleMetadataReader.class);
+		}
+	}
+
+
+	private static ClassMetadataIndex index(Class<?>... classes) {
+		Class<?> clazz = classes[0];
+		String path = clazz.getResource(ClassUtils.getClassFileName(clazz)).getPath();
+		return index(path.substring(0, path.length() - getResourcePath(clazz).length()), classes);
+	}
+
+	private static ClassMetadataIndex index(String rootPath, Class<?>... classes) {
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			writer(classes).write(out);
+			ClassMetadataIndex index = new ClassMetadataIndex(ClassMetadataIndexTests.class.getClassLoader());
+			index.read(new ByteArrayInputStream(out.toByteArray()), rootPath);
+			return index;
+		}
+		catch (Exception ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private static String getResourcePath(Class<?> clazz) {
+		return ClassUtils.convertClassNameToResourcePath(clazz.getName()) + ClassUtils.CLASS_FILE_SUFFIX;
+	}
+
+	private static ClassMetadataIndexWriter writer(Class<?>... classes) throws Exception {
+		ClassMetadataIndexWriter writer = new ClassMetadataIndexWriter();
+		for (Class<?> clazz : classes) {
+			writer.add(new SimpleMetadataReaderFactory(clazz.getClassLoader()).getMetadataReader(clazz.getName()));
+		}
+		return writer;
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface Nested {
+
+		String value();
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface AllKinds {
+
+		String text();
+
+		String[] texts();
+
+		int number();
+
+		int[] numbers();
+
+		char character();
+
+		boolean flag();
+
+		Class<?> type();
+
+		Class<?>[] types();
+
+		TimeUnit unit();
+
+		TimeUnit[] units();
+
+		Nested nested();
+
+		Nested[] nestedArray();
+
+		ElementType[] targets() default {};
+
+		String defaulted() default "default";
+	}
+
+
+	@AllKinds(text = "value", texts = {"a", "b"}, number = 42, numbers = {1, 2, 3}, character = 'x',
+			flag = true, type = String.class, types = {Integer.class, Long.class}, unit = TimeUnit.SECONDS,
+			units = {TimeUnit.DAYS, TimeUnit.HOURS}, nested = @Nested("single"),
+			nestedArray = {@Nested("first"), @Nested("second")})
+	static class WithAllKindsOfAttributes {
+	}
+
+}
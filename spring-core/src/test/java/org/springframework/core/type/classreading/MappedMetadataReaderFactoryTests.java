@@ -0,0 +1,160 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StreamUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link MappedMetadataReaderFactory} and the byte-weighted
+ * cache of {@link CachingMetadataReaderFactory}.
+ *
+ * @since 5.2.9
+ */
+class MappedMetadataReaderFactoryTests {
+
+	private static final String RESOURCE_PATH = ClassUtils.convertClassNameToResourcePath(
+			SampleComponent.class.getName()) + ClassUtils.CLASS_FILE_SUFFIX;
+
+
+	@Test
+	void readsClassFileFromDirectory(@TempDir Path tempDir) throws Exception {
+		Path file = copyClassFile(tempDir.resolve("Sample.class"));
+		MappedMetadataReaderFactory factory = new MappedMetadataReaderFactory();
+		assertSameMetadata(factory.getMetadataReader(new FileSystemResource(file)));
+
+		factory.setMappingThreshold(0);
+		factory.clearCache();
+		assertSameMetadata(factory.getMetadataReader(new FileSystemResource(file)));
+		factory.close();
+	}
+
+	@Test
+	void readsClassFileFromJarFile(@TempDir Path tempDir) throws Exception {
+		Path jarFile = tempDir.resolve("sample.jar");
+		try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jarFile))) {
+			out.putNextEntry(new JarEntry(RESOURCE_PATH));
+			copyClassFile(out);
+			out.closeEntry();
+		}
+		String jarUrl = "jar:" + jarFile.toUri().toURL() + "!/";
+		MappedMetadataReaderFactory factory = new MappedMetadataReaderFactory();
+		assertSameMetadata(factory.getMetadataReader(new UrlResource(jarUrl + RESOURCE_PATH)));
+		assertThat(factory.getOpenJarFileCount()).isEqualTo(1);
+		assertThatExceptionOfType(FileNotFoundException.class).isThrownBy(() ->
+				factory.getMetadataReader(new UrlResource(jarUrl + "Missing.class")));
+
+		factory.close();
+		assertThat(factory.getOpenJarFileCount()).isEqualTo(0);
+		factory.clearCache();
+		assertSameMetadata(factory.getMetadataReader(new UrlResource(jarUrl + RESOURCE_PATH)));
+		assertThat(factory.getOpenJarFileCount()).isEqualTo(0);
+	}
+
+	@Test
+	void cacheBoundedByClassFileSize() throws Exception {
+		Resource resource = new ClassPathResource(RESOURCE_PATH);
+		Resource other = new ClassPathResource(ClassUtils.convertClassNameToResourcePath(
+				MappedMetadataReaderFactoryTests.class.getName()) + ClassUtils.CLASS_FILE_SUFFIX);
+		int length = (int) resource.contentLength();
+		CachingMetadataReaderFactory factory = new CachingMetadataReaderFactory();
+		factory.setCacheByteLimit(length + 1);
+		assertThat(factory.getCacheByteLimit()).isEqualTo(length + 1);
+		assertThat(factory.getCacheLimit()).isEqualTo(Integer.MAX_VALUE);
+
+		MetadataReader metadataReader = factory.getMetadataReader(resource);
+		assertThat(factory.getCachedBytes()).isEqualTo(length);
+		assertThat(factory.getMetadataReader(resource)).isSameAs(metadataReader);
+
+		factory.getMetadataReader(other);
+		assertThat(factory.getCachedBytes()).isEqualTo(other.contentLength());
+		assertThat(factory.getMetadataReader(resource)).isNotSameAs(metadataReader);
+
+		factory.setCacheByteLimit(Long.MAX_VALUE);
+		factory.getMetadataReader(other);
+		assertThat(factory.getCachedBytes()).isEqualTo(length + other.contentLength());
+		factory.setCacheLimit(1);
+		factory.clearCache();
+		factory.getMetadataReader(resource);
+		factory.getMetadataReader(other);
+		assertThat(factory.getCachedBytes()).isEqualTo(other.contentLength());
+		factory.clearCache();
+		assertThat(factory.getCachedBytes()).isEqualTo(0);
+	}
+
+
+	private static void assertSameMetadata(MetadataReader metadataReader) throws Exception {
+		MetadataReader expected = new SimpleMetadataReaderFactory().getMetadataReader(SampleComponent.class.getName());
+		AnnotationMetadata metadata = metadataReader.getAnnotationMetadata();
+		assertThat(metadata.getClassName()).isEqualTo(expected.getAnnotationMetadata().getClassName());
+		assertThat(metadata.getAnnotationTypes()).isEqualTo(expected.getAnnotationMetadata().getAnnotationTypes());
+		assertThat(metadata.getInterfaceNames()).containsExactly(Runnable.class.getName());
+		assertThat(metadata.hasAnnotatedMethods(Marker.class.getName())).isTrue();
+		assertThat(((SimpleMetadataReader) metadataReader).getClassFileLength())
+				.isEqualTo(((SimpleMetadataReader) expected).getClassFileLength());
+	}
+
+	private static Path copyClassFile(Path target) throws Exception {
+		try (OutputStream out = Files.newOutputStream(target)) {
+			copyClassFile(out);
+		}
+		return target;
+	}
+
+	private static void copyClassFile(OutputStream out) throws Exception {
+		try (InputStream in = new ClassPathResource(RESOURCE_PATH).getInputStream()) {
+			StreamUtils.copy(in, out);
+		}
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface Marker {
+	}
+
+
+	@Marker
+	static class SampleComponent implements Runnable {
+
+		@Override
+		@Marker
+		public void run() {
+		}
+	}
+
+}
@@ -22,6 +22,7 @@ import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
 import org.junit.jupiter.api.Test;
 
@@ -132,6 +133,29 @@ class AntPathMatcherTests {
 		assertThat(pathMatcher.match("/{bla}.*", "/testing.html")).isTrue();
 	}
 
+	@Test
+	void compiledPatternMatchesLikeMatch() {
+		String[] patterns = {"**/*.class", "*.class", "com/*/Foo?.class", "**/foo.xml", "/test", "test*",
+				"**", "/{bla}.*", "/x/{name:[a-z]+}.class", "/bla/**/bla", "", "t?st"};
+		String[] paths = {"Foo.class", "com/acme/Foo1.class", "com/acme/Foo.classx", "foo.xml", "a/b/foo.xml",
+				"a/bfoo.xml", "/test", "/test/", "test", "testing", "/testing.html", "/x/abc.class", "/x/ABC.class",
+				"/bla/testing/bla", "/bla/testing/bla/", "", "tst", "test.class/"};
+		for (String pattern : patterns) {
+			Predicate<String> compiled = pathMatcher.compile(pattern);
+			for (String path : paths) {
+				assertThat(compiled.test(path)).as("'%s' against '%s'", pattern, path)
+						.isEqualTo(pathMatcher.match(pattern, path));
+			}
+		}
+	}
+
+	@Test
+	void compiledPatternWithCaseInsensitiveMatching() {
+		pathMatcher.setCaseSensitive(false);
+		assertThat(pathMatcher.compile("**/*.class").test("com/acme/Foo.CLASS")).isTrue();
+		assertThat(pathMatcher.compile("**/*.class").test("com/acme/Foo.xml")).isFalse();
+	}
+
 	@Test
 	void matchWithNullPath() {
 		assertThat(pathMatcher.match("/test", null)).isFalse();
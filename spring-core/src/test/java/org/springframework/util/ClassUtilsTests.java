@@ -321,6 +321,18 @@ class ClassUtilsTests {
 		assertThat(InnerClass.overloadedCalled).as("argument method was not invoked.").isTrue();
 	}
 
+	@Test
+	void isInterfaceProxyClass() {
+		Object proxy = Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Runnable.class},
+				(p, method, args) -> null);
+		assertThat(ClassUtils.isInterfaceProxyClass(proxy.getClass())).isTrue();
+		assertThat(ClassUtils.isInterfaceProxyClass(GeneratedRunnableProxy.class)).isTrue();
+		assertThat(ClassUtils.isInterfaceProxyClass(GeneratedInterfaceProxy.class)).isFalse();
+		assertThat(ClassUtils.isInterfaceProxyClass(Runnable.class)).isFalse();
+		assertThat(ClassUtils.isInterfaceProxyClass(Object.class)).isFalse();
+		assertThat(ClassUtils.isInterfaceProxyClass(null)).isFalse();
+	}
+
 	@Test
 	void isAssignable() {
 		assertThat(ClassUtils.isAssignable(Object.class, Object.class)).isTrue();
@@ -489,4 +501,11 @@ class ClassUtilsTests {
 		}
 	}
 
+	private static class GeneratedRunnableProxy implements GeneratedInterfaceProxy, Runnable {
+
+		@Override
+		public void run() {
+		}
+	}
+
 }
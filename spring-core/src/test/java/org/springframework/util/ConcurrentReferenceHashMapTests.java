@@ -28,6 +28,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
@@ -250,6 +252,70 @@ class ConcurrentReferenceHashMapTests {
 		assertThat(this.map.get(5)).isEqualTo("5");
 	}
 
+	@Test
+	void shouldDeferPurgeOnGetWhileLocked() throws Exception {
+		this.map = new TestWeakConcurrentCache<>(1, 0.75f, 1);
+		for (int i = 1; i <= 5; i++) {
+			this.map.put(i, String.valueOf(i));
+		}
+		this.map.getMockReference(1, Restructure.NEVER).queueForPurge();
+		CountDownLatch locked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Thread lockingThread = new Thread(() -> {
+			this.map.getSegment(0).writeLock().lock();
+			try {
+				locked.countDown();
+				release.await();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			finally {
+				this.map.getSegment(0).writeLock().unlock();
+			}
+		});
+		lockingThread.start();
+		locked.await();
+		assertThat(this.map.get(2)).isEqualTo("2");
+		assertThat(this.map.get(1)).isEqualTo("1");
+		release.countDown();
+		lockingThread.join();
+		assertThat(this.map.getReference(1, Restructure.WHEN_NECESSARY)).isNull();
+		assertThat(this.map.size()).isEqualTo(4);
+	}
+
+	@Test
+	void shouldPutConcurrently() throws Exception {
+		ConcurrentReferenceHashMap<Integer, Integer> map = new ConcurrentReferenceHashMap<>(1, 1);
+		int threadCount = 8;
+		int keyCount = 2000;
+		Set<Integer> unexpectedPutIfAbsentResults = ConcurrentHashMap.newKeySet();
+		Thread[] threads = new Thread[threadCount];
+		for (int t = 0; t < threadCount; t++) {
+			int threadIndex = t;
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < keyCount; i++) {
+					Integer previous = map.putIfAbsent(i, i);
+					if (previous != null && previous != i) {
+						unexpectedPutIfAbsentResults.add(i);
+					}
+					map.put(keyCount + (threadIndex * keyCount) + i, i);
+				}
+			});
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertThat(unexpectedPutIfAbsentResults).isEmpty();
+		assertThat(map.size()).isEqualTo(keyCount + (threadCount * keyCount));
+		for (int i = 0; i < keyCount; i++) {
+			assertThat(map.get(i)).isEqualTo(i);
+		}
+	}
+
 	@Test
 	void shouldPutIfAbsent() {
 		assertThat(this.map.putIfAbsent(123, "123")).isNull();
@@ -108,4 +108,36 @@ class PropertyPlaceholderHelperTests {
 				helper.replacePlaceholders(text, props));
 	}
 
+	@Test
+	void repeatedResolutionAgainstDifferentProperties() {
+		PropertyPlaceholderHelper helper = new PropertyPlaceholderHelper("${", "}", ":", true);
+		String text = "${prefix}-${${name}:default}${unterminated";
+		Properties props = new Properties();
+		props.setProperty("prefix", "p1");
+		props.setProperty("name", "key");
+		props.setProperty("key", "value");
+		assertThat(helper.replacePlaceholders(text, props)).isEqualTo("p1-value${unterminated");
+
+		props.setProperty("prefix", "${other}");
+		props.remove("key");
+		assertThat(helper.replacePlaceholders(text, props)).isEqualTo("${other}-default${unterminated");
+
+		props.setProperty("name", "key:nested");
+		assertThat(helper.replacePlaceholders(text, props)).isEqualTo("${other}-nested:default${unterminated");
+		props.remove("name");
+		assertThat(helper.replacePlaceholders(text, props)).isEqualTo("${other}-default${unterminated");
+	}
+
+	@Test
+	void circularReferenceOnRepeatedResolution() {
+		Properties props = new Properties();
+		props.setProperty("foo", "${bar}");
+		props.setProperty("bar", "${foo}");
+		for (int i = 0; i < 2; i++) {
+			assertThatIllegalArgumentException().isThrownBy(() ->
+					this.helper.replacePlaceholders("${foo}", props))
+				.withMessageContaining("Circular placeholder reference");
+		}
+	}
+
 }
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+/**
+ * Benchmark for {@link org.springframework.expression.spel.standard.SpelExpression#getValue}
+ * in interpreted and compiled mode, plus the cost of parsing itself.
+ * <p>Typically run with {@code "./gradlew :spring-expression:jmh -PbenchmarkInclude=SpelExpressionBenchmark -PbenchmarkProfilers=gc"}.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class SpelExpressionBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"OFF", "IMMEDIATE"})
+		public SpelCompilerMode compilerMode;
+
+		@Param({"name", "address.city.length() > 3", "tags[1]", "amount * 2 + 10"})
+		public String expressionString;
+
+		public Expression expression;
+
+		public EvaluationContext context;
+
+		public Order root;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			SpelParserConfiguration configuration = new SpelParserConfiguration(this.compilerMode, getClass().getClassLoader());
+			this.expression = new SpelExpressionParser(configuration).parseExpression(this.expressionString);
+			this.root = new Order();
+			this.context = new StandardEvaluationContext(this.root);
+			// warm up the expression so that compilation (if enabled) has kicked in
+			for (int i = 0; i < 3; i++) {
+				this.expression.getValue(this.context);
+			}
+		}
+	}
+
+
+	@Benchmark
+	public Object getValue(BenchmarkState state) {
+		return state.expression.getValue(state.context);
+	}
+
+	@Benchmark
+	public Object getValueWithRootObject(BenchmarkState state) {
+		return state.expression.getValue(state.context, state.root);
+	}
+
+	@Benchmark
+	public Object parse(BenchmarkState state) {
+		return new SpelExpressionParser().parseExpression(state.expressionString);
+	}
+
+
+	public static class Order {
+
+		public String name = "order-1";
+
+		public int amount = 42;
+
+		public Address address = new Address();
+
+		public List<String> tags = new ArrayList<>();
+
+		public Map<String, String> attributes = new HashMap<>();
+
+		public Order() {
+			this.tags.add("urgent");
+			this.tags.add("gift");
+			this.attributes.put("channel", "web");
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public int getAmount() {
+			return this.amount;
+		}
+
+		public Address getAddress() {
+			return this.address;
+		}
+
+		public List<String> getTags() {
+			return this.tags;
+		}
+
+		public Map<String, String> getAttributes() {
+			return this.attributes;
+		}
+	}
+
+
+	public static class Address {
+
+		public String city = "Berlin";
+
+		public String getCity() {
+			return this.city;
+		}
+	}
+
+}
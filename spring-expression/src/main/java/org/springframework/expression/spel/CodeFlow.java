@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -85,9 +85,18 @@ public class CodeFlow implements Opcodes {
 
 	/**
 	 * When code generation requires an intermediate variable within a method,
-	 * this method records the next available variable (variable 0 is 'this').
+	 * this method records the next available variable (variable 0 is 'this',
+	 * variables 1 and 2 are the parameters of the main evaluation method).
 	 */
-	private int nextFreeVariableId = 1;
+	private int nextFreeVariableId = 3;
+
+	/**
+	 * Local variables holding the active context object, with the innermost
+	 * one on top, e.g. the current element while generating the code for
+	 * the criteria of a selection. Empty while the target is the active
+	 * context object.
+	 */
+	private final Deque<Integer> activeContextVariables = new ArrayDeque<>();
 
 
 	/**
@@ -109,7 +118,39 @@ public class CodeFlow implements Opcodes {
 	 * @param mv the visitor into which the load instruction should be inserted
 	 */
 	public void loadTarget(MethodVisitor mv) {
-		mv.visitVarInsn(ALOAD, 1);
+		Integer variableId = this.activeContextVariables.peek();
+		mv.visitVarInsn(ALOAD, (variableId != null ? variableId : 1));
+	}
+
+	/**
+	 * Make the object held in the given local variable the active context
+	 * object, i.e. the object that {@link #loadTarget} loads from now on,
+	 * until the corresponding {@link #popActiveContextVariable()} call.
+	 * @param variableId the local variable holding the active context object
+	 * @since 5.2.9
+	 * @see #nextFreeVariableId()
+	 */
+	public void pushActiveContextVariable(int variableId) {
+		this.activeContextVariables.push(variableId);
+	}
+
+	/**
+	 * Make the target (what was passed as the first argument to
+	 * CompiledExpression.getValue(target, context)) the active context object
+	 * again, e.g. for the index expression of an indexer.
+	 * @since 5.2.9
+	 */
+	public void pushRootContextVariable() {
+		this.activeContextVariables.push(1);
+	}
+
+	/**
+	 * Restore the active context object that was in place before the most
+	 * recent {@link #pushActiveContextVariable} or {@link #pushRootContextVariable} call.
+	 * @since 5.2.9
+	 */
+	public void popActiveContextVariable() {
+		this.activeContextVariables.pop();
 	}
 
 	/**
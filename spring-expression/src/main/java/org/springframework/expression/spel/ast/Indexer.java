@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -90,6 +90,10 @@ public class Indexer extends SpelNodeImpl {
 	@Nullable
 	private IndexedType indexedType;
 
+	// Whether the index value had to be converted to the key type of the map
+	// in the most recent evaluation, which compiled code does not do
+	private boolean mapKeyConverted;
+
 
 	public Indexer(int startPos, int endPos, SpelNodeImpl expr) {
 		super(startPos, endPos, expr);
@@ -154,6 +158,7 @@ public class Indexer extends SpelNodeImpl {
 				key = state.convertValue(key, targetDescriptor.getMapKeyTypeDescriptor());
 			}
 			this.indexedType = IndexedType.MAP;
+			this.mapKeyConverted = (key != index);
 			return new MapIndexingValueRef(state.getTypeConverter(), (Map<?, ?>) target, key, targetDescriptor);
 		}
 
@@ -198,10 +203,12 @@ public class Indexer extends SpelNodeImpl {
 			return (this.exitTypeDescriptor != null);
 		}
 		else if (this.indexedType == IndexedType.LIST) {
-			return this.children[0].isCompilable();
+			return (this.children[0].isCompilable() &&
+					CodeFlow.isPrimitiveOrUnboxableSupportedNumber(this.children[0].exitTypeDescriptor));
 		}
 		else if (this.indexedType == IndexedType.MAP) {
-			return (this.children[0] instanceof PropertyOrFieldReference || this.children[0].isCompilable());
+			return (!this.mapKeyConverted &&
+					(this.children[0] instanceof PropertyOrFieldReference || this.children[0].isCompilable()));
 		}
 		else if (this.indexedType == IndexedType.OBJECT) {
 			// If the string name is changing the accessor is clearly going to change (so no compilation possible)
@@ -258,7 +265,9 @@ public class Indexer extends SpelNodeImpl {
 			}
 			SpelNodeImpl index = this.children[0];
 			cf.enterCompilationScope();
+			cf.pushRootContextVariable();
 			index.generateCode(mv, cf);
+			cf.popActiveContextVariable();
 			cf.exitCompilationScope();
 			mv.visitInsn(insn);
 		}
@@ -266,7 +275,10 @@ public class Indexer extends SpelNodeImpl {
 		else if (this.indexedType == IndexedType.LIST) {
 			mv.visitTypeInsn(CHECKCAST, "java/util/List");
 			cf.enterCompilationScope();
+			cf.pushRootContextVariable();
 			this.children[0].generateCode(mv, cf);
+			cf.popActiveContextVariable();
+			CodeFlow.insertNumericUnboxOrPrimitiveTypeCoercion(mv, cf.lastDescriptor(), 'I');
 			cf.exitCompilationScope();
 			mv.visitMethodInsn(INVOKEINTERFACE, "java/util/List", "get", "(I)Ljava/lang/Object;", true);
 		}
@@ -282,7 +294,10 @@ public class Indexer extends SpelNodeImpl {
 			}
 			else {
 				cf.enterCompilationScope();
+				cf.pushRootContextVariable();
 				this.children[0].generateCode(mv, cf);
+				cf.popActiveContextVariable();
+				CodeFlow.insertBoxIfNecessary(mv, cf.lastDescriptor());
 				cf.exitCompilationScope();
 			}
 			mv.visitMethodInsn(
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,12 +18,16 @@ package org.springframework.expression.spel.ast;
 
 import java.util.List;
 
+import org.springframework.asm.MethodVisitor;
+import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.TypeComparator;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
 import org.springframework.expression.spel.support.BooleanTypedValue;
+import org.springframework.lang.Nullable;
 
 /**
  * Represents the between operator. The left operand to between must be a single value and
@@ -38,6 +42,7 @@ public class OperatorBetween extends Operator {
 
 	public OperatorBetween(int startPos, int endPos, SpelNodeImpl... operands) {
 		super("between", startPos, endPos, operands);
+		this.exitTypeDescriptor = "Z";
 	}
 
 
@@ -61,12 +66,78 @@ public class OperatorBetween extends Operator {
 		List<?> list = (List<?>) right;
 		Object low = list.get(0);
 		Object high = list.get(1);
-		TypeComparator comp = state.getTypeComparator();
+		return BooleanTypedValue.forValue(
+				betweenCheck(state.getTypeComparator(), left, low, high, getStartPosition()));
+	}
+
+	/**
+	 * A between operator is compilable for a compilable left operand and an
+	 * inline list of two compilable bounds as right operand.
+	 */
+	@Override
+	public boolean isCompilable() {
+		SpelNodeImpl left = getLeftOperand();
+		SpelNodeImpl right = getRightOperand();
+		if (!left.isCompilable() || "V".equals(left.exitTypeDescriptor) ||
+				!(right instanceof InlineList) || right.getChildCount() != 2) {
+			return false;
+		}
+		for (SpelNodeImpl bound : right.children) {
+			if (!bound.isCompilable() || "V".equals(bound.exitTypeDescriptor)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		String evaluationContextClassName = EvaluationContext.class.getName().replace('.', '/');
+		String typeComparatorClassName = TypeComparator.class.getName().replace('.', '/');
+		cf.loadEvaluationContext(mv);
+		mv.visitMethodInsn(INVOKEINTERFACE, evaluationContextClassName, "getTypeComparator",
+				"()L" + typeComparatorClassName + ";", true);
+		generateOperandCode(getLeftOperand(), mv, cf);
+		SpelNodeImpl bounds = getRightOperand();
+		generateOperandCode(bounds.children[0], mv, cf);
+		generateOperandCode(bounds.children[1], mv, cf);
+		CodeFlow.insertOptimalLoad(mv, getStartPosition());
+		String operatorClassName = OperatorBetween.class.getName().replace('.', '/');
+		mv.visitMethodInsn(INVOKESTATIC, operatorClassName, "betweenCheck",
+				"(L" + typeComparatorClassName + ";Ljava/lang/Object;Ljava/lang/Object;Ljava/lang/Object;I)Z", false);
+		cf.pushDescriptor(this.exitTypeDescriptor);
+	}
+
+	private static void generateOperandCode(SpelNodeImpl operand, MethodVisitor mv, CodeFlow cf) {
+		cf.enterCompilationScope();
+		operand.generateCode(mv, cf);
+		CodeFlow.insertBoxIfNecessary(mv, cf.lastDescriptor());
+		cf.exitCompilationScope();
+	}
+
+
+	/**
+	 * Check whether the given value lies between the given bounds (inclusive).
+	 * <p>This method is not just used for the interpreted evaluation above
+	 * but also from compiled expression code, which is why it needs to be
+	 * declared as {@code public static} here.
+	 * @param comparator the type comparator of the current evaluation context
+	 * @param value the left-hand operand value
+	 * @param low the lower bound
+	 * @param high the upper bound
+	 * @param position the position of the operator in the expression
+	 * @throws SpelEvaluationException if the value cannot be compared with the bounds
+	 * @since 5.2.9
+	 */
+	public static boolean betweenCheck(TypeComparator comparator,
+			@Nullable Object value, @Nullable Object low, @Nullable Object high, int position)
+			throws SpelEvaluationException {
+
 		try {
-			return BooleanTypedValue.forValue(comp.compare(left, low) >= 0 && comp.compare(left, high) <= 0);
+			return (comparator.compare(value, low) >= 0 && comparator.compare(value, high) <= 0);
 		}
 		catch (SpelEvaluationException ex) {
-			ex.setPosition(getStartPosition());
+			ex.setPosition(position);
 			throw ex;
 		}
 	}
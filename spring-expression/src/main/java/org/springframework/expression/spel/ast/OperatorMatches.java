@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,11 +22,14 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.EvaluationException;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
 import org.springframework.expression.spel.support.BooleanTypedValue;
+import org.springframework.lang.Nullable;
 
 /**
  * Implements the matches operator. Matches takes two operands:
@@ -47,6 +50,7 @@ public class OperatorMatches extends Operator {
 
 	public OperatorMatches(int startPos, int endPos, SpelNodeImpl... operands) {
 		super("matches", startPos, endPos, operands);
+		this.exitTypeDescriptor = "Z";
 	}
 
 
@@ -81,16 +85,85 @@ public class OperatorMatches extends Operator {
 				pattern = Pattern.compile(rightString);
 				this.patternCache.putIfAbsent(rightString, pattern);
 			}
-			Matcher matcher = pattern.matcher(new MatcherInput(left, new AccessCount()));
-			return BooleanTypedValue.forValue(matcher.matches());
+			return BooleanTypedValue.forValue(
+					matches(pattern, left, leftOp.getStartPosition(), rightOp.getStartPosition()));
 		}
 		catch (PatternSyntaxException ex) {
 			throw new SpelEvaluationException(
 					rightOp.getStartPosition(), ex, SpelMessage.INVALID_PATTERN, right);
 		}
+	}
+
+	/**
+	 * A matches operator is compilable for a compilable String operand and a
+	 * literal regex which has been compiled to a valid pattern before.
+	 */
+	@Override
+	public boolean isCompilable() {
+		SpelNodeImpl leftOp = getLeftOperand();
+		SpelNodeImpl rightOp = getRightOperand();
+		return (leftOp.isCompilable() && "Ljava/lang/String".equals(leftOp.exitTypeDescriptor) &&
+				rightOp instanceof StringLiteral &&
+				this.patternCache.containsKey(((StringLiteral) rightOp).getLiteralValue().getValue()));
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		final String regex = (String) ((StringLiteral) getRightOperand()).getLiteralValue().getValue();
+		final String patternFieldName = "pattern$" + cf.nextFieldId();
+		final String className = cf.getClassName();
+
+		cf.registerNewField((cw, cflow) ->
+				cw.visitField(ACC_PRIVATE | ACC_STATIC | ACC_FINAL, patternFieldName, "Ljava/util/regex/Pattern;", null, null));
+
+		cf.registerNewClinit((mVisitor, cflow) -> {
+			mVisitor.visitLdcInsn(regex);
+			mVisitor.visitMethodInsn(INVOKESTATIC, "java/util/regex/Pattern", "compile",
+					"(Ljava/lang/String;)Ljava/util/regex/Pattern;", false);
+			mVisitor.visitFieldInsn(PUTSTATIC, className, patternFieldName, "Ljava/util/regex/Pattern;");
+		});
+
+		mv.visitFieldInsn(GETSTATIC, className, patternFieldName, "Ljava/util/regex/Pattern;");
+		cf.enterCompilationScope();
+		getLeftOperand().generateCode(mv, cf);
+		cf.exitCompilationScope();
+		CodeFlow.insertOptimalLoad(mv, getLeftOperand().getStartPosition());
+		CodeFlow.insertOptimalLoad(mv, getRightOperand().getStartPosition());
+		String operatorClassName = OperatorMatches.class.getName().replace('.', '/');
+		mv.visitMethodInsn(INVOKESTATIC, operatorClassName, "matches",
+				"(Ljava/util/regex/Pattern;Ljava/lang/String;II)Z", false);
+		cf.pushDescriptor(this.exitTypeDescriptor);
+	}
+
+
+	/**
+	 * Match the given input against the given pattern, guarding against
+	 * catastrophic backtracking through an access threshold.
+	 * <p>This method is not just used for the interpreted evaluation above
+	 * but also from compiled expression code, which is why it needs to be
+	 * declared as {@code public static} here.
+	 * @param pattern the compiled regex
+	 * @param input the input to match
+	 * @param inputPosition the position of the input operand in the expression
+	 * @param patternPosition the position of the regex operand in the expression
+	 * @return {@code true} if the entire input matches the pattern
+	 * @throws SpelEvaluationException if the input is {@code null}
+	 * or the access threshold has been exceeded
+	 * @since 5.2.9
+	 */
+	public static boolean matches(Pattern pattern, @Nullable String input, int inputPosition, int patternPosition)
+			throws SpelEvaluationException {
+
+		if (input == null) {
+			throw new SpelEvaluationException(inputPosition,
+					SpelMessage.INVALID_FIRST_OPERAND_FOR_MATCHES_OPERATOR, (Object) null);
+		}
+		try {
+			Matcher matcher = pattern.matcher(new MatcherInput(input, new AccessCount()));
+			return matcher.matches();
+		}
 		catch (IllegalStateException ex) {
-			throw new SpelEvaluationException(
-					rightOp.getStartPosition(), ex, SpelMessage.FLAWED_PATTERN, right);
+			throw new SpelEvaluationException(patternPosition, ex, SpelMessage.FLAWED_PATTERN, pattern.pattern());
 		}
 	}
 
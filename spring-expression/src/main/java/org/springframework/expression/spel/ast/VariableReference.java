@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -123,6 +123,26 @@ public class VariableReference extends SpelNodeImpl {
 		cf.pushDescriptor(this.exitTypeDescriptor);
 	}
 
+	/**
+	 * Determine whether the given node or any of its descendants refers to the
+	 * variable with the given name, e.g. to a scope variable that compiled code
+	 * cannot look up through the {@code EvaluationContext}.
+	 * @param node the root of the node tree to check
+	 * @param name the variable name (without leading '#')
+	 * @since 5.2.9
+	 */
+	static boolean isReferencedIn(SpelNodeImpl node, String name) {
+		if (node instanceof VariableReference && ((VariableReference) node).name.equals(name)) {
+			return true;
+		}
+		for (SpelNodeImpl child : node.children) {
+			if (isReferencedIn(child, name)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 
 	private static class VariableRef implements ValueRef {
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -78,12 +78,16 @@ public final class SpelCompiler implements Opcodes {
 	// The child ClassLoader used to load the compiled expression classes
 	private ChildClassLoader ccl;
 
+	// The number of classes to define before replacing the child ClassLoader
+	private final int classesDefinedLimit;
+
 	// Counter suffix for generated classes within this SpelCompiler instance
 	private final AtomicInteger suffixId = new AtomicInteger(1);
 
 
-	private SpelCompiler(@Nullable ClassLoader classloader) {
+	private SpelCompiler(@Nullable ClassLoader classloader, int classesDefinedLimit) {
 		this.ccl = new ChildClassLoader(classloader);
+		this.classesDefinedLimit = classesDefinedLimit;
 	}
 
 
@@ -196,7 +200,7 @@ public final class SpelCompiler implements Opcodes {
 	 */
 	@SuppressWarnings("unchecked")
 	private Class<? extends CompiledExpression> loadClass(String name, byte[] bytes) {
-		if (this.ccl.getClassesDefinedCount() > CLASSES_DEFINED_LIMIT) {
+		if (this.ccl.getClassesDefinedCount() > this.classesDefinedLimit) {
 			this.ccl = new ChildClassLoader(this.ccl.getParent());
 		}
 		return (Class<? extends CompiledExpression>) this.ccl.defineClass(name, bytes);
@@ -214,13 +218,30 @@ public final class SpelCompiler implements Opcodes {
 		synchronized (compilers) {
 			SpelCompiler compiler = compilers.get(clToUse);
 			if (compiler == null) {
-				compiler = new SpelCompiler(clToUse);
+				compiler = new SpelCompiler(clToUse, CLASSES_DEFINED_LIMIT);
 				compilers.put(clToUse, compiler);
 			}
 			return compiler;
 		}
 	}
 
+	/**
+	 * Factory method for a dedicated compiler instance, not shared with other
+	 * callers. Compiled classes are defined in groups of roughly the given size,
+	 * each group in its own child class loader of the given class loader: a group
+	 * can be garbage-collected once none of its compiled expressions is referenced
+	 * anymore and the compiler has moved on to the next group.
+	 * @param classLoader the ClassLoader to use as the basis for compilation
+	 * @param classesDefinedLimit the number of classes per child class loader
+	 * @return a new SpelCompiler instance
+	 * @since 5.2.9
+	 * @see SpelExpressionCache
+	 */
+	static SpelCompiler createCompiler(@Nullable ClassLoader classLoader, int classesDefinedLimit) {
+		ClassLoader clToUse = (classLoader != null ? classLoader : ClassUtils.getDefaultClassLoader());
+		return new SpelCompiler(clToUse, classesDefinedLimit);
+	}
+
 	/**
 	 * Request that an attempt is made to compile the specified expression. It may fail if
 	 * components of the expression are not suitable for compilation or the data types
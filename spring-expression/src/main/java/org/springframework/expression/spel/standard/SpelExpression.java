@@ -17,6 +17,7 @@
 package org.springframework.expression.spel.standard;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.expression.EvaluationContext;
@@ -48,9 +49,6 @@ import org.springframework.util.Assert;
  */
 public class SpelExpression implements Expression {
 
-	// Number of times to interpret an expression before compiling it
-	private static final int INTERPRETED_COUNT_THRESHOLD = 100;
-
 	// Number of times to try compiling an expression before giving up
 	private static final int FAILED_ATTEMPTS_THRESHOLD = 100;
 
@@ -73,10 +71,15 @@ public class SpelExpression implements Expression {
 	// when certain limit reached
 	private final AtomicInteger interpretedCount = new AtomicInteger(0);
 
-	// The number of times compilation was attempted and failed - enables us to eventually
-	// give up trying to compile it when it just doesn't seem to be possible.
+	// The number of times compilation was attempted and failed, or the compiled form failed
+	// in mixed mode - enables us to eventually give up trying to compile it when it just
+	// doesn't seem to be possible or keeps getting discarded.
 	private final AtomicInteger failedAttempts = new AtomicInteger(0);
 
+	// Provides the compiler to use instead of the shared compiler for the configured class loader
+	@Nullable
+	private Supplier<SpelCompiler> compilerSupplier;
+
 
 	/**
 	 * Construct an expression, only used by the parser.
@@ -96,6 +99,17 @@ public class SpelExpression implements Expression {
 		this.evaluationContext = evaluationContext;
 	}
 
+	/**
+	 * Set the provider of the compiler to use for this expression, instead of
+	 * the shared compiler for the configured class loader.
+	 * @param compilerSupplier the supplier of the current compiler to use
+	 * @since 5.2.9
+	 * @see SpelExpressionCache
+	 */
+	void setCompilerSupplier(Supplier<SpelCompiler> compilerSupplier) {
+		this.compilerSupplier = compilerSupplier;
+	}
+
 	/**
 	 * Return the default evaluation context that will be used if none is supplied on an evaluation call.
 	 * @return the default evaluation context
@@ -129,6 +143,7 @@ public class SpelExpression implements Expression {
 				if (this.configuration.getCompilerMode() == SpelCompilerMode.MIXED) {
 					this.compiledAst = null;
 					this.interpretedCount.set(0);
+					this.failedAttempts.incrementAndGet();
 				}
 				else {
 					// Running in SpelCompilerMode.immediate mode - propagate exception to caller
@@ -165,6 +180,7 @@ public class SpelExpression implements Expression {
 				if (this.configuration.getCompilerMode() == SpelCompilerMode.MIXED) {
 					this.compiledAst = null;
 					this.interpretedCount.set(0);
+					this.failedAttempts.incrementAndGet();
 				}
 				else {
 					// Running in SpelCompilerMode.immediate mode - propagate exception to caller
@@ -193,6 +209,7 @@ public class SpelExpression implements Expression {
 				if (this.configuration.getCompilerMode() == SpelCompilerMode.MIXED) {
 					this.compiledAst = null;
 					this.interpretedCount.set(0);
+					this.failedAttempts.incrementAndGet();
 				}
 				else {
 					// Running in SpelCompilerMode.immediate mode - propagate exception to caller
@@ -229,6 +246,7 @@ public class SpelExpression implements Expression {
 				if (this.configuration.getCompilerMode() == SpelCompilerMode.MIXED) {
 					this.compiledAst = null;
 					this.interpretedCount.set(0);
+					this.failedAttempts.incrementAndGet();
 				}
 				else {
 					// Running in SpelCompilerMode.immediate mode - propagate exception to caller
@@ -260,6 +278,7 @@ public class SpelExpression implements Expression {
 				if (this.configuration.getCompilerMode() == SpelCompilerMode.MIXED) {
 					this.compiledAst = null;
 					this.interpretedCount.set(0);
+					this.failedAttempts.incrementAndGet();
 				}
 				else {
 					// Running in SpelCompilerMode.immediate mode - propagate exception to caller
@@ -296,6 +315,7 @@ public class SpelExpression implements Expression {
 				if (this.configuration.getCompilerMode() == SpelCompilerMode.MIXED) {
 					this.compiledAst = null;
 					this.interpretedCount.set(0);
+					this.failedAttempts.incrementAndGet();
 				}
 				else {
 					// Running in SpelCompilerMode.immediate mode - propagate exception to caller
@@ -325,6 +345,7 @@ public class SpelExpression implements Expression {
 				if (this.configuration.getCompilerMode() == SpelCompilerMode.MIXED) {
 					this.compiledAst = null;
 					this.interpretedCount.set(0);
+					this.failedAttempts.incrementAndGet();
 				}
 				else {
 					// Running in SpelCompilerMode.immediate mode - propagate exception to caller
@@ -363,6 +384,7 @@ public class SpelExpression implements Expression {
 				if (this.configuration.getCompilerMode() == SpelCompilerMode.MIXED) {
 					this.compiledAst = null;
 					this.interpretedCount.set(0);
+					this.failedAttempts.incrementAndGet();
 				}
 				else {
 					// Running in SpelCompilerMode.immediate mode - propagate exception to caller
@@ -493,7 +515,7 @@ public class SpelExpression implements Expression {
 			}
 			else {
 				// compilerMode = SpelCompilerMode.MIXED
-				if (this.interpretedCount.get() > INTERPRETED_COUNT_THRESHOLD) {
+				if (this.interpretedCount.get() > expressionState.getConfiguration().getCompileThreshold()) {
 					compileExpression();
 				}
 			}
@@ -502,8 +524,9 @@ public class SpelExpression implements Expression {
 
 	/**
 	 * Perform expression compilation. This will only succeed once exit descriptors for
-	 * all nodes have been determined. If the compilation fails and has failed more than
-	 * 100 times the expression is no longer considered suitable for compilation.
+	 * all nodes have been determined. If the compilation fails (or, in mixed mode, the
+	 * compiled form fails at runtime) more than 100 times, the expression is no longer
+	 * considered suitable for compilation.
 	 * @return whether this expression has been successfully compiled
 	 */
 	public boolean compileExpression() {
@@ -522,7 +545,8 @@ public class SpelExpression implements Expression {
 				// Compiled by another thread before this thread got into the sync block
 				return true;
 			}
-			SpelCompiler compiler = SpelCompiler.getCompiler(this.configuration.getCompilerClassLoader());
+			SpelCompiler compiler = (this.compilerSupplier != null ? this.compilerSupplier.get() :
+					SpelCompiler.getCompiler(this.configuration.getCompilerClassLoader()));
 			compiledAst = compiler.compile(this.ast);
 			if (compiledAst != null) {
 				// Successfully compiled
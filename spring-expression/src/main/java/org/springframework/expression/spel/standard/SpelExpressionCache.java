@@ -0,0 +1,245 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel.standard;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.core.SpringProperties;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ParseException;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Bounded cache of parsed SpEL expressions, keyed by expression string, for
+ * components that evaluate the same expressions over and over again.
+ *
+ * <p>Each expression is parsed once and then profiled while being interpreted:
+ * after a configurable number of successful evaluations, it gets compiled to
+ * bytecode by the {@link SpelCompiler}, falling back to interpretation whenever
+ * the compiled form fails ({@link SpelCompilerMode#MIXED} semantics). The
+ * compiler mode can be overridden through the
+ * {@value SpelParserConfiguration#SPRING_EXPRESSION_COMPILER_MODE_PROPERTY_NAME}
+ * system property, e.g. to "off".
+ *
+ * <p>Compiled expression classes are grouped into small child class loaders
+ * owned by this cache. Expressions that get evicted from the cache, as the
+ * oldest ones not used again since the last eviction round beyond the cache
+ * limit, revert to interpretation, so that a group of compiled classes can be
+ * unloaded once none of them is in use anymore. {@link #clear()} makes all
+ * compiled classes unloadable.
+ *
+ * <p>Lookups of cached expressions do not lock: only parsing a new expression
+ * and evicting another one are serialized.
+ *
+ * <p>There is no global instance: a cache is meant to be scoped to the
+ * lifecycle of its users, e.g. declared as a bean in an application context
+ * (typically with the bean class loader) where it is picked up by the
+ * expression evaluators for event listener conditions and caching annotations.
+ * Compiled classes are only referenced from the cache and its expressions,
+ * so they go away together with the owning context.
+ *
+ * @since 5.2.9
+ * @see SpelParserConfiguration#getCompileThreshold()
+ */
+public class SpelExpressionCache {
+
+	/** Default maximum number of cached expressions: 256. */
+	public static final int DEFAULT_CACHE_LIMIT = 256;
+
+	/** Default number of interpreted evaluations before compilation: 10. */
+	public static final int DEFAULT_COMPILE_THRESHOLD = 10;
+
+	/** Default number of compiled expression classes per class loader: 32. */
+	public static final int DEFAULT_CLASSES_PER_LOADER = 32;
+
+
+	private final int cacheLimit;
+
+	@Nullable
+	private final ClassLoader classLoader;
+
+	private final SpelExpressionParser parser;
+
+	private volatile SpelCompiler compiler;
+
+	/** Cache of expression String to parsed expression. */
+	private final Map<String, CachedExpression> expressionCache;
+
+	/** Cached expression Strings in eviction order, guarded by itself. */
+	private final Deque<String> evictionQueue;
+
+
+	/**
+	 * Create a new {@code SpelExpressionCache} with default settings.
+	 */
+	public SpelExpressionCache() {
+		this(DEFAULT_CACHE_LIMIT, DEFAULT_COMPILE_THRESHOLD, null);
+	}
+
+	/**
+	 * Create a new {@code SpelExpressionCache}.
+	 * @param cacheLimit the maximum number of cached expressions
+	 * @param compileThreshold the number of interpreted evaluations after which
+	 * an expression gets compiled
+	 * @param classLoader the ClassLoader to use as the basis for expression
+	 * compilation (can be {@code null} to use the default)
+	 */
+	public SpelExpressionCache(int cacheLimit, int compileThreshold, @Nullable ClassLoader classLoader) {
+		Assert.isTrue(cacheLimit > 0, "Cache limit must be greater than 0");
+		this.cacheLimit = cacheLimit;
+		this.classLoader = classLoader;
+		this.parser = new SpelExpressionParser(new SpelParserConfiguration(
+				determineCompilerMode(), classLoader, false, false, Integer.MAX_VALUE, compileThreshold));
+		this.compiler = SpelCompiler.createCompiler(classLoader, DEFAULT_CLASSES_PER_LOADER);
+		this.expressionCache = new ConcurrentHashMap<>(cacheLimit);
+		this.evictionQueue = new ArrayDeque<>(cacheLimit);
+	}
+
+	private static SpelCompilerMode determineCompilerMode() {
+		String compilerMode = SpringProperties.getProperty(
+				SpelParserConfiguration.SPRING_EXPRESSION_COMPILER_MODE_PROPERTY_NAME);
+		return (compilerMode != null ? SpelCompilerMode.valueOf(compilerMode.toUpperCase()) : SpelCompilerMode.MIXED);
+	}
+
+
+	/**
+	 * Return the maximum number of cached expressions.
+	 */
+	public int getCacheLimit() {
+		return this.cacheLimit;
+	}
+
+	/**
+	 * Return the parser used by this cache, e.g. for parsing template
+	 * expressions which are not cached.
+	 */
+	public SpelExpressionParser getParser() {
+		return this.parser;
+	}
+
+	/**
+	 * Return the parsed expression for the given expression string,
+	 * parsing it if it has not been cached already.
+	 * @param expressionString the raw expression string to parse
+	 * @return the parsed expression, shared with other callers
+	 * @throws ParseException if an exception occurred during parsing
+	 */
+	public Expression getExpression(String expressionString) throws ParseException {
+		CachedExpression cached = this.expressionCache.get(expressionString);
+		if (cached != null) {
+			cached.markUsed();
+			return cached.expression;
+		}
+		synchronized (this.evictionQueue) {
+			// Retrying in case of concurrent parsing of the same expression
+			cached = this.expressionCache.get(expressionString);
+			if (cached == null) {
+				SpelExpression expression = this.parser.parseRaw(expressionString);
+				expression.setCompilerSupplier(this::getCompiler);
+				if (this.evictionQueue.size() >= this.cacheLimit) {
+					evictExpression();
+				}
+				cached = new CachedExpression(expression);
+				this.expressionCache.put(expressionString, cached);
+				this.evictionQueue.add(expressionString);
+			}
+			return cached.expression;
+		}
+	}
+
+	/**
+	 * Evict the oldest expression that has not been used since it was last
+	 * considered for eviction, giving recently used expressions a second chance.
+	 */
+	private void evictExpression() {
+		while (true) {
+			String expressionString = this.evictionQueue.poll();
+			if (expressionString == null) {
+				return;
+			}
+			CachedExpression cached = this.expressionCache.get(expressionString);
+			if (cached.used) {
+				cached.used = false;
+				this.evictionQueue.add(expressionString);
+			}
+			else {
+				this.expressionCache.remove(expressionString);
+				cached.expression.revertToInterpreted();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Return the compiler for expressions obtained from this cache.
+	 */
+	SpelCompiler getCompiler() {
+		return this.compiler;
+	}
+
+	/**
+	 * Return the number of currently cached expressions.
+	 */
+	public int size() {
+		return this.expressionCache.size();
+	}
+
+	/**
+	 * Remove all cached expressions, reverting them to interpretation, and
+	 * switch to a new compiler: all expression classes compiled so far can be
+	 * unloaded, with expressions still held by callers getting compiled again
+	 * by the new compiler.
+	 */
+	public void clear() {
+		synchronized (this.evictionQueue) {
+			this.expressionCache.values().forEach(cached -> cached.expression.revertToInterpreted());
+			this.expressionCache.clear();
+			this.evictionQueue.clear();
+			this.compiler = SpelCompiler.createCompiler(this.classLoader, DEFAULT_CLASSES_PER_LOADER);
+		}
+	}
+
+
+	/**
+	 * Holder for a cached expression, tracking its use since it was
+	 * last considered for eviction.
+	 */
+	private static final class CachedExpression {
+
+		final SpelExpression expression;
+
+		volatile boolean used;
+
+		CachedExpression(SpelExpression expression) {
+			this.expression = expression;
+		}
+
+		void markUsed() {
+			// Avoid writing a shared field on every lookup
+			if (!this.used) {
+				this.used = true;
+			}
+		}
+	}
+
+}
@@ -18,7 +18,6 @@ package org.springframework.expression.spel.support;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
-import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -40,6 +39,7 @@ import org.springframework.expression.TypeConverter;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
 import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
 
 /**
  * Reflection-based {@link MethodResolver} used by default in {@link StandardEvaluationContext}
@@ -235,7 +235,7 @@ public class ReflectiveMethodResolver implements MethodResolver {
 			Collections.addAll(result, getMethods(Class.class));
 			return result;
 		}
-		else if (Proxy.isProxyClass(type)) {
+		else if (ClassUtils.isInterfaceProxyClass(type)) {
 			Set<Method> result = new LinkedHashSet<>();
 			// Expose interface methods (not proxy-declared overrides) for proper vararg introspection
 			for (Class<?> ifc : type.getInterfaces()) {
@@ -0,0 +1,367 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+/**
+ * Compliance tests for compiled expressions: each expression gets evaluated in
+ * interpreted form, then compiled and evaluated again, expecting the same result
+ * or the same evaluation failure.
+ * Covers collection processing, selection, projection, indexing into maps and
+ * lists, varargs method references as well as the matches and between operators.
+ *
+ * @since 5.2.9
+ */
+class SpelCompilationComplianceTests {
+
+	private final SpelExpressionParser parser = new SpelExpressionParser();
+
+	private final StandardEvaluationContext context = new StandardEvaluationContext(new Inventory());
+
+
+	@BeforeEach
+	void setupVariables() {
+		this.context.setVariable("limit", 10);
+		this.context.setVariable("i", 2);
+		this.context.setVariable("k", "b");
+		this.context.setVariable("s", "1");
+		this.context.setVariable("low", 5);
+		this.context.setVariable("high", 15);
+		this.context.setVariable("objects", new Object[] {"o", 1});
+		this.context.setVariable("strings", new String[] {"s", "t"});
+		this.context.setVariable("ints", new int[] {1, 2});
+	}
+
+
+	@Test
+	void selection() {
+		assertCompiledLikeInterpreted("items.?[price > 10]");
+		assertCompiledLikeInterpreted("items.^[price > 10]");
+		assertCompiledLikeInterpreted("items.$[price > 10]");
+		assertCompiledLikeInterpreted("items.^[price > 1000]");
+		assertCompiledLikeInterpreted("items.$[price > 1000]");
+		assertCompiledLikeInterpreted("items.?[price > 1000]");
+		assertCompiledLikeInterpreted("items.?[price > 10].size()");
+		assertCompiledLikeInterpreted("items.?[name.startsWith('b')]");
+		assertCompiledLikeInterpreted("items.?[price > #limit]");
+		assertCompiledLikeInterpreted("items.?[price > #root.index]");
+		assertCompiledLikeInterpreted("items.?[tags.?[length() > 3].size() > 0]");
+		assertCompiledLikeInterpreted("items.?[#root.stock[key.toLowerCase()] == 1]");
+	}
+
+	@Test
+	void selectionNotCompilable() {
+		assertNotCompilable("items.?[#index > 0]");
+		assertNotCompilable("stock.?[value > 1]");
+		assertNotCompilable("names.?[length() > 1]");
+	}
+
+	@Test
+	void nullSafeSelectionAndProjection() {
+		SpelExpression selection = this.parser.parseRaw("#list?.?[length() > 1]");
+		SpelExpression projection = this.parser.parseRaw("#list?.![length()]");
+		this.context.setVariable("list", Arrays.asList("a", "bb", "ccc"));
+		assertThat(selection.getValue(this.context)).isEqualTo(Arrays.asList("bb", "ccc"));
+		assertThat(projection.getValue(this.context)).isEqualTo(Arrays.asList(1, 2, 3));
+		assertThat(selection.compileExpression()).isTrue();
+		assertThat(projection.compileExpression()).isTrue();
+		assertThat(selection.getValue(this.context)).isEqualTo(Arrays.asList("bb", "ccc"));
+		assertThat(projection.getValue(this.context)).isEqualTo(Arrays.asList(1, 2, 3));
+
+		this.context.setVariable("list", null);
+		assertThat(selection.getValue(this.context)).isNull();
+		assertThat(projection.getValue(this.context)).isNull();
+	}
+
+	@Test
+	void projection() {
+		assertCompiledLikeInterpreted("items.![name]");
+		assertCompiledLikeInterpreted("items.![price]");
+		assertCompiledLikeInterpreted("items.![price * 2]");
+		assertCompiledLikeInterpreted("items.![name.toUpperCase()]");
+		assertCompiledLikeInterpreted("items.?[price > 10].![name]");
+		assertCompiledLikeInterpreted("items.![tags.size()]");
+		assertCompiledLikeInterpreted("items.![tags.![length()]]");
+		assertCompiledLikeInterpreted("items.![#root.names[index]]");
+	}
+
+	@Test
+	void projectionNotCompilable() {
+		assertNotCompilable("items.![#index]");
+		assertNotCompilable("names.![length()]");
+	}
+
+	@Test
+	void inlineMap() {
+		assertCompiledLikeInterpreted("{'name': name, 'count': items.size()}");
+		assertCompiledLikeInterpreted("{name: index}");
+		assertCompiledLikeInterpreted("{'nested': {'index': index}, 'list': {1, 2}}");
+		assertCompiledLikeInterpreted("{'a': 1, 'b': {'c': 'd'}, e: {1, 2}, 'f': null}");
+		assertCompiledLikeInterpreted("{'k': index}['k']");
+		assertCompiledLikeInterpreted("{index: name}");
+	}
+
+	@Test
+	void indexer() {
+		assertCompiledLikeInterpreted("items[index].name");
+		assertCompiledLikeInterpreted("items[#i].name");
+		assertCompiledLikeInterpreted("names[index]");
+		assertCompiledLikeInterpreted("stock[key]");
+		assertCompiledLikeInterpreted("stock[#k]");
+		assertCompiledLikeInterpreted("stock[name.substring(0, 1)]");
+		assertCompiledLikeInterpreted("codes[#root.index]");
+		assertCompiledLikeInterpreted("codes[1]");
+		assertCompiledLikeInterpreted("items[0].tags[index]");
+	}
+
+	@Test
+	void indexerNotCompilable() {
+		assertNotCompilable("codes[#s]");
+		assertNotCompilable("items['1'].name");
+	}
+
+	@Test
+	void methodReferenceWithVarargs() {
+		assertCompiledLikeInterpreted("format('%s-%s', name, index)");
+		assertCompiledLikeInterpreted("join('a', 'b')");
+		assertCompiledLikeInterpreted("join()");
+		assertCompiledLikeInterpreted("join(names)");
+		assertCompiledLikeInterpreted("join(name, names[0])");
+		assertCompiledLikeInterpreted("sum(1, 2, 3)");
+		assertCompiledLikeInterpreted("sum()");
+		assertCompiledLikeInterpreted("sum(index, #i)");
+		assertCompiledLikeInterpreted("describe(names)");
+		assertCompiledLikeInterpreted("describe(name, index)");
+		assertCompiledLikeInterpreted("describe()");
+		assertCompiledLikeInterpreted("describe(items.size(), name)");
+		assertCompiledLikeInterpreted("describe(null)");
+		assertCompiledLikeInterpreted("describe(null, null)");
+		assertCompiledLikeInterpreted("describe(#objects)");
+		assertCompiledLikeInterpreted("describe(#strings)");
+		assertCompiledLikeInterpreted("join(#strings)");
+		assertCompiledLikeInterpreted("sum(#ints)");
+		assertCompiledLikeInterpreted("format('%s', #objects)");
+	}
+
+	@Test
+	void matches() {
+		assertCompiledLikeInterpreted("name matches 'inv.*'");
+		assertCompiledLikeInterpreted("name matches '[0-9]+'");
+		assertCompiledLikeInterpreted("items[0].name matches '[a-z]+'");
+		assertCompiledLikeInterpreted("items.?[name matches 'b.*'].![name]");
+		assertCompiledLikeInterpreted("!(name matches 'x.*') and index > 0");
+	}
+
+	@Test
+	void matchesNotCompilable() {
+		assertNotCompilable("name matches #k");
+		assertNotCompilable("index matches '[0-9]+'");
+	}
+
+	@Test
+	void matchesFailsLikeInterpreted() {
+		this.context.setVariable("text", "abc");
+		assertCompiledFailsLikeInterpreted("#text matches 'a.*'", () -> this.context.setVariable("text", null),
+				SpelMessage.INVALID_FIRST_OPERAND_FOR_MATCHES_OPERATOR);
+		this.context.setVariable("text", "abc-def");
+		assertCompiledFailsLikeInterpreted("#text matches '^(?=[a-z0-9-]{1,47})([a-z0-9]+[-]{0,1}){1,47}[a-z0-9]{1}$'",
+				() -> this.context.setVariable("text", "abcde-fghijklmn-o42pasdfasdfasdf.qrstuvwxyz10x.xx.yyy.zasdfasfd"),
+				SpelMessage.FLAWED_PATTERN);
+	}
+
+	@Test
+	void between() {
+		assertCompiledLikeInterpreted("index between {0, 5}");
+		assertCompiledLikeInterpreted("index between {2, 5}");
+		assertCompiledLikeInterpreted("items.size() between {1, 3}");
+		assertCompiledLikeInterpreted("name between {'a', 'm'}");
+		assertCompiledLikeInterpreted("items[0].price between {#low, #high}");
+		assertCompiledLikeInterpreted("index between {0.5, 1L}");
+		assertCompiledLikeInterpreted("items.?[price between {#low, #high}].![name]");
+	}
+
+	@Test
+	void betweenFailsLikeInterpreted() {
+		Inventory inventory = (Inventory) this.context.getRootObject().getValue();
+		assertCompiledFailsLikeInterpreted("value between {#low, #high}", () -> inventory.setValue("x"),
+				SpelMessage.NOT_COMPARABLE);
+	}
+
+
+	private void assertCompiledLikeInterpreted(String expressionString) {
+		SpelExpression expression = this.parser.parseRaw(expressionString);
+		Object interpreted = expression.getValue(this.context);
+		assertThat(expression.compileExpression()).as("Compilation of '%s'", expressionString).isTrue();
+		Object compiled = expression.getValue(this.context);
+		assertThat(compiled).as("Compiled result of '%s'", expressionString).isEqualTo(interpreted);
+		if (interpreted != null) {
+			assertThat(compiled).as("Compiled result of '%s'", expressionString).hasSameClassAs(interpreted);
+		}
+		// Once more for expressions with internal state
+		assertThat(expression.getValue(this.context)).isEqualTo(interpreted);
+	}
+
+	private void assertCompiledFailsLikeInterpreted(String expressionString, Runnable breakingChange,
+			SpelMessage expectedMessage) {
+
+		SpelExpression expression = this.parser.parseRaw(expressionString);
+		expression.getValue(this.context);
+		assertThat(expression.compileExpression()).as("Compilation of '%s'", expressionString).isTrue();
+		breakingChange.run();
+
+		SpelEvaluationException compiled = catchThrowableOfType(
+				() -> expression.getValue(this.context), SpelEvaluationException.class);
+		assertThat(compiled.getMessageCode()).isEqualTo(SpelMessage.EXCEPTION_RUNNING_COMPILED_EXPRESSION);
+		assertThat(compiled.getCause()).isInstanceOf(SpelEvaluationException.class);
+		SpelEvaluationException cause = (SpelEvaluationException) compiled.getCause();
+
+		SpelEvaluationException interpreted = catchThrowableOfType(
+				() -> this.parser.parseRaw(expressionString).getValue(this.context), SpelEvaluationException.class);
+		assertThat(interpreted.getMessageCode()).isEqualTo(expectedMessage);
+		assertThat(cause.getMessageCode()).isEqualTo(expectedMessage);
+		assertThat(cause.getPosition()).isEqualTo(interpreted.getPosition());
+		assertThat(cause.getMessage()).isEqualTo(interpreted.getMessage());
+	}
+
+	private void assertNotCompilable(String expressionString) {
+		SpelExpression expression = this.parser.parseRaw(expressionString);
+		expression.getValue(this.context);
+		assertThat(expression.compileExpression()).as("Compilation of '%s'", expressionString).isFalse();
+	}
+
+
+	public static class Inventory {
+
+		private final List<Item> items = Arrays.asList(
+				new Item("apple", 5, "red", "fruit"), new Item("banana", 12, "yellow"),
+				new Item("cherry", 20), new Item("blueberry", 15, "blue", "fruit"));
+
+		private final Map<String, Integer> stock = new LinkedHashMap<>();
+
+		private final Map<Integer, String> codes = new LinkedHashMap<>();
+
+		private Object value = 7;
+
+		public Inventory() {
+			this.stock.put("a", 1);
+			this.stock.put("b", 2);
+			this.stock.put("key", 3);
+			this.stock.put("i", 4);
+			this.codes.put(1, "one");
+			this.codes.put(2, "two");
+		}
+
+		public String getName() {
+			return "inventory";
+		}
+
+		public int getIndex() {
+			return 1;
+		}
+
+		public String getKey() {
+			return "a";
+		}
+
+		public Object getValue() {
+			return this.value;
+		}
+
+		public void setValue(Object value) {
+			this.value = value;
+		}
+
+		public List<Item> getItems() {
+			return this.items;
+		}
+
+		public List<Item> getNoItems() {
+			return null;
+		}
+
+		public Map<String, Integer> getStock() {
+			return this.stock;
+		}
+
+		public Map<Integer, String> getCodes() {
+			return this.codes;
+		}
+
+		public String[] getNames() {
+			return new String[] {"x", "yy", "zzz"};
+		}
+
+		public String format(String pattern, Object... args) {
+			return String.format(pattern, args);
+		}
+
+		public String join(String... parts) {
+			return String.join("-", parts);
+		}
+
+		public int sum(int... values) {
+			return Arrays.stream(values).sum();
+		}
+
+		public String describe(Object... values) {
+			return (values != null ? values.length + ":" + Arrays.deepToString(values) : "null");
+		}
+	}
+
+
+	public static class Item {
+
+		private final String name;
+
+		private final int price;
+
+		private final List<String> tags;
+
+		public Item(String name, int price, String... tags) {
+			this.name = name;
+			this.price = price;
+			this.tags = Arrays.asList(tags);
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public int getPrice() {
+			return this.price;
+		}
+
+		public List<String> getTags() {
+			return this.tags;
+		}
+	}
+
+}
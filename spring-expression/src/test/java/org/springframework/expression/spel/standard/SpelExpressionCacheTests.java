@@ -0,0 +1,170 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel.standard;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.CompiledExpression;
+import org.springframework.util.ReflectionUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link SpelExpressionCache}.
+ *
+ * @since 5.2.9
+ */
+class SpelExpressionCacheTests {
+
+	@Test
+	void expressionIsParsedOnce() {
+		SpelExpressionCache cache = new SpelExpressionCache();
+		Expression expression = cache.getExpression("4 + 5");
+		assertThat(cache.getExpression("4 + 5")).isSameAs(expression);
+		assertThat(cache.getExpression("4 + 6")).isNotSameAs(expression);
+		assertThat(cache.size()).isEqualTo(2);
+	}
+
+	@Test
+	void expressionIsCompiledAfterThreshold() {
+		SpelExpressionCache cache = new SpelExpressionCache(10, 3, null);
+		Expression expression = cache.getExpression("4 + 5");
+		for (int i = 0; i < 3; i++) {
+			assertThat(expression.getValue()).isEqualTo(9);
+			assertThat(getCompiledAst(expression)).isNull();
+		}
+		assertThat(expression.getValue()).isEqualTo(9);
+		assertThat(getCompiledAst(expression)).isNotNull();
+		assertThat(expression.getValue()).isEqualTo(9);
+	}
+
+	@Test
+	void compiledExpressionFallsBackToInterpretation() {
+		SpelExpressionCache cache = new SpelExpressionCache(10, 1, null);
+		Expression expression = cache.getExpression("hashCode()");
+		expression.getValue("abc");
+		expression.getValue("abc");
+		assertThat(getCompiledAst(expression)).isNotNull();
+
+		assertThat(expression.getValue(42)).isEqualTo(42);
+		assertThat(getCompiledAst(expression)).isNull();
+	}
+
+	@Test
+	void evictedExpressionRevertsToInterpretation() {
+		SpelExpressionCache cache = new SpelExpressionCache(2, 1, null);
+		Expression expression = compile(cache, "4 + 5");
+		assertThat(getCompiledAst(expression)).isNotNull();
+
+		cache.getExpression("4 + 6");
+		cache.getExpression("4 + 7");
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(getCompiledAst(expression)).isNull();
+		assertThat(cache.getExpression("4 + 5")).isNotSameAs(expression);
+		assertThat(expression.getValue()).isEqualTo(9);
+	}
+
+	@Test
+	void recentlyUsedExpressionSurvivesEviction() {
+		SpelExpressionCache cache = new SpelExpressionCache(2, 1, null);
+		Expression expression = cache.getExpression("4 + 5");
+		Expression other = cache.getExpression("4 + 6");
+		assertThat(cache.getExpression("4 + 5")).isSameAs(expression);
+
+		cache.getExpression("4 + 7");
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.getExpression("4 + 5")).isSameAs(expression);
+		assertThat(cache.getExpression("4 + 6")).isNotSameAs(other);
+	}
+
+	@Test
+	void concurrentLookups() throws Exception {
+		SpelExpressionCache cache = new SpelExpressionCache(8, 1, null);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				futures.add(executor.submit(() -> {
+					for (int j = 0; j < 1000; j++) {
+						int operand = j % 16;
+						assertThat(cache.getExpression("4 + " + operand).getValue()).isEqualTo(4 + operand);
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		assertThat(cache.size()).isEqualTo(8);
+	}
+
+	@Test
+	void compiledClassesAreGroupedIntoClassLoaders() {
+		SpelExpressionCache cache = new SpelExpressionCache();
+		Set<ClassLoader> classLoaders = new HashSet<>();
+		for (int i = 0; i < SpelExpressionCache.DEFAULT_CLASSES_PER_LOADER * 2; i++) {
+			Expression expression = compile(cache, "4 + " + i);
+			classLoaders.add(getCompiledAst(expression).getClass().getClassLoader());
+		}
+		assertThat(classLoaders).hasSizeBetween(2, 3);
+		Expression expression = compile(new SpelExpressionCache(), "4 + 5");
+		assertThat(classLoaders).doesNotContain(getCompiledAst(expression).getClass().getClassLoader());
+	}
+
+	@Test
+	void clearSwitchesToNewCompiler() {
+		SpelExpressionCache cache = new SpelExpressionCache(10, 1, null);
+		Expression expression = compile(cache, "4 + 5");
+		ClassLoader classLoader = getCompiledAst(expression).getClass().getClassLoader();
+
+		cache.clear();
+		assertThat(cache.size()).isEqualTo(0);
+		assertThat(getCompiledAst(expression)).isNull();
+		expression.getValue();
+		expression.getValue();
+		assertThat(getCompiledAst(expression).getClass().getClassLoader()).isNotSameAs(classLoader);
+	}
+
+
+	private static Expression compile(SpelExpressionCache cache, String expressionString) {
+		Expression expression = cache.getExpression(expressionString);
+		for (int i = 0; i <= SpelExpressionCache.DEFAULT_COMPILE_THRESHOLD; i++) {
+			expression.getValue();
+		}
+		return expression;
+	}
+
+	private static CompiledExpression getCompiledAst(Expression expression) {
+		Field field = ReflectionUtils.findField(SpelExpression.class, "compiledAst");
+		ReflectionUtils.makeAccessible(field);
+		return (CompiledExpression) ReflectionUtils.getField(field, expression);
+	}
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+/**
+ * Benchmark for {@link JdbcTemplate#query} against an embedded H2 database,
+ * comparing a hand-written {@link RowMapper}, {@link BeanPropertyRowMapper}
+ * and {@link ColumnMapRowMapper} for the same result set.
+ * <p>Typically run with {@code "./gradlew :spring-jdbc:jmh -PbenchmarkInclude=JdbcTemplateQueryBenchmark -PbenchmarkProfilers=gc"}.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class JdbcTemplateQueryBenchmark {
+
+	private static final String SELECT_SQL = "SELECT id, first_name, last_name, age FROM person";
+
+	private static final RowMapper<Person> PERSON_ROW_MAPPER = (rs, rowNum) -> {
+		Person person = new Person();
+		person.setId(rs.getLong(1));
+		person.setFirstName(rs.getString(2));
+		person.setLastName(rs.getString(3));
+		person.setAge(rs.getInt(4));
+		return person;
+	};
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"1", "100"})
+		public int rowCount;
+
+		public EmbeddedDatabase database;
+
+		public JdbcTemplate jdbcTemplate;
+
+		public BeanPropertyRowMapper<Person> beanPropertyRowMapper;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.database = new EmbeddedDatabaseBuilder()
+					.setType(EmbeddedDatabaseType.H2)
+					.generateUniqueName(true)
+					.build();
+			this.jdbcTemplate = new JdbcTemplate(this.database);
+			this.jdbcTemplate.execute("CREATE TABLE person (id BIGINT PRIMARY KEY, " +
+					"first_name VARCHAR(50), last_name VARCHAR(50), age INTEGER)");
+			List<Object[]> rows = new ArrayList<>(this.rowCount);
+			for (int i = 0; i < this.rowCount; i++) {
+				rows.add(new Object[] {i, "first" + i, "last" + i, i % 100});
+			}
+			this.jdbcTemplate.batchUpdate(
+					"INSERT INTO person (id, first_name, last_name, age) VALUES (?, ?, ?, ?)", rows);
+			this.beanPropertyRowMapper = new BeanPropertyRowMapper<>(Person.class);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			this.database.shutdown();
+		}
+	}
+
+
+	@Benchmark
+	public List<Person> queryWithRowMapper(BenchmarkState state) {
+		return state.jdbcTemplate.query(SELECT_SQL, PERSON_ROW_MAPPER);
+	}
+
+	@Benchmark
+	public List<Person> queryWithBeanPropertyRowMapper(BenchmarkState state) {
+		return state.jdbcTemplate.query(SELECT_SQL, state.beanPropertyRowMapper);
+	}
+
+	@Benchmark
+	public List<?> queryForList(BenchmarkState state) {
+		return state.jdbcTemplate.queryForList(SELECT_SQL);
+	}
+
+	@Benchmark
+	public List<Person> queryWithArguments(BenchmarkState state) {
+		return state.jdbcTemplate.query(SELECT_SQL + " WHERE age >= ?", new Object[] {0}, PERSON_ROW_MAPPER);
+	}
+
+
+	public static class Person {
+
+		private long id;
+
+		private String firstName;
+
+		private String lastName;
+
+		private int age;
+
+		public long getId() {
+			return this.id;
+		}
+
+		public void setId(long id) {
+			this.id = id;
+		}
+
+		public String getFirstName() {
+			return this.firstName;
+		}
+
+		public void setFirstName(String firstName) {
+			this.firstName = firstName;
+		}
+
+		public String getLastName() {
+			return this.lastName;
+		}
+
+		public void setLastName(String lastName) {
+			this.lastName = lastName;
+		}
+
+		public int getAge() {
+			return this.age;
+		}
+
+		public void setAge(int age) {
+			this.age = age;
+		}
+	}
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.json;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+
+/**
+ * Benchmark for {@link Jackson2JsonEncoder}, encoding a single value, a
+ * {@code Mono<List>} and a streaming {@code Flux} of the same elements.
+ * <p>Typically run with {@code "./gradlew :spring-web:jmh -PbenchmarkInclude=Jackson2JsonEncoderBenchmark -PbenchmarkProfilers=gc"}.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class Jackson2JsonEncoderBenchmark {
+
+	private static final ResolvableType ITEM_TYPE = ResolvableType.forClass(Item.class);
+
+	private static final ResolvableType ITEM_LIST_TYPE = ResolvableType.forClassWithGenerics(List.class, Item.class);
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"1", "100"})
+		public int elementCount;
+
+		public Jackson2JsonEncoder encoder;
+
+		public DataBufferFactory bufferFactory;
+
+		public List<Item> items;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.encoder = new Jackson2JsonEncoder();
+			this.bufferFactory = new DefaultDataBufferFactory();
+			this.items = new ArrayList<>(this.elementCount);
+			for (int i = 0; i < this.elementCount; i++) {
+				this.items.add(new Item("item" + i, i, Collections.singletonList("tag" + i)));
+			}
+		}
+	}
+
+
+	@Benchmark
+	public void encodeValue(BenchmarkState state, Blackhole bh) {
+		DataBuffer buffer = state.encoder.encodeValue(state.items.get(0), state.bufferFactory,
+				ITEM_TYPE, MediaType.APPLICATION_JSON, null);
+		bh.consume(buffer.readableByteCount());
+		DataBufferUtils.release(buffer);
+	}
+
+	@Benchmark
+	public void encodeMonoList(BenchmarkState state, Blackhole bh) {
+		state.encoder.encode(Mono.just(state.items), state.bufferFactory,
+				ITEM_LIST_TYPE, MediaType.APPLICATION_JSON, null)
+				.doOnNext(buffer -> {
+					bh.consume(buffer.readableByteCount());
+					DataBufferUtils.release(buffer);
+				})
+				.blockLast();
+	}
+
+	@Benchmark
+	public void encodeFluxStream(BenchmarkState state, Blackhole bh) {
+		state.encoder.encode(Flux.fromIterable(state.items), state.bufferFactory,
+				ITEM_TYPE, MediaType.APPLICATION_STREAM_JSON, null)
+				.doOnNext(buffer -> {
+					bh.consume(buffer.readableByteCount());
+					DataBufferUtils.release(buffer);
+				})
+				.blockLast();
+	}
+
+
+	public static class Item {
+
+		private final String name;
+
+		private final int quantity;
+
+		private final List<String> tags;
+
+		public Item(String name, int quantity, List<String> tags) {
+			this.name = name;
+			this.quantity = quantity;
+			this.tags = tags;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public int getQuantity() {
+			return this.quantity;
+		}
+
+		public List<String> getTags() {
+			return this.tags;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.web.method.support;
 
 import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodInvokerCache;
 import org.springframework.core.MethodParameter;
 import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.lang.Nullable;
@@ -231,7 +232,7 @@ public class InvocableHandlerMethod extends HandlerMethod {
 		ReflectionUtils.makeAccessible(getBridgedMethod());
 		try {
 			// 实际执行请求对应的方法（我们接收请求和处理请求的方法）
-			return getBridgedMethod().invoke(getBean(), args);
+			return MethodInvokerCache.getInvoker(getBridgedMethod()).invoke(getBean(), args);
 		}
 		catch (IllegalArgumentException/* 非法参数异常 */ ex) {
 			assertTargetBean(getBridgedMethod(), getBean(), args);
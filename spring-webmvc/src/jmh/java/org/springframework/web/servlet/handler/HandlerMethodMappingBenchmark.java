@@ -0,0 +1,106 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.handler;
+
+import java.lang.reflect.Method;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.util.ClassUtils;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.testfixture.servlet.MockHttpServletRequest;
+
+/**
+ * Benchmark for {@link AbstractHandlerMethodMapping#lookupHandlerMethod} with
+ * a {@link RequestMappingHandlerMapping} holding a configurable number of
+ * direct and pattern-based mappings.
+ * <p>Typically run with {@code "./gradlew :spring-webmvc:jmh -PbenchmarkInclude=HandlerMethodMappingBenchmark -PbenchmarkProfilers=gc"}.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class HandlerMethodMappingBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"10", "500"})
+		public int mappingCount;
+
+		public RequestMappingHandlerMapping mapping;
+
+		public String directPath;
+
+		public String patternPath;
+
+		public MockHttpServletRequest directRequest;
+
+		public MockHttpServletRequest patternRequest;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.mapping = new RequestMappingHandlerMapping();
+			Method method = ClassUtils.getMethod(Controller.class, "handle");
+			Controller controller = new Controller();
+			for (int i = 0; i < this.mappingCount; i++) {
+				this.mapping.registerMapping(RequestMappingInfo.paths("/api/resource" + i)
+						.methods(RequestMethod.GET).build(), controller, method);
+				this.mapping.registerMapping(RequestMappingInfo.paths("/api/resource" + i + "/{id}")
+						.methods(RequestMethod.GET).build(), controller, method);
+			}
+			int last = this.mappingCount - 1;
+			this.directPath = "/api/resource" + last;
+			this.patternPath = "/api/resource" + last + "/42";
+			this.directRequest = new MockHttpServletRequest("GET", this.directPath);
+			this.patternRequest = new MockHttpServletRequest("GET", this.patternPath);
+		}
+	}
+
+
+	@Benchmark
+	public HandlerMethod lookupDirectPath(BenchmarkState state) throws Exception {
+		return state.mapping.lookupHandlerMethod(state.directPath, state.directRequest);
+	}
+
+	@Benchmark
+	public HandlerMethod lookupPatternPath(BenchmarkState state) throws Exception {
+		return state.mapping.lookupHandlerMethod(state.patternPath, state.patternRequest);
+	}
+
+	@Benchmark
+	public HandlerExecutionChain getHandler(BenchmarkState state) throws Exception {
+		return state.mapping.getHandler(state.patternRequest);
+	}
+
+
+	public static class Controller {
+
+		public String handle() {
+			return "ok";
+		}
+	}
+
+}
@@ -28,6 +28,7 @@ import org.springframework.http.converter.support.AllEncompassingFormHttpMessage
 import org.springframework.http.converter.xml.SourceHttpMessageConverter;
 import org.springframework.lang.Nullable;
 import org.springframework.ui.ModelMap;
+import org.springframework.util.ClassUtils;
 import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.context.request.ServletWebRequest;
@@ -47,7 +48,6 @@ import org.springframework.web.servlet.support.RequestContextUtils;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -606,7 +606,7 @@ public class ExceptionHandlerExceptionResolver extends AbstractHandlerMethodExce
 			// 上面的翻译：对于下面的建议适用性检查（涉及基本包、可分配类型和注解存在），使用目标类而不是基于接口的代理。
 
 			// 获得 handlerType 的原始类。因为，此处有可能是代理对象
-			if (Proxy.isProxyClass(handlerType)) {
+			if (ClassUtils.isInterfaceProxyClass(handlerType)) {
 				handlerType = AopUtils.getTargetClass(handlerMethod.getBean());
 			}
 		}